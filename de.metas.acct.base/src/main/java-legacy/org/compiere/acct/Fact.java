@@ -19,8 +19,10 @@ package org.compiere.acct;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -29,7 +31,9 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.OrgId;
 import org.compiere.acct.FactTrxLines.FactTrxLinesType;
 import org.compiere.model.I_C_ElementValue;
+import org.compiere.model.I_Fact_Acct;
 import org.compiere.model.MAccount;
+import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
@@ -732,44 +736,46 @@ public final class Fact
 	}	// getLines
 
 	/**
-	 * Save Fact
-	 *
-	 * @param trxName transaction
-	 * @return true if all lines were saved
+	 * Save Fact.
+	 * <p>
+	 * The lines are saved together, with one multi-row INSERT (see {@link InterfaceWrapperHelper#saveAll(java.util.Collection, String)}).
+	 * Their IDs are allocated upfront, so that each line's Counterpart_Fact_Acct_ID can be set before the INSERT.
 	 */
 	public final void save()
 	{
-		factTrxLinesStrategy
-				.createFactTrxLines(m_lines)
-				.forEach(this::save);
+		final List<FactTrxLines> factTrxLinesList = factTrxLinesStrategy.createFactTrxLines(m_lines);
+
+		final List<FactLine> linesToSave = new ArrayList<>();
+		factTrxLinesList.forEach(factTrxLines -> collectLinesToSave(factTrxLines, linesToSave));
+		if (linesToSave.isEmpty())
+		{
+			return;
+		}
+
+		final Map<FactLine, Integer> factAcctIds = allocateFactAcctIds(linesToSave);
+		factTrxLinesList.forEach(factTrxLines -> setCounterpartFactAcctIds(factTrxLines, factAcctIds));
+
+		InterfaceWrapperHelper.saveAll(linesToSave, ITrx.TRXNAME_ThreadInherited);
 	}
 
-	private void save(final FactTrxLines factTrxLines)
+	/**
+	 * Adds the given lines to <code>linesToSave</code>, in the order in which they were saved one by one.
+	 */
+	private static void collectLinesToSave(final FactTrxLines factTrxLines, final List<FactLine> linesToSave)
 	{
 		//
 		// Case: 1 debit line, one or more credit lines
 		if (factTrxLines.getType() == FactTrxLinesType.Debit)
 		{
-			final FactLine drLine = factTrxLines.getDebitLine();
-			InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
-
-			factTrxLines.forEachCreditLine(crLine -> {
-				crLine.setCounterpart_Fact_Acct_ID(drLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
-			});
-
+			linesToSave.add(factTrxLines.getDebitLine());
+			factTrxLines.forEachCreditLine(linesToSave::add);
 		}
 		//
 		// Case: 1 credit line, one or more debit lines
 		else if (factTrxLines.getType() == FactTrxLinesType.Credit)
 		{
-			final FactLine crLine = factTrxLines.getCreditLine();
-			InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
-
-			factTrxLines.forEachDebitLine(drLine -> {
-				drLine.setCounterpart_Fact_Acct_ID(crLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
-			});
+			linesToSave.add(factTrxLines.getCreditLine());
+			factTrxLines.forEachDebitLine(linesToSave::add);
 		}
 		//
 		// Case: no debit lines, no credit lines
@@ -784,7 +790,35 @@ public final class Fact
 
 		//
 		// also save the zero lines, if they are here
-		factTrxLines.forEachZeroLine(zeroLine -> InterfaceWrapperHelper.save(zeroLine, ITrx.TRXNAME_ThreadInherited));
+		factTrxLines.forEachZeroLine(linesToSave::add);
+	}
+
+	private Map<FactLine, Integer> allocateFactAcctIds(final List<FactLine> lines)
+	{
+		final int[] ids = DB.getNextIDs(m_doc.getClientId().getRepoId(), I_Fact_Acct.Table_Name, lines.size());
+
+		final Map<FactLine, Integer> factAcctIds = new IdentityHashMap<>(lines.size());
+		for (int i = 0; i < ids.length; i++)
+		{
+			final FactLine line = lines.get(i);
+			line.setPreallocatedID(ids[i]);
+			factAcctIds.put(line, ids[i]);
+		}
+		return factAcctIds;
+	}
+
+	private static void setCounterpartFactAcctIds(final FactTrxLines factTrxLines, final Map<FactLine, Integer> factAcctIds)
+	{
+		if (factTrxLines.getType() == FactTrxLinesType.Debit)
+		{
+			final int drLineId = factAcctIds.get(factTrxLines.getDebitLine());
+			factTrxLines.forEachCreditLine(crLine -> crLine.setCounterpart_Fact_Acct_ID(drLineId));
+		}
+		else if (factTrxLines.getType() == FactTrxLinesType.Credit)
+		{
+			final int crLineId = factAcctIds.get(factTrxLines.getCreditLine());
+			factTrxLines.forEachDebitLine(drLine -> drLine.setCounterpart_Fact_Acct_ID(crLineId));
+		}
 	}
 
 	public void forEach(final Consumer<FactLine> consumer)
@@ -22,6 +22,12 @@ package de.metas.acct.posting;
  * #L%
  */
 
+/**
+ * Handles the {@link DocumentPostRequest}s which are received via {@link DocumentPostingBusService}.
+ * <p>
+ * The handler is responsible to record the outcome in the event log (see {@link de.metas.event.log.EventLogUserService#invokeHandlerAndLog(de.metas.event.log.EventLogUserService.InvokeHandlerandLogRequest)}),
+ * because it might do the actual work after {@link #handleRequest(DocumentPostRequest)} returned.
+ */
 public interface DocumentPostRequestHandler
 {
 	void handleRequest(final DocumentPostRequest request);
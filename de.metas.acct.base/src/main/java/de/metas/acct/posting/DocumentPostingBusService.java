@@ -18,8 +18,6 @@ import de.metas.event.IEventBusFactory;
 import de.metas.event.IEventListener;
 import de.metas.event.SimpleObjectSerializer;
 import de.metas.event.Topic;
-import de.metas.event.log.EventLogUserService;
-import de.metas.event.log.EventLogUserService.InvokeHandlerandLogRequest;
 import de.metas.logging.LogManager;
 import lombok.NonNull;
 
@@ -55,14 +53,10 @@ public class DocumentPostingBusService
 	// services
 	private static final Logger logger = LogManager.getLogger(DocumentPostingBusService.class);
 	private final IEventBusFactory eventBusFactory;
-	private final EventLogUserService eventLogUserService;
 
-	public DocumentPostingBusService(
-			@NonNull final IEventBusFactory eventBusFactory,
-			@NonNull final EventLogUserService eventLogUserService)
+	public DocumentPostingBusService(@NonNull final IEventBusFactory eventBusFactory)
 	{
 		this.eventBusFactory = eventBusFactory;
-		this.eventLogUserService = eventLogUserService;
 	}
 
 	public void postRequest(@NonNull final DocumentPostRequest request)
@@ -108,7 +102,6 @@ public class DocumentPostingBusService
 	{
 		getEventBus().subscribe(DocumentPostRequestHandlerAsEventListener.builder()
 				.handler(handler)
-				.eventLogUserService(eventLogUserService)
 				.build());
 
 		logger.info("Registered handler: {}", handler);
@@ -117,16 +110,12 @@ public class DocumentPostingBusService
 	@lombok.ToString
 	private static final class DocumentPostRequestHandlerAsEventListener implements IEventListener
 	{
-		private final EventLogUserService eventLogUserService;
 		private final DocumentPostRequestHandler handler;
 
 		@lombok.Builder
-		private DocumentPostRequestHandlerAsEventListener(
-				@NonNull final DocumentPostRequestHandler handler,
-				@NonNull final EventLogUserService eventLogUserService)
+		private DocumentPostRequestHandlerAsEventListener(@NonNull final DocumentPostRequestHandler handler)
 		{
 			this.handler = handler;
-			this.eventLogUserService = eventLogUserService;
 		}
 
 		@Override
@@ -134,20 +123,13 @@ public class DocumentPostingBusService
 		{
 			final DocumentPostRequest request = extractDocumentPostRequest(event);
 
+			// NOTE: the handler records the outcome in the event log by itself, because it might post asynchronously
 			try (final IAutoCloseable c = switchCtx(request))
 			{
-				eventLogUserService.invokeHandlerAndLog(InvokeHandlerandLogRequest.builder()
-						.handlerClass(handler.getClass())
-						.invokaction(() -> handleRequest(request))
-						.build());
+				handler.handleRequest(request);
 			}
 		}
 
-		private void handleRequest(final DocumentPostRequest request)
-		{
-			handler.handleRequest(request);
-		}
-
 		private IAutoCloseable switchCtx(final DocumentPostRequest request)
 		{
 			final Properties ctx = createCtx(request);
@@ -1,5 +1,10 @@
 package de.metas.acct.posting.server;
 
+import javax.annotation.PreDestroy;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.slf4j.Logger;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -10,6 +15,8 @@ import de.metas.acct.doc.AcctDocRegistry;
 import de.metas.acct.api.IPostingService;
 import de.metas.acct.posting.DocumentPostRequest;
 import de.metas.acct.posting.DocumentPostRequestHandler;
+import de.metas.event.log.EventLogUserService;
+import de.metas.event.log.EventLogUserService.InvokeHandlerandLogRequest;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
 
@@ -41,8 +48,29 @@ public class AccountingService implements DocumentPostRequestHandler
 {
 	private static final Logger logger = LogManager.getLogger(AccountingService.class);
 
-	public AccountingService(final AcctDocRegistry acctDocFactory)
+	private static final String SYSCONFIG_PartitionedPostingLanes = "de.metas.acct.posting.PartitionedPosting.Lanes";
+
+	private final EventLogUserService eventLogUserService;
+	private final PartitionedDocumentPostingExecutor postingExecutor;
+
+	public AccountingService(
+			final AcctDocRegistry acctDocFactory,
+			final EventLogUserService eventLogUserService)
+	{
+		this.eventLogUserService = eventLogUserService;
+
+		// the event log collector and context of the event bus thread are not available on the lanes, so we hand them over
+		final int lanes = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_PartitionedPostingLanes, 1);
+		this.postingExecutor = new PartitionedDocumentPostingExecutor(
+				lanes,
+				posting -> eventLogUserService.wrapToRunInOtherThread(AccountingService.class, posting));
+		JMXRegistry.get().registerJMX(postingExecutor, OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	@PreDestroy
+	public void shutdown()
 	{
+		postingExecutor.shutdown();
 	}
 
 	@Override
@@ -50,6 +78,25 @@ public class AccountingService implements DocumentPostRequestHandler
 	{
 		logger.debug("Posting: {}", request);
 
+		postingExecutor.execute(
+				DocumentPostingPartitioner.extractPartitionKey(request),
+				() -> postDocumentAndLog(request));
+	}
+
+	/**
+	 * Posts the document and records the outcome in the event log.
+	 * We do it here and not in the calling event listener, because with more than one lane the posting is done after {@link #handleRequest(DocumentPostRequest)} returned.
+	 */
+	private void postDocumentAndLog(final DocumentPostRequest request)
+	{
+		eventLogUserService.invokeHandlerAndLog(InvokeHandlerandLogRequest.builder()
+				.handlerClass(AccountingService.class)
+				.invokaction(() -> postingExecutor.runAndRecordStatistics(() -> postDocument(request)))
+				.build());
+	}
+
+	private void postDocument(final DocumentPostRequest request)
+	{
 		final IPostingService postingService = Services.get(IPostingService.class);
 		postingService.newPostingRequest()
 				.setClientId(request.getClientId())
@@ -0,0 +1,163 @@
+package de.metas.acct.posting.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_AllocationLine;
+import org.compiere.model.I_C_BankStatement;
+import org.compiere.model.I_C_Cash;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_InvoiceLine;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_Payment;
+import org.compiere.model.I_GL_Journal;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_InOutLine;
+import org.compiere.model.I_M_MatchInv;
+import org.compiere.model.I_M_MatchPO;
+import org.compiere.model.I_M_Requisition;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.posting.DocumentPostRequest;
+import de.metas.util.Services;
+import de.metas.util.StringUtils;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Decides on which lane of the {@link PartitionedDocumentPostingExecutor} a document is posted.
+ * <p>
+ * Invoices, shipments/receipts and the document types which don't depend on other documents' postings are posted on a lane of their own document.
+ * <p>
+ * {@code M_MatchInv}, {@code M_MatchPO} and {@code C_AllocationHdr} need the postings (resp. costs) of the invoices, receipts and payments they reference.
+ * So they are posted on the lane of the first referenced document which is not posted yet, i.e. after that document's posting.
+ * If all referenced documents are already posted, they are posted on a lane of their own.
+ * <p>
+ * The other document types (e.g. inventories, movements, cost collectors) are known to update the product costs in the order they are posted,
+ * so all of them of one client share one lane, like documents of unknown types.
+ */
+@UtilityClass
+public class DocumentPostingPartitioner
+{
+	private static final Set<String> OWN_LANE_TABLE_NAMES = ImmutableSet.of(
+			I_C_Invoice.Table_Name,
+			I_M_InOut.Table_Name,
+			I_GL_Journal.Table_Name,
+			I_C_Order.Table_Name,
+			I_M_Requisition.Table_Name,
+			I_C_Payment.Table_Name,
+			I_C_Cash.Table_Name,
+			I_C_BankStatement.Table_Name);
+
+	public Object extractPartitionKey(@NonNull final DocumentPostRequest request)
+	{
+		final TableRecordReference record = request.getRecord();
+		final String tableName = record.getTableName();
+		if (OWN_LANE_TABLE_NAMES.contains(tableName))
+		{
+			return record;
+		}
+		else if (I_M_MatchInv.Table_Name.equals(tableName))
+		{
+			final I_M_MatchInv matchInv = record.getModel(I_M_MatchInv.class);
+			return extractPartitionKeyOfDependentDocument(record, retrieveReferencedDocuments(matchInv.getC_InvoiceLine_ID(), matchInv.getM_InOutLine_ID()));
+		}
+		else if (I_M_MatchPO.Table_Name.equals(tableName))
+		{
+			final I_M_MatchPO matchPO = record.getModel(I_M_MatchPO.class);
+			return extractPartitionKeyOfDependentDocument(record, retrieveReferencedDocuments(matchPO.getC_InvoiceLine_ID(), matchPO.getM_InOutLine_ID()));
+		}
+		else if (I_C_AllocationHdr.Table_Name.equals(tableName))
+		{
+			return extractPartitionKeyOfDependentDocument(record, retrieveAllocatedDocuments(record.getRecord_ID()));
+		}
+		else
+		{
+			return "Dependent_" + request.getClientId().getRepoId();
+		}
+	}
+
+	private Object extractPartitionKeyOfDependentDocument(
+			@NonNull final TableRecordReference record,
+			@NonNull final List<TableRecordReference> referencedDocuments)
+	{
+		return referencedDocuments.stream()
+				.filter(referencedDocument -> !isPosted(referencedDocument))
+				.findFirst()
+				.orElse(record);
+	}
+
+	private boolean isPosted(@NonNull final TableRecordReference document)
+	{
+		final Object model = document.getModel();
+		return model != null && StringUtils.toBoolean(InterfaceWrapperHelper.getValueOrNull(model, I_C_Invoice.COLUMNNAME_Posted));
+	}
+
+	private List<TableRecordReference> retrieveReferencedDocuments(final int invoiceLineId, final int inoutLineId)
+	{
+		final List<TableRecordReference> documents = new ArrayList<>();
+		if (invoiceLineId > 0)
+		{
+			final I_C_InvoiceLine invoiceLine = InterfaceWrapperHelper.loadOutOfTrx(invoiceLineId, I_C_InvoiceLine.class);
+			documents.add(TableRecordReference.of(I_C_Invoice.Table_Name, invoiceLine.getC_Invoice_ID()));
+		}
+		if (inoutLineId > 0)
+		{
+			final I_M_InOutLine inoutLine = InterfaceWrapperHelper.loadOutOfTrx(inoutLineId, I_M_InOutLine.class);
+			documents.add(TableRecordReference.of(I_M_InOut.Table_Name, inoutLine.getM_InOut_ID()));
+		}
+		return documents;
+	}
+
+	private List<TableRecordReference> retrieveAllocatedDocuments(final int allocationHdrId)
+	{
+		final List<I_C_AllocationLine> allocationLines = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_AllocationLine.class)
+				.addEqualsFilter(I_C_AllocationLine.COLUMNNAME_C_AllocationHdr_ID, allocationHdrId)
+				.orderBy(I_C_AllocationLine.COLUMNNAME_C_AllocationLine_ID)
+				.create()
+				.list();
+
+		final List<TableRecordReference> documents = new ArrayList<>();
+		for (final I_C_AllocationLine allocationLine : allocationLines)
+		{
+			if (allocationLine.getC_Invoice_ID() > 0)
+			{
+				documents.add(TableRecordReference.of(I_C_Invoice.Table_Name, allocationLine.getC_Invoice_ID()));
+			}
+			if (allocationLine.getC_Payment_ID() > 0)
+			{
+				documents.add(TableRecordReference.of(I_C_Payment.Table_Name, allocationLine.getC_Payment_ID()));
+			}
+		}
+		return documents;
+	}
+}
@@ -0,0 +1,162 @@
+package de.metas.acct.posting.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.concurrent.PartitionedExecutor;
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Posts documents on the worker lanes of a {@link PartitionedExecutor}; see {@link DocumentPostingPartitioner} for which documents share a lane.
+ * <p>
+ * Documents with the same partition key are posted one after the other in the order they were submitted, documents with different keys might be posted in parallel.
+ * If there is only one lane, documents are posted in the calling thread, like before.
+ */
+public class PartitionedDocumentPostingExecutor implements PartitionedDocumentPostingExecutorMBean, IJMXNameAware
+{
+	private final PartitionedExecutor executor;
+
+	private final AtomicLong countPosted = new AtomicLong(0);
+	private final AtomicLong countFailed = new AtomicLong(0);
+	private final AtomicLong totalPostingMillis = new AtomicLong(0);
+
+	/**
+	 * @param laneTaskDecorator see {@link PartitionedExecutor}
+	 */
+	public PartitionedDocumentPostingExecutor(final int laneCount, @Nullable final UnaryOperator<Runnable> laneTaskDecorator)
+	{
+		executor = PartitionedExecutor.builder()
+				.name(PartitionedDocumentPostingExecutor.class.getSimpleName())
+				.laneCount(laneCount)
+				.taskDecorator(laneTaskDecorator)
+				.build();
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.acct:type=PartitionedDocumentPostingExecutor";
+	}
+
+	/**
+	 * If there is only one lane, runs the task in the calling thread and propagates exceptions.
+	 * Else submits the task to the partition key's lane and returns; exceptions are only logged there,
+	 * so the task shall record its outcome by itself.
+	 */
+	public void execute(@NonNull final Object partitionKey, @NonNull final Runnable task)
+	{
+		executor.execute(partitionKey, task);
+	}
+
+	/**
+	 * Runs the given posting and records it in this executor's statistics.
+	 */
+	public void runAndRecordStatistics(@NonNull final Runnable posting)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		boolean success = false;
+		try
+		{
+			posting.run();
+			success = true;
+		}
+		finally
+		{
+			totalPostingMillis.addAndGet(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+			if (success)
+			{
+				countPosted.incrementAndGet();
+			}
+			else
+			{
+				countFailed.incrementAndGet();
+			}
+		}
+	}
+
+	@VisibleForTesting
+	void awaitAllLanesIdle()
+	{
+		executor.awaitAllLanesIdle();
+	}
+
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	@Override
+	public int getLaneCount()
+	{
+		return executor.getLaneCount();
+	}
+
+	@Override
+	public int[] getLaneQueueDepths()
+	{
+		return executor.getLaneQueueDepths();
+	}
+
+	@Override
+	public int getTotalQueueDepth()
+	{
+		return executor.getTotalQueueDepth();
+	}
+
+	@Override
+	public long getCountPosted()
+	{
+		return countPosted.get();
+	}
+
+	@Override
+	public long getCountFailed()
+	{
+		return countFailed.get();
+	}
+
+	@Override
+	public long getAveragePostingMillis()
+	{
+		final long count = countPosted.get() + countFailed.get();
+		return count > 0 ? totalPostingMillis.get() / count : 0;
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		countPosted.set(0);
+		countFailed.set(0);
+		totalPostingMillis.set(0);
+	}
+}
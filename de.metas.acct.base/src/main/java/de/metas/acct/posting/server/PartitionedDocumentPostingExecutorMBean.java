@@ -0,0 +1,46 @@
+package de.metas.acct.posting.server;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX view on {@link PartitionedDocumentPostingExecutor}.
+ */
+public interface PartitionedDocumentPostingExecutorMBean
+{
+	int getLaneCount();
+
+	/** @return for each lane the number of documents that were submitted but not yet posted */
+	int[] getLaneQueueDepths();
+
+	/** @return number of documents that were submitted but not yet posted */
+	int getTotalQueueDepth();
+
+	long getCountPosted();
+
+	long getCountFailed();
+
+	/** @return average posting duration of one document, in milliseconds */
+	long getAveragePostingMillis();
+
+	void resetStatistics();
+}
@@ -0,0 +1,208 @@
+package de.metas.acct.posting.server;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_AllocationLine;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_InvoiceLine;
+import org.compiere.model.I_C_Payment;
+import org.compiere.model.I_GL_Journal;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_InOutLine;
+import org.compiere.model.I_M_MatchInv;
+import org.compiere.model.I_M_MatchPO;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.acct.posting.DocumentPostRequest;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentPostingPartitionerTest
+{
+	private static final int CLIENT_ID = 1000000;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static Object extractPartitionKey(final Object document)
+	{
+		return extractPartitionKey(TableRecordReference.of(document), CLIENT_ID);
+	}
+
+	private static Object extractPartitionKey(final TableRecordReference record, final int clientId)
+	{
+		return DocumentPostingPartitioner.extractPartitionKey(DocumentPostRequest.builder()
+				.record(record)
+				.clientId(ClientId.ofRepoId(clientId))
+				.build());
+	}
+
+	private static I_C_Invoice invoice(final boolean posted)
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		invoice.setPosted(posted);
+		saveRecord(invoice);
+		return invoice;
+	}
+
+	private static I_C_InvoiceLine invoiceLine(final I_C_Invoice invoice)
+	{
+		final I_C_InvoiceLine invoiceLine = newInstance(I_C_InvoiceLine.class);
+		invoiceLine.setC_Invoice_ID(invoice.getC_Invoice_ID());
+		saveRecord(invoiceLine);
+		return invoiceLine;
+	}
+
+	private static I_M_InOut inout(final boolean posted)
+	{
+		final I_M_InOut inout = newInstance(I_M_InOut.class);
+		inout.setPosted(posted);
+		saveRecord(inout);
+		return inout;
+	}
+
+	private static I_M_InOutLine inoutLine(final I_M_InOut inout)
+	{
+		final I_M_InOutLine inoutLine = newInstance(I_M_InOutLine.class);
+		inoutLine.setM_InOut_ID(inout.getM_InOut_ID());
+		saveRecord(inoutLine);
+		return inoutLine;
+	}
+
+	private static I_M_MatchInv matchInv(final I_C_InvoiceLine invoiceLine, final I_M_InOutLine inoutLine)
+	{
+		final I_M_MatchInv matchInv = newInstance(I_M_MatchInv.class);
+		matchInv.setC_InvoiceLine_ID(invoiceLine.getC_InvoiceLine_ID());
+		matchInv.setM_InOutLine_ID(inoutLine.getM_InOutLine_ID());
+		saveRecord(matchInv);
+		return matchInv;
+	}
+
+	@Test
+	public void invoicesAndInOuts_havePartitionsOfTheirOwn()
+	{
+		final I_C_Invoice invoice1 = invoice(false);
+		final I_C_Invoice invoice2 = invoice(false);
+		final I_M_InOut inout = inout(false);
+
+		assertThat(extractPartitionKey(invoice1)).isEqualTo(TableRecordReference.of(invoice1));
+		assertThat(extractPartitionKey(invoice2)).isEqualTo(TableRecordReference.of(invoice2));
+		assertThat(extractPartitionKey(inout)).isEqualTo(TableRecordReference.of(inout));
+	}
+
+	@Test
+	public void independentDocuments_havePartitionsOfTheirOwn()
+	{
+		final I_GL_Journal glJournal = newInstance(I_GL_Journal.class);
+		saveRecord(glJournal);
+
+		assertThat(extractPartitionKey(glJournal)).isEqualTo(TableRecordReference.of(glJournal));
+	}
+
+	@Test
+	public void matchInv_isPostedAfterTheNotYetPostedInvoice()
+	{
+		final I_C_Invoice invoice = invoice(false);
+		final I_M_InOut inout = inout(true);
+		final I_M_MatchInv matchInv = matchInv(invoiceLine(invoice), inoutLine(inout));
+
+		assertThat(extractPartitionKey(matchInv)).isEqualTo(extractPartitionKey(invoice));
+	}
+
+	@Test
+	public void matchInv_isPostedAfterTheNotYetPostedInOut()
+	{
+		final I_C_Invoice invoice = invoice(true);
+		final I_M_InOut inout = inout(false);
+		final I_M_MatchInv matchInv = matchInv(invoiceLine(invoice), inoutLine(inout));
+
+		assertThat(extractPartitionKey(matchInv)).isEqualTo(extractPartitionKey(inout));
+	}
+
+	@Test
+	public void matchInv_referencedDocumentsAlreadyPosted()
+	{
+		final I_M_MatchInv matchInv = matchInv(invoiceLine(invoice(true)), inoutLine(inout(true)));
+
+		assertThat(extractPartitionKey(matchInv)).isEqualTo(TableRecordReference.of(matchInv));
+	}
+
+	@Test
+	public void matchPO_withoutInvoiceLine_isPostedAfterTheInOut()
+	{
+		final I_M_InOut inout = inout(false);
+		final I_M_MatchPO matchPO = newInstance(I_M_MatchPO.class);
+		matchPO.setM_InOutLine_ID(inoutLine(inout).getM_InOutLine_ID());
+		saveRecord(matchPO);
+
+		assertThat(extractPartitionKey(matchPO)).isEqualTo(extractPartitionKey(inout));
+	}
+
+	@Test
+	public void allocation_isPostedAfterTheFirstNotYetPostedDocument()
+	{
+		final I_C_Invoice postedInvoice = invoice(true);
+		final I_C_Invoice invoice = invoice(false);
+		final I_C_Payment payment = newInstance(I_C_Payment.class);
+		payment.setPosted(false);
+		saveRecord(payment);
+
+		final I_C_AllocationHdr allocationHdr = newInstance(I_C_AllocationHdr.class);
+		saveRecord(allocationHdr);
+		for (final I_C_Invoice allocatedInvoice : new I_C_Invoice[] { postedInvoice, invoice })
+		{
+			final I_C_AllocationLine allocationLine = newInstance(I_C_AllocationLine.class);
+			allocationLine.setC_AllocationHdr_ID(allocationHdr.getC_AllocationHdr_ID());
+			allocationLine.setC_Invoice_ID(allocatedInvoice.getC_Invoice_ID());
+			allocationLine.setC_Payment_ID(payment.getC_Payment_ID());
+			saveRecord(allocationLine);
+		}
+
+		// the payment of the first line is not posted yet
+		assertThat(extractPartitionKey(allocationHdr)).isEqualTo(extractPartitionKey(payment));
+
+		payment.setPosted(true);
+		saveRecord(payment);
+		assertThat(extractPartitionKey(allocationHdr)).isEqualTo(extractPartitionKey(invoice));
+	}
+
+	@Test
+	public void otherDocumentTypes_shareThePartitionOfTheirClient()
+	{
+		final Object inventoryKey = extractPartitionKey(TableRecordReference.of("M_Inventory", 1), CLIENT_ID);
+
+		assertThat(extractPartitionKey(TableRecordReference.of("PP_Cost_Collector", 2), CLIENT_ID)).isEqualTo(inventoryKey);
+		assertThat(extractPartitionKey(TableRecordReference.of("SomeNewDocument", 3), CLIENT_ID)).isEqualTo(inventoryKey);
+		assertThat(extractPartitionKey(TableRecordReference.of("M_Inventory", 1), CLIENT_ID + 1)).isNotEqualTo(inventoryKey);
+	}
+}
@@ -0,0 +1,139 @@
+package de.metas.acct.posting.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedDocumentPostingExecutorTest
+{
+	private PartitionedDocumentPostingExecutor executor;
+
+	@After
+	public void shutdown()
+	{
+		if (executor != null)
+		{
+			executor.shutdown();
+		}
+	}
+
+	private void executeAndRecordStatistics(final Object partitionKey, final Runnable posting)
+	{
+		executor.execute(partitionKey, () -> executor.runAndRecordStatistics(posting));
+	}
+
+	@Test
+	public void singleLane_runsInCallingThread()
+	{
+		executor = new PartitionedDocumentPostingExecutor(1, null);
+
+		final Thread callingThread = Thread.currentThread();
+		final List<Thread> postingThreads = new ArrayList<>();
+
+		executeAndRecordStatistics("C_Invoice", () -> postingThreads.add(Thread.currentThread()));
+
+		assertThat(postingThreads).containsExactly(callingThread);
+		assertThat(executor.getCountPosted()).isEqualTo(1);
+	}
+
+	@Test
+	public void singleLane_failurePropagatesAndIsCounted()
+	{
+		executor = new PartitionedDocumentPostingExecutor(1, null);
+
+		assertThatThrownBy(() -> executeAndRecordStatistics("C_Invoice", () -> {
+			throw new IllegalStateException("posting failed");
+		})).hasMessageContaining("posting failed");
+
+		assertThat(executor.getCountPosted()).isZero();
+		assertThat(executor.getCountFailed()).isEqualTo(1);
+	}
+
+	@Test
+	public void samePartitionKey_postedInSubmitOrder()
+	{
+		executor = new PartitionedDocumentPostingExecutor(4, null);
+
+		final List<Integer> postedInvoices = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> postedMatchInvs = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 100; i++)
+		{
+			final int documentNo = i;
+			executeAndRecordStatistics(DocumentPostingPartitioner.extractPartitionKey("C_Invoice", 1000000), () -> postedInvoices.add(documentNo));
+			executeAndRecordStatistics(DocumentPostingPartitioner.extractPartitionKey("M_MatchInv", 1000000), () -> postedMatchInvs.add(documentNo));
+		}
+		executor.awaitAllLanesIdle();
+
+		assertThat(postedInvoices).hasSize(100).isSorted();
+		assertThat(postedMatchInvs).hasSize(100).isSorted();
+		assertThat(executor.getTotalQueueDepth()).isZero();
+		assertThat(executor.getCountPosted()).isEqualTo(200);
+	}
+
+	@Test
+	public void failureOnLane_isCountedAndDoesNotStopTheLane()
+	{
+		executor = new PartitionedDocumentPostingExecutor(4, null);
+
+		final List<Integer> posted = Collections.synchronizedList(new ArrayList<>());
+		executeAndRecordStatistics("C_Invoice", () -> {
+			throw new IllegalStateException("posting failed");
+		});
+		executeAndRecordStatistics("C_Invoice", () -> posted.add(1));
+		executor.awaitAllLanesIdle();
+
+		assertThat(posted).containsExactly(1);
+		assertThat(executor.getCountFailed()).isEqualTo(1);
+		assertThat(executor.getCountPosted()).isEqualTo(1);
+	}
+
+	@Test
+	public void laneTaskDecorator_isAppliedOnLanesOnly()
+	{
+		final List<String> decorated = Collections.synchronizedList(new ArrayList<>());
+
+		executor = new PartitionedDocumentPostingExecutor(1, task -> {
+			decorated.add("singleLane");
+			return task;
+		});
+		executeAndRecordStatistics("C_Invoice", () -> {});
+		executor.shutdown();
+
+		executor = new PartitionedDocumentPostingExecutor(4, task -> {
+			decorated.add("lanes");
+			return task;
+		});
+		executeAndRecordStatistics("C_Invoice", () -> {});
+		executor.awaitAllLanesIdle();
+
+		assertThat(decorated).containsExactly("lanes");
+	}
+}
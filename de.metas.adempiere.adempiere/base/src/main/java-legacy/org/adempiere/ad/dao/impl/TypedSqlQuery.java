@@ -32,6 +32,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
@@ -41,6 +47,9 @@ import org.adempiere.ad.dao.IQueryUpdater;
 import org.adempiere.ad.dao.ISqlQueryUpdater;
 import org.adempiere.ad.persistence.TableModelLoader;
 import org.adempiere.ad.security.IUserRolePermissions;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.exceptions.DBMoreThenOneRecordsFoundException;
@@ -54,6 +63,7 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 
 import de.metas.logging.LogManager;
@@ -337,6 +347,156 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return list;
 	}
 
+	@Override
+	public <ET extends T> Stream<ET> streamWithCursor(final Class<ET> clazz, final int fetchSize) throws DBException
+	{
+		Check.assume(fetchSize > 0, "fetchSize > 0");
+
+		final String sql = buildSQL(null, true);
+		final boolean readOnly = isReadOnlyRecords();
+		return streamWithCursor(
+				trxName,
+				fetchSize,
+				limit,
+				cursorTrxName -> DB.prepareStatement(sql, cursorTrxName),
+				this::createResultSet,
+				rs -> {
+					final ET model = retrieveNextModel(rs, clazz);
+					if (model != null)
+					{
+						InterfaceWrapperHelper.setSaveDeleteDisabled(model, readOnly);
+					}
+					return model;
+				},
+				e -> new DBException(e, sql, getParametersEffective()));
+	}
+
+	/** Like {@link java.util.function.Function}, but allowed to throw {@link SQLException}. */
+	@FunctionalInterface
+	@VisibleForTesting
+	interface SqlFunction<I, O>
+	{
+		O apply(I input) throws SQLException;
+	}
+
+	/**
+	 * Opens the cursor and returns a stream which lazily retrieves the rows from it. Closing the stream closes the cursor.
+	 *
+	 * @param trxName the query's transaction; if not active, the cursor gets its own transaction which is closed together with the stream
+	 * @param rowLoader retrieves the next row (moving the cursor forward as needed) or returns <code>null</code> if there are no more rows
+	 */
+	@VisibleForTesting
+	static <ET> Stream<ET> streamWithCursor(
+			final String trxName,
+			final int fetchSize,
+			final int limit,
+			final SqlFunction<String, PreparedStatement> statementFactory,
+			final SqlFunction<PreparedStatement, ResultSet> resultSetFactory,
+			final SqlFunction<ResultSet, ET> rowLoader,
+			final Function<SQLException, DBException> exceptionFactory)
+	{
+		//
+		// The PostgreSQL JDBC driver is using a server side cursor only if auto-commit is off.
+		// So, if we are not running in a transaction, we create one, just for our cursor.
+		// NOTE: the models will still get this query's trxName.
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx cursorOwnTrx = trxManager.isActive(trxName)
+				? null
+				: trxManager.get(trxManager.createTrxName("TypedSqlQuery_streamWithCursor", true), OnTrxMissingPolicy.Fail);
+		final String cursorTrxName = cursorOwnTrx != null ? cursorOwnTrx.getTrxName() : trxName;
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		boolean streamCreated = false;
+		try
+		{
+			pstmt = statementFactory.apply(cursorTrxName);
+			pstmt.setFetchSize(fetchSize);
+			rs = resultSetFactory.apply(pstmt);
+
+			final PreparedStatement pstmtToClose = pstmt;
+			final ResultSet rsToClose = rs;
+			final Stream<ET> stream = StreamSupport.stream(new CursorSpliterator<>(rs, rowLoader, limit, exceptionFactory), false)
+					.onClose(() -> {
+						DB.close(rsToClose, pstmtToClose);
+						closeCursorOwnTrx(cursorOwnTrx);
+					});
+			streamCreated = true;
+			return stream;
+		}
+		catch (final SQLException e)
+		{
+			throw exceptionFactory.apply(e);
+		}
+		finally
+		{
+			if (!streamCreated)
+			{
+				DB.close(rs, pstmt);
+				closeCursorOwnTrx(cursorOwnTrx);
+			}
+		}
+	}
+
+	private static void closeCursorOwnTrx(final ITrx cursorOwnTrx)
+	{
+		if (cursorOwnTrx != null)
+		{
+			cursorOwnTrx.rollback(); // nothing to commit
+			cursorOwnTrx.close();
+		}
+	}
+
+	/** Lazily retrieves the rows from an open {@link ResultSet}, see {@link TypedSqlQuery#streamWithCursor(Class, int)}. */
+	private static final class CursorSpliterator<ET> extends Spliterators.AbstractSpliterator<ET>
+	{
+		private final ResultSet rs;
+		private final SqlFunction<ResultSet, ET> rowLoader;
+		private final int limit;
+		private final Function<SQLException, DBException> exceptionFactory;
+		private int countRetrieved = 0;
+
+		private CursorSpliterator(
+				final ResultSet rs,
+				final SqlFunction<ResultSet, ET> rowLoader,
+				final int limit,
+				final Function<SQLException, DBException> exceptionFactory)
+		{
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.rs = rs;
+			this.rowLoader = rowLoader;
+			this.limit = limit;
+			this.exceptionFactory = exceptionFactory;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super ET> action)
+		{
+			if (limit > 0 && countRetrieved >= limit)
+			{
+				return false;
+			}
+
+			final ET row;
+			try
+			{
+				row = rowLoader.apply(rs);
+			}
+			catch (final SQLException e)
+			{
+				throw exceptionFactory.apply(e);
+			}
+			if (row == null)
+			{
+				return false;
+			}
+
+			countRetrieved++;
+			action.accept(row);
+			return true;
+		}
+	}
+
 	/**
 	 * Move <code>rs</code>'s cursor forward and get next model.
 	 *
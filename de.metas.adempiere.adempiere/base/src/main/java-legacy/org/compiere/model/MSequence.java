@@ -39,6 +39,8 @@ import org.compiere.util.DB;
 import org.compiere.util.Ini;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
@@ -246,6 +248,132 @@ public class MSequence extends X_AD_Sequence
 		}
 	}	// getNextID
 
+	/**
+	 * Allocates a block of IDs for the given table, using one <code>AD_Sequence</code> update instead of one per ID.
+	 * Like {@link #getNextID(int, String, String)}, the IDs are obtained out of transaction.
+	 *
+	 * @param AD_Client_ID client
+	 * @param TableName table name
+	 * @param count how many IDs to allocate
+	 * @return allocated IDs
+	 */
+	public static int[] getNextIDs(final int AD_Client_ID, final String TableName, final int count)
+	{
+		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
+		Check.assume(count > 0, "count > 0");
+
+		// The ID servers and the stored procedure are handing out one ID at a time
+		if (USE_PROCEDURE
+				|| isQueryCentralizedIDServer(TableName, AD_Client_ID)
+				|| isQueryProjectIDServer(TableName, AD_Client_ID))
+		{
+			final int[] ids = new int[count];
+			for (int i = 0; i < count; i++)
+			{
+				ids[i] = getNextID(AD_Client_ID, TableName, ITrx.TRXNAME_None);
+			}
+			return ids;
+		}
+
+		final boolean adempiereSys = isAdempiereSys(AD_Client_ID);
+		final String selectSQL = "SELECT CurrentNext, CurrentNextSys, IncrementNo, AD_Sequence_ID "
+				+ "FROM AD_Sequence "
+				+ "WHERE Name=?"
+				+ " AND IsActive='Y' AND IsTableID='Y' AND IsAutoSequence='Y' "
+				+ " FOR UPDATE OF AD_Sequence ";
+
+		Connection conn = null;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			conn = DB.getConnectionID();
+
+			pstmt = conn.prepareStatement(selectSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
+			pstmt.setString(1, TableName);
+			if (DB.getDatabase().isQueryTimeoutSupported())
+			{
+				pstmt.setQueryTimeout(QUERY_TIME_OUT);
+			}
+
+			rs = pstmt.executeQuery();
+			if (!rs.next())
+			{
+				throw new AdempiereException("No AD_Sequence found for " + TableName);
+			}
+
+			final int firstId = adempiereSys ? rs.getInt(2) : rs.getInt(1);
+			final int incrementNo = rs.getInt(3);
+			final int AD_Sequence_ID = rs.getInt(4);
+
+			final String updateSQL = adempiereSys
+					? "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID = ?"
+					: "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ?";
+			try (final PreparedStatement updateStmt = conn.prepareStatement(updateSQL))
+			{
+				updateStmt.setInt(1, incrementNo * count);
+				updateStmt.setInt(2, AD_Sequence_ID);
+				updateStmt.executeUpdate();
+			}
+
+			return computeIDsBlock(firstId, incrementNo, count);
+		}
+		catch (final Exception ex)
+		{
+			try
+			{
+				if (conn != null)
+				{
+					conn.rollback();
+				}
+			}
+			catch (SQLException e1)
+			{
+			}
+			finally
+			{
+				conn = null;
+			}
+
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		finally
+		{
+			try
+			{
+				if (conn != null)
+				{
+					conn.commit();
+				}
+			}
+			catch (SQLException e)
+			{
+				throw DBException.wrapIfNeeded(e);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+				DB.close(conn);
+			}
+		}
+	}	// getNextIDs
+
+	/**
+	 * @return the <code>count</code> IDs starting with <code>firstId</code>
+	 */
+	@VisibleForTesting
+	static int[] computeIDsBlock(final int firstId, final int incrementNo, final int count)
+	{
+		Check.assume(incrementNo > 0, "incrementNo > 0");
+
+		final int[] ids = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			ids[i] = firstId + i * incrementNo;
+		}
+		return ids;
+	}
+
 	/**
 	 * Get Next ID
 	 *
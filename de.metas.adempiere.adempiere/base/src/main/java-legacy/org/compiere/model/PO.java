@@ -31,14 +31,18 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -82,11 +86,17 @@ import org.compiere.util.Ini;
 import org.compiere.util.SecureEngine;
 import org.compiere.util.Trace;
 import org.compiere.util.TrxRunnable2;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.compiere.util.ValueNamePair;
 import org.slf4j.Logger;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
@@ -353,6 +363,33 @@ public abstract class PO
 		isAssignedID = assignedID;
 	}
 
+	/** ID which was allocated in advance (e.g. in a block, together with other new records) and which shall be used when this new record is saved */
+	private int m_preallocatedID = 0;
+
+	/**
+	 * Sets the ID to be used when this new record is saved, instead of fetching it from the table's sequence.
+	 *
+	 * @see #isPreallocatedIDApplicable()
+	 */
+	public final void setPreallocatedID(final int preallocatedID)
+	{
+		m_preallocatedID = preallocatedID;
+	}
+
+	/**
+	 * @return true if this is a new record which would get its ID from the table's sequence (native or <code>AD_Sequence</code>) when saved, so the ID can be allocated in advance.
+	 */
+	public final boolean isPreallocatedIDApplicable()
+	{
+		return m_createNew
+				&& !isAssignedID
+				&& m_preallocatedID <= 0
+				&& m_IDs.length == 1
+				&& p_info.isSingleKeyColumnName()
+				&& m_KeyColumns[0].endsWith("_ID")
+				&& saveNew_getID() <= 0;
+	}
+
 	/**
 	 * Initialize and return PO_Info
 	 *
@@ -2809,6 +2846,32 @@ public abstract class PO
 	{
 		final boolean newRecord = is_new();	// save locally as load resets
 
+		save0_beforeSave(newRecord);
+
+		// Save
+		if (newRecord)
+		{
+			final boolean b = saveNew();
+			if (!b)
+			{
+				throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+			}
+		}
+		else
+		{
+			final boolean b = saveUpdate();
+			if (!b)
+			{
+				throw new AdempiereException("saveUpdate failed").setParameter("po", this).appendParametersToMessage();
+			}
+		}
+	}
+
+	/**
+	 * Calls {@link #beforeSave(boolean)} and the TYPE_BEFORE_NEW/TYPE_BEFORE_CHANGE model validators.
+	 */
+	private final void save0_beforeSave(final boolean newRecord)
+	{
 		// Before Save
 		if (!isAssignedID)
 		{
@@ -2820,24 +2883,243 @@ public abstract class PO
 
 		// Call ModelValidators TYPE_NEW/TYPE_CHANGE
 		fireModelChange(newRecord ? ModelValidator.TYPE_BEFORE_NEW : ModelValidator.TYPE_BEFORE_CHANGE);
+	}
 
-		// Save
-		if (newRecord)
+	/** Max. number of rows which are inserted by one multi-row INSERT, see {@link #saveAllEx(List)} */
+	private static final int INSERT_BATCH_SIZE = 500;
+
+	/**
+	 * Saves the given records in the given order, like {@link #saveEx()} does, but the new records are inserted with one multi-row INSERT per table and column set,
+	 * (up to {@value #INSERT_BATCH_SIZE} rows per INSERT) instead of one INSERT per record.
+	 * <p>
+	 * For each new record, {@link #beforeSave(boolean)} and the TYPE_BEFORE_NEW model validators are called before the batched INSERT is executed,
+	 * and {@link #afterSave(boolean, boolean)}, the TYPE_AFTER_NEW model validators and the change log are done after it, in the same order as the records were given.
+	 * So, unlike when saving the records one by one, the TYPE_BEFORE_NEW model validators of a record will not see the previous records of the same batch in database.
+	 * <p>
+	 * Records which are not new, or which have LOBs, or which get their ID from a native sequence within the INSERT are saved one by one;
+	 * the INSERTs which were batched until then are executed before.
+	 * <p>
+	 * Consecutive records with the same transaction are saved in that transaction (or in a new one, if they have none), all or nothing.
+	 */
+	public static void saveAllEx(@NonNull final List<? extends PO> pos)
+	{
+		int start = 0;
+		for (int i = 1; i <= pos.size(); i++)
 		{
-			final boolean b = saveNew();
-			if (!b)
+			if (i == pos.size()
+					|| !Objects.equals(pos.get(i).m_trxName, pos.get(start).m_trxName))
 			{
-				throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+				saveAllEx0(pos.subList(start, i));
+				start = i;
+			}
+		}
+	}
+
+	private static void saveAllEx0(final List<? extends PO> pos)
+	{
+		final List<PO> posToSave = new ArrayList<>(pos.size());
+		for (final PO po : pos)
+		{
+			if (po.savePrepare())
+			{
+				posToSave.add(po);
+			}
+		}
+		if (posToSave.isEmpty())
+		{
+			return;
+		}
+
+		final String trxNameInitial = posToSave.get(0).m_trxName;
+		final boolean[] newRecordsInitial = new boolean[posToSave.size()];
+		for (int i = 0; i < newRecordsInitial.length; i++)
+		{
+			newRecordsInitial[i] = posToSave.get(i).m_createNew;
+		}
+
+		posToSave.get(0).get_TrxManager().run(trxNameInitial, new TrxRunnable2()
+		{
+			@Override
+			public void run(final String localTrxName) throws Exception
+			{
+				posToSave.forEach(po -> po.m_trxName = localTrxName);
+				saveAllEx0InTrx(posToSave);
 			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				// restoring settings and flags before failing
+				for (int i = 0; i < newRecordsInitial.length; i++)
+				{
+					posToSave.get(i).m_createNew = newRecordsInitial[i];
+				}
+				throw e;
+			}
+
+			@Override
+			public void doFinally()
+			{
+				// restore the transaction name
+				posToSave.forEach(po -> po.m_trxName = trxNameInitial);
+			}
+		});
+	}
+
+	private static void saveAllEx0InTrx(final List<PO> pos) throws Exception
+	{
+		final List<PONewRecordInsert> batchedInserts = new ArrayList<>();
+		for (final PO po : pos)
+		{
+			final boolean newRecord = po.is_new();
+			if (!newRecord)
+			{
+				executeBatchedInserts(batchedInserts);
+				po.save0();
+				continue;
+			}
+
+			po.save0_beforeSave(newRecord);
+
+			final PONewRecordInsert insert = po.saveNew_prepareInsert();
+			if (insert == null || !insert.isBatchable())
+			{
+				executeBatchedInserts(batchedInserts);
+				if (!po.saveNew_executeInsert(insert))
+				{
+					throw new AdempiereException("saveNew failed").setParameter("po", po).appendParametersToMessage();
+				}
+				continue;
+			}
+
+			batchedInserts.add(insert);
+			if (batchedInserts.size() >= INSERT_BATCH_SIZE)
+			{
+				executeBatchedInserts(batchedInserts);
+			}
+		}
+
+		executeBatchedInserts(batchedInserts);
+	}
+
+	/**
+	 * Executes the given INSERTs, one multi-row INSERT for each table and column set, and then finishes saving the inserted records in the given order.
+	 * The given list is cleared afterwards.
+	 */
+	private static void executeBatchedInserts(final List<PONewRecordInsert> inserts) throws Exception
+	{
+		if (inserts.isEmpty())
+		{
+			return;
+		}
+
+		final Map<ArrayKey, List<PONewRecordInsert>> insertsByColumns = inserts.stream()
+				.collect(Collectors.groupingBy(PONewRecordInsert::getBatchKey, LinkedHashMap::new, Collectors.toList()));
+
+		final Map<PONewRecordInsert, String> sqlByInsert = new IdentityHashMap<>(inserts.size());
+		for (final List<PONewRecordInsert> batch : insertsByColumns.values())
+		{
+			final String sql = executeBatchedInserts0(batch);
+			batch.forEach(insert -> sqlByInsert.put(insert, sql));
+		}
+
+		for (final PONewRecordInsert insert : inserts)
+		{
+			if (!insert.getPO().saveNew_afterInsert(true, sqlByInsert.get(insert)))
+			{
+				throw new AdempiereException("saveNew failed").setParameter("po", insert.getPO()).appendParametersToMessage();
+			}
+		}
+
+		inserts.clear();
+	}
+
+	/**
+	 * @param batch INSERTs for the same table and column set
+	 * @return the executed SQL
+	 */
+	private static String executeBatchedInserts0(final List<PONewRecordInsert> batch)
+	{
+		final PONewRecordInsert firstInsert = batch.get(0);
+		final String keyColumnName = firstInsert.getKeyColumnName();
+
+		final String sqlReturning;
+		if (firstInsert.getLoadAfterInsertProcessor() == null)
+		{
+			sqlReturning = keyColumnName;
 		}
 		else
 		{
-			final boolean b = saveUpdate();
-			if (!b)
+			sqlReturning = keyColumnName + ", " + firstInsert.getLoadAfterInsertProcessor().getSqlReturning();
+		}
+
+		final String sql = buildSqlInsert(
+				firstInsert.getTableName(),
+				firstInsert.getColumnNames(),
+				batch.stream().map(PONewRecordInsert::getSqlValues).collect(ImmutableList.toImmutableList()),
+				sqlReturning);
+
+		final Map<Integer, PONewRecordInsert> insertsById = batch.stream()
+				.collect(ImmutableMap.toImmutableMap(insert -> insert.getPO().get_ID(), insert -> insert));
+
+		final int no = DB.executeUpdate(sql,
+				(Object[])null,  // params,
+				OnFail.ThrowException,  // onFail
+				firstInsert.getPO().m_trxName,
+				0,  // timeOut,
+				rs -> {
+					final PONewRecordInsert insert = insertsById.get(rs.getInt(keyColumnName));
+					if (insert.getLoadAfterInsertProcessor() != null)
+					{
+						insert.getLoadAfterInsertProcessor().process(rs);
+					}
+				});
+		if (no != batch.size())
+		{
+			throw new AdempiereException("Expected " + batch.size() + " rows to be inserted into " + firstInsert.getTableName() + " but got " + no);
+		}
+
+		return sql;
+	}
+
+	/**
+	 * Builds an INSERT statement for the given rows.
+	 *
+	 * @param rowsSqlValues for each row, the SQL values of the given columns
+	 * @param sqlReturning the columns of the RETURNING clause or <code>null</code>
+	 */
+	@VisibleForTesting
+	static String buildSqlInsert(
+			@NonNull final String tableName,
+			@NonNull final List<String> columnNames,
+			@NonNull final List<List<String>> rowsSqlValues,
+			@Nullable final String sqlReturning)
+	{
+		Check.assumeNotEmpty(rowsSqlValues, "rowsSqlValues is not empty");
+
+		final StringBuilder sql = new StringBuilder("INSERT INTO ")
+				.append(tableName)
+				.append(" (").append(String.join(",", columnNames)).append(") VALUES ");
+
+		boolean firstRow = true;
+		for (final List<String> sqlValues : rowsSqlValues)
+		{
+			Check.assume(sqlValues.size() == columnNames.size(), "Each row shall have a value for each of the columns {}: {}", columnNames, sqlValues);
+			if (!firstRow)
 			{
-				throw new AdempiereException("saveUpdate failed").setParameter("po", this).appendParametersToMessage();
+				sql.append(",");
 			}
+			firstRow = false;
+
+			sql.append("(").append(String.join(",", sqlValues)).append(")");
 		}
+
+		if (!Check.isEmpty(sqlReturning, true))
+		{
+			sql.append(" RETURNING ").append(sqlReturning);
+		}
+
+		return sql.toString();
 	}
 
 	/**
@@ -3326,7 +3608,12 @@ public abstract class PO
 
 		Integer idNew = saveNew_getID();
 
-		if (idNew <= 0
+		if (idNew <= 0 && m_preallocatedID > 0)
+		{
+			idNew = m_preallocatedID;
+			m_preallocatedID = 0;
+		}
+		else if (idNew <= 0
 				&& DB.isUseNativeSequences(getAD_Client_ID(), get_TableName()))
 		{
 			idNew = I_ZERO_NATIVESEQUENCE;
@@ -3369,14 +3656,52 @@ public abstract class PO
 	 * @return true if new record inserted
 	 */
 	private boolean saveNew() throws Exception
+	{
+		final PONewRecordInsert insert = saveNew_prepareInsert();
+		return saveNew_executeInsert(insert);
+	}   // saveNew
+
+	/**
+	 * Executes the given INSERT and finishes saving this new record.
+	 *
+	 * @param insert prepared by {@link #saveNew_prepareInsert()}
+	 * @return true if new record inserted
+	 */
+	private boolean saveNew_executeInsert(@Nullable final PONewRecordInsert insert) throws Exception
+	{
+		if (insert == null)
+		{
+			// Setting new IDs failed.
+			return saveFinish(true, false); // newRecord=true, success=false
+		}
+
+		//
+		// Execute actual database INSERT
+		final String sqlInsert = insert.getSql();
+		final int no = DB.executeUpdate(sqlInsert,
+				(Object[])null,  // params,
+				OnFail.ThrowException,  // onFail
+				m_trxName,
+				0,  // timeOut,
+				insert.getLoadAfterInsertProcessor());
+
+		return saveNew_afterInsert(no == 1, sqlInsert);
+	}
+
+	/**
+	 * Sets the new IDs and the DocumentNo/Value and builds the INSERT for this new record.
+	 *
+	 * @return INSERT or <code>null</code> if setting the new IDs failed
+	 */
+	@Nullable
+	private PONewRecordInsert saveNew_prepareInsert()
 	{
 		//
 		// Generate and set new IDs
 		if (!retrieveAndSetIds())
 		{
 			// Setting new IDs failed.
-			// Execute saveFinish directly (last line in this method)
-			return saveFinish(true, false); // newRecord=true, success=false
+			return null;
 		}
 
 		final String tableName = p_info.getTableName();
@@ -3470,12 +3795,10 @@ public abstract class PO
 		lobReset();
 
 		//
-		// Build INSERT SQL
-		final StringBuilder sqlInsert = new StringBuilder("INSERT INTO ");
-		sqlInsert.append(tableName).append(" (");
-		final StringBuilder sqlValues = new StringBuilder(") VALUES (");
+		// Collect the columns and values to INSERT
+		final List<String> columnNames = new ArrayList<>();
+		final List<String> sqlValues = new ArrayList<>();
 		final int size = get_ColumnCount();
-		boolean doComma = false;
 		for (int i = 0; i < size; i++)
 		{
 			// Skip virtual columns
@@ -3519,17 +3842,7 @@ public abstract class PO
 			}
 
 			// ** add column **
-			if (doComma)
-			{
-				sqlInsert.append(",");
-				sqlValues.append(",");
-			}
-			else
-			{
-				doComma = true;
-			}
-
-			sqlInsert.append(columnName);
+			columnNames.add(columnName);
 
 			//
 			// Based on class of definition, not class of value
@@ -3541,43 +3854,43 @@ public abstract class PO
 				if (value == I_ZERO_NATIVESEQUENCE && columnName.equals(p_info.getKeyColumnName()))
 				{
 					final String sqlValue = DB.TO_TABLESEQUENCE_NEXTVAL(tableName);
-					sqlValues.append(sqlValue);
+					sqlValues.add(sqlValue);
 
 					// Add it to columns to retrieve after database insert
 					loadAfterInsertProcessor.addColumnName(columnName);
 				}
 				else if (c == Object.class)  // may have need to deal with null values differently
 				{
-					sqlValues.append(saveNewSpecial(value, i));
+					sqlValues.add(saveNewSpecial(value, i));
 				}
 				else if (value == null || value.equals(Null.NULL))
 				{
-					sqlValues.append("NULL");
+					sqlValues.add("NULL");
 				}
 				else if (value instanceof Integer || value instanceof BigDecimal)
 				{
-					sqlValues.append(encrypt(i, value));
+					sqlValues.add(String.valueOf(encrypt(i, value)));
 				}
 				else if (c == Boolean.class)
 				{
 					final boolean bValue = StringUtils.toBoolean(value);
-					sqlValues.append(encrypt(i, DB.TO_BOOLEAN(bValue)));
+					sqlValues.add(String.valueOf(encrypt(i, DB.TO_BOOLEAN(bValue))));
 				}
 				else if (value instanceof Timestamp)
 				{
-					sqlValues.append(DB.TO_DATE((Timestamp)encrypt(i, value), p_info.getColumnDisplayType(i) == DisplayType.Date));
+					sqlValues.add(DB.TO_DATE((Timestamp)encrypt(i, value), p_info.getColumnDisplayType(i) == DisplayType.Date));
 				}
 				else if (c == String.class)
 				{
-					sqlValues.append(encrypt(i, DB.TO_STRING((String)value)));
+					sqlValues.add(String.valueOf(encrypt(i, DB.TO_STRING((String)value))));
 				}
 				else if (DisplayType.isLOB(dt))
 				{
-					sqlValues.append("null");		// no db dependent stuff here
+					sqlValues.add("null");		// no db dependent stuff here
 				}
 				else
 				{
-					sqlValues.append(saveNewSpecial(value, i));
+					sqlValues.add(saveNewSpecial(value, i));
 				}
 			}
 			catch (final Exception e)
@@ -3603,46 +3916,33 @@ public abstract class PO
 				final String column = it.next();
 				final int index = p_info.getColumnIndex(column);
 				final String value = m_custom.get(column);
-				if (doComma)
-				{
-					sqlInsert.append(",");
-					sqlValues.append(",");
-				}
-				else
-					doComma = true;
-				sqlInsert.append(column);
+				columnNames.add(column);
 				// jz for ad_issue, some value may include ' in a string???
-				sqlValues.append(encrypt(index, value));
+				sqlValues.add(String.valueOf(encrypt(index, value)));
 			}
 			m_custom = null;
 		}
 
 		//
-		// Build the final INSERT sql
-		sqlInsert.append(sqlValues)
-				.append(")");
-
-		//
-		// Append the "RETURNING" clause if needed
-		if (loadAfterInsertProcessor.hasColumnNames())
-		{
-			sqlInsert.append(" RETURNING ").append(loadAfterInsertProcessor.getSqlReturning());
-		}
-		else
+		// If there are no columns to load, get rid of this load after insert processor
+		if (!loadAfterInsertProcessor.hasColumnNames())
 		{
-			// If there are no columns to load, get rid of this load after insert processor
 			loadAfterInsertProcessor = null;
 		}
 
-		//
-		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
-				(Object[])null,  // params,
-				OnFail.ThrowException,  // onFail
-				m_trxName,
-				0,  // timeOut,
-				loadAfterInsertProcessor);
-		boolean ok = no == 1;
+		return new PONewRecordInsert(tableName, columnNames, sqlValues, loadAfterInsertProcessor);
+	}
+
+	/**
+	 * Saves the LOBs, writes the change log, reloads this new record if needed and finishes the saving.
+	 *
+	 * @param inserted true if the record was inserted
+	 * @param sqlInsert executed INSERT, for logging
+	 * @return true if new record inserted
+	 */
+	private boolean saveNew_afterInsert(final boolean inserted, final String sqlInsert) throws Exception
+	{
+		boolean ok = inserted;
 
 		//
 		// Save LOBs
@@ -3679,7 +3979,7 @@ public abstract class PO
 		{
 			String msg = "Not inserted - ";
 			if (LogManager.isLevelFiner())
-				msg += sqlInsert.toString();
+				msg += sqlInsert;
 			else
 				msg += get_TableName();
 			if (m_trxName == null)
@@ -3689,7 +3989,7 @@ public abstract class PO
 		}
 
 		return saveFinish(true, ok);
-	}   // saveNew
+	}
 
 	/**
 	 * Get ID for new record during save.
@@ -5266,4 +5566,86 @@ public abstract class PO
 			return "POReturningAfterInsertLoader [columnNames=" + columnNames + "]";
 		}
 	}
+
+	/** The INSERT of a new record, see {@link PO#saveNew_prepareInsert()} */
+	private final class PONewRecordInsert
+	{
+		private final String tableName;
+		private final List<String> columnNames;
+		private final List<String> sqlValues;
+		private final POReturningAfterInsertLoader loadAfterInsertProcessor;
+
+		public PONewRecordInsert(
+				final String tableName,
+				final List<String> columnNames,
+				final List<String> sqlValues,
+				@Nullable final POReturningAfterInsertLoader loadAfterInsertProcessor)
+		{
+			this.tableName = tableName;
+			this.columnNames = ImmutableList.copyOf(columnNames);
+			this.sqlValues = ImmutableList.copyOf(sqlValues);
+			this.loadAfterInsertProcessor = loadAfterInsertProcessor;
+		}
+
+		public PO getPO()
+		{
+			return PO.this;
+		}
+
+		public String getTableName()
+		{
+			return tableName;
+		}
+
+		public List<String> getColumnNames()
+		{
+			return columnNames;
+		}
+
+		public List<String> getSqlValues()
+		{
+			return sqlValues;
+		}
+
+		@Nullable
+		public POReturningAfterInsertLoader getLoadAfterInsertProcessor()
+		{
+			return loadAfterInsertProcessor;
+		}
+
+		public String getKeyColumnName()
+		{
+			return m_KeyColumns[0];
+		}
+
+		public String getSql()
+		{
+			return buildSqlInsert(tableName, columnNames, ImmutableList.of(sqlValues), loadAfterInsertProcessor != null ? loadAfterInsertProcessor.getSqlReturning() : null);
+		}
+
+		/**
+		 * @return true if this INSERT can be executed together with the INSERTs of other records of the same table,
+		 *         i.e. the record's ID is already known and there are no LOBs to be saved after the INSERT.
+		 */
+		public boolean isBatchable()
+		{
+			return m_IDs.length == 1
+					&& p_info.isSingleKeyColumnName()
+					&& m_KeyColumns[0].endsWith("_ID")
+					&& get_ID() > 0
+					&& (m_lobInfo == null || m_lobInfo.isEmpty());
+		}
+
+		/** @return key of the INSERTs which can be executed by the same multi-row INSERT */
+		public ArrayKey getBatchKey()
+		{
+			return Util.mkKey(tableName, columnNames, loadAfterInsertProcessor != null ? loadAfterInsertProcessor.getSqlReturning() : null);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "PONewRecordInsert [tableName=" + tableName + ", columnNames=" + columnNames + ", po=" + PO.this + "]";
+		}
+	}
 }   // PO
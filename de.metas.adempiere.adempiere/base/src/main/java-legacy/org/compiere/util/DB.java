@@ -71,6 +71,7 @@ import org.compiere.model.POResultSet;
 import org.compiere.process.SequenceCheck;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CacheMgt;
@@ -1840,6 +1841,70 @@ public final class DB
 		return MSequence.getNextID(AD_Client_ID, TableName, trxName);
 	}	// getNextID
 
+	/**
+	 * Gets a block of new IDs for the given table, using one database round-trip instead of one per ID (in both native and <code>AD_Sequence</code> mode).
+	 * The IDs are obtained out of transaction.
+	 *
+	 * @param AD_Client_ID client
+	 * @param TableName table name
+	 * @param count how many IDs to get
+	 * @return new IDs
+	 */
+	public static int[] getNextIDs(final int AD_Client_ID, final String TableName, final int count)
+	{
+		Check.assume(count > 0, "count > 0");
+
+		final boolean useNativeSequences = DB.isUseNativeSequences(AD_Client_ID, TableName);
+		if (!useNativeSequences)
+		{
+			return MSequence.getNextIDs(AD_Client_ID, TableName, count);
+		}
+
+		final String sql = buildSqlSelectNextIDs(TO_TABLESEQUENCE_NEXTVAL(TableName));
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = prepareStatement(sql, ITrx.TRXNAME_None);
+			pstmt.setInt(1, count);
+			rs = pstmt.executeQuery();
+			return retrieveNextIDs(rs, TableName, count);
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, new Object[] { count });
+		}
+		finally
+		{
+			close(rs, pstmt);
+		}
+	}	// getNextIDs
+
+	/**
+	 * @param sqlSequenceNextVal SQL which gets the next value of the table's native sequence
+	 * @return SQL which gets the next <code>?</code> values of the sequence
+	 */
+	@VisibleForTesting
+	static String buildSqlSelectNextIDs(final String sqlSequenceNextVal)
+	{
+		return "SELECT " + sqlSequenceNextVal + " FROM generate_series(1, ?)";
+	}
+
+	@VisibleForTesting
+	static int[] retrieveNextIDs(final ResultSet rs, final String tableName, final int count) throws SQLException
+	{
+		final int[] ids = new int[count];
+		int i = 0;
+		while (rs.next())
+		{
+			Check.assume(i < count, "Expected {} IDs for {} but got more", count, tableName);
+			ids[i] = rs.getInt(1);
+			i++;
+		}
+		Check.assume(i == count, "Expected {} IDs for {} but got {}", count, tableName, i);
+		return ids;
+	}
+
 	public static String TO_TABLESEQUENCE_NEXTVAL(final String tableName)
 	{
 		final String sequenceName = getTableSequenceName(tableName);
@@ -26,6 +26,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
@@ -41,7 +42,10 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.UncheckedExecutionException;
@@ -77,7 +81,8 @@ public class CCache<K, V> implements CacheInterface
 				null, // additionalTableNamesToResetFor
 				maxSize, // initialCapacity // FIXME this is confusing because in case of LRU, initialCapacity is used as maxSize
 				expireAfterMinutes,
-				CacheMapType.LRU);
+				CacheMapType.LRU,
+				null); // recordRefsExtractor
 	}
 
 	/**
@@ -92,7 +97,8 @@ public class CCache<K, V> implements CacheInterface
 				null, // additionalTableNamesToResetFor
 				initialCapacity,
 				expireAfterMinutes,
-				CacheMapType.HashMap);
+				CacheMapType.HashMap,
+				null); // recordRefsExtractor
 	}
 
 	public static enum CacheMapType
@@ -109,6 +115,24 @@ public class CCache<K, V> implements CacheInterface
 		LRU,
 	}
 
+	/**
+	 * Extracts the records on which a cached entry depends.
+	 *
+	 * If a cache is configured with such an extractor, it keeps a reverse index from those records to the cache keys,
+	 * so {@link CCache#resetForRecordId(TableRecordReference)} will invalidate only the affected entries instead of the whole cache.
+	 *
+	 * @param <K> Key
+	 * @param <V> Value
+	 */
+	@FunctionalInterface
+	public static interface CacheRecordRefsExtractor<K, V>
+	{
+		/**
+		 * @return all records which, when changed, shall invalidate the given cache entry; never return null
+		 */
+		Collection<TableRecordReference> extractRecordRefs(K key, V value);
+	}
+
 	/**
 	 * If active, following informations will be stored:
 	 * <ul>
@@ -123,6 +147,13 @@ public class CCache<K, V> implements CacheInterface
 	/** Internal map that is used as cache */
 	private final Cache<K, V> cache;
 
+	/** Optional; if set, the cache is invalidated per record, using {@link #keysByRecordRef} */
+	private final CacheRecordRefsExtractor<K, V> recordRefsExtractor;
+	/** Reverse index: record reference to the cache keys which depend on it. Set only if we have a {@link #recordRefsExtractor}. */
+	private final ConcurrentHashMap<TableRecordReference, Set<K>> keysByRecordRef;
+	/** Incremented on each per-record reset, so a loader can tell that a reset happened while it was loading. */
+	private final AtomicLong recordResetVersion = new AtomicLong(0);
+
 	static final AtomicLong NEXT_CACHE_ID = new AtomicLong(1);
 	/** unique cache ID, mainly used for tracking, logging and debugging */
 	private final long cacheId;
@@ -130,6 +161,12 @@ public class CCache<K, V> implements CacheInterface
 	private final String cacheName;
 	private final ImmutableSet<CacheLabel> labels;
 
+	/** How many times the whole cache was reset */
+	private final AtomicLong resetCount = new AtomicLong();
+	/** How many times the cache was reset for a given record, without being completely reset */
+	private final AtomicLong recordResetCount = new AtomicLong();
+	private final CacheLoadTimeHistogram loadTimeHistogram = new CacheLoadTimeHistogram();
+
 	/** Expire after minutes */
 	private final int expireMinutes;
 	public static final int EXPIREMINUTES_Never = 0;
@@ -171,7 +208,8 @@ public class CCache<K, V> implements CacheInterface
 				null, // additionalTableNamesToResetFor
 				initialCapacity,
 				expireMinutes,
-				CacheMapType.HashMap);
+				CacheMapType.HashMap,
+				null); // recordRefsExtractor
 	}
 
 	@Builder
@@ -181,7 +219,8 @@ public class CCache<K, V> implements CacheInterface
 			@Singular("additionalTableNameToResetFor") final Set<String> additionalTableNamesToResetFor,
 			final Integer initialCapacity,
 			final Integer expireMinutes,
-			final CacheMapType cacheMapType)
+			final CacheMapType cacheMapType,
+			final CacheRecordRefsExtractor<K, V> recordRefsExtractor)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -224,10 +263,16 @@ public class CCache<K, V> implements CacheInterface
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
+
+		this.recordRefsExtractor = recordRefsExtractor;
+		this.keysByRecordRef = recordRefsExtractor != null ? new ConcurrentHashMap<>() : null;
+
+		final RemovalListener<K, V> removalListener = recordRefsExtractor != null ? this::onEntryRemoved : null;
 		this.cache = buildGuavaCache(
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
-				this.expireMinutes);
+				this.expireMinutes,
+				removalListener);
 
 		if (DEBUG)
 		{
@@ -294,9 +339,11 @@ public class CCache<K, V> implements CacheInterface
 	private static final <K, V> Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
-			final int expireMinutes)
+			final int expireMinutes,
+			final RemovalListener<K, V> removalListener)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats();
 		if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
@@ -317,6 +364,11 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
+		if (removalListener != null)
+		{
+			return cacheBuilder.removalListener(removalListener).build();
+		}
+
 		return cacheBuilder.build();
 	}
 
@@ -379,6 +431,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		final long no = cache.size();
 		clear();
+		resetCount.incrementAndGet();
 		if (no > 0)
 		{
 			logger.trace("Reset {} entries from {}", no, this);
@@ -392,14 +445,98 @@ public class CCache<K, V> implements CacheInterface
 		cache.invalidateAll();
 		cache.cleanUp();
 
+		if (keysByRecordRef != null)
+		{
+			recordResetVersion.incrementAndGet();
+			keysByRecordRef.clear();
+		}
+
 		m_justReset = true;
 	}	// clear
 
+	/**
+	 * Invalidates the cache entries which depend on given record.
+	 *
+	 * If this cache has no {@link CacheRecordRefsExtractor}, we don't know which entries depend on given record, so the whole cache is reset.
+	 */
 	@Override
 	public long resetForRecordId(final TableRecordReference recordRef)
 	{
-		// NOTE: reseting only by "key" is not supported at this level, so we are reseting everything
-		return reset();
+		if (keysByRecordRef == null)
+		{
+			return reset();
+		}
+
+		recordResetCount.incrementAndGet();
+
+		// NOTE: increment the version before removing the index entry, see indexRecordRefsAfterPut
+		recordResetVersion.incrementAndGet();
+		final Set<K> keys = keysByRecordRef.remove(recordRef);
+		if (keys == null || keys.isEmpty())
+		{
+			return 0;
+		}
+
+		cache.invalidateAll(keys);
+		logger.trace("Reset {} entries for {} from {}", keys.size(), recordRef, this);
+		return keys.size();
+	}
+
+	/**
+	 * Indexes the records of an entry which was already put into the cache.
+	 * <p>
+	 * A per-record reset which runs between the loading of the value and the indexing would not find the entry in the index,
+	 * so if any per-record reset happened since {@code recordResetVersionBeforeLoad}, we invalidate the entry to be on the safe side.
+	 */
+	private void indexRecordRefsAfterPut(final K key, final V value, final long recordResetVersionBeforeLoad)
+	{
+		if (recordRefsExtractor == null || value == null)
+		{
+			return;
+		}
+
+		indexRecordRefs(key, value);
+
+		if (recordResetVersion.get() != recordResetVersionBeforeLoad)
+		{
+			cache.invalidate(key);
+		}
+	}
+
+	private void indexRecordRefs(final K key, final V value)
+	{
+
+		for (final TableRecordReference recordRef : recordRefsExtractor.extractRecordRefs(key, value))
+		{
+			keysByRecordRef.compute(recordRef, (k, keys) -> {
+				final Set<K> keysEffective = keys != null ? keys : ConcurrentHashMap.newKeySet();
+				keysEffective.add(key);
+				return keysEffective;
+			});
+		}
+	}
+
+	private void onEntryRemoved(final RemovalNotification<K, V> notification)
+	{
+		final K key = notification.getKey();
+		final V value = notification.getValue();
+		if (key == null || value == null)
+		{
+			return; // collected
+		}
+
+		for (final TableRecordReference recordRef : recordRefsExtractor.extractRecordRefs(key, value))
+		{
+			// NOTE: we check the cache inside compute, because the same key might have been put again meanwhile;
+			// in that case we prefer keeping the key indexed (i.e. invalidating too much) over missing an invalidation.
+			keysByRecordRef.computeIfPresent(recordRef, (k, keys) -> {
+				if (!cache.asMap().containsKey(key))
+				{
+					keys.remove(key);
+				}
+				return keys.isEmpty() ? null : keys;
+			});
+		}
 	}
 
 	@Override
@@ -499,9 +636,30 @@ public class CCache<K, V> implements CacheInterface
 			return cache.getIfPresent(key);
 		}
 
+		final long recordResetVersionBeforeLoad = recordResetVersion.get();
+		final boolean[] loaded = new boolean[] { false };
+		final Callable<V> valueInitializerEffective = () -> {
+			final long startNanos = System.nanoTime();
+			try
+			{
+				final V value = valueInitializer.call();
+				loaded[0] = true;
+				return value;
+			}
+			finally
+			{
+				loadTimeHistogram.record(System.nanoTime() - startNanos);
+			}
+		};
+
 		try
 		{
-			return cache.get(key, valueInitializer);
+			final V value = cache.get(key, valueInitializerEffective);
+			if (loaded[0])
+			{
+				indexRecordRefsAfterPut(key, value, recordResetVersionBeforeLoad);
+			}
+			return value;
 		}
 		catch (final InvalidCacheLoadException e)
 		{
@@ -584,8 +742,13 @@ public class CCache<K, V> implements CacheInterface
 		// Load the missing keys if any
 		if (!keysToLoad.isEmpty())
 		{
+			final long recordResetVersionBeforeLoad = recordResetVersion.get();
+			final long startNanos = System.nanoTime();
 			final Map<K, V> valuesLoaded = valuesLoader.apply(keysToLoad);
+			loadTimeHistogram.record(System.nanoTime() - startNanos);
+
 			valuesLoaded.forEach(cache::put); // add loaded values to cache
+			valuesLoaded.forEach((key, value) -> indexRecordRefsAfterPut(key, value, recordResetVersionBeforeLoad));
 			values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
 		}
 
@@ -627,7 +790,9 @@ public class CCache<K, V> implements CacheInterface
 		}
 		else
 		{
+			final long recordResetVersionBeforePut = recordResetVersion.get();
 			cache.put(key, value);
+			indexRecordRefsAfterPut(key, value, recordResetVersionBeforePut);
 		}
 	}	// put
 
@@ -638,7 +803,9 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public void putAll(final Map<? extends K, ? extends V> map)
 	{
+		final long recordResetVersionBeforePut = recordResetVersion.get();
 		cache.putAll(map);
+		map.forEach((key, value) -> indexRecordRefsAfterPut(key, value, recordResetVersionBeforePut));
 	}
 
 	/**
@@ -722,7 +889,15 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(
+				cacheId,
+				cacheName,
+				labels,
+				cache.size(),
+				cache.stats(),
+				resetCount.get(),
+				recordResetCount.get(),
+				loadTimeHistogram.snapshot());
 	}
 
 	@SuppressWarnings("serial")
@@ -732,16 +907,32 @@ public class CCache<K, V> implements CacheInterface
 
 		private final long cacheId;
 		private final String name;
+		private final ImmutableSet<CacheLabel> labels;
 		private final long size;
 		private final CacheStats guavaStats;
-
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		private final long resetCount;
+		private final long recordResetCount;
+		private final ImmutableMap<String, Long> loadTimeHistogram;
+
+		private CCacheStats(
+				final long cacheId,
+				final String name,
+				final ImmutableSet<CacheLabel> labels,
+				final long size,
+				final CacheStats guavaStats,
+				final long resetCount,
+				final long recordResetCount,
+				final ImmutableMap<String, Long> loadTimeHistogram)
 		{
 			super();
 			this.cacheId = cacheId;
 			this.name = name;
+			this.labels = labels;
 			this.size = size;
 			this.guavaStats = guavaStats;
+			this.resetCount = resetCount;
+			this.recordResetCount = recordResetCount;
+			this.loadTimeHistogram = loadTimeHistogram;
 		}
 
 		@Override
@@ -750,7 +941,12 @@ public class CCache<K, V> implements CacheInterface
 			return MoreObjects.toStringHelper(this)
 					.add("name", name)
 					.add("size", size)
+					.add("hitRate", guavaStats.hitRate())
+					.add("resetCount", resetCount)
+					.add("recordResetCount", recordResetCount)
 					.add("guavaStats", guavaStats)
+					.add("loadTimeHistogram", loadTimeHistogram)
+					.add("labels", labels)
 					.add("cacheId", cacheId)
 					.toString();
 		}
@@ -758,7 +954,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, guavaStats, resetCount, recordResetCount);
 		}
 
 		@Override
@@ -769,8 +965,12 @@ public class CCache<K, V> implements CacheInterface
 				final CCacheStats other = (CCacheStats)obj;
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
+						&& labels.equals(other.labels)
 						&& size == other.size
-						&& guavaStats.equals(other.guavaStats);
+						&& guavaStats.equals(other.guavaStats)
+						&& resetCount == other.resetCount
+						&& recordResetCount == other.recordResetCount
+						&& loadTimeHistogram.equals(other.loadTimeHistogram);
 			}
 			return false;
 		}
@@ -790,9 +990,35 @@ public class CCache<K, V> implements CacheInterface
 			return size;
 		}
 
+		/**
+		 * @return cache labels; the first one is the cache's table name
+		 */
+		public ImmutableSet<CacheLabel> getLabels()
+		{
+			return labels;
+		}
+
 		public CacheStats getGuavaStats()
 		{
 			return guavaStats;
 		}
+
+		/** @return how many times the whole cache was reset */
+		public long getResetCount()
+		{
+			return resetCount;
+		}
+
+		/** @return how many times the cache was reset for a particular record, without being fully reset */
+		public long getRecordResetCount()
+		{
+			return recordResetCount;
+		}
+
+		/** @return load time bucket name to count */
+		public ImmutableMap<String, Long> getLoadTimeHistogram()
+		{
+			return loadTimeHistogram;
+		}
 	}
 }	// CCache
@@ -5,6 +5,8 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableSet;
@@ -58,11 +60,24 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private static final String EVENT_PROPERTY = CacheInvalidateRequest.class.getSimpleName();
 
+	/** How long shall we collect the requests to be broadcasted before sending them as one event. Zero or negative means send right away. */
+	private static final String SYSCONFIG_FlushWindowMillis = "de.metas.cache.CacheInvalidationRemoteHandler.FlushWindowMillis";
+	private static final int DEFAULT_FlushWindowMillis = 200;
+	/** If there are more records of the same table to be broadcasted in one flush window, a table level reset will be broadcasted instead */
+	private static final String SYSCONFIG_MaxRecordsPerTable = "de.metas.cache.CacheInvalidationRemoteHandler.MaxRecordsPerTable";
+	private static final int DEFAULT_MaxRecordsPerTable = 500;
+
 	private final AtomicBoolean _initalized = new AtomicBoolean(false);
 	private final CopyOnWriteArraySet<String> tableNamesToBroadcast = new CopyOnWriteArraySet<>();
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final CoalescingCacheInvalidationSender coalescingSender = CoalescingCacheInvalidationSender.builder()
+			.sender(this::postEventNow)
+			.flushWindowMillisSupplier(this::getFlushWindowMillis)
+			.maxRecordsPerTableSupplier(() -> Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxRecordsPerTable, DEFAULT_MaxRecordsPerTable))
+			.build();
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -105,11 +120,19 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		return ImmutableSet.copyOf(tableNamesToBroadcast);
 	}
 
+	private int getFlushWindowMillis()
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return 0;
+		}
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_FlushWindowMillis, DEFAULT_FlushWindowMillis);
+	}
+
 	/**
 	 * Broadcast a cache invalidation request.
 	 *
-	 * @param tableName
-	 * @param recordId
+	 * The request is not sent right away, but it's coalesced with the other requests which are broadcasted in the same flush window.
 	 */
 	public void postEvent(final CacheInvalidateMultiRequest request)
 	{
@@ -127,7 +150,11 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
+		coalescingSender.send(request);
+	}
+
+	private void postEventNow(final CacheInvalidateMultiRequest request)
+	{
 		final Event event = createEventFromRequest(request);
 		Services.get(IEventBusFactory.class)
 				.getEventBus(TOPIC_CacheInvalidation)
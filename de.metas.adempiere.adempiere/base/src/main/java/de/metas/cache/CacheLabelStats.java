@@ -0,0 +1,118 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.cache.CCache.CCacheStats;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Statistics of all caches which are sharing the same {@link CacheLabel} (i.e. table name).
+ */
+@Value
+@Builder
+public class CacheLabelStats
+{
+	public static CacheLabelStats aggregate(@NonNull final CacheLabel label, @NonNull final Collection<CCacheStats> cachesStats)
+	{
+		long size = 0;
+		long hitCount = 0;
+		long missCount = 0;
+		long loadCount = 0;
+		long totalLoadTimeNanos = 0;
+		long evictionCount = 0;
+		long resetCount = 0;
+		long recordResetCount = 0;
+		final Map<String, Long> loadTimeHistogram = new LinkedHashMap<>();
+		for (final CCacheStats cacheStats : cachesStats)
+		{
+			size += cacheStats.getSize();
+			hitCount += cacheStats.getGuavaStats().hitCount();
+			missCount += cacheStats.getGuavaStats().missCount();
+			loadCount += cacheStats.getGuavaStats().loadCount();
+			totalLoadTimeNanos += cacheStats.getGuavaStats().totalLoadTime();
+			evictionCount += cacheStats.getGuavaStats().evictionCount();
+			resetCount += cacheStats.getResetCount();
+			recordResetCount += cacheStats.getRecordResetCount();
+			cacheStats.getLoadTimeHistogram().forEach((bucket, count) -> loadTimeHistogram.merge(bucket, count, Long::sum));
+		}
+
+		return builder()
+				.label(label)
+				.cachesCount(cachesStats.size())
+				.size(size)
+				.hitCount(hitCount)
+				.missCount(missCount)
+				.loadCount(loadCount)
+				.totalLoadTimeNanos(totalLoadTimeNanos)
+				.evictionCount(evictionCount)
+				.resetCount(resetCount)
+				.recordResetCount(recordResetCount)
+				.loadTimeHistogram(ImmutableMap.copyOf(loadTimeHistogram))
+				.build();
+	}
+
+	@NonNull
+	CacheLabel label;
+	int cachesCount;
+	long size;
+
+	long hitCount;
+	long missCount;
+	long loadCount;
+	long totalLoadTimeNanos;
+	long evictionCount;
+
+	long resetCount;
+	long recordResetCount;
+
+	/** load time bucket name to count */
+	@NonNull
+	ImmutableMap<String, Long> loadTimeHistogram;
+
+	/** @return hit rate between 0 and 1; 1 if the caches were never requested */
+	public double getHitRate()
+	{
+		final long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : (double)hitCount / requestCount;
+	}
+
+	/** @return average load time in millis; 0 if nothing was loaded */
+	public double getAverageLoadTimeMillis()
+	{
+		return loadCount == 0 ? 0 : (double)totalLoadTimeNanos / loadCount / 1_000_000;
+	}
+
+	/** @return true if the caches were reset (fully or per record) more often than they were hit, i.e. they are not worth it */
+	public boolean isResetMoreOftenThanHit()
+	{
+		return resetCount + recordResetCount > hitCount;
+	}
+}
@@ -0,0 +1,79 @@
+package de.metas.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableMap;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Thread safe histogram of cache value load durations, using fixed buckets.
+ */
+final class CacheLoadTimeHistogram
+{
+	/** Upper bounds (inclusive) of the buckets, in millis. The last bucket collects everything which is bigger. */
+	private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+	private final LongAdder[] bucketCounts;
+
+	public CacheLoadTimeHistogram()
+	{
+		bucketCounts = new LongAdder[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+		for (int i = 0; i < bucketCounts.length; i++)
+		{
+			bucketCounts[i] = new LongAdder();
+		}
+	}
+
+	public void record(final long durationNanos)
+	{
+		final long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+
+		int bucketIndex = BUCKET_UPPER_BOUNDS_MILLIS.length;
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++)
+		{
+			if (durationMillis <= BUCKET_UPPER_BOUNDS_MILLIS[i])
+			{
+				bucketIndex = i;
+				break;
+			}
+		}
+
+		bucketCounts[bucketIndex].increment();
+	}
+
+	/**
+	 * @return bucket name (e.g. "le_10ms", "gt_5000ms") to count; the buckets are ordered ascending
+	 */
+	public ImmutableMap<String, Long> snapshot()
+	{
+		final ImmutableMap.Builder<String, Long> snapshot = ImmutableMap.builder();
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++)
+		{
+			snapshot.put("le_" + BUCKET_UPPER_BOUNDS_MILLIS[i] + "ms", bucketCounts[i].sum());
+		}
+		snapshot.put("gt_" + BUCKET_UPPER_BOUNDS_MILLIS[BUCKET_UPPER_BOUNDS_MILLIS.length - 1] + "ms", bucketCounts[BUCKET_UPPER_BOUNDS_MILLIS.length].sum());
+		return snapshot.build();
+	}
+}
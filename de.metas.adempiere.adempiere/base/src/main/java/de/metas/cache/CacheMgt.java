@@ -16,6 +16,9 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,10 +42,12 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicates;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.logging.LogManager;
@@ -137,6 +142,39 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	/**
+	 * @return statistics of all registered {@link CCache}s
+	 */
+	public ImmutableList<CCacheStats> getCacheStats()
+	{
+		return cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.distinct() // same cache might be registered for more labels
+				.filter(cache -> cache instanceof CCache)
+				.map(cache -> ((CCache<?, ?>)cache).stats())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return statistics of all registered {@link CCache}s, aggregated by {@link CacheLabel}
+	 */
+	public ImmutableList<CacheLabelStats> getCacheStatsByLabel()
+	{
+		final ImmutableListMultimap.Builder<CacheLabel, CCacheStats> statsByLabel = ImmutableListMultimap.builder();
+		for (final CCacheStats cacheStats : getCacheStats())
+		{
+			cacheStats.getLabels().forEach(label -> statsByLabel.put(label, cacheStats));
+		}
+
+		return statsByLabel.build()
+				.asMap()
+				.entrySet()
+				.stream()
+				.map(entry -> CacheLabelStats.aggregate(entry.getKey(), entry.getValue()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -283,6 +321,26 @@ public final class CacheMgt
 		}
 	}
 
+	/**
+	 * Like {@link #resetLocalNowAndBroadcastOnTrxCommit(String, CacheInvalidateMultiRequest)}, but also resets the local caches again when the transaction is committed.
+	 * <p>
+	 * Use it for caches which can be reloaded by other threads while the transaction is still running, because they would reload the data which is about to be changed.
+	 */
+	public void resetLocalNowAndAgainOnTrxCommit(final String trxName, final CacheInvalidateMultiRequest request)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			reset(request, ResetMode.LOCAL_AND_BROADCAST);
+		}
+		else
+		{
+			reset(request, ResetMode.LOCAL);
+			RecordsToResetOnTrxCommitCollector.getCreate(trx).addRecord(request, ResetMode.LOCAL_AND_BROADCAST);
+		}
+	}
+
 	static enum ResetMode
 	{
 		LOCAL, LOCAL_AND_BROADCAST, JUST_BROADCAST;
@@ -337,58 +395,57 @@ public final class CacheMgt
 			return reset();
 		}
 
-		int total = 0;
+		//
+		// Group the requests by cache label,
+		// so that each caches group is visited only once, no matter how many requests (e.g. a remote batch) we got.
+		final Set<CacheLabel> labelsToInvalidateAll = new LinkedHashSet<>();
+		final Map<CacheLabel, Set<TableRecordReference>> recordsToInvalidateByLabel = new LinkedHashMap<>();
 		for (final CacheInvalidateRequest request : multiRequest.getRequests())
 		{
-			final long totalPerRequest = invalidateForRequest(request);
-			total += totalPerRequest;
+			if (request.isAllRecords())
+			{
+				labelsToInvalidateAll.add(CacheLabel.ofTableName(request.getTableNameEffective()));
+			}
+			else
+			{
+				final TableRecordReference childRecordRef = request.getChildRecordOrNull();
+				if (childRecordRef != null)
+				{
+					recordsToInvalidateByLabel.computeIfAbsent(CacheLabel.ofTableName(childRecordRef.getTableName()), k -> new LinkedHashSet<>()).add(childRecordRef);
+				}
+				final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+				if (rootRecordRef != null)
+				{
+					recordsToInvalidateByLabel.computeIfAbsent(CacheLabel.ofTableName(rootRecordRef.getTableName()), k -> new LinkedHashSet<>()).add(rootRecordRef);
+				}
+			}
 		}
 
-		return total;
-	}
-
-	private final long invalidateForRequest(final CacheInvalidateRequest request)
-	{
-		if (request.isAllRecords())
+		long total = 0;
+		for (final CacheLabel label : labelsToInvalidateAll)
 		{
-			final CacheLabel label = CacheLabel.ofTableName(request.getTableNameEffective());
 			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
-			if (cachesGroup == null)
+			if (cachesGroup != null)
 			{
-				return 0;
+				total += cachesGroup.invalidateAllNoFail();
 			}
-
-			return cachesGroup.invalidateAllNoFail();
 		}
-		else
+		for (final Map.Entry<CacheLabel, Set<TableRecordReference>> labelAndRecords : recordsToInvalidateByLabel.entrySet())
 		{
-			long resetCount = 0;
-
-			final TableRecordReference childRecordRef = request.getChildRecordOrNull();
-			if (childRecordRef != null)
+			final CacheLabel label = labelAndRecords.getKey();
+			if (labelsToInvalidateAll.contains(label))
 			{
-				resetCount += invalidateForRecord(childRecordRef);
+				continue; // already invalidated
 			}
-			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
-			if (rootRecordRef != null)
+
+			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
+			if (cachesGroup != null)
 			{
-				resetCount += invalidateForRecord(rootRecordRef);
+				total += cachesGroup.invalidateForRecordsNoFail(labelAndRecords.getValue());
 			}
-
-			return resetCount;
 		}
-	}
 
-	private final long invalidateForRecord(final TableRecordReference recordRef)
-	{
-		final CacheLabel label = CacheLabel.ofTableName(recordRef.getTableName());
-		final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
-		if (cachesGroup == null)
-		{
-			return 0;
-		}
-
-		return cachesGroup.invalidateForRecordNoFail(recordRef);
+		return total;
 	}
 
 	/**
@@ -589,10 +646,10 @@ public final class CacheMgt
 					.sum();
 		}
 
-		public long invalidateForRecordNoFail(final TableRecordReference recordRef)
+		public long invalidateForRecordsNoFail(final Collection<TableRecordReference> recordRefs)
 		{
 			return streamCaches()
-					.mapToLong(cache -> invalidateNoFail(cache, recordRef))
+					.mapToLong(cache -> recordRefs.stream().mapToLong(recordRef -> invalidateNoFail(cache, recordRef)).sum())
 					.sum();
 		}
 
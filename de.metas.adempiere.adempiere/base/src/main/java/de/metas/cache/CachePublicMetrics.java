@@ -0,0 +1,64 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Publishes the {@link CacheMgt} statistics, aggregated by {@link CacheLabel}, to the actuator's metrics endpoint.
+ * The metric names are <code>metasfresh.cache.&lt;label&gt;.&lt;metric&gt;</code>.
+ */
+@Component
+public class CachePublicMetrics implements PublicMetrics
+{
+	private static final String PREFIX = "metasfresh.cache.";
+
+	@Override
+	public Collection<Metric<?>> metrics()
+	{
+		final List<Metric<?>> metrics = new ArrayList<>();
+		for (final CacheLabelStats stats : CacheMgt.get().getCacheStatsByLabel())
+		{
+			final String prefix = PREFIX + stats.getLabel().getName() + ".";
+			metrics.add(new Metric<>(prefix + "caches", stats.getCachesCount()));
+			metrics.add(new Metric<>(prefix + "size", stats.getSize()));
+			metrics.add(new Metric<>(prefix + "hit", stats.getHitCount()));
+			metrics.add(new Metric<>(prefix + "miss", stats.getMissCount()));
+			metrics.add(new Metric<>(prefix + "hitRate", stats.getHitRate()));
+			metrics.add(new Metric<>(prefix + "load", stats.getLoadCount()));
+			metrics.add(new Metric<>(prefix + "loadTime.avgMillis", stats.getAverageLoadTimeMillis()));
+			stats.getLoadTimeHistogram().forEach((bucket, count) -> metrics.add(new Metric<>(prefix + "loadTime." + bucket, count)));
+			metrics.add(new Metric<>(prefix + "eviction", stats.getEvictionCount()));
+			metrics.add(new Metric<>(prefix + "reset", stats.getResetCount()));
+			metrics.add(new Metric<>(prefix + "recordReset", stats.getRecordResetCount()));
+		}
+
+		return metrics;
+	}
+}
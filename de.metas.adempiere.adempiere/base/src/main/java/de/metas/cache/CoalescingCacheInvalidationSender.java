@@ -0,0 +1,290 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted and sends them as one {@link CacheInvalidateMultiRequest} per flush window.
+ *
+ * While collecting:
+ * <ul>
+ * <li>requests for the same record are sent only once
+ * <li>if there are more record level requests for a table than a given threshold, they are replaced by one table level request
+ * <li>if there is a "reset all" request, only that one is sent
+ * </ul>
+ *
+ * If the flush window is not positive, the requests are sent right away.
+ */
+final class CoalescingCacheInvalidationSender
+{
+	private static final Logger logger = LogManager.getLogger(CoalescingCacheInvalidationSender.class);
+
+	/** Min delay before re-sending requests which failed to be sent */
+	private static final int RETRY_DELAY_MILLIS_MIN = 1000;
+
+	private final Consumer<CacheInvalidateMultiRequest> sender;
+	private final IntSupplier flushWindowMillisSupplier;
+	private final IntSupplier maxRecordsPerTableSupplier;
+
+	private final Object lock = new Object();
+	private PendingRequests pendingRequests = null;
+	private ScheduledExecutorService _executor;
+
+	@Builder
+	private CoalescingCacheInvalidationSender(
+			@NonNull final Consumer<CacheInvalidateMultiRequest> sender,
+			@NonNull final IntSupplier flushWindowMillisSupplier,
+			@NonNull final IntSupplier maxRecordsPerTableSupplier)
+	{
+		this.sender = sender;
+		this.flushWindowMillisSupplier = flushWindowMillisSupplier;
+		this.maxRecordsPerTableSupplier = maxRecordsPerTableSupplier;
+	}
+
+	public void send(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		final int flushWindowMillis = flushWindowMillisSupplier.getAsInt();
+		if (flushWindowMillis <= 0)
+		{
+			sender.accept(multiRequest);
+			return;
+		}
+
+		enqueue(multiRequest, flushWindowMillis);
+	}
+
+	private void enqueue(final CacheInvalidateMultiRequest multiRequest, final int flushDelayMillis)
+	{
+		synchronized (lock)
+		{
+			final boolean scheduleFlush = pendingRequests == null;
+			if (scheduleFlush)
+			{
+				pendingRequests = new PendingRequests(maxRecordsPerTableSupplier.getAsInt());
+			}
+
+			multiRequest.getRequests().forEach(pendingRequests::add);
+
+			if (scheduleFlush)
+			{
+				getExecutor().schedule(this::flush, flushDelayMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	@VisibleForTesting
+	void flush()
+	{
+		final PendingRequests pendingRequestsToSend;
+		synchronized (lock)
+		{
+			pendingRequestsToSend = this.pendingRequests;
+			this.pendingRequests = null;
+		}
+
+		if (pendingRequestsToSend == null)
+		{
+			return;
+		}
+
+		final CacheInvalidateMultiRequest multiRequest = pendingRequestsToSend.toMultiRequestOrNull();
+		if (multiRequest == null)
+		{
+			return;
+		}
+
+		try
+		{
+			sender.accept(multiRequest);
+			logger.debug("Sent {} coalesced cache invalidation requests", multiRequest.getRequests().size());
+		}
+		catch (final Exception ex)
+		{
+			// don't lose the invalidations, else other nodes would keep stale data; coalesce them with the next requests and retry
+			logger.warn("Failed sending {}. Retrying with the next flush.", multiRequest, ex);
+			enqueue(multiRequest, Math.max(flushWindowMillisSupplier.getAsInt(), RETRY_DELAY_MILLIS_MIN));
+		}
+	}
+
+	private ScheduledExecutorService getExecutor()
+	{
+		// NOTE: we lazy initialize the executor because we don't want to start a thread if there is nothing to broadcast
+		if (_executor == null)
+		{
+			final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(getClass().getSimpleName())
+					.setDaemon(true)
+					.build();
+
+			final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+			executor.setKeepAliveTime(1, TimeUnit.MINUTES);
+			executor.allowCoreThreadTimeOut(true);
+			_executor = executor;
+		}
+		return _executor;
+	}
+
+	/** The requests collected in one flush window. Not thread safe. */
+	@VisibleForTesting
+	static final class PendingRequests
+	{
+		private final int maxRecordsPerTable;
+
+		private boolean resetAll = false;
+		private final Set<String> tableNamesToResetAll = new LinkedHashSet<>();
+		private final Map<String, Map<RecordKey, CacheInvalidateRequest>> recordRequestsByTableName = new LinkedHashMap<>();
+
+		PendingRequests(final int maxRecordsPerTable)
+		{
+			this.maxRecordsPerTable = maxRecordsPerTable;
+		}
+
+		public void add(@NonNull final CacheInvalidateRequest request)
+		{
+			if (resetAll)
+			{
+				return;
+			}
+
+			if (request.isAll())
+			{
+				resetAll = true;
+				tableNamesToResetAll.clear();
+				recordRequestsByTableName.clear();
+				return;
+			}
+
+			final String tableName = request.getTableNameEffective();
+			if (tableName == null)
+			{
+				return;
+			}
+			if (tableNamesToResetAll.contains(tableName))
+			{
+				// the record part is already covered by the table level request, but a child record request also invalidates its root record
+				addRootRecordOfChildRecordRequest(request);
+				return;
+			}
+
+			if (request.isAllRecords())
+			{
+				escalateToAllRecords(tableName);
+				return;
+			}
+
+			final Map<RecordKey, CacheInvalidateRequest> recordRequests = recordRequestsByTableName.computeIfAbsent(tableName, k -> new LinkedHashMap<>());
+			recordRequests.putIfAbsent(RecordKey.of(request), request);
+			if (maxRecordsPerTable > 0 && recordRequests.size() > maxRecordsPerTable)
+			{
+				escalateToAllRecords(tableName);
+			}
+		}
+
+		private void escalateToAllRecords(final String tableName)
+		{
+			tableNamesToResetAll.add(tableName);
+
+			final Map<RecordKey, CacheInvalidateRequest> recordRequests = recordRequestsByTableName.remove(tableName);
+			if (recordRequests == null)
+			{
+				return;
+			}
+
+			// The child record requests are also invalidating their root records,
+			// so we have to keep those root records when we replace the child records by a table level request.
+			recordRequests.values().forEach(this::addRootRecordOfChildRecordRequest);
+		}
+
+		private void addRootRecordOfChildRecordRequest(final CacheInvalidateRequest request)
+		{
+			final TableRecordReference childRecordRef = request.getChildRecordOrNull();
+			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+			if (childRecordRef != null && rootRecordRef != null)
+			{
+				add(CacheInvalidateRequest.rootRecord(rootRecordRef.getTableName(), rootRecordRef.getRecord_ID()));
+			}
+		}
+
+		public CacheInvalidateMultiRequest toMultiRequestOrNull()
+		{
+			if (resetAll)
+			{
+				return CacheInvalidateMultiRequest.all();
+			}
+
+			final List<CacheInvalidateRequest> requests = new ArrayList<>();
+			tableNamesToResetAll.stream()
+					.map(CacheInvalidateRequest::allRecordsForTable)
+					.forEach(requests::add);
+			recordRequestsByTableName.values()
+					.forEach(recordRequests -> requests.addAll(recordRequests.values()));
+
+			if (requests.isEmpty())
+			{
+				return null;
+			}
+
+			return CacheInvalidateMultiRequest.of(ImmutableList.copyOf(requests));
+		}
+	}
+
+	/** Identifies the records of a {@link CacheInvalidateRequest}, ignoring its unique ID */
+	@Value
+	private static final class RecordKey
+	{
+		public static RecordKey of(final CacheInvalidateRequest request)
+		{
+			return new RecordKey(request.getRootTableName(), request.getRootRecordId(), request.getChildTableName(), request.getChildRecordId());
+		}
+
+		String rootTableName;
+		int rootRecordId;
+		String childTableName;
+		int childRecordId;
+	}
+}
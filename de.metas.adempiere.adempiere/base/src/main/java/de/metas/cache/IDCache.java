@@ -32,7 +32,8 @@ public class IDCache<V> extends CCache<Object, V>
 				null, // additionalTableNamesToResetFor
 				initialCapacity,
 				expireMinutes,
-				cacheMapType);
+				cacheMapType,
+				null); // recordRefsExtractor
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
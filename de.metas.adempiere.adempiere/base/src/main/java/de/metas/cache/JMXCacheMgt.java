@@ -1,11 +1,13 @@
 package de.metas.cache;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Set;
 
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -83,6 +85,40 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		getCacheMgt().enableRemoteCacheInvalidationForTableName(tableName);
 	}
 
+	@Override
+	public String[] getCacheStats()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.sorted(Comparator.comparing(CCacheStats::getName))
+				.map(CCacheStats::toString)
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public String[] getCacheStatsByLabel()
+	{
+		return getCacheMgt()
+				.getCacheStatsByLabel()
+				.stream()
+				.sorted(Comparator.comparing(stats -> stats.getLabel().getName()))
+				.map(CacheLabelStats::toString)
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public String[] getCacheStatsByLabelResetMoreOftenThanHit()
+	{
+		return getCacheMgt()
+				.getCacheStatsByLabel()
+				.stream()
+				.filter(CacheLabelStats::isResetMoreOftenThanHit)
+				.sorted(Comparator.comparing(stats -> stats.getLabel().getName()))
+				.map(CacheLabelStats::toString)
+				.toArray(size -> new String[size]);
+	}
+
 	@Override
 	public long resetAll()
 	{
@@ -20,6 +20,12 @@ public interface JMXCacheMgtMBean
 
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
+	String[] getCacheStats();
+
+	String[] getCacheStatsByLabel();
+
+	String[] getCacheStatsByLabelResetMoreOftenThanHit();
+
 	long resetAll();
 
 	long resetForTable(String tableName);
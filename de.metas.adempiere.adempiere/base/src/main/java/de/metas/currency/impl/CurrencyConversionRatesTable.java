@@ -0,0 +1,168 @@
+package de.metas.currency.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.OrgId;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * All {@code C_Conversion_Rate}s of one currency pair and conversion type, indexed by client/org and {@code ValidFrom}.
+ * <p>
+ * Finds the same rate as {@link CurrencyDAO#retrieveRateQuery(de.metas.currency.CurrencyConversionContext, int, int)}, but in memory.
+ */
+@ToString
+final class CurrencyConversionRatesTable
+{
+	public static CurrencyConversionRatesTable ofRates(@NonNull final Collection<Rate> rates)
+	{
+		return new CurrencyConversionRatesTable(rates);
+	}
+
+	/** Rates by client/org, each indexed by ValidFrom */
+	private final ImmutableMap<ClientAndOrg, NavigableMap<LocalDate, List<Rate>>> ratesByClientAndOrg;
+
+	private CurrencyConversionRatesTable(final Collection<Rate> rates)
+	{
+		final Map<ClientAndOrg, NavigableMap<LocalDate, List<Rate>>> ratesByClientAndOrg = new HashMap<>();
+		for (final Rate rate : rates)
+		{
+			ratesByClientAndOrg
+					.computeIfAbsent(ClientAndOrg.of(rate.getClientId(), rate.getOrgId()), k -> new TreeMap<>())
+					.computeIfAbsent(rate.getValidFrom(), k -> new ArrayList<>())
+					.add(rate);
+		}
+		this.ratesByClientAndOrg = ImmutableMap.copyOf(ratesByClientAndOrg);
+	}
+
+	/**
+	 * @return the multiply rate which is valid on given date, preferring client/org specific rates over system/any-org rates and the rate with the latest {@code ValidFrom}
+	 */
+	@Nullable
+	public BigDecimal getMultiplyRateOrNull(
+			@NonNull final ClientId clientId,
+			@NonNull final OrgId orgId,
+			@NonNull final LocalDate date)
+	{
+		for (final ClientAndOrg clientAndOrg : ClientAndOrg.inPreferenceOrder(clientId, orgId))
+		{
+			final Rate rate = getRateOrNull(clientAndOrg, date);
+			if (rate != null)
+			{
+				return rate.getMultiplyRate();
+			}
+		}
+		return null;
+	}
+
+	private Rate getRateOrNull(final ClientAndOrg clientAndOrg, final LocalDate date)
+	{
+		final NavigableMap<LocalDate, List<Rate>> ratesByValidFrom = ratesByClientAndOrg.get(clientAndOrg);
+		if (ratesByValidFrom == null)
+		{
+			return null;
+		}
+
+		// iterate the rates which start on or before the given date, latest first, and take the first one which did not end before it
+		for (final List<Rate> rates : ratesByValidFrom.headMap(date, true).descendingMap().values())
+		{
+			for (final Rate rate : rates)
+			{
+				if (rate.isValidOn(date))
+				{
+					return rate;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Value
+	@Builder
+	public static class Rate
+	{
+		@NonNull
+		ClientId clientId;
+		@NonNull
+		OrgId orgId;
+
+		@NonNull
+		LocalDate validFrom;
+		/** like in the former {@code ValidTo >= ?} query, a rate without {@code ValidTo} is never valid; note that the C_Conversion_Rate model interceptor always sets it */
+		@Nullable
+		LocalDate validTo;
+
+		@NonNull
+		BigDecimal multiplyRate;
+
+		private boolean isValidOn(final LocalDate date)
+		{
+			return validTo != null && validTo.compareTo(date) >= 0;
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	private static class ClientAndOrg
+	{
+		/** @return the client/orgs to look at, in the same order as the {@code ORDER BY AD_Client_ID DESC, AD_Org_ID DESC} of the database query */
+		static List<ClientAndOrg> inPreferenceOrder(final ClientId clientId, final OrgId orgId)
+		{
+			final List<ClientId> clientIds = clientId.isSystem() ? ImmutableList.of(ClientId.SYSTEM) : ImmutableList.of(clientId, ClientId.SYSTEM);
+			final List<OrgId> orgIds = orgId.isAny() ? ImmutableList.of(OrgId.ANY) : ImmutableList.of(orgId, OrgId.ANY);
+
+			final ImmutableList.Builder<ClientAndOrg> result = ImmutableList.builder();
+			for (final ClientId currentClientId : clientIds)
+			{
+				for (final OrgId currentOrgId : orgIds)
+				{
+					result.add(of(currentClientId, currentOrgId));
+				}
+			}
+			return result.build();
+		}
+
+		@NonNull
+		ClientId clientId;
+		@NonNull
+		OrgId orgId;
+	}
+}
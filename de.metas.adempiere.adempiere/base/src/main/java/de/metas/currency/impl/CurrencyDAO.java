@@ -9,7 +9,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBL;
@@ -31,6 +30,8 @@ import org.compiere.model.I_C_Currency;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.currency.ConversionType;
@@ -41,6 +42,7 @@ import de.metas.money.CurrencyId;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -75,6 +77,12 @@ public class CurrencyDAO implements ICurrencyDAO
 			.tableName(I_C_ConversionType.Table_Name)
 			.build();
 
+	/** Note: any {@link I_C_Conversion_Rate} change resets the whole cache, which is fine because rates are changed rarely compared to how often they are used. */
+	private final CCache<ConversionRatesTableKey, CurrencyConversionRatesTable> conversionRatesTables = CCache.<ConversionRatesTableKey, CurrencyConversionRatesTable> builder()
+			.tableName(I_C_Conversion_Rate.Table_Name)
+			.initialCapacity(100)
+			.build();
+
 	@Override
 	public I_C_Currency getById(@NonNull final CurrencyId currencyId)
 	{
@@ -222,17 +230,44 @@ public class CurrencyDAO implements ICurrencyDAO
 	@Override
 	public BigDecimal retrieveRateOrNull(final CurrencyConversionContext conversionCtx, final int CurFrom_ID, final int CurTo_ID)
 	{
-		final List<Map<String, Object>> result = retrieveRateQuery(conversionCtx, CurFrom_ID, CurTo_ID)
-				.setLimit(1)
+		final ConversionRatesTableKey key = ConversionRatesTableKey.of(CurFrom_ID, CurTo_ID, conversionCtx.getConversionTypeId());
+		return conversionRatesTables.getOrLoad(key, this::retrieveConversionRatesTable)
+				.getMultiplyRateOrNull(conversionCtx.getClientId(), conversionCtx.getOrgId(), conversionCtx.getConversionDate());
+	}
+
+	private CurrencyConversionRatesTable retrieveConversionRatesTable(@NonNull final ConversionRatesTableKey key)
+	{
+		final List<CurrencyConversionRatesTable.Rate> rates = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_Conversion_Rate.class)
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_Currency_ID, key.getCurrencyFromId())
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_Currency_ID_To, key.getCurrencyToId())
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_ConversionType_ID, key.getConversionTypeId())
+				.addNotNull(I_C_Conversion_Rate.COLUMN_ValidFrom)
 				.create()
-				.listColumns(I_C_Conversion_Rate.COLUMNNAME_MultiplyRate);
+				.stream(I_C_Conversion_Rate.class)
+				.map(CurrencyDAO::toConversionRatesTableRate)
+				.collect(ImmutableList.toImmutableList());
 
-		if (result.isEmpty())
-		{
-			return null;
-		}
+		return CurrencyConversionRatesTable.ofRates(rates);
+	}
 
-		final BigDecimal rate = (BigDecimal)result.get(0).get(I_C_Conversion_Rate.COLUMNNAME_MultiplyRate);
-		return rate;
+	private static CurrencyConversionRatesTable.Rate toConversionRatesTableRate(@NonNull final I_C_Conversion_Rate record)
+	{
+		return CurrencyConversionRatesTable.Rate.builder()
+				.clientId(ClientId.ofRepoId(record.getAD_Client_ID()))
+				.orgId(OrgId.ofRepoIdOrAny(record.getAD_Org_ID()))
+				.validFrom(TimeUtil.asLocalDate(record.getValidFrom()))
+				.validTo(TimeUtil.asLocalDate(record.getValidTo()))
+				.multiplyRate(record.getMultiplyRate())
+				.build();
+	}
+
+	@Value(staticConstructor = "of")
+	private static class ConversionRatesTableKey
+	{
+		int currencyFromId;
+		int currencyToId;
+		@NonNull
+		CurrencyConversionTypeId conversionTypeId;
 	}
 }
@@ -95,6 +95,7 @@ public class PlainCurrencyDAO extends CurrencyDAO
 	 * Creates/Updates an {@link I_C_Conversion_Rate} using given parameters and following defaults:
 	 * <ul>
 	 * <li>ValidFrom: 1970-01-01
+	 * <li>ValidTo: 2056-12-31
 	 * <li>ConversionType: default
 	 * <li>Client/Org: from {@link Env#getCtx()}
 	 * </ul>
@@ -131,6 +132,7 @@ public class PlainCurrencyDAO extends CurrencyDAO
 			// FIXME: this one is not working due a bug in POJOWrapper or because it's not respecting the standard naming conventions (i.e. C_Currency_To_ID)
 			// conversionRate.setC_Currency_To(currencyTo);
 			conversionRate.setValidFrom(TimeUtil.asTimestamp(date));
+			conversionRate.setValidTo(TimeUtil.getDay(2056, 12, 31)); // same as the C_Conversion_Rate model interceptor; a rate without ValidTo is not valid
 		}
 
 		conversionRate.setMultiplyRate(rate);
@@ -9,11 +9,14 @@ import org.adempiere.ad.modelvalidator.annotations.Init;
 import org.adempiere.ad.modelvalidator.annotations.Interceptor;
 import org.adempiere.ad.modelvalidator.annotations.ModelChange;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_Conversion_Rate;
 import org.compiere.model.ModelValidator;
 import org.compiere.util.DisplayType;
 import org.compiere.util.TimeUtil;
 
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.util.Services;
 
 /*
@@ -76,4 +79,16 @@ public class C_Conversion_Rate
 			throw new AdempiereException(df.format(to) + " < " + df.format(from));
 		}
 	}
+
+	/**
+	 * The rates are cached in memory by {@link de.metas.currency.impl.CurrencyDAO}.
+	 * Saving the rate resets that cache right away, but another thread could reload the old rates before this transaction is committed.
+	 * So we reset it again after commit.
+	 */
+	@ModelChange(timings = { ModelValidator.TYPE_AFTER_NEW, ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_DELETE })
+	public void resetConversionRatesCacheAfterCommit(final I_C_Conversion_Rate conversionRate)
+	{
+		final CacheInvalidateMultiRequest request = CacheInvalidateMultiRequest.rootRecord(I_C_Conversion_Rate.Table_Name, conversionRate.getC_Conversion_Rate_ID());
+		CacheMgt.get().resetLocalNowAndAgainOnTrxCommit(InterfaceWrapperHelper.getTrxName(conversionRate), request);
+	}
 }
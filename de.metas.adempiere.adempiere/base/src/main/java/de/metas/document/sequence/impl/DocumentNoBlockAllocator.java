@@ -0,0 +1,155 @@
+package de.metas.document.sequence.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out sequence numbers from blocks which were reserved in the database beforehand, so only one database update is needed per block instead of per number.
+ * <p>
+ * Numbers which were reserved but not handed out (e.g. on server restart) are lost, so this is only for sequences which don't need to be gapless.
+ * <p>
+ * All blocks are dropped when an {@link I_AD_Sequence} or {@link I_AD_Sequence_No} record is changed (e.g. an admin resets <code>CurrentNext</code>),
+ * so that the next number is taken from the database again.
+ */
+final class DocumentNoBlockAllocator
+{
+	public static final DocumentNoBlockAllocator instance = new DocumentNoBlockAllocator().registerCacheResetListener();
+
+	private final Map<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+
+	@VisibleForTesting
+	DocumentNoBlockAllocator()
+	{
+	}
+
+	private DocumentNoBlockAllocator registerCacheResetListener()
+	{
+		final ICacheResetListener cacheResetListener = multiRequest -> reset();
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence.Table_Name, cacheResetListener);
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence_No.Table_Name, cacheResetListener);
+		return this;
+	}
+
+	/**
+	 * Drops all blocks. Their remaining numbers are lost.
+	 *
+	 * @return how many blocks were dropped
+	 */
+	@VisibleForTesting
+	long reset()
+	{
+		final long count = blocks.size();
+		blocks.clear();
+		return count;
+	}
+
+	/**
+	 * @param incrementNo the sequence's increment
+	 * @param blockSize how many numbers to reserve at once
+	 * @param blockReserver called with the total increment of a new block; shall increment the sequence by that value and return the first number of the reserved block
+	 * @return the next sequence number; if the block reserver returned a negative number, that number is returned and nothing is reserved
+	 */
+	public int next(
+			@NonNull final BlockKey key,
+			final int incrementNo,
+			final int blockSize,
+			@NonNull final IntUnaryOperator blockReserver)
+	{
+		final Block block = blocks.computeIfAbsent(key, k -> new Block());
+		return block.next(incrementNo, blockSize, blockReserver);
+	}
+
+	/**
+	 * @return the number which {@link #next(BlockKey, int, int, IntUnaryOperator)} would hand out next without reserving a new block, or {@code null} if a new block would be reserved
+	 */
+	@Nullable
+	public Integer peekNextOrNull(@NonNull final BlockKey key, final int incrementNo)
+	{
+		final Block block = blocks.get(key);
+		return block != null ? block.peekNextOrNull(incrementNo) : null;
+	}
+
+	@Value(staticConstructor = "of")
+	public static class BlockKey
+	{
+		int adSequenceId;
+		boolean adempiereSys;
+		/** {@code null} if the sequence does not start new each year */
+		@Nullable
+		String calendarYear;
+	}
+
+	private static final class Block
+	{
+		private int next = 0;
+		/** number of remaining numbers in this block */
+		private int remaining = 0;
+		private int incrementNo = 0;
+
+		public synchronized int next(final int incrementNo, final int blockSize, final IntUnaryOperator blockReserver)
+		{
+			// if the increment was changed meanwhile, drop the remaining numbers and start a new block
+			if (remaining <= 0 || this.incrementNo != incrementNo)
+			{
+				final int blockStart = blockReserver.applyAsInt(incrementNo * blockSize);
+				if (blockStart < 0)
+				{
+					return blockStart;
+				}
+
+				this.next = blockStart;
+				this.remaining = blockSize;
+				this.incrementNo = incrementNo;
+			}
+
+			final int result = next;
+			next += incrementNo;
+			remaining--;
+			return result;
+		}
+
+		public synchronized Integer peekNextOrNull(final int incrementNo)
+		{
+			if (remaining <= 0 || this.incrementNo != incrementNo)
+			{
+				return null;
+			}
+			return next;
+		}
+	}
+}
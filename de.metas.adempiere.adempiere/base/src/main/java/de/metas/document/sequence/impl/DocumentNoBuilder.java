@@ -32,6 +32,7 @@ import java.util.function.Supplier;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.compiere.model.I_C_DocType;
@@ -68,6 +69,13 @@ import lombok.NonNull;
 class DocumentNoBuilder implements IDocumentNoBuilder
 {
 	private static final String PROVIDER_NOT_APPLICABLE = "de.metas.document.CustomSequenceNotProviderNoApplicable";
+
+	/**
+	 * Opt-in per sequence, e.g. <code>de.metas.document.sequence.PreallocationBlockSize.AD_Sequence_ID_540123=100</code>.
+	 * If set to more than one, that many numbers are reserved at once and handed out from memory; see {@link DocumentNoBlockAllocator}.
+	 * Only for sequences which don't need to be gapless.
+	 */
+	private static final String SYSCONFIG_PREFIX_PreallocationBlockSize = "de.metas.document.sequence.PreallocationBlockSize.AD_Sequence_ID_";
 	// services
 	private static final transient Logger logger = LogManager.getLogger(DocumentNoBuilder.class);
 	private final transient IDocumentSequenceDAO documentSequenceDAO = Services.get(IDocumentSequenceDAO.class);
@@ -251,6 +259,34 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 	}
 
 	private int retrieveAndIncrementSequenceCurrentNext(final DocumentSequenceInfo docSeqInfo)
+	{
+		final boolean adempiereSys = isAdempiereSys();
+		final String calendarYear = !adempiereSys && docSeqInfo.isStartNewYear() ? getCalendarYear(docSeqInfo.getDateColumn()) : null;
+
+		final int blockSize = getPreallocationBlockSize(docSeqInfo);
+		if (blockSize <= 1)
+		{
+			return retrieveAndIncrementSequenceCurrentNext(docSeqInfo, calendarYear, docSeqInfo.getIncrementNo());
+		}
+
+		return DocumentNoBlockAllocator.instance.next(
+				DocumentNoBlockAllocator.BlockKey.of(docSeqInfo.getAdSequenceId(), adempiereSys, calendarYear),
+				docSeqInfo.getIncrementNo(),
+				blockSize,
+				blockIncrement -> retrieveAndIncrementSequenceCurrentNext(docSeqInfo, calendarYear, blockIncrement));
+	}
+
+	private static int getPreallocationBlockSize(final DocumentSequenceInfo docSeqInfo)
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_PREFIX_PreallocationBlockSize + docSeqInfo.getAdSequenceId(), 0);
+	}
+
+	/**
+	 * @param calendarYear only relevant if the sequence starts new each year
+	 * @param increment how much to increment the sequence
+	 * @return the sequence's current next value before incrementing it
+	 */
+	private int retrieveAndIncrementSequenceCurrentNext(final DocumentSequenceInfo docSeqInfo, final String calendarYear, final int increment)
 	{
 		final String trxName = getTrxName();
 		final List<Object> sqlParams = new ArrayList<>();
@@ -258,27 +294,25 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 		else if (docSeqInfo.isStartNewYear())
 		{
-			final String calendarYear = getCalendarYear(docSeqInfo.getDateColumn());
-
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
@@ -300,6 +334,20 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveSequenceCurrentNext(final DocumentSequenceInfo docSeqInfo)
 	{
+		// if numbers are handed out from a reserved block, then preview the block's next number, because that's what this node will hand out
+		if (getPreallocationBlockSize(docSeqInfo) > 1)
+		{
+			final boolean adempiereSys = isAdempiereSys();
+			final String calendarYear = !adempiereSys && docSeqInfo.isStartNewYear() ? getCalendarYear(docSeqInfo.getDateColumn()) : null;
+			final Integer blockNext = DocumentNoBlockAllocator.instance.peekNextOrNull(
+					DocumentNoBlockAllocator.BlockKey.of(docSeqInfo.getAdSequenceId(), adempiereSys, calendarYear),
+					docSeqInfo.getIncrementNo());
+			if (blockNext != null)
+			{
+				return blockNext;
+			}
+		}
+
 		final int adSequenceId = docSeqInfo.getAdSequenceId();
 		final String trxName = getTrxName();
 
@@ -1,6 +1,7 @@
 package de.metas.event.log;
 
 import java.util.Collection;
+import java.util.Properties;
 
 import javax.annotation.Nullable;
 
@@ -10,6 +11,7 @@ import org.compiere.model.I_AD_Issue;
 import org.compiere.util.Env;
 import org.springframework.stereotype.Service;
 
+import de.metas.event.Event;
 import de.metas.event.log.impl.EventLogEntryCollector;
 import de.metas.event.log.impl.EventLogLoggable;
 import de.metas.util.ILoggable;
@@ -175,6 +177,43 @@ public class EventLogUserService
 		}
 	}
 
+	/**
+	 * Wraps the given {@code runnable} so that it can be run in another thread (e.g. a worker lane) and still log to the currently handled event's log.
+	 * <p>
+	 * The current context and event are captured now. When the returned runnable is run, it switches to that context and installs an event log collector for that event.
+	 * If the given {@code runnable} fails, an error log entry is stored for the given {@code handlerClass}.
+	 */
+	public Runnable wrapToRunInOtherThread(@NonNull final Class<?> handlerClass, @NonNull final Runnable runnable)
+	{
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final Event event = EventLogEntryCollector.getThreadLocalEventOrNull();
+
+		return () -> {
+			try (final IAutoCloseable c = Env.switchContext(ctx))
+			{
+				if (event == null)
+				{
+					runnable.run();
+					return;
+				}
+
+				final EventLogEntryCollector collector = EventLogEntryCollector.createThreadLocalForEvent(event);
+				try
+				{
+					runnable.run();
+				}
+				catch (final RuntimeException e)
+				{
+					newErrorLogEntry(handlerClass, e).createAndStore();
+				}
+				finally
+				{
+					collector.close();
+				}
+			}
+		};
+	}
+
 	private boolean wasEventProcessedbyHandler(@NonNull final Class<?> handlerClass)
 	{
 		final EventLogEntryCollector eventLogCollector = EventLogEntryCollector.getThreadLocal();
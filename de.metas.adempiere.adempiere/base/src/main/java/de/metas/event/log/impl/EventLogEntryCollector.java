@@ -3,6 +3,8 @@ package de.metas.event.log.impl;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 
@@ -77,6 +79,14 @@ public class EventLogEntryCollector implements IAutoCloseable
 		return eventLogCollector;
 	}
 
+	/** @return the event of the current thread's collector or {@code null} if there is no collector */
+	@Nullable
+	public static Event getThreadLocalEventOrNull()
+	{
+		final EventLogEntryCollector eventLogCollector = threadLocalCollector.get();
+		return eventLogCollector != null ? eventLogCollector.getEvent() : null;
+	}
+
 	public void addEventLog(@NonNull final EventLogEntryRequest eventLogRequest)
 	{
 		final EventLogEntry eventLog = EventLogEntry.builder().uuid(event.getUuid())
@@ -25,9 +25,8 @@ package org.adempiere.ad.persistence;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.reflections.ReflectionUtils;
 
@@ -43,8 +42,7 @@ class ModelClassInfo implements IModelClassInfo
 	private final Class<?> modelClass;
 	private final String tableName;
 
-	private Map<Method, IModelMethodInfo> _modelMethodInfos;
-	private final ReentrantLock modelMethodInfosLock = new ReentrantLock();
+	private final ConcurrentHashMap<Method, IModelMethodInfo> modelMethodInfos = new ConcurrentHashMap<>();
 
 	private Set<String> _definedColumnNames = null;
 
@@ -83,51 +81,26 @@ class ModelClassInfo implements IModelClassInfo
 		return tableName;
 	}
 
+	/**
+	 * Gets the method info for given interface method.
+	 *
+	 * NOTE: this method is called on each model getter/setter invocation, so it shall be lock free.
+	 */
 	@Override
 	public final IModelMethodInfo getMethodInfo(final Method method)
 	{
-		modelMethodInfosLock.lock();
-		try
+		// NOTE: we do a plain get first, because computeIfAbsent is locking the bin even if the method info is already there
+		IModelMethodInfo methodInfo = modelMethodInfos.get(method);
+		if (methodInfo == null)
 		{
-			final Map<Method, IModelMethodInfo> methodInfos = getMethodInfos0();
-
-			IModelMethodInfo methodInfo = methodInfos.get(method);
-
-			//
-			// If methodInfo was not found, try to create it now
+			methodInfo = modelMethodInfos.computeIfAbsent(method, introspector::createModelMethodInfo);
 			if (methodInfo == null)
 			{
-				methodInfo = introspector.createModelMethodInfo(method);
-				if (methodInfo == null)
-				{
-					throw new IllegalStateException("No method info was found for " + method + " in " + this);
-				}
-
-				methodInfos.put(method, methodInfo);
+				throw new IllegalStateException("No method info was found for " + method + " in " + this);
 			}
-
-			return methodInfo;
 		}
-		finally
-		{
-			modelMethodInfosLock.unlock();
-		}
-	}
 
-	/**
-	 * Gets the inner map of {@link Method} to {@link IModelMethodInfo}.
-	 * 
-	 * NOTE: this method is not thread safe
-	 * 
-	 * @return
-	 */
-	private final Map<Method, IModelMethodInfo> getMethodInfos0()
-	{
-		if (_modelMethodInfos == null)
-		{
-			_modelMethodInfos = introspector.createModelMethodInfos(getModelClass());
-		}
-		return _modelMethodInfos;
+		return methodInfo;
 	}
 
 	@Override
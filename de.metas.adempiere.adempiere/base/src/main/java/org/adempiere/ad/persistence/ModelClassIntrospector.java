@@ -25,10 +25,9 @@ package org.adempiere.ad.persistence;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.Nullable;
@@ -52,7 +51,7 @@ public final class ModelClassIntrospector implements IModelClassIntrospector
 		return instance;
 	}
 
-	private final Map<Class<?>, IModelClassInfo> class2info = new IdentityHashMap<>(500);
+	private final Map<Class<?>, IModelClassInfo> class2info = new ConcurrentHashMap<>(500);
 	private final Set<Class<?>> classesWhichAreNotModels = new IdentityHashSet<>(100);
 	private final ReentrantLock lock = new ReentrantLock();
 
@@ -69,11 +68,20 @@ public final class ModelClassIntrospector implements IModelClassIntrospector
 			return null;
 		}
 
+		//
+		// Check if we already have cached the model.
+		// NOTE: we do it without locking because this method is called each time a model is wrapped
+		final IModelClassInfo modelClassInfoCached = class2info.get(clazz);
+		if (modelClassInfoCached != null)
+		{
+			return modelClassInfoCached;
+		}
+
 		lock.lock();
 		try
 		{
 			//
-			// Check if we already have cached the model
+			// Check again, maybe it was added while we were waiting for the lock
 			IModelClassInfo modelClassInfo = class2info.get(clazz);
 			if (modelClassInfo != null)
 			{
@@ -121,18 +129,6 @@ public final class ModelClassIntrospector implements IModelClassIntrospector
 		return null;
 	}
 
-	public Map<Method, IModelMethodInfo> createModelMethodInfos(final Class<?> clazz)
-	{
-		final Map<Method, IModelMethodInfo> modelMethodsInfo = new HashMap<>();
-		for (final Method method : clazz.getMethods())
-		{
-			final IModelMethodInfo modelMethodInfo = createModelMethodInfo(method);
-			modelMethodsInfo.put(method, modelMethodInfo);
-		}
-
-		return modelMethodsInfo;
-	}
-
 	/**
 	 * Creates {@link IModelMethodInfo} for given <code>method</code>
 	 *
@@ -26,10 +26,15 @@ import java.lang.reflect.Constructor;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
@@ -43,7 +48,9 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 import de.metas.cache.interceptor.CacheInterceptor;
 import de.metas.cache.model.IModelCacheService;
@@ -63,6 +70,10 @@ public final class TableModelLoader
 	public static final transient TableModelLoader instance = new TableModelLoader();
 
 	private static final Logger log = LogManager.getLogger(TableModelLoader.class);
+
+	/** Max number of IDs to be loaded in one SQL query */
+	private static final int LOAD_BY_IDS_CHUNK_SIZE = 1000;
+
 	private final TableModelClassLoader tableModelClassLoader = TableModelClassLoader.instance;
 
 	private TableModelLoader()
@@ -139,69 +150,113 @@ public final class TableModelLoader
 		}
 
 		final IModelCacheService modelCacheService = Services.get(IModelCacheService.class);
+		final boolean checkCache = !CacheInterceptor.isCacheDisabled();
 
-		final List<PO> result = new ArrayList<>(recordIds.size());
+		return getByIds(
+				recordIds,
+				checkCache ? recordId -> modelCacheService.retrieveObject(ctx, tableName, recordId, trxName) : recordId -> null,
+				recordIdsChunk -> loadPOsByIds(ctx, tableName, recordIdsChunk, trxName),
+				PO::get_ID,
+				LOAD_BY_IDS_CHUNK_SIZE);
+	}
+
+	/**
+	 * Gets as many records as possible from the given cache and loads the others in chunks.
+	 *
+	 * @param cacheLookup returns the cached record or <code>null</code>
+	 * @param chunkLoader loads the records of one chunk of IDs; IDs which don't exist are skipped
+	 * @return the records in the order of the given IDs; IDs which were neither cached nor loaded are skipped
+	 */
+	@VisibleForTesting
+	static <T> List<T> getByIds(
+			@NonNull final Set<Integer> ids,
+			@NonNull final IntFunction<T> cacheLookup,
+			@NonNull final Function<List<Integer>, List<T>> chunkLoader,
+			@NonNull final ToIntFunction<T> idExtractor,
+			final int chunkSize)
+	{
+		final Map<Integer, T> recordsById = new HashMap<>(ids.size());
 
 		//
 		// Load from cache as much is possible
-		final Set<Integer> recordIdsToLoad;
-		final boolean checkCache = !CacheInterceptor.isCacheDisabled();
-		if (checkCache)
+		final Set<Integer> idsToLoad = new LinkedHashSet<>();
+		for (final int id : ids)
 		{
-			recordIdsToLoad = new HashSet<>();
-			for (final int recordId : recordIds)
+			final T recordCached = cacheLookup.apply(id);
+			if (recordCached != null)
 			{
-				final PO poCached = modelCacheService.retrieveObject(ctx, tableName, recordId, trxName);
-				if (poCached != null)
-				{
-					result.add(poCached);
-				}
-				else
-				{
-					recordIdsToLoad.add(recordId);
-				}
+				recordsById.put(id, recordCached);
+			}
+			else
+			{
+				idsToLoad.add(id);
 			}
-		}
-		else
-		{
-			recordIdsToLoad = recordIds;
 		}
 
 		//
-		// Retrieve from database what was not found in cache
-		if (!recordIdsToLoad.isEmpty())
+		// Retrieve what was not found in cache
+		for (final List<Integer> idsChunk : Iterables.partition(idsToLoad, chunkSize))
 		{
-			final POInfo poInfo = POInfo.getPOInfo(tableName);
-
-			final List<Object> sqlParams = new ArrayList<>();
-			final String sql = poInfo.buildSelect()
-					.append(" WHERE ").append(DB.buildSqlList(poInfo.getSingleKeyColumnName(), recordIdsToLoad, sqlParams))
-					.toString();
-			PreparedStatement pstmt = null;
-			ResultSet rs = null;
-			try
+			for (final T record : chunkLoader.apply(idsChunk))
 			{
-				pstmt = DB.prepareStatement(sql, trxName);
-				DB.setParameters(pstmt, sqlParams);
-				rs = pstmt.executeQuery();
-				while (rs.next())
-				{
-					final PO po = getPO(ctx, tableName, rs, trxName);
-					result.add(po);
-				}
+				recordsById.put(idExtractor.applyAsInt(record), record);
 			}
-			catch (Exception ex)
+		}
+
+		final List<T> result = new ArrayList<>(recordsById.size());
+		for (final int id : ids)
+		{
+			final T record = recordsById.get(id);
+			if (record != null)
 			{
-				throw new DBException(ex, sql, sqlParams);
+				result.add(record);
 			}
-			finally
+		}
+		return result;
+	}
+
+	/**
+	 * Loads the given records using one <code>KeyColumn = ANY(?)</code> query, passing the IDs as one array parameter.
+	 * That way the SQL is the same, no matter how many IDs we have, so the database can reuse the prepared statement.
+	 * The loaded POs are added to model cache (see {@link #getPO(Properties, String, ResultSet, String)}).
+	 */
+	private List<PO> loadPOsByIds(
+			final Properties ctx,
+			final String tableName,
+			final List<Integer> recordIds,
+			final String trxName)
+	{
+		final POInfo poInfo = POInfo.getPOInfo(tableName);
+		final String sql = buildSqlSelectByIds(poInfo.buildSelect(), poInfo.getSingleKeyColumnName());
+		final Integer[] sqlParamValue = recordIds.toArray(new Integer[recordIds.size()]);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, trxName);
+			pstmt.setArray(1, pstmt.getConnection().createArrayOf("integer", sqlParamValue));
+			rs = pstmt.executeQuery();
+			final List<PO> pos = new ArrayList<>(recordIds.size());
+			while (rs.next())
 			{
-				DB.close(rs, pstmt);
+				pos.add(getPO(ctx, tableName, rs, trxName));
 			}
+			return pos;
+		}
+		catch (Exception ex)
+		{
+			throw new DBException(ex, sql, new Object[] { recordIds });
 		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
 
-		//
-		return result;
+	@VisibleForTesting
+	static String buildSqlSelectByIds(@NonNull final CharSequence sqlSelect, @NonNull final String keyColumnName)
+	{
+		return sqlSelect + " WHERE " + keyColumnName + " = ANY(?)";
 	}
 
 	/**
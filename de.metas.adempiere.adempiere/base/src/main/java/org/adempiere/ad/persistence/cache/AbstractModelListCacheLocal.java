@@ -139,6 +139,14 @@ public abstract class AbstractModelListCacheLocal<PT, T>
 		return itemsCopy;
 	}
 
+	/**
+	 * @return true if the items are loaded and not staled, i.e. {@link #getItems()} would not access the database
+	 */
+	public final boolean isLoaded()
+	{
+		return !checkStaled();
+	}
+
 	/**
 	 * Mark this list as staled.
 	 */
@@ -424,6 +432,30 @@ public abstract class AbstractModelListCacheLocal<PT, T>
 		debugCheckItemsValid();
 	}
 
+	/**
+	 * Sets the given items (which were retrieved by the caller) and flag this list as not staled anymore.
+	 *
+	 * To be used when the items of many parents are retrieved at once, instead of one {@link #retrieveItems(IContextAware, Object)} per parent.
+	 *
+	 * @param items items as they would be returned by {@link #retrieveItems(IContextAware, Object)}
+	 */
+	public final void setItemsNotStaled(final List<T> items)
+	{
+		Check.assumeNotNull(items, "items not null");
+
+		final PT parentModel = getParentModel();
+		this.ctx = createPlainContextAware(parentModel);
+		this.items = new ArrayList<T>(items);
+		if (itemsComparator != null)
+		{
+			Collections.sort(this.items, itemsComparator);
+		}
+		this.parentModelLoadCount = InterfaceWrapperHelper.getLoadCount(parentModel);
+		this.debugEmptyNotStaledSet = false;
+
+		debugCheckItemsValid();
+	}
+
 	private final void debugCheckItemsValid()
 	{
 		if (!DEBUG)
@@ -88,7 +88,7 @@ public abstract class TrxOnCommitCollectorFactory<CollectorType, ItemType>
 
 					// Register a listener which will process the collector when the transaction is committed.
 					trx.getTrxListenerManager()
-							.newEventListener(TrxEventTiming.AFTER_COMMIT)
+							.newEventListener(getProcessingTiming())
 							.invokeMethodJustOnce(false) // invoke the handling method on *every* commit, because that's how it was and I can't check now if it's really needed
 							.registerHandlingMethod(innerTrx -> {
 
@@ -137,6 +137,15 @@ public abstract class TrxOnCommitCollectorFactory<CollectorType, ItemType>
 		}
 	}
 
+	/**
+	 * @return when the collector shall be processed; {@link TrxEventTiming#AFTER_COMMIT} by default.
+	 *         Return {@link TrxEventTiming#BEFORE_COMMIT} if the collector shall be processed within the transaction, so that a failure makes the commit fail instead of losing the items.
+	 */
+	protected TrxEventTiming getProcessingTiming()
+	{
+		return TrxEventTiming.AFTER_COMMIT;
+	}
+
 	/** @return the name of the property to be used for storing the collector in {@link ITrx} properties. */
 	protected abstract String getTrxProperyName();
 
@@ -169,7 +178,7 @@ public abstract class TrxOnCommitCollectorFactory<CollectorType, ItemType>
 	/**
 	 * Process the collector.
 	 *
-	 * This method is called on transaction commit, if there was a transaction. If the processing was executed out of transaction, the method will be called right after the collector was created and
+	 * This method is called on transaction commit (see {@link #getProcessingTiming()}), if there was a transaction. If the processing was executed out of transaction, the method will be called right after the collector was created and
 	 * the item was added to it.
 	 *
 	 * @param collector
@@ -56,7 +56,6 @@ import org.compiere.util.Env;
 import org.compiere.util.Evaluatee2;
 import org.slf4j.Logger;
 
-import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.document.engine.IDocument;
@@ -219,9 +218,10 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 
 		final Properties ctx = Env.getCtx();
 
+		// like TableModelLoader.getPOs, skip the IDs which don't exist
 		return ids.stream()
+				.filter(id -> POJOLookupMap.get().lookup(modelClass, id) != null)
 				.map(id -> create(ctx, id, modelClass, trxName))
-				.filter(Predicates.notNull())
 				.collect(ImmutableList.toImmutableList());
 	}
 
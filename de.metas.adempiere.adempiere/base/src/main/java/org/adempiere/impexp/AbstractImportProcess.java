@@ -26,14 +26,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.LoggerLoggable;
 import org.adempiere.util.api.IParams;
 import org.adempiere.util.lang.IMutable;
@@ -46,6 +49,8 @@ import org.compiere.util.ISqlUpdateReturnProcessor;
 import org.compiere.util.TrxRunnableAdapter;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
 
 import ch.qos.logback.classic.Level;
@@ -75,6 +80,14 @@ public abstract class AbstractImportProcess<ImportRecordType> implements IImport
 	public static final String COLUMNNAME_Processed = "Processed";
 	public static final String COLUMNNAME_Processing = "Processing";
 
+	/**
+	 * How many import records shall be imported in one transaction. If greater than one, each record is imported in a savepoint of the batch transaction,
+	 * so a failing record does not roll back the other records of its batch. Default is one, i.e. one transaction per record.
+	 *
+	 * Note: the SysConfig can also be set per import table, e.g. <code>org.adempiere.impexp.AbstractImportProcess.BatchSize.I_BPartner</code>.
+	 */
+	private static final String SYSCONFIG_BatchSize = "org.adempiere.impexp.AbstractImportProcess.BatchSize";
+
 	// services
 	protected final transient Logger log = LogManager.getLogger(getClass());
 	protected final ITrxManager trxManager = Services.get(ITrxManager.class);
@@ -147,6 +160,19 @@ public abstract class AbstractImportProcess<ImportRecordType> implements IImport
 
 	protected abstract String getTargetTableName();
 
+	/**
+	 * @return how many import records shall be imported in one transaction; see {@link #SYSCONFIG_BatchSize}
+	 */
+	protected int getImportBatchSize()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int clientId = getAD_Client_ID();
+
+		final int batchSizeDefault = sysConfigBL.getIntValue(SYSCONFIG_BatchSize, 1, clientId);
+		final int batchSize = sysConfigBL.getIntValue(SYSCONFIG_BatchSize + "." + getImportTableName(), batchSizeDefault, clientId);
+		return batchSize > 0 ? batchSize : 1;
+	}
+
 	@Override
 	public final String getWhereClause()
 	{
@@ -300,49 +326,22 @@ public abstract class AbstractImportProcess<ImportRecordType> implements IImport
 			pstmt = DB.prepareStatement(sql.toString(), ITrx.TRXNAME_None); // i.e. out of transaction
 			rs = pstmt.executeQuery();
 
-			final IMutable<Object> state = new Mutable<>();
-			while (rs.next())
+			final ResultSet importRecordsRS = rs;
+			importRecords(new AbstractIterator<ImportRecordType>()
 			{
-				final ImportRecordType importRecord = retrieveImportRecord(ctx, rs);
-				trxManager.run(new TrxRunnableAdapter()
+				@Override
+				protected ImportRecordType computeNext()
 				{
-					private ImportRecordResult recordImportResult;
-					private Throwable error;
-
-					@Override
-					public void run(final String localTrxName) throws Exception
-					{
-						this.recordImportResult = importRecord(state, importRecord);
-
-						markImported(importRecord);
-					}
-
-					@Override
-					public boolean doCatch(final Throwable e) throws Throwable
+					try
 					{
-						this.error = e;
-						return true; // rollback
+						return importRecordsRS.next() ? retrieveImportRecord(ctx, importRecordsRS) : endOfData();
 					}
-
-					@Override
-					public void doFinally()
+					catch (final SQLException e)
 					{
-						if (error != null)
-						{
-							reportError(importRecord, error.getLocalizedMessage());
-							InterfaceWrapperHelper.markStaled(importRecord); // just in case some BL wants to get values from it
-						}
-						else if (recordImportResult == ImportRecordResult.Inserted)
-						{
-							importResult.incrementInsertCounter();
-						}
-						else if (recordImportResult == ImportRecordResult.Updated)
-						{
-							importResult.incrementUpdateCounter();
-						}
+						throw new DBException(e, sql.toString());
 					}
-				});
-			}
+				}
+			}, importResult);
 
 			afterImport();
 		}
@@ -361,13 +360,139 @@ public abstract class AbstractImportProcess<ImportRecordType> implements IImport
 		}
 	}
 
+	/**
+	 * Imports the given records, either one transaction per record or in batches of {@link #getImportBatchSize()} records.
+	 */
+	@VisibleForTesting
+	final void importRecords(final Iterator<ImportRecordType> importRecords, final ImportProcessResult importResult)
+	{
+		final int batchSize = getImportBatchSize();
+		log.debug("Importing with batchSize={}", batchSize);
+
+		final IMutable<Object> state = new Mutable<>();
+		final List<ImportRecordType> batch = new ArrayList<>(batchSize);
+		while (importRecords.hasNext())
+		{
+			final ImportRecordType importRecord = importRecords.next();
+			if (batchSize <= 1)
+			{
+				importRecord(state, importRecord, ITrx.TRXNAME_None, recordImportResult -> countImportRecordResult(importResult, recordImportResult));
+				continue;
+			}
+
+			batch.add(importRecord);
+			if (batch.size() >= batchSize)
+			{
+				importRecordsBatch(state, batch, importResult);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty())
+		{
+			importRecordsBatch(state, batch, importResult);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Imports the given records in one transaction, each record in its own savepoint.
+	 * If the batch transaction itself fails (e.g. on commit), the records are imported again, one transaction per record.
+	 */
+	private void importRecordsBatch(
+			final IMutable<Object> state,
+			final List<ImportRecordType> importRecords,
+			final ImportProcessResult importResult)
+	{
+		// collect the results and count them only after commit, because the whole batch might still be rolled back
+		final List<ImportRecordResult> recordImportResults = new ArrayList<>(importRecords.size());
+		try
+		{
+			trxManager.runInNewTrx(() -> importRecords.forEach(importRecord -> importRecord(state, importRecord, ITrx.TRXNAME_ThreadInherited, recordImportResults::add)));
+		}
+		catch (final Exception ex)
+		{
+			log.warn("Failed importing a batch of {} records. Retrying them one transaction per record.", importRecords.size(), ex);
+
+			recordImportResults.clear();
+			state.setValue(null); // the state might reference records which were rolled back
+			InterfaceWrapperHelper.refreshAll(importRecords); // discard the changes of the rolled back batch
+
+			for (final ImportRecordType importRecord : importRecords)
+			{
+				importRecord(state, importRecord, ITrx.TRXNAME_None, recordImportResults::add);
+			}
+		}
+
+		recordImportResults.forEach(recordImportResult -> countImportRecordResult(importResult, recordImportResult));
+	}
+
+	/**
+	 * Imports the given record and marks it as imported. In case of failure, the changes are rolled back and the error is reported on the import record.
+	 *
+	 * @param trxName {@link ITrx#TRXNAME_None} to import in a new transaction or {@link ITrx#TRXNAME_ThreadInherited} to import in a savepoint of the current transaction
+	 * @param recordImportResultCollector called if the record was imported
+	 */
+	private void importRecord(
+			final IMutable<Object> state,
+			final ImportRecordType importRecord,
+			final String trxName,
+			final Consumer<ImportRecordResult> recordImportResultCollector)
+	{
+		trxManager.run(trxName, new TrxRunnableAdapter()
+		{
+			private ImportRecordResult recordImportResult;
+			private Throwable error;
+
+			@Override
+			public void run(final String localTrxName) throws Exception
+			{
+				this.recordImportResult = importRecord(state, importRecord);
+
+				markImported(importRecord);
+			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				this.error = e;
+				return true; // rollback
+			}
+
+			@Override
+			public void doFinally()
+			{
+				if (error != null)
+				{
+					reportError(importRecord, error.getLocalizedMessage());
+					InterfaceWrapperHelper.markStaled(importRecord); // just in case some BL wants to get values from it
+				}
+				else
+				{
+					recordImportResultCollector.accept(recordImportResult);
+				}
+			}
+		});
+	}
+
+	private static void countImportRecordResult(final ImportProcessResult importResult, final ImportRecordResult recordImportResult)
+	{
+		if (recordImportResult == ImportRecordResult.Inserted)
+		{
+			importResult.incrementInsertCounter();
+		}
+		else if (recordImportResult == ImportRecordResult.Updated)
+		{
+			importResult.incrementUpdateCounter();
+		}
+	}
+
 	protected abstract String getImportOrderBySql();
 
 	protected abstract ImportRecordType retrieveImportRecord(final Properties ctx, final ResultSet rs) throws SQLException;
 
 	protected abstract ImportRecordResult importRecord(final IMutable<Object> state, final ImportRecordType importRecord) throws Exception;
 
-	protected final void reportError(final ImportRecordType importRecord, final String errorMsg)
+	protected void reportError(final ImportRecordType importRecord, final String errorMsg)
 	{
 		final String tableName = InterfaceWrapperHelper.getModelTableName(importRecord);
 		final String keyColumnName = InterfaceWrapperHelper.getKeyColumnName(tableName);
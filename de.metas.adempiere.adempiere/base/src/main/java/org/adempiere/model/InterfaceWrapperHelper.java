@@ -22,6 +22,7 @@ package org.adempiere.model;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,7 @@ import org.compiere.model.GridTab;
 import org.compiere.model.I_AD_Issue;
 import org.compiere.model.PO;
 import org.compiere.model.POInfo;
+import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
@@ -380,12 +382,19 @@ public class InterfaceWrapperHelper
 		return create(Env.getCtx(), id, modelClass, ITrx.TRXNAME_ThreadInherited);
 	}
 
+	/**
+	 * Loads the given models, using thread inherited transaction.
+	 * The models which are not already in model cache are loaded in chunks, one SQL query per chunk.
+	 * So prefer this method over calling {@link #load(int, Class)} in a loop.
+	 *
+	 * NOTE: the order of the returned models is undefined.
+	 */
 	public static <T> List<T> loadByIds(final Set<Integer> ids, final Class<T> modelClass)
 	{
 		return loadByIds(ids, modelClass, ITrx.TRXNAME_ThreadInherited);
 	}
 
-	public static <T> List<T> loadByRepoIdAwares(@NonNull final Set<? extends RepoIdAware> repoIdAwares, final Class<T> modelClass)
+	public static <T> List<T> loadByRepoIdAwares(@NonNull final Collection<? extends RepoIdAware> repoIdAwares, final Class<T> modelClass)
 	{
 		final ImmutableSet<Integer> ids = RepoIdAwares.asRepoIdsSet(repoIdAwares);
 		return loadByIds(ids, modelClass, ITrx.TRXNAME_ThreadInherited);
@@ -615,6 +624,113 @@ public class InterfaceWrapperHelper
 		}
 	}
 
+	/**
+	 * Saves all given models, in the given order.
+	 *
+	 * Compared to calling {@link #save(Object)} for each model, the new {@link PO}s are getting their IDs allocated in one block per table,
+	 * instead of one sequence round-trip per record, and they are inserted with one multi-row INSERT per table (see {@link PO#saveAllEx(List)}).
+	 * The model interceptors are fired for each record, same as for {@link #save(Object)},
+	 * but the before-new interceptors of a record are fired before the previous records of the same batch are inserted.
+	 * So this method is meant for records which don't depend on each other while being saved.
+	 */
+	public static void saveAll(@NonNull final Collection<?> models)
+	{
+		if (models.isEmpty())
+		{
+			return;
+		}
+
+		preallocateIDs(models);
+
+		final List<PO> pos = new ArrayList<>();
+		for (final Object model : models)
+		{
+			final PO po = extractPOToSaveOrNull(model);
+			if (po != null)
+			{
+				pos.add(po);
+				continue;
+			}
+
+			PO.saveAllEx(pos);
+			pos.clear();
+
+			save(model);
+		}
+
+		PO.saveAllEx(pos);
+	}
+
+	/**
+	 * Same as {@link #saveAll(Collection)}, but saves the models in given transaction, like {@link #save(Object, String)}.
+	 */
+	public static void saveAll(@NonNull final Collection<?> models, final String trxName)
+	{
+		if (models.isEmpty())
+		{
+			return;
+		}
+
+		final List<String> trxNamesOld = models.stream()
+				.map(InterfaceWrapperHelper::getTrxName)
+				.collect(Collectors.toList());
+		models.forEach(model -> setTrxName(model, trxName));
+		try
+		{
+			saveAll(models);
+		}
+		finally
+		{
+			// Restore the trxNames
+			int i = 0;
+			for (final Object model : models)
+			{
+				setTrxName(model, trxNamesOld.get(i));
+				i++;
+			}
+		}
+	}
+
+	@Nullable
+	private static PO extractPOToSaveOrNull(final Object model)
+	{
+		if (model == null)
+		{
+			return null;
+		}
+
+		final Object modelToSave = extractModelToSave(model);
+		if (GridTabWrapper.isHandled(modelToSave))
+		{
+			return null;
+		}
+
+		return POWrapper.getStrictPO(modelToSave);
+	}
+
+	private static void preallocateIDs(final Collection<?> models)
+	{
+		final Map<String, Map<Integer, List<PO>>> posByTableNameAndClientId = models.stream()
+				.map(InterfaceWrapperHelper::extractModelToSave)
+				.filter(POWrapper::isHandled)
+				.map(model -> (PO)getPO(model))
+				.filter(po -> po != null && po.isPreallocatedIDApplicable())
+				.collect(Collectors.groupingBy(PO::get_TableName, Collectors.groupingBy(PO::getAD_Client_ID)));
+
+		posByTableNameAndClientId.forEach((tableName, posByClientId) -> posByClientId.forEach((adClientId, pos) -> {
+			if (pos.size() <= 1)
+			{
+				return; // nothing to gain
+			}
+
+			final int[] ids = DB.getNextIDs(adClientId, tableName, pos.size());
+			for (int i = 0; i < ids.length; i++)
+			{
+				pos.get(i).setPreallocatedID(ids[i]);
+			}
+		}));
+	}
+
 	private static Object extractModelToSave(final Object model)
 	{
 		final Object modelToSave;
@@ -589,4 +589,21 @@ public interface IQuery<T>
 	{
 		return list(clazz).stream();
 	}
+
+	/**
+	 * Return a stream of all records that match the query criteria, backed by a database cursor.
+	 *
+	 * Compared to {@link #stream(Class)} and {@link #iterateAndStream()}, only one SQL query is executed and the records are fetched lazily,
+	 * <code>fetchSize</code> rows at a time. The post-query filter (if any) is applied lazily too.
+	 *
+	 * IMPORTANT: the returned stream holds database resources, so it must be closed (e.g. using try-with-resources).
+	 *
+	 * @param clazz all resulting models will be converted to this interface
+	 * @param fetchSize how many rows to fetch from database at once
+	 * @return closeable stream
+	 */
+	default <ET extends T> Stream<ET> streamWithCursor(final Class<ET> clazz, final int fetchSize) throws DBException
+	{
+		return stream(clazz);
+	}
 }
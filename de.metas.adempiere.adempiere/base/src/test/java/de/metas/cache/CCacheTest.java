@@ -27,9 +27,12 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.cache.CCache;
@@ -228,4 +231,80 @@ public class CCacheTest
 		cache.putAll(Collections.singletonMap("key1", "value1_newValue"));
 		Assert.assertEquals("Value shall exist", "value1_newValue", cache.get("key1"));
 	}
+
+	@Test
+	public void test_resetForRecordId_withRecordRefsExtractor()
+	{
+		AdempiereTestHelper.get().init();
+
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.tableName("Test_Table")
+				.recordRefsExtractor((key, value) -> ImmutableList.of(TableRecordReference.of("Test_Table", key)))
+				.build();
+		cache.put(1, "value1");
+		cache.put(2, "value2");
+		cache.getOrLoad(3, key -> "value3");
+		assertSize(cache, 3);
+
+		Assert.assertEquals(1, CacheMgt.get().reset("Test_Table", 2));
+		assertSize(cache, 2);
+		Assert.assertEquals("value1", cache.get(1));
+		Assert.assertNull(cache.get(2));
+		Assert.assertEquals("value3", cache.get(3));
+
+		// record which is not cached
+		Assert.assertEquals(0, CacheMgt.get().reset("Test_Table", 100));
+		assertSize(cache, 2);
+
+		// removed entries shall be also removed from index
+		cache.remove(1);
+		Assert.assertEquals(0, cache.resetForRecordId(TableRecordReference.of("Test_Table", 1)));
+
+		// reset all records of the table
+		CacheMgt.get().resetLocal("Test_Table");
+		assertEmpty(cache);
+	}
+
+	@Test
+	public void test_stats()
+	{
+		final CCache<String, String> cache = new CCache<String, String>("Test", 10);
+		cache.getOrLoad("key1", key -> "value1"); // miss + load
+		cache.getOrLoad("key1", key -> "value1"); // hit
+		cache.reset();
+
+		final CCache.CCacheStats stats = cache.stats();
+		Assert.assertEquals(1, stats.getGuavaStats().hitCount());
+		Assert.assertEquals(1, stats.getGuavaStats().missCount());
+		Assert.assertEquals(1, stats.getResetCount());
+		Assert.assertEquals(1, stats.getLoadTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	public void test_resetForRecordId_whileLoading()
+	{
+		AdempiereTestHelper.get().init();
+
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.tableName("Test_Table")
+				.recordRefsExtractor((key, value) -> ImmutableList.of(TableRecordReference.of("Test_Table", key)))
+				.build();
+
+		// simulate a record change which is reset while the (now stale) value is loaded, i.e. before it's put into the cache
+		final String loadedValue = cache.getOrLoad(1, key -> {
+			cache.resetForRecordId(TableRecordReference.of("Test_Table", 1));
+			return "staleValue1";
+		});
+		Assert.assertEquals("staleValue1", loadedValue);
+
+		// the stale value shall not stay in cache
+		Assert.assertNull(cache.get(1));
+		assertEmpty(cache);
+
+		// after that, values are cached and indexed as usual
+		cache.getOrLoad(1, key -> "value1");
+		Assert.assertEquals("value1", cache.get(1));
+		Assert.assertEquals(1, cache.resetForRecordId(TableRecordReference.of("Test_Table", 1)));
+		assertEmpty(cache);
+	}
 }
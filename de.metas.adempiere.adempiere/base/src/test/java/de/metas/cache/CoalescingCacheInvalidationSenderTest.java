@@ -0,0 +1,149 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.cache.CoalescingCacheInvalidationSender.PendingRequests;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CoalescingCacheInvalidationSenderTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void sameRecordIsSentOnce()
+	{
+		final PendingRequests pendingRequests = new PendingRequests(10);
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 1));
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 1));
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 2));
+
+		final CacheInvalidateMultiRequest multiRequest = pendingRequests.toMultiRequestOrNull();
+		assertThat(multiRequest.getRequests()).hasSize(2);
+	}
+
+	@Test
+	public void tooManyRecordsAreEscalatedToTableLevel()
+	{
+		final PendingRequests pendingRequests = new PendingRequests(2);
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 1));
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 2));
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 3));
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 4));
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table2", 1));
+
+		final CacheInvalidateMultiRequest multiRequest = pendingRequests.toMultiRequestOrNull();
+		assertThat(multiRequest.getRequests()).hasSize(2);
+		assertThat(multiRequest.getRequests())
+				.filteredOn(CacheInvalidateRequest::isAllRecords)
+				.extracting(CacheInvalidateRequest::getTableNameEffective)
+				.containsExactly("Table1");
+	}
+
+	@Test
+	public void escalatedChildRecordsKeepTheirRootRecords()
+	{
+		final PendingRequests pendingRequests = new PendingRequests(1);
+		pendingRequests.add(CacheInvalidateRequest.builder().rootRecord("Root", 1).childRecord("Child", 10).build());
+		pendingRequests.add(CacheInvalidateRequest.builder().rootRecord("Root", 1).childRecord("Child", 11).build());
+
+		final CacheInvalidateMultiRequest multiRequest = pendingRequests.toMultiRequestOrNull();
+		assertThat(multiRequest.getTableNamesEffective()).containsExactlyInAnyOrder("Root", "Child");
+		assertThat(multiRequest.getRootRecords()).hasSize(1);
+	}
+
+	@Test
+	public void resetAllWins()
+	{
+		final PendingRequests pendingRequests = new PendingRequests(10);
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 1));
+		pendingRequests.add(CacheInvalidateRequest.all());
+		pendingRequests.add(CacheInvalidateRequest.rootRecord("Table1", 2));
+
+		assertThat(pendingRequests.toMultiRequestOrNull()).isSameAs(CacheInvalidateMultiRequest.all());
+	}
+
+	@Test
+	public void nothingToSend()
+	{
+		assertThat(new PendingRequests(10).toMultiRequestOrNull()).isNull();
+	}
+
+	@Test
+	public void escalatedChildTable_laterRequestsStillResetTheirRootRecords()
+	{
+		final PendingRequests pendingRequests = new PendingRequests(1);
+		pendingRequests.add(CacheInvalidateRequest.builder().rootRecord("Root", 1).childRecord("Child", 10).build());
+		pendingRequests.add(CacheInvalidateRequest.builder().rootRecord("Root", 1).childRecord("Child", 11).build());
+		// "Child" is escalated to table level now
+		pendingRequests.add(CacheInvalidateRequest.builder().rootRecord("Root", 2).childRecord("Child", 20).build());
+
+		final CacheInvalidateMultiRequest multiRequest = pendingRequests.toMultiRequestOrNull();
+		assertThat(multiRequest.getRequests())
+				.filteredOn(CacheInvalidateRequest::isAllRecords)
+				.extracting(CacheInvalidateRequest::getTableNameEffective)
+				.containsExactly("Child");
+		assertThat(multiRequest.getRootRecords()).hasSize(2);
+	}
+
+	@Test
+	public void failedFlushIsRetried()
+	{
+		final List<CacheInvalidateMultiRequest> sentRequests = new ArrayList<>();
+		final AtomicBoolean failSending = new AtomicBoolean(true);
+		final CoalescingCacheInvalidationSender sender = CoalescingCacheInvalidationSender.builder()
+				.sender(multiRequest -> {
+					if (failSending.get())
+					{
+						throw new RuntimeException("simulated failure");
+					}
+					sentRequests.add(multiRequest);
+				})
+				.flushWindowMillisSupplier(() -> 60 * 1000) // flush is called explicitly below
+				.maxRecordsPerTableSupplier(() -> 10)
+				.build();
+
+		sender.send(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+		sender.flush();
+		assertThat(sentRequests).isEmpty();
+
+		failSending.set(false);
+		sender.flush();
+		assertThat(sentRequests).hasSize(1);
+		assertThat(sentRequests.get(0).getRootRecords()).hasSize(1);
+	}
+}
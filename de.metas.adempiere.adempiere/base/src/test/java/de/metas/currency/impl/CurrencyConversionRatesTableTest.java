@@ -0,0 +1,121 @@
+package de.metas.currency.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.OrgId;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.currency.impl.CurrencyConversionRatesTable.Rate;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CurrencyConversionRatesTableTest
+{
+	private static final ClientId CLIENT_ID = ClientId.ofRepoId(1000000);
+	private static final OrgId ORG_ID = OrgId.ofRepoId(1000000);
+
+	/** the ValidTo which the C_Conversion_Rate model interceptor sets if there is none */
+	private static final LocalDate FAR_FUTURE = LocalDate.of(2056, 12, 31);
+
+	@Test
+	public void latestValidFromWins()
+	{
+		final CurrencyConversionRatesTable table = CurrencyConversionRatesTable.ofRates(ImmutableList.of(
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 1, 1), FAR_FUTURE, "1.1"),
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 6, 1), FAR_FUTURE, "1.2")));
+
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2017, 12, 31))).isNull();
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 1, 1))).isEqualByComparingTo("1.1");
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 5, 31))).isEqualByComparingTo("1.1");
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 6, 1))).isEqualByComparingTo("1.2");
+	}
+
+	@Test
+	public void validToIsInclusive()
+	{
+		final CurrencyConversionRatesTable table = CurrencyConversionRatesTable.ofRates(ImmutableList.of(
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31), "1.1"),
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 6, 1), LocalDate.of(2018, 6, 30), "1.2")));
+
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 6, 30))).isEqualByComparingTo("1.2");
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 7, 1))).isEqualByComparingTo("1.1");
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 12, 31))).isEqualByComparingTo("1.1");
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2019, 1, 1))).isNull();
+	}
+
+	/** Like the former {@code ValidTo >= ?} query, a rate without ValidTo is not found. */
+	@Test
+	public void rateWithoutValidToIsNotValid()
+	{
+		final CurrencyConversionRatesTable table = CurrencyConversionRatesTable.ofRates(ImmutableList.of(
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 1, 1), FAR_FUTURE, "1.1"),
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 6, 1), null, "1.2")));
+
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 7, 1))).isEqualByComparingTo("1.1");
+	}
+
+	@Test
+	public void clientAndOrgSpecificRatesArePreferred()
+	{
+		final LocalDate validFrom = LocalDate.of(2018, 1, 1);
+		final CurrencyConversionRatesTable table = CurrencyConversionRatesTable.ofRates(ImmutableList.of(
+				rate(ClientId.SYSTEM, OrgId.ANY, validFrom, FAR_FUTURE, "1.1"),
+				rate(ClientId.SYSTEM, ORG_ID, validFrom, FAR_FUTURE, "1.2"),
+				rate(CLIENT_ID, OrgId.ANY, validFrom, FAR_FUTURE, "1.3"),
+				rate(CLIENT_ID, ORG_ID, validFrom, FAR_FUTURE, "1.4")));
+
+		final LocalDate date = LocalDate.of(2018, 5, 1);
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, date)).isEqualByComparingTo("1.4");
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, OrgId.ANY, date)).isEqualByComparingTo("1.3");
+		assertThat(table.getMultiplyRateOrNull(ClientId.SYSTEM, ORG_ID, date)).isEqualByComparingTo("1.2");
+		assertThat(table.getMultiplyRateOrNull(ClientId.SYSTEM, OrgId.ANY, date)).isEqualByComparingTo("1.1");
+		assertThat(table.getMultiplyRateOrNull(ClientId.ofRepoId(1000001), OrgId.ofRepoId(1000001), date)).isEqualByComparingTo("1.1");
+	}
+
+	@Test
+	public void clientSpecificRateWinsOverNewerSystemRate()
+	{
+		final CurrencyConversionRatesTable table = CurrencyConversionRatesTable.ofRates(ImmutableList.of(
+				rate(CLIENT_ID, OrgId.ANY, LocalDate.of(2018, 1, 1), FAR_FUTURE, "1.1"),
+				rate(ClientId.SYSTEM, OrgId.ANY, LocalDate.of(2018, 6, 1), FAR_FUTURE, "1.2")));
+
+		assertThat(table.getMultiplyRateOrNull(CLIENT_ID, ORG_ID, LocalDate.of(2018, 7, 1))).isEqualByComparingTo("1.1");
+	}
+
+	private static Rate rate(final ClientId clientId, final OrgId orgId, final LocalDate validFrom, final LocalDate validTo, final String multiplyRate)
+	{
+		return Rate.builder()
+				.clientId(clientId)
+				.orgId(orgId)
+				.validFrom(validFrom)
+				.validTo(validTo)
+				.multiplyRate(new BigDecimal(multiplyRate))
+				.build();
+	}
+}
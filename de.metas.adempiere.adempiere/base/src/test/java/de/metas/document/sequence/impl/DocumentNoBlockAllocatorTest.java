@@ -0,0 +1,154 @@
+package de.metas.document.sequence.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.cache.CacheMgt;
+
+import de.metas.document.sequence.impl.DocumentNoBlockAllocator.BlockKey;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentNoBlockAllocatorTest
+{
+	private DocumentNoBlockAllocator allocator;
+
+	/** simulates the database sequence's CurrentNext */
+	private int currentNext;
+	private List<Integer> reservedIncrements;
+	private IntUnaryOperator blockReserver;
+
+	@Before
+	public void init()
+	{
+		allocator = new DocumentNoBlockAllocator();
+
+		currentNext = 1000;
+		reservedIncrements = new ArrayList<>();
+		blockReserver = increment -> {
+			reservedIncrements.add(increment);
+			final int blockStart = currentNext;
+			currentNext += increment;
+			return blockStart;
+		};
+	}
+
+	@Test
+	public void numbersAreHandedOutFromReservedBlocks()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+
+		final List<Integer> numbers = new ArrayList<>();
+		for (int i = 0; i < 7; i++)
+		{
+			numbers.add(allocator.next(key, 1, 3, blockReserver));
+		}
+
+		assertThat(numbers).containsExactly(1000, 1001, 1002, 1003, 1004, 1005, 1006);
+		assertThat(reservedIncrements).containsExactly(3, 3, 3);
+		assertThat(currentNext).isEqualTo(1009);
+	}
+
+	@Test
+	public void incrementNoIsRespected()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+
+		assertThat(allocator.next(key, 10, 2, blockReserver)).isEqualTo(1000);
+		assertThat(allocator.next(key, 10, 2, blockReserver)).isEqualTo(1010);
+		assertThat(allocator.next(key, 10, 2, blockReserver)).isEqualTo(1020);
+		assertThat(reservedIncrements).containsExactly(20, 20);
+	}
+
+	@Test
+	public void eachCalendarYearHasItsOwnBlock()
+	{
+		assertThat(allocator.next(BlockKey.of(1, false, "2018"), 1, 10, blockReserver)).isEqualTo(1000);
+		assertThat(allocator.next(BlockKey.of(1, false, "2019"), 1, 10, blockReserver)).isEqualTo(1010);
+		assertThat(allocator.next(BlockKey.of(1, false, "2018"), 1, 10, blockReserver)).isEqualTo(1001);
+		assertThat(reservedIncrements).containsExactly(10, 10);
+	}
+
+	@Test
+	public void failedReservationIsNotCached()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+
+		assertThat(allocator.next(key, 1, 10, increment -> -1)).isEqualTo(-1);
+		assertThat(allocator.next(key, 1, 10, blockReserver)).isEqualTo(1000);
+	}
+
+	@Test
+	public void peekNextDoesNotReserve()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+		assertThat(allocator.peekNextOrNull(key, 1)).isNull();
+
+		assertThat(allocator.next(key, 1, 2, blockReserver)).isEqualTo(1000);
+		assertThat(allocator.peekNextOrNull(key, 1)).isEqualTo(1001);
+		assertThat(allocator.peekNextOrNull(key, 1)).isEqualTo(1001);
+
+		assertThat(allocator.next(key, 1, 2, blockReserver)).isEqualTo(1001);
+		assertThat(allocator.peekNextOrNull(key, 1)).as("block is exhausted").isNull();
+		assertThat(reservedIncrements).containsExactly(2);
+	}
+
+	/**
+	 * Verifies that after e.g. an admin reset the sequence's CurrentNext, the next number is taken from the database again.
+	 */
+	@Test
+	public void resetDropsRemainingNumbers()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+		assertThat(allocator.next(key, 1, 10, blockReserver)).isEqualTo(1000);
+
+		currentNext = 1;
+		assertThat(allocator.reset()).isEqualTo(1);
+
+		assertThat(allocator.next(key, 1, 10, blockReserver)).isEqualTo(1);
+		assertThat(reservedIncrements).containsExactly(10, 10);
+	}
+
+	@Test
+	public void sequenceCacheResetDropsTheBlocks()
+	{
+		final BlockKey key = BlockKey.of(1, false, null);
+		DocumentNoBlockAllocator.instance.next(key, 1, 10, blockReserver);
+		assertThat(DocumentNoBlockAllocator.instance.peekNextOrNull(key, 1)).isEqualTo(1001);
+
+		CacheMgt.get().resetLocal(I_AD_Sequence_No.Table_Name);
+		assertThat(DocumentNoBlockAllocator.instance.peekNextOrNull(key, 1)).isNull();
+
+		DocumentNoBlockAllocator.instance.next(key, 1, 10, blockReserver);
+		CacheMgt.get().resetLocal(I_AD_Sequence.Table_Name);
+		assertThat(DocumentNoBlockAllocator.instance.peekNextOrNull(key, 1)).isNull();
+	}
+}
@@ -2,11 +2,26 @@ package org.adempiere.ad.dao.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.model.I_AD_Table;
 import org.compiere.util.Env;
+import org.junit.Before;
 import org.junit.Test;
 
+import de.metas.util.Services;
+
 /*
  * #%L
  * de.metas.adempiere.adempiere.base
@@ -55,4 +70,192 @@ public class TypedSqlQueryTests
 						")"
 		);
 	}
+
+	/** Fake JDBC cursor over the rows 1..rowCount, which records what was done with it. */
+	private static final class FakeCursor
+	{
+		private final int rowCount;
+		private int position = 0;
+		private String trxName;
+		private int fetchSize;
+		private boolean resultSetClosed;
+		private boolean statementClosed;
+
+		private FakeCursor(final int rowCount)
+		{
+			this.rowCount = rowCount;
+		}
+
+		private PreparedStatement prepareStatement(final String trxName)
+		{
+			this.trxName = trxName;
+			return (PreparedStatement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+				switch (method.getName())
+				{
+					case "setFetchSize":
+						fetchSize = (Integer)args[0];
+						return null;
+					case "executeQuery":
+						return createResultSet();
+					case "close":
+						statementClosed = true;
+						return null;
+					case "toString":
+						return "FakeCursor.PreparedStatement";
+					default:
+						throw new UnsupportedOperationException(method.toString());
+				}
+			});
+		}
+
+		private ResultSet createResultSet()
+		{
+			return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+				switch (method.getName())
+				{
+					case "next":
+						if (position >= rowCount)
+						{
+							return false;
+						}
+						position++;
+						return true;
+					case "getInt":
+						return position;
+					case "close":
+						resultSetClosed = true;
+						return null;
+					case "toString":
+						return "FakeCursor.ResultSet";
+					default:
+						throw new UnsupportedOperationException(method.toString());
+				}
+			});
+		}
+
+		private Stream<Integer> stream(final String trxName, final int fetchSize, final int limit)
+		{
+			return TypedSqlQuery.streamWithCursor(
+					trxName,
+					fetchSize,
+					limit,
+					this::prepareStatement,
+					PreparedStatement::executeQuery,
+					rs -> rs.next() ? rs.getInt(1) : null,
+					DBException::new);
+		}
+	}
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void streamWithCursor_moreRowsThanOneFetch()
+	{
+		final FakeCursor cursor = new FakeCursor(25);
+		try (final Stream<Integer> stream = cursor.stream(ITrx.TRXNAME_None, 10, 0))
+		{
+			final Iterator<Integer> it = stream.iterator();
+			assertThat(it.next()).isEqualTo(1);
+			assertThat(cursor.position).as("rows are retrieved lazily").isEqualTo(1);
+
+			int lastRow = 1;
+			int count = 1;
+			while (it.hasNext())
+			{
+				lastRow = it.next();
+				count++;
+			}
+			assertThat(count).isEqualTo(25);
+			assertThat(lastRow).isEqualTo(25);
+		}
+
+		assertThat(cursor.fetchSize).isEqualTo(10);
+		assertThat(cursor.resultSetClosed).isTrue();
+		assertThat(cursor.statementClosed).isTrue();
+	}
+
+	@Test
+	public void streamWithCursor_closedEarly_closesCursorAndOwnTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final FakeCursor cursor = new FakeCursor(100);
+		try (final Stream<Integer> stream = cursor.stream(ITrx.TRXNAME_None, 10, 0))
+		{
+			assertThat(stream.limit(3).collect(Collectors.toList())).containsExactly(1, 2, 3);
+
+			assertThat(cursor.trxName).as("cursor shall run in its own trx").isNotNull();
+			assertThat(trxManager.isActive(cursor.trxName)).isTrue();
+			assertThat(cursor.resultSetClosed).isFalse();
+		}
+
+		assertThat(cursor.position).isLessThan(100);
+		assertThat(cursor.resultSetClosed).isTrue();
+		assertThat(cursor.statementClosed).isTrue();
+		assertThat(trxManager.isActive(cursor.trxName)).as("cursor's own trx shall be closed with the stream").isFalse();
+	}
+
+	@Test
+	public void streamWithCursor_limit()
+	{
+		final FakeCursor cursor = new FakeCursor(100);
+		try (final Stream<Integer> stream = cursor.stream(ITrx.TRXNAME_None, 10, 5))
+		{
+			assertThat(stream.collect(Collectors.toList())).containsExactly(1, 2, 3, 4, 5);
+		}
+		assertThat(cursor.position).isEqualTo(5);
+	}
+
+	@Test
+	public void streamWithCursor_insideTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final FakeCursor cursor = new FakeCursor(15);
+
+		trxManager.runInNewTrx(localTrxName -> {
+			final List<Integer> rows;
+			try (final Stream<Integer> stream = cursor.stream(localTrxName, 10, 0))
+			{
+				rows = stream.collect(Collectors.toList());
+			}
+
+			assertThat(rows).hasSize(15);
+			assertThat(cursor.trxName).as("cursor shall use the query's trx").isEqualTo(localTrxName);
+			assertThat(cursor.resultSetClosed).isTrue();
+			assertThat(cursor.statementClosed).isTrue();
+			assertThat(trxManager.isActive(localTrxName)).as("the query's trx shall not be closed with the stream").isTrue();
+		});
+	}
+
+	@Test
+	public void streamWithCursor_failsOpening_closesOwnTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String[] cursorTrxName = new String[1];
+
+		try
+		{
+			TypedSqlQuery.streamWithCursor(
+					ITrx.TRXNAME_None,
+					10,
+					0,
+					trxName -> {
+						cursorTrxName[0] = trxName;
+						throw new SQLException("test");
+					},
+					PreparedStatement::executeQuery,
+					rs -> null,
+					DBException::new);
+			throw new AssertionError("DBException expected");
+		}
+		catch (final DBException e)
+		{
+			assertThat(e.getCause()).hasMessage("test");
+		}
+
+		assertThat(trxManager.isActive(cursorTrxName[0])).isFalse();
+	}
 }
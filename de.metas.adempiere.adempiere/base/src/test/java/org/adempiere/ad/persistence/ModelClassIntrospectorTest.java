@@ -0,0 +1,149 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class ModelClassIntrospectorTest
+{
+	public interface I_Test_Record
+	{
+		String Table_Name = "Test_Record";
+
+		String getName();
+
+		void setName(String name);
+
+		boolean isProcessed();
+
+		int getQty();
+	}
+
+	private static final int THREADS = 8;
+
+	private final IModelClassIntrospector introspector = ModelClassIntrospector.getInstance();
+
+	@Test
+	public void getModelClassInfo()
+	{
+		final IModelClassInfo modelClassInfo = introspector.getModelClassInfo(I_Test_Record.class);
+
+		assertThat(modelClassInfo.getModelClass()).isSameAs(I_Test_Record.class);
+		assertThat(modelClassInfo.getTableName()).isEqualTo(I_Test_Record.Table_Name);
+		assertThat(introspector.getModelClassInfo(I_Test_Record.class)).isSameAs(modelClassInfo);
+	}
+
+	@Test
+	public void getModelClassInfo_notAModel()
+	{
+		assertThat(introspector.getModelClassInfo(String.class)).isNull();
+		assertThat(introspector.getModelClassInfo(String.class)).isNull();
+		assertThat(introspector.getModelClassInfo(null)).isNull();
+	}
+
+	@Test
+	public void getMethodInfo() throws Exception
+	{
+		final IModelClassInfo modelClassInfo = introspector.getModelClassInfo(I_Test_Record.class);
+
+		final Method getName = I_Test_Record.class.getMethod("getName");
+		final IModelMethodInfo getNameInfo = modelClassInfo.getMethodInfo(getName);
+		assertThat(getNameInfo).isInstanceOf(ValueGetterMethodInfo.class);
+		assertThat(getNameInfo.getInterfaceMethod()).isEqualTo(getName);
+		assertThat(modelClassInfo.getMethodInfo(getName)).isSameAs(getNameInfo);
+
+		assertThat(modelClassInfo.getMethodInfo(I_Test_Record.class.getMethod("setName", String.class))).isInstanceOf(ValueSetterMethodInfo.class);
+		assertThat(modelClassInfo.getMethodInfo(I_Test_Record.class.getMethod("isProcessed"))).isInstanceOf(BooleanGetterMethodInfo.class);
+		assertThat(modelClassInfo.getMethodInfo(Object.class.getMethod("equals", Object.class))).isInstanceOf(EqualsMethodInfo.class);
+		assertThat(modelClassInfo.getMethodInfo(Object.class.getMethod("hashCode"))).isInstanceOf(InvokeParentMethodInfo.class);
+	}
+
+	/**
+	 * Makes sure that concurrent lookups (which are not locking anymore) still get one and the same model class info and method info.
+	 */
+	@Test
+	public void concurrentLookups_returnTheSameInstances() throws Exception
+	{
+		final Method[] methods = I_Test_Record.class.getMethods();
+		final CountDownLatch start = new CountDownLatch(1);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			final List<Future<List<Object>>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++)
+			{
+				final Callable<List<Object>> lookup = () -> {
+					start.await();
+
+					final IModelClassInfo modelClassInfo = introspector.getModelClassInfo(I_Test_Record.class);
+					final List<Object> result = new ArrayList<>();
+					result.add(modelClassInfo);
+					for (final Method method : methods)
+					{
+						result.add(modelClassInfo.getMethodInfo(method));
+					}
+					return result;
+				};
+				futures.add(executor.submit(lookup));
+			}
+
+			start.countDown();
+
+			final List<List<Object>> results = new ArrayList<>();
+			for (final Future<List<Object>> future : futures)
+			{
+				results.add(future.get(10, TimeUnit.SECONDS));
+			}
+
+			for (int index = 0; index <= methods.length; index++)
+			{
+				final Set<Object> instances = Sets.newIdentityHashSet();
+				for (final List<Object> result : results)
+				{
+					instances.add(result.get(index));
+				}
+				assertThat(instances).hasSize(1);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+}
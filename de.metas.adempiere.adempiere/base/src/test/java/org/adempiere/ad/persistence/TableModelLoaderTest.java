@@ -0,0 +1,163 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class TableModelLoaderTest
+{
+	/** Records are just their IDs, prefixed with "cached-" or "loaded-" */
+	private static String cached(final int id)
+	{
+		return "cached-" + id;
+	}
+
+	private static String loaded(final int id)
+	{
+		return "loaded-" + id;
+	}
+
+	private static int extractId(final String record)
+	{
+		return Integer.parseInt(record.substring(record.indexOf('-') + 1));
+	}
+
+	/** Loads all requested IDs except the given missing ones, in reverse order, like a database without ORDER BY might do, and records the chunks. */
+	private static Function<List<Integer>, List<String>> chunkLoader(final List<List<Integer>> loadedChunks, final Set<Integer> missingIds)
+	{
+		return chunk -> {
+			loadedChunks.add(ImmutableList.copyOf(chunk));
+			return ImmutableList.copyOf(chunk).reverse()
+					.stream()
+					.filter(id -> !missingIds.contains(id))
+					.map(TableModelLoaderTest::loaded)
+					.collect(ImmutableList.toImmutableList());
+		};
+	}
+
+	@Test
+	public void getByIds_partialCacheHits()
+	{
+		final Set<Integer> cachedIds = ImmutableSet.of(2, 4);
+		final List<List<Integer>> loadedChunks = new ArrayList<>();
+
+		final List<String> result = TableModelLoader.getByIds(
+				ImmutableSet.of(1, 2, 3, 4, 5),
+				id -> cachedIds.contains(id) ? cached(id) : null,
+				chunkLoader(loadedChunks, ImmutableSet.of()),
+				TableModelLoaderTest::extractId,
+				1000);
+
+		assertThat(result).containsExactly(loaded(1), cached(2), loaded(3), cached(4), loaded(5));
+		assertThat(loadedChunks).containsExactly(ImmutableList.of(1, 3, 5));
+	}
+
+	@Test
+	public void getByIds_allCached_noLoad()
+	{
+		final List<List<Integer>> loadedChunks = new ArrayList<>();
+
+		final List<String> result = TableModelLoader.getByIds(
+				ImmutableSet.of(3, 1),
+				TableModelLoaderTest::cached,
+				chunkLoader(loadedChunks, ImmutableSet.of()),
+				TableModelLoaderTest::extractId,
+				1000);
+
+		assertThat(result).containsExactly(cached(3), cached(1));
+		assertThat(loadedChunks).isEmpty();
+	}
+
+	@Test
+	public void getByIds_chunkBoundaries()
+	{
+		final Set<Integer> ids = IntStream.rangeClosed(1, 2001).boxed().collect(Collectors.toCollection(LinkedHashSet::new));
+		final List<List<Integer>> loadedChunks = new ArrayList<>();
+
+		final List<String> result = TableModelLoader.getByIds(
+				ids,
+				id -> null,
+				chunkLoader(loadedChunks, ImmutableSet.of()),
+				TableModelLoaderTest::extractId,
+				1000);
+
+		assertThat(loadedChunks).extracting(List::size).containsExactly(1000, 1000, 1);
+		assertThat(loadedChunks.get(0)).startsWith(1).endsWith(1000);
+		assertThat(loadedChunks.get(1)).startsWith(1001).endsWith(2000);
+		assertThat(loadedChunks.get(2)).containsExactly(2001);
+
+		assertThat(result).hasSize(2001);
+		assertThat(result.get(999)).isEqualTo(loaded(1000));
+		assertThat(result.get(1000)).isEqualTo(loaded(1001));
+		assertThat(result.get(2000)).isEqualTo(loaded(2001));
+	}
+
+	@Test
+	public void getByIds_preservesTheOrderOfTheGivenIds()
+	{
+		final List<List<Integer>> loadedChunks = new ArrayList<>();
+
+		final List<String> result = TableModelLoader.getByIds(
+				ImmutableSet.of(30, 10, 20, 50, 40),
+				id -> id == 20 ? cached(id) : null,
+				chunkLoader(loadedChunks, ImmutableSet.of()),
+				TableModelLoaderTest::extractId,
+				2);
+
+		assertThat(result).containsExactly(loaded(30), loaded(10), cached(20), loaded(50), loaded(40));
+		assertThat(loadedChunks).containsExactly(ImmutableList.of(30, 10), ImmutableList.of(50, 40));
+	}
+
+	@Test
+	public void getByIds_skipsMissingIds()
+	{
+		final List<String> result = TableModelLoader.getByIds(
+				ImmutableSet.of(1, 2, 3),
+				id -> null,
+				chunkLoader(new ArrayList<>(), ImmutableSet.of(2)),
+				TableModelLoaderTest::extractId,
+				1000);
+
+		assertThat(result).containsExactly(loaded(1), loaded(3));
+	}
+
+	@Test
+	public void buildSqlSelectByIds()
+	{
+		assertThat(TableModelLoader.buildSqlSelectByIds("SELECT * FROM M_HU", "M_HU_ID"))
+				.isEqualTo("SELECT * FROM M_HU WHERE M_HU_ID = ANY(?)");
+	}
+}
@@ -0,0 +1,217 @@
+package org.adempiere.impexp;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IMutable;
+import org.compiere.model.I_I_BPartner;
+import org.compiere.util.Env;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.util.Services;
+
+public class AbstractImportProcessTest
+{
+	private static final String SYSCONFIG_BatchSize = "org.adempiere.impexp.AbstractImportProcess.BatchSize";
+
+	/** Imports each record as inserted, except the ones whose Value is {@code "fail"}, and records in which transaction each record was imported. */
+	private static class TestImportProcess extends AbstractImportProcess<I_I_BPartner>
+	{
+		private final List<I_I_BPartner> importedRecords = new ArrayList<>();
+		private final List<String> importTrxNames = new ArrayList<>();
+		private final List<I_I_BPartner> recordsWithErrors = new ArrayList<>();
+
+		@Override
+		public Class<I_I_BPartner> getImportModelClass()
+		{
+			return I_I_BPartner.class;
+		}
+
+		@Override
+		public String getImportTableName()
+		{
+			return I_I_BPartner.Table_Name;
+		}
+
+		@Override
+		protected String getTargetTableName()
+		{
+			return "C_BPartner";
+		}
+
+		@Override
+		protected void updateAndValidateImportRecords()
+		{
+		}
+
+		@Override
+		protected String getImportOrderBySql()
+		{
+			return null;
+		}
+
+		@Override
+		protected I_I_BPartner retrieveImportRecord(final Properties ctx, final ResultSet rs)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected ImportRecordResult importRecord(final IMutable<Object> state, final I_I_BPartner importRecord)
+		{
+			importedRecords.add(importRecord);
+			importTrxNames.add(Services.get(ITrxManager.class).getThreadInheritedTrxName());
+			if ("fail".equals(importRecord.getValue()))
+			{
+				throw new RuntimeException("test error");
+			}
+			return ImportRecordResult.Inserted;
+		}
+
+		@Override
+		protected void reportError(final I_I_BPartner importRecord, final String errorMsg)
+		{
+			recordsWithErrors.add(importRecord);
+		}
+
+		private Set<String> getDistinctImportTrxNames()
+		{
+			return new LinkedHashSet<>(importTrxNames);
+		}
+	}
+
+	private TestImportProcess importProcess;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		importProcess = new TestImportProcess();
+		importProcess.setCtx(Env.getCtx());
+	}
+
+	private static List<I_I_BPartner> createImportRecords(final String... values)
+	{
+		return IntStream.range(0, values.length)
+				.mapToObj(i -> {
+					final I_I_BPartner importRecord = InterfaceWrapperHelper.newInstance(I_I_BPartner.class);
+					importRecord.setValue(values[i]);
+					InterfaceWrapperHelper.save(importRecord);
+					return importRecord;
+				})
+				.collect(Collectors.toList());
+	}
+
+	private static void setBatchSize(final String sysConfigName, final int batchSize)
+	{
+		Services.get(ISysConfigBL.class).setValue(sysConfigName, batchSize, 0);
+	}
+
+	private static boolean isImported(final I_I_BPartner importRecord)
+	{
+		InterfaceWrapperHelper.refresh(importRecord);
+		return importRecord.isI_IsImported();
+	}
+
+	@Test
+	public void noBatchSize_oneTrxPerRecord()
+	{
+		final List<I_I_BPartner> importRecords = createImportRecords("1", "2", "3");
+
+		final ImportProcessResult result = ImportProcessResult.newInstance("C_BPartner");
+		importProcess.importRecords(importRecords.iterator(), result);
+
+		assertThat(importProcess.getDistinctImportTrxNames()).hasSize(3);
+		assertThat(result.getInsertCount()).isEqualTo(3);
+		assertThat(importRecords).allMatch(AbstractImportProcessTest::isImported);
+	}
+
+	@Test
+	public void batch_allRecordsSucceed()
+	{
+		setBatchSize(SYSCONFIG_BatchSize, 3);
+		final List<I_I_BPartner> importRecords = createImportRecords("1", "2", "3", "4", "5");
+
+		final ImportProcessResult result = ImportProcessResult.newInstance("C_BPartner");
+		importProcess.importRecords(importRecords.iterator(), result);
+
+		assertThat(importProcess.importedRecords).containsExactlyElementsOf(importRecords);
+		assertThat(importProcess.getDistinctImportTrxNames()).as("one trx per batch").hasSize(2);
+		assertThat(result.getInsertCount()).isEqualTo(5);
+		assertThat(importProcess.recordsWithErrors).isEmpty();
+		assertThat(importRecords).allMatch(AbstractImportProcessTest::isImported);
+	}
+
+	@Test
+	public void batch_oneRecordFails_othersAreImportedAndCountedOnce()
+	{
+		setBatchSize(SYSCONFIG_BatchSize, 5);
+		final List<I_I_BPartner> importRecords = createImportRecords("1", "2", "fail", "4", "5");
+		final I_I_BPartner failingRecord = importRecords.get(2);
+
+		final ImportProcessResult result = ImportProcessResult.newInstance("C_BPartner");
+		importProcess.importRecords(importRecords.iterator(), result);
+
+		assertThat(importProcess.importedRecords).as("the batch shall not be retried").containsExactlyElementsOf(importRecords);
+		assertThat(importProcess.getDistinctImportTrxNames()).hasSize(1);
+		assertThat(result.getInsertCount()).isEqualTo(4);
+		assertThat(importProcess.recordsWithErrors).containsExactly(failingRecord);
+
+		assertThat(isImported(failingRecord)).isFalse();
+		importRecords.remove(failingRecord);
+		assertThat(importRecords).allMatch(AbstractImportProcessTest::isImported);
+	}
+
+	@Test
+	public void batchSize_perImportTableOverride()
+	{
+		setBatchSize(SYSCONFIG_BatchSize, 5);
+		assertThat(importProcess.getImportBatchSize()).isEqualTo(5);
+
+		setBatchSize(SYSCONFIG_BatchSize + "." + I_I_BPartner.Table_Name, 2);
+		assertThat(importProcess.getImportBatchSize()).isEqualTo(2);
+
+		final List<I_I_BPartner> importRecords = createImportRecords("1", "2", "3", "4", "5");
+		final ImportProcessResult result = ImportProcessResult.newInstance("C_BPartner");
+		importProcess.importRecords(importRecords.iterator(), result);
+
+		assertThat(importProcess.getDistinctImportTrxNames()).as("batches of 2, 2 and 1 records").hasSize(3);
+		assertThat(result.getInsertCount()).isEqualTo(5);
+	}
+}
@@ -0,0 +1,111 @@
+package org.adempiere.model;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.wrapper.POJOLookupMap;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_Test;
+import org.compiere.util.Env;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InterfaceWrapperHelper_saveAll_Test
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static I_Test newTestRecord(final String name)
+	{
+		final I_Test record = newInstance(I_Test.class);
+		record.setName(name);
+		return record;
+	}
+
+	@Test
+	public void saveAll_newRecords()
+	{
+		final List<I_Test> records = ImmutableList.of(newTestRecord("1"), newTestRecord("2"), newTestRecord("3"));
+
+		InterfaceWrapperHelper.saveAll(records);
+
+		assertThat(records).allSatisfy(record -> assertThat(record.getTest_ID()).isGreaterThan(0));
+		assertThat(records).extracting(I_Test::getTest_ID).isSorted().doesNotHaveDuplicates();
+		assertThat(POJOLookupMap.get().getRecords(I_Test.class))
+				.extracting(I_Test::getName)
+				.containsExactlyInAnyOrder("1", "2", "3");
+	}
+
+	@Test
+	public void saveAll_newAndChangedRecords()
+	{
+		final I_Test existingRecord = newTestRecord("existing");
+		InterfaceWrapperHelper.save(existingRecord);
+		final int existingRecordId = existingRecord.getTest_ID();
+
+		existingRecord.setName("changed");
+		final I_Test newRecord = newTestRecord("new");
+
+		InterfaceWrapperHelper.saveAll(ImmutableList.of(existingRecord, newRecord));
+
+		assertThat(existingRecord.getTest_ID()).isEqualTo(existingRecordId);
+		assertThat(newRecord.getTest_ID()).isGreaterThan(existingRecordId);
+		assertThat(POJOLookupMap.get().getRecords(I_Test.class))
+				.extracting(I_Test::getName)
+				.containsExactlyInAnyOrder("changed", "new");
+	}
+
+	@Test
+	public void saveAll_empty()
+	{
+		InterfaceWrapperHelper.saveAll(ImmutableList.of());
+
+		assertThat(POJOLookupMap.get().getRecords(I_Test.class)).isEmpty();
+	}
+
+	@Test
+	public void saveAll_withTrxName_restoresTrxNames()
+	{
+		final I_Test record1 = newInstance(I_Test.class, PlainContextAware.newWithTrxName(Env.getCtx(), "trx1"));
+		record1.setName("1");
+		final I_Test record2 = newTestRecord("2");
+		final String record2TrxName = InterfaceWrapperHelper.getTrxName(record2);
+
+		InterfaceWrapperHelper.saveAll(ImmutableList.of(record1, record2), ITrx.TRXNAME_None);
+
+		assertThat(record1.getTest_ID()).isGreaterThan(0);
+		assertThat(record2.getTest_ID()).isGreaterThan(0);
+		assertThat(InterfaceWrapperHelper.getTrxName(record1)).isEqualTo("trx1");
+		assertThat(InterfaceWrapperHelper.getTrxName(record2)).isEqualTo(record2TrxName);
+	}
+}
@@ -0,0 +1,48 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MSequenceTest
+{
+	@Test
+	public void computeIDsBlock()
+	{
+		assertThat(MSequence.computeIDsBlock(1000000, 1, 3)).containsExactly(1000000, 1000001, 1000002);
+	}
+
+	@Test
+	public void computeIDsBlock_incrementNo()
+	{
+		assertThat(MSequence.computeIDsBlock(540000, 10, 4)).containsExactly(540000, 540010, 540020, 540030);
+	}
+
+	@Test
+	public void computeIDsBlock_singleID()
+	{
+		assertThat(MSequence.computeIDsBlock(1000000, 1, 1)).containsExactly(1000000);
+	}
+}
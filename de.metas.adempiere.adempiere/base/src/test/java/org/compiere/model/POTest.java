@@ -0,0 +1,72 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POTest
+{
+	@Test
+	public void buildSqlInsert_singleRow()
+	{
+		final String sql = PO.buildSqlInsert(
+				"C_Order",
+				ImmutableList.of("C_Order_ID", "DocumentNo"),
+				ImmutableList.of(ImmutableList.of("1000000", "'10001'")),
+				null);
+
+		assertThat(sql).isEqualTo("INSERT INTO C_Order (C_Order_ID,DocumentNo) VALUES (1000000,'10001')");
+	}
+
+	@Test
+	public void buildSqlInsert_multipleRows_withReturning()
+	{
+		final String sql = PO.buildSqlInsert(
+				"C_Order",
+				ImmutableList.of("C_Order_ID", "DocumentNo"),
+				ImmutableList.of(
+						ImmutableList.of("1000000", "'10001'"),
+						ImmutableList.of("1000001", "NULL")),
+				"C_Order_ID, Created");
+
+		assertThat(sql).isEqualTo("INSERT INTO C_Order (C_Order_ID,DocumentNo) VALUES (1000000,'10001'),(1000001,NULL) RETURNING C_Order_ID, Created");
+	}
+
+	@Test
+	public void buildSqlInsert_rowWithMissingValue()
+	{
+		assertThatThrownBy(() -> PO.buildSqlInsert(
+				"C_Order",
+				ImmutableList.of("C_Order_ID", "DocumentNo"),
+				ImmutableList.of(
+						ImmutableList.of("1000000", "'10001'"),
+						ImmutableList.of("1000001")),
+				null))
+						.hasMessageContaining("Each row shall have a value for each of the columns");
+	}
+}
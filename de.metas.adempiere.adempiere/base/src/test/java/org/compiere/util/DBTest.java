@@ -1,6 +1,7 @@
 package org.compiere.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /*
  * #%L
@@ -24,6 +25,9 @@ import static org.assertj.core.api.Assertions.assertThat;
  * #L%
  */
 
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -100,4 +104,55 @@ public class DBTest
 		assertThat(DB.TO_BOOLEAN(true)).isEqualTo("'Y'");
 		assertThat(DB.TO_BOOLEAN(false)).isEqualTo("'N'");
 	}
+
+	@Test
+	public void buildSqlSelectNextIDs()
+	{
+		assertThat(DB.buildSqlSelectNextIDs("nextval('c_order_seq')"))
+				.isEqualTo("SELECT nextval('c_order_seq') FROM generate_series(1, ?)");
+	}
+
+	@Test
+	public void retrieveNextIDs() throws SQLException
+	{
+		final int[] ids = DB.retrieveNextIDs(resultSetOfInts(1000005, 1000006, 1000007), "C_Order", 3);
+		assertThat(ids).containsExactly(1000005, 1000006, 1000007);
+	}
+
+	@Test
+	public void retrieveNextIDs_lessRowsThanExpected()
+	{
+		assertThatThrownBy(() -> DB.retrieveNextIDs(resultSetOfInts(1000005, 1000006), "C_Order", 3))
+				.hasMessageContaining("Expected");
+	}
+
+	@Test
+	public void retrieveNextIDs_moreRowsThanExpected()
+	{
+		assertThatThrownBy(() -> DB.retrieveNextIDs(resultSetOfInts(1000005, 1000006, 1000007), "C_Order", 2))
+				.hasMessageContaining("Expected");
+	}
+
+	/** @return a result set with one int column and the given values as rows */
+	private static ResultSet resultSetOfInts(final int... values)
+	{
+		final int[] position = { 0 };
+		return (ResultSet)Proxy.newProxyInstance(DBTest.class.getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "next":
+					if (position[0] >= values.length)
+					{
+						return false;
+					}
+					position[0]++;
+					return true;
+				case "getInt":
+					assertThat(args[0]).isEqualTo(1);
+					return values[position[0] - 1];
+				default:
+					throw new UnsupportedOperationException(method.toString());
+			}
+		});
+	}
 }
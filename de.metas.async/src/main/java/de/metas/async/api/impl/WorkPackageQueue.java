@@ -210,7 +210,10 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
 
+		final WorkPackageReadyForProcessingSignal readyForProcessingSignal = WorkPackageReadyForProcessingSignal.instance;
+
 		final long startTS = SystemTime.millis();
+		long signalGeneration = readyForProcessingSignal.getGeneration(packageProcessorIds);
 		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
@@ -234,12 +237,13 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				}
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
+			// No workpackages were found.
+			// Wait until a workpackage is marked as ready for processing, but not longer than the poll interval, and then try again
 			try
 			{
 				// note: we always get the new service, because things might have changed since this method started
 				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
+				readyForProcessingSignal.await(packageProcessorIds, signalGeneration, pollIntervalMs);
 			}
 			catch (final InterruptedException e)
 			{
@@ -249,6 +253,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 			// Try fetching the workpackage again
 			logger.trace("Retry retrieving next workpackage");
+			signalGeneration = readyForProcessingSignal.getGeneration(packageProcessorIds);
 			workPackage = retrieveAndLock(query);
 		}
 
@@ -747,6 +752,12 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			workPackage.setIsReadyForProcessing(true);
 			dao.save(workPackage);
 
+			// Wake up the queue processors (also the ones from other JVMs), so they don't have to wait for their next poll
+			final String trxName = InterfaceWrapperHelper.getTrxName(workPackage);
+			final int packageProcessorId = getPackageProcessorId(workPackage);
+			WorkPackageReadyForProcessingSignal.instance.signalAfterCommit(trxName, packageProcessorId);
+			WorkPackageReadyForProcessingNotificationListener.notifyAfterCommit(trxName, packageProcessorId);
+
 			success = true;
 		}
 		finally
@@ -767,6 +778,23 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	}
 
+	/**
+	 * Gets the work package's <code>C_Queue_PackageProcessor_ID</code> without loading its block, if possible.
+	 * The work packages are marked as ready for processing by the queue they were enqueued with, so that's the queue's own package processor.
+	 */
+	private int getPackageProcessorId(final I_C_Queue_WorkPackage workPackage)
+	{
+		if (enquingPackageProcessorId > 0)
+		{
+			return enquingPackageProcessorId;
+		}
+		if (packageProcessorIds.size() == 1)
+		{
+			return packageProcessorIds.get(0);
+		}
+		return workPackage.getC_Queue_Block().getC_Queue_PackageProcessor_ID();
+	}
+
 	private IQuery<I_C_Queue_WorkPackage> createQuery(final Properties workPackageCtx)
 	{
 		//
@@ -0,0 +1,309 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+
+/**
+ * Listens to the PostgreSQL notifications which are sent when a work package was marked as ready for processing (see {@link #notifyAfterCommit(String, int)})
+ * and fires the {@link WorkPackageReadyForProcessingSignal}.
+ *
+ * That way the queue processors of all JVMs are woken up right away when a work package can be processed.
+ * The notification's payload is {@value #PAYLOAD_SEPARATOR}-separated and contains the sender ID and the work package's <code>C_Queue_PackageProcessor_ID</code>.
+ * Notifications which were sent by this JVM (which already fired its signal locally) and notifications for package processors which are not handled by this JVM are ignored.
+ *
+ * The listener uses one dedicated database connection. It can be disabled by setting {@value #SYSCONFIG_Enabled} to <code>N</code>,
+ * in which case the queue processors of other JVMs will find the new work packages on their next poll.
+ */
+public final class WorkPackageReadyForProcessingNotificationListener
+{
+	public static final WorkPackageReadyForProcessingNotificationListener instance = new WorkPackageReadyForProcessingNotificationListener();
+
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadyForProcessingNotificationListener.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.async.WorkPackageReadyForProcessingNotification.Enabled";
+
+	/** PostgreSQL notification channel */
+	private static final String CHANNEL = "c_queue_workpackage_ready";
+	private static final String PAYLOAD_SEPARATOR = ";";
+
+	/** Identifies the notifications sent by this JVM */
+	private static final String SENDER_ID = UUID.randomUUID().toString();
+
+	/** How long to wait for notifications in one go. After that we check if we were stopped. */
+	private static final int NOTIFICATIONS_TIMEOUT_MILLIS = 10_000;
+
+	/** How long to wait before reconnecting after an error */
+	private static final long RECONNECT_DELAY_MILLIS = 30_000;
+
+	private Thread listenerThread;
+	private volatile ImmutableSet<Integer> packageProcessorIds = ImmutableSet.of();
+
+	private WorkPackageReadyForProcessingNotificationListener()
+	{
+	}
+
+	private static boolean isEnabled()
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return false;
+		}
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, true);
+	}
+
+	/**
+	 * Sends a notification to all listeners when the given transaction is committed, or right away if there is no transaction.
+	 * <p>
+	 * The notification is sent out of transaction, so it neither extends the given transaction nor can a failure affect it.
+	 *
+	 * @param packageProcessorId the work package's <code>C_Queue_PackageProcessor_ID</code>
+	 */
+	public static void notifyAfterCommit(final String trxName, final int packageProcessorId)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(trxName)
+				.newEventListener(TrxEventTiming.AFTER_COMMIT)
+				.registerHandlingMethod(trx -> notifyNow(packageProcessorId));
+	}
+
+	private static void notifyNow(final int packageProcessorId)
+	{
+		try
+		{
+			final String payload = SENDER_ID + PAYLOAD_SEPARATOR + packageProcessorId;
+			DB.executeUpdateEx("NOTIFY " + CHANNEL + ", " + DB.TO_STRING(payload), ITrx.TRXNAME_None);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed sending {} notification. Ignored.", CHANNEL, ex);
+		}
+	}
+
+	/**
+	 * @param packageProcessorIds the <code>C_Queue_PackageProcessor_ID</code>s which are handled by the queue processors of this JVM
+	 */
+	public synchronized void start(final Collection<Integer> packageProcessorIds)
+	{
+		this.packageProcessorIds = ImmutableSet.copyOf(packageProcessorIds);
+
+		if (listenerThread != null)
+		{
+			return;
+		}
+		if (!isEnabled())
+		{
+			logger.info("Not starting because it's disabled");
+			return;
+		}
+		if (this.packageProcessorIds.isEmpty())
+		{
+			logger.info("Not starting because there are no package processors to listen for");
+			return;
+		}
+
+		listenerThread = new Thread(this::listen, getClass().getSimpleName());
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+	}
+
+	public synchronized void stop()
+	{
+		if (listenerThread == null)
+		{
+			return;
+		}
+
+		listenerThread.interrupt();
+		listenerThread = null;
+	}
+
+	private void listen()
+	{
+		while (!Thread.currentThread().isInterrupted())
+		{
+			try
+			{
+				listenUntilInterrupted();
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed listening for {} notifications. Retrying in {}ms", CHANNEL, RECONNECT_DELAY_MILLIS, ex);
+				try
+				{
+					Thread.sleep(RECONNECT_DELAY_MILLIS);
+				}
+				catch (final InterruptedException e)
+				{
+					return;
+				}
+			}
+		}
+	}
+
+	private void listenUntilInterrupted() throws SQLException
+	{
+		Connection conn = null;
+		try
+		{
+			conn = DB.createConnection(true, Connection.TRANSACTION_READ_COMMITTED);
+			try (final Statement stmt = conn.createStatement())
+			{
+				stmt.execute("LISTEN " + CHANNEL);
+			}
+			logger.info("Listening for {} notifications", CHANNEL);
+
+			final PGConnection pgConn = conn.unwrap(PGConnection.class);
+			while (!Thread.currentThread().isInterrupted())
+			{
+				final PGNotification[] notifications = pgConn.getNotifications(NOTIFICATIONS_TIMEOUT_MILLIS);
+				if (notifications != null)
+				{
+					fireSignal(notifications);
+				}
+			}
+		}
+		finally
+		{
+			unlistenNoFail(conn);
+			DB.close(conn);
+		}
+	}
+
+	private void fireSignal(final PGNotification[] notifications)
+	{
+		final Set<Integer> packageProcessorIds = this.packageProcessorIds;
+		for (final PGNotification notification : notifications)
+		{
+			final String payload = notification.getParameter();
+			if (!isRelevantPayload(payload, SENDER_ID, packageProcessorIds))
+			{
+				continue;
+			}
+
+			final int packageProcessorId = extractPackageProcessorIdOrZero(payload);
+			if (packageProcessorId > 0)
+			{
+				WorkPackageReadyForProcessingSignal.instance.signal(packageProcessorId);
+			}
+			else
+			{
+				WorkPackageReadyForProcessingSignal.instance.signalAll();
+			}
+		}
+	}
+
+	/**
+	 * @return true if the notification was sent by another JVM for one of the given package processors.
+	 *         If the payload can't be parsed, we assume it's relevant, because it's better to poll once too often than to miss a work package.
+	 */
+	@VisibleForTesting
+	static boolean isRelevantPayload(final String payload, final String localSenderId, final Set<Integer> localPackageProcessorIds)
+	{
+		final int idx = payload == null ? -1 : payload.lastIndexOf(PAYLOAD_SEPARATOR);
+		if (idx <= 0)
+		{
+			return true;
+		}
+
+		final String senderId = payload.substring(0, idx);
+		if (senderId.equals(localSenderId))
+		{
+			return false; // we already fired the signal locally after commit
+		}
+
+		try
+		{
+			final int packageProcessorId = Integer.parseInt(payload.substring(idx + 1).trim());
+			return packageProcessorId <= 0 || localPackageProcessorIds.contains(packageProcessorId);
+		}
+		catch (final NumberFormatException ex)
+		{
+			return true;
+		}
+	}
+
+	/** @return the payload's <code>C_Queue_PackageProcessor_ID</code> or zero if it can't be parsed */
+	@VisibleForTesting
+	static int extractPackageProcessorIdOrZero(final String payload)
+	{
+		final int idx = payload == null ? -1 : payload.lastIndexOf(PAYLOAD_SEPARATOR);
+		if (idx <= 0)
+		{
+			return 0;
+		}
+
+		try
+		{
+			return Math.max(Integer.parseInt(payload.substring(idx + 1).trim()), 0);
+		}
+		catch (final NumberFormatException ex)
+		{
+			return 0;
+		}
+	}
+
+	/** Stop listening before giving back the connection, because else the notifications would pile up on it. */
+	private static void unlistenNoFail(final Connection conn)
+	{
+		if (conn == null)
+		{
+			return;
+		}
+
+		try (final Statement stmt = conn.createStatement())
+		{
+			stmt.execute("UNLISTEN " + CHANNEL);
+		}
+		catch (final Exception ex)
+		{
+			logger.debug("Failed executing UNLISTEN {}. Ignored.", CHANNEL, ex);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/**
+ * Signal used to wake up the queue processors which are waiting for new work packages, instead of letting them sleep a full poll interval.
+ *
+ * The signal is fired locally when a work package is marked as ready for processing (after the transaction is committed)
+ * and by {@link WorkPackageReadyForProcessingNotificationListener} when a work package was marked as ready for processing on another JVM.
+ * It is fired per <code>C_Queue_PackageProcessor_ID</code>, so only the pollers which are waiting for that package processor are woken up.
+ *
+ * To not lose signals which are fired between the moment a poller checked the queue and the moment it starts waiting,
+ * the poller shall take the {@link #getGeneration(Collection)} <b>before</b> checking the queue and pass it to {@link #await(Collection, long, long)}.
+ */
+public final class WorkPackageReadyForProcessingSignal
+{
+	public static final WorkPackageReadyForProcessingSignal instance = new WorkPackageReadyForProcessingSignal();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	/** Increased by {@link #signalAll()}; counts for every package processor */
+	private long globalGeneration = 0;
+	private final Map<Integer, Long> generationsByPackageProcessorId = new HashMap<>();
+	private final List<Waiter> waiters = new ArrayList<>();
+
+	private WorkPackageReadyForProcessingSignal()
+	{
+	}
+
+	/** A poller which is currently waiting. Each poller has its own condition, so we can wake up exactly the pollers which are interested. */
+	private static final class Waiter
+	{
+		private final ImmutableSet<Integer> packageProcessorIds;
+		private final Condition condition;
+
+		private Waiter(final ImmutableSet<Integer> packageProcessorIds, final Condition condition)
+		{
+			this.packageProcessorIds = packageProcessorIds;
+			this.condition = condition;
+		}
+	}
+
+	/** @return a number which is increased each time the signal is fired for one of the given package processors */
+	public long getGeneration(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		lock.lock();
+		try
+		{
+			return getGeneration0(packageProcessorIds);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private long getGeneration0(final Collection<Integer> packageProcessorIds)
+	{
+		long generation = globalGeneration;
+		for (final Integer packageProcessorId : packageProcessorIds)
+		{
+			generation += generationsByPackageProcessorId.getOrDefault(packageProcessorId, 0L);
+		}
+		return generation;
+	}
+
+	/** Wakes up the pollers which are waiting for the given package processor. */
+	public void signal(final int packageProcessorId)
+	{
+		lock.lock();
+		try
+		{
+			generationsByPackageProcessorId.merge(packageProcessorId, 1L, Long::sum);
+			for (final Waiter waiter : waiters)
+			{
+				if (waiter.packageProcessorIds.contains(packageProcessorId))
+				{
+					waiter.condition.signal();
+				}
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/** Wakes up all waiting pollers. To be used only if we don't know the package processor. */
+	public void signalAll()
+	{
+		lock.lock();
+		try
+		{
+			globalGeneration++;
+			for (final Waiter waiter : waiters)
+			{
+				waiter.condition.signal();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/** Wakes up the pollers which are waiting for the given package processor after the given transaction is committed, or right away if there is no transaction. */
+	public void signalAfterCommit(final String trxName, final int packageProcessorId)
+	{
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(trxName)
+				.newEventListener(TrxEventTiming.AFTER_COMMIT)
+				.registerHandlingMethod(trx -> signal(packageProcessorId));
+	}
+
+	/**
+	 * Waits until the signal is fired for one of the given package processors or the given timeout elapsed.
+	 * If the signal was already fired after <code>lastGeneration</code> was taken, this method returns right away.
+	 *
+	 * @param lastGeneration generation which was taken (for the same package processors) before the poller checked the queue
+	 * @return true if the signal was fired, false if the timeout elapsed
+	 */
+	public boolean await(@NonNull final Collection<Integer> packageProcessorIds, final long lastGeneration, final long timeoutMillis) throws InterruptedException
+	{
+		lock.lock();
+		try
+		{
+			if (getGeneration0(packageProcessorIds) != lastGeneration)
+			{
+				return true;
+			}
+
+			final Waiter waiter = new Waiter(ImmutableSet.copyOf(packageProcessorIds), lock.newCondition());
+			waiters.add(waiter);
+			try
+			{
+				long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+				while (getGeneration0(packageProcessorIds) == lastGeneration)
+				{
+					if (remainingNanos <= 0)
+					{
+						return false;
+					}
+					remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+				}
+				return true;
+			}
+			finally
+			{
+				waiters.remove(waiter);
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+}
@@ -67,6 +67,24 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 
 	protected abstract void executeTask(WorkpackageProcessorTask task);
 
+	/**
+	 * Called before polling the next workpackage.
+	 *
+	 * Processors which limit how many workpackages are processed at the same time shall block here until they can process one more,
+	 * so that we never lock a workpackage which we can't start right away.
+	 * After this method returned, either the permit is passed on to the task given to {@link #executeTask(WorkpackageProcessorTask)} or {@link #releaseTaskPermit()} is called.
+	 */
+	protected void acquireTaskPermit() throws InterruptedException
+	{
+		// nothing on this level
+	}
+
+	/** Called if the permit acquired by {@link #acquireTaskPermit()} was not used because no task was submitted. */
+	protected void releaseTaskPermit()
+	{
+		// nothing on this level
+	}
+
 	protected IMutableQueueProcessorStatistics newMutableQueueProcessorStatistics()
 	{
 		return new QueueProcessorStatistics();
@@ -176,14 +194,42 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 
 	private boolean pollAndSubmitNextWorkPackageTask()
 	{
-		final IWorkPackageQueue queue = getQueue();
-
-		final I_C_Queue_WorkPackage workPackage = queue.pollAndLock(queuePollingTimeout);
-		if (workPackage == null)
+		try
 		{
+			acquireTaskPermit();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			logger.debug("Thread interrupted while waiting for a task permit", e);
 			return false;
 		}
 
+		boolean taskSubmitted = false;
+		try
+		{
+			final IWorkPackageQueue queue = getQueue();
+
+			final I_C_Queue_WorkPackage workPackage = queue.pollAndLock(queuePollingTimeout);
+			if (workPackage == null)
+			{
+				return false;
+			}
+
+			taskSubmitted = submitTask(workPackage);
+			return taskSubmitted;
+		}
+		finally
+		{
+			if (!taskSubmitted)
+			{
+				releaseTaskPermit();
+			}
+		}
+	}
+
+	private boolean submitTask(final I_C_Queue_WorkPackage workPackage)
+	{
 		boolean success = false;
 		try
 		{
@@ -197,7 +243,7 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 			if (!success)
 			{
 				logger.info("Submiting for processing next workpackage failed. Trying to unlock {}.", workPackage);
-				queue.unlockNoFail(workPackage);
+				getQueue().unlockNoFail(workPackage);
 
 				getEventDispatcher().unregisterListeners(workPackage.getC_Queue_WorkPackage_ID());
 			}
@@ -1,9 +1,13 @@
 package de.metas.async.processor.impl;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.adempiere.util.concurrent.DelayedRunnableExecutor;
 import org.compiere.util.Ini;
 
 import de.metas.async.api.IQueueDAO;
+import de.metas.async.api.impl.WorkPackageReadyForProcessingNotificationListener;
 import de.metas.async.model.I_C_Queue_Processor;
 import de.metas.async.processor.IQueueProcessorExecutorService;
 import de.metas.async.processor.IQueueProcessorsExecutor;
@@ -83,16 +87,25 @@ class QueueProcessorExecutorService implements IQueueProcessorExecutorService
 		// Remove all queue processors. It shall be none, but just to make sure
 		executor.removeAllQueueProcessor();
 
-		for (final I_C_Queue_Processor processorDef : Services.get(IQueueDAO.class).retrieveAllProcessors())
+		final IQueueDAO queueDAO = Services.get(IQueueDAO.class);
+		final Set<Integer> packageProcessorIds = new HashSet<>();
+		for (final I_C_Queue_Processor processorDef : queueDAO.retrieveAllProcessors())
 		{
 			executor.addQueueProcessor(processorDef);
+
+			queueDAO.retrieveWorkpackageProcessors(processorDef)
+					.forEach(packageProcessor -> packageProcessorIds.add(packageProcessor.getC_Queue_PackageProcessor_ID()));
 		}
+
+		// Get notified when workpackages for our package processors are marked as ready for processing on other JVMs
+		WorkPackageReadyForProcessingNotificationListener.instance.start(packageProcessorIds);
 	}
 
 	@Override
 	public void removeAllQueueProcessors()
 	{
 		delayedInit.cancelAndReset();
+		WorkPackageReadyForProcessingNotificationListener.instance.stop();
 		executor.removeAllQueueProcessor();
 	}
 
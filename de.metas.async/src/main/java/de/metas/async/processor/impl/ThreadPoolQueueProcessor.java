@@ -23,26 +23,57 @@ package de.metas.async.processor.impl;
  */
 
 
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.BlockingThreadPoolExecutor;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.model.I_C_Queue_Processor;
-
+import de.metas.util.Services;
+
+/**
+ * Queue processor which processes the workpackages using a thread pool.
+ *
+ * By default, the thread pool has a fixed size ({@link I_C_Queue_Processor#getPoolSize()}).
+ *
+ * If {@value #SYSCONFIG_ElasticPrefix}&lt;processor name&gt; is set to <code>Y</code>, the processor runs in elastic mode:
+ * threads are created on demand and the number of concurrently processed workpackages is limited by {@link WorkpackagesConcurrencyLimiter},
+ * which is shared by all elastic processors and tied to the database connection pool.
+ * The permit is acquired before the next workpackage is polled, so we never keep a workpackage locked while waiting for a permit.
+ * Idle threads are discarded after {@link I_C_Queue_Processor#getKeepAliveTimeMillis()} (or one minute, if not set).
+ * That's meant for queues whose workpackages are mostly waiting for I/O (e.g. remote vendor or shipper APIs).
+ */
 class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 {
+	private static final String SYSCONFIG_ElasticPrefix = "de.metas.async.ThreadPoolQueueProcessor.Elastic.";
+	private static final long ELASTIC_KEEP_ALIVE_MILLIS = 60 * 1000;
+
 	private String name;
 	private final ThreadPoolExecutor executor;
+	private final WorkpackagesConcurrencyLimiter concurrencyLimiter;
 	private final AtomicBoolean running;
 
 	public ThreadPoolQueueProcessor(final I_C_Queue_Processor config, final IWorkPackageQueue queue)
+	{
+		this(config, queue, isElastic(config.getName()) ? WorkpackagesConcurrencyLimiter.get() : null);
+	}
+
+	/**
+	 * @param concurrencyLimiter if not null, the processor runs in elastic mode
+	 */
+	@VisibleForTesting
+	ThreadPoolQueueProcessor(final I_C_Queue_Processor config, final IWorkPackageQueue queue, @Nullable final WorkpackagesConcurrencyLimiter concurrencyLimiter)
 	{
 		super(queue);
 
@@ -56,23 +87,44 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 					.setDaemon(true)
 					.build();
 
-			executor = new BlockingThreadPoolExecutor(
-					config.getPoolSize(),
-					threadFactory
-			);
-			// If we have a KeepAliveTimeMillis in processor definition, then we apply the timeout for core threads too
-			executor.allowCoreThreadTimeOut(config.getKeepAliveTimeMillis() > 0);
+			this.concurrencyLimiter = concurrencyLimiter;
+			if (concurrencyLimiter != null)
+			{
+				executor = new ThreadPoolExecutor(
+						0, // corePoolSize
+						Integer.MAX_VALUE, // maximumPoolSize
+						config.getKeepAliveTimeMillis() > 0 ? config.getKeepAliveTimeMillis() : ELASTIC_KEEP_ALIVE_MILLIS,
+						TimeUnit.MILLISECONDS,
+						new SynchronousQueue<>(),
+						threadFactory);
+			}
+			else
+			{
+				executor = new BlockingThreadPoolExecutor(
+						config.getPoolSize(),
+						threadFactory
+				);
+				// If we have a KeepAliveTimeMillis in processor definition, then we apply the timeout for core threads too
+				executor.allowCoreThreadTimeOut(config.getKeepAliveTimeMillis() > 0);
+			}
 		}
 
 		this.running = new AtomicBoolean(true);
 	}
-	
+
+	private static boolean isElastic(final String processorName)
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ElasticPrefix + processorName, false);
+	}
+
 	@Override
 	public String toString()
 	{
 		return MoreObjects.toStringHelper(this)
+				.omitNullValues()
 				.add("name", name)
 				.add("executor", executor)
+				.add("concurrencyLimiter", concurrencyLimiter)
 				.toString();
 	}
 
@@ -106,9 +158,49 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	}
 
 	@Override
-	protected void executeTask(WorkpackageProcessorTask task)
+	protected void acquireTaskPermit() throws InterruptedException
+	{
+		if (concurrencyLimiter != null)
+		{
+			concurrencyLimiter.acquire();
+		}
+	}
+
+	@Override
+	protected void releaseTaskPermit()
+	{
+		if (concurrencyLimiter != null)
+		{
+			concurrencyLimiter.release();
+		}
+	}
+
+	@Override
+	protected void executeTask(final WorkpackageProcessorTask task)
+	{
+		if (concurrencyLimiter == null)
+		{
+			executor.submit(task);
+			return;
+		}
+
+		// the permit was acquired before polling the workpackage; if the submit fails, it's released by our caller
+		executor.submit(() -> {
+			try
+			{
+				task.run();
+			}
+			finally
+			{
+				concurrencyLimiter.release();
+			}
+		});
+	}
+
+	@VisibleForTesting
+	int getPoolSize()
 	{
-		executor.submit(task);
+		return executor.getPoolSize();
 	}
 
 	private final ReentrantLock shutdownLock = new ReentrantLock();
@@ -0,0 +1,171 @@
+package de.metas.async.processor.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.concurrent.Semaphore;
+import java.util.function.IntSupplier;
+
+import javax.sql.DataSource;
+
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.db.CConnection;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/**
+ * Limits how many workpackages are processed at the same time by all queue processors which are running in elastic mode (see {@link ThreadPoolQueueProcessor}).
+ *
+ * Because most workpackage processors need a database connection, the limit is derived from the database connection pool size,
+ * unless it's explicitly set by {@value #SYSCONFIG_MaxConcurrentWorkpackages}.
+ * The limit is re-evaluated on each {@link #acquire()} and {@link #release()}, so changing the sysconfig takes effect without restarting the server.
+ */
+final class WorkpackagesConcurrencyLimiter
+{
+	private static final Logger logger = LogManager.getLogger(WorkpackagesConcurrencyLimiter.class);
+
+	private static final String SYSCONFIG_MaxConcurrentWorkpackages = "de.metas.async.ElasticQueueProcessors.MaxConcurrentWorkpackages";
+
+	/** Part of the database connection pool which can be used by elastic queue processors; the rest is kept for the other activities */
+	private static final double DB_CONNECTIONS_SHARE = 0.5;
+	private static final int DEFAULT_MaxConcurrentWorkpackages = 20;
+
+	private static WorkpackagesConcurrencyLimiter _instance;
+
+	public static synchronized WorkpackagesConcurrencyLimiter get()
+	{
+		if (_instance == null)
+		{
+			_instance = new WorkpackagesConcurrencyLimiter(WorkpackagesConcurrencyLimiter::retrieveMaxConcurrentWorkpackages);
+		}
+		return _instance;
+	}
+
+	private static int retrieveMaxConcurrentWorkpackages()
+	{
+		final int maxConcurrentWorkpackages = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxConcurrentWorkpackages, -1);
+		if (maxConcurrentWorkpackages > 0)
+		{
+			return maxConcurrentWorkpackages;
+		}
+
+		final DataSource dataSource = CConnection.get().getDataSource();
+		if (dataSource instanceof ComboPooledDataSource)
+		{
+			final int maxPoolSize = ((ComboPooledDataSource)dataSource).getMaxPoolSize();
+			return Math.max(1, (int)(maxPoolSize * DB_CONNECTIONS_SHARE));
+		}
+
+		return DEFAULT_MaxConcurrentWorkpackages;
+	}
+
+	private final IntSupplier maxConcurrentWorkpackagesSupplier;
+	private final ResizeableSemaphore semaphore;
+	private int maxConcurrentWorkpackages;
+
+	@VisibleForTesting
+	WorkpackagesConcurrencyLimiter(@NonNull final IntSupplier maxConcurrentWorkpackagesSupplier)
+	{
+		this.maxConcurrentWorkpackagesSupplier = maxConcurrentWorkpackagesSupplier;
+		this.maxConcurrentWorkpackages = Math.max(1, maxConcurrentWorkpackagesSupplier.getAsInt());
+		this.semaphore = new ResizeableSemaphore(maxConcurrentWorkpackages);
+		logger.info("Max concurrent workpackages for elastic queue processors: {}", maxConcurrentWorkpackages);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "WorkpackagesConcurrencyLimiter[available=" + semaphore.availablePermits() + "/" + getMaxConcurrentWorkpackages() + "]";
+	}
+
+	/** Blocks until a workpackage can be processed. Each call must be followed by a {@link #release()}. */
+	public void acquire() throws InterruptedException
+	{
+		updateMaxConcurrentWorkpackages();
+		semaphore.acquire();
+	}
+
+	public void release()
+	{
+		semaphore.release();
+		updateMaxConcurrentWorkpackages();
+	}
+
+	@VisibleForTesting
+	synchronized int getMaxConcurrentWorkpackages()
+	{
+		return maxConcurrentWorkpackages;
+	}
+
+	/** @return how many workpackages can still be started; negative if the limit was lowered while more workpackages were running */
+	@VisibleForTesting
+	int getAvailablePermits()
+	{
+		return semaphore.availablePermits();
+	}
+
+	private synchronized void updateMaxConcurrentWorkpackages()
+	{
+		final int maxConcurrentWorkpackagesNew = Math.max(1, maxConcurrentWorkpackagesSupplier.getAsInt());
+		final int delta = maxConcurrentWorkpackagesNew - maxConcurrentWorkpackages;
+		if (delta == 0)
+		{
+			return;
+		}
+
+		if (delta > 0)
+		{
+			semaphore.release(delta);
+		}
+		else
+		{
+			// the workpackages which are currently running will finish; we just won't start new ones until we are below the new limit
+			semaphore.reducePermits(-delta);
+		}
+
+		logger.info("Max concurrent workpackages for elastic queue processors changed from {} to {}", maxConcurrentWorkpackages, maxConcurrentWorkpackagesNew);
+		maxConcurrentWorkpackages = maxConcurrentWorkpackagesNew;
+	}
+
+	/** {@link Semaphore} which makes {@link Semaphore#reducePermits(int)} accessible, so we can lower the limit without waiting for the running workpackages. */
+	private static final class ResizeableSemaphore extends Semaphore
+	{
+		private static final long serialVersionUID = 1L;
+
+		private ResizeableSemaphore(final int permits)
+		{
+			super(permits, true);
+		}
+
+		@Override
+		protected void reducePermits(final int reduction)
+		{
+			super.reducePermits(reduction);
+		}
+	}
+}
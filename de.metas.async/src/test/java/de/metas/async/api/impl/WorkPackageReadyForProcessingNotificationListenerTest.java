@@ -0,0 +1,75 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+import static de.metas.async.api.impl.WorkPackageReadyForProcessingNotificationListener.extractPackageProcessorIdOrZero;
+import static de.metas.async.api.impl.WorkPackageReadyForProcessingNotificationListener.isRelevantPayload;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class WorkPackageReadyForProcessingNotificationListenerTest
+{
+	private static final String LOCAL_SENDER_ID = "local-sender";
+	private final Set<Integer> localPackageProcessorIds = ImmutableSet.of(10, 20);
+
+	@Test
+	public void notificationFromOtherJVMForLocalPackageProcessor()
+	{
+		assertThat(isRelevantPayload("other-sender;10", LOCAL_SENDER_ID, localPackageProcessorIds)).isTrue();
+	}
+
+	@Test
+	public void notificationFromOtherJVMForOtherPackageProcessor()
+	{
+		assertThat(isRelevantPayload("other-sender;30", LOCAL_SENDER_ID, localPackageProcessorIds)).isFalse();
+	}
+
+	@Test
+	public void ownNotificationIsIgnored()
+	{
+		assertThat(isRelevantPayload(LOCAL_SENDER_ID + ";10", LOCAL_SENDER_ID, localPackageProcessorIds)).isFalse();
+	}
+
+	@Test
+	public void unparsablePayloadIsRelevant()
+	{
+		assertThat(isRelevantPayload("", LOCAL_SENDER_ID, localPackageProcessorIds)).isTrue();
+		assertThat(isRelevantPayload(null, LOCAL_SENDER_ID, localPackageProcessorIds)).isTrue();
+		assertThat(isRelevantPayload("other-sender;abc", LOCAL_SENDER_ID, localPackageProcessorIds)).isTrue();
+	}
+
+	@Test
+	public void extractPackageProcessorId()
+	{
+		assertThat(extractPackageProcessorIdOrZero("other-sender;10")).isEqualTo(10);
+		assertThat(extractPackageProcessorIdOrZero("other-sender;abc")).isEqualTo(0);
+		assertThat(extractPackageProcessorIdOrZero("")).isEqualTo(0);
+		assertThat(extractPackageProcessorIdOrZero(null)).isEqualTo(0);
+	}
+}
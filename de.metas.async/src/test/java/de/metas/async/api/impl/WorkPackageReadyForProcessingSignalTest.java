@@ -0,0 +1,99 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class WorkPackageReadyForProcessingSignalTest
+{
+	private final WorkPackageReadyForProcessingSignal signal = WorkPackageReadyForProcessingSignal.instance;
+
+	private static final List<Integer> PACKAGE_PROCESSOR_IDS = ImmutableList.of(10, 20);
+
+	@Test
+	public void await_returnsRightAwayIfSignaledMeanwhile() throws Exception
+	{
+		final long generation = signal.getGeneration(PACKAGE_PROCESSOR_IDS);
+		signal.signal(20);
+
+		final long startTS = System.currentTimeMillis();
+		assertThat(signal.await(PACKAGE_PROCESSOR_IDS, generation, 10_000)).isTrue();
+		assertThat(System.currentTimeMillis() - startTS).isLessThan(5_000);
+	}
+
+	@Test
+	public void await_timesOutIfNotSignaled() throws Exception
+	{
+		final long generation = signal.getGeneration(PACKAGE_PROCESSOR_IDS);
+		assertThat(signal.await(PACKAGE_PROCESSOR_IDS, generation, 10)).isFalse();
+	}
+
+	@Test
+	public void await_notWokenUpBySignalForOtherPackageProcessor() throws Exception
+	{
+		final long generation = signal.getGeneration(PACKAGE_PROCESSOR_IDS);
+		signal.signal(30);
+
+		assertThat(signal.getGeneration(PACKAGE_PROCESSOR_IDS)).isEqualTo(generation);
+		assertThat(signal.await(PACKAGE_PROCESSOR_IDS, generation, 10)).isFalse();
+	}
+
+	@Test
+	public void await_wokenUpBySignalAll() throws Exception
+	{
+		final long generation = signal.getGeneration(PACKAGE_PROCESSOR_IDS);
+		signal.signalAll();
+
+		assertThat(signal.await(PACKAGE_PROCESSOR_IDS, generation, 10_000)).isTrue();
+	}
+
+	@Test
+	public void await_wokenUpBySignalFromAnotherThread() throws Exception
+	{
+		final long generation = signal.getGeneration(PACKAGE_PROCESSOR_IDS);
+		final Thread signalingThread = new Thread(() -> {
+			try
+			{
+				Thread.sleep(50);
+			}
+			catch (final InterruptedException e)
+			{
+				return;
+			}
+			signal.signal(10);
+		});
+		signalingThread.start();
+
+		final long startTS = System.currentTimeMillis();
+		assertThat(signal.await(PACKAGE_PROCESSOR_IDS, generation, 10_000)).isTrue();
+		assertThat(System.currentTimeMillis() - startTS).isLessThan(5_000);
+
+		signalingThread.join();
+	}
+}
@@ -0,0 +1,217 @@
+package de.metas.async.processor.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.junit.Test;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.spi.IWorkpackageProcessor;
+import de.metas.util.Services;
+
+/**
+ * Tests {@link ThreadPoolQueueProcessor} in elastic mode, i.e. with a {@link WorkpackagesConcurrencyLimiter}.
+ */
+public class ThreadPoolQueueProcessorElasticTest extends QueueProcessorTestBase
+{
+	private static final int KEEP_ALIVE_MILLIS = 300;
+	private static final long TIMEOUT_MILLIS = 10 * 1000;
+
+	/** Processes workpackages until {@link #releaseLatch} is released, and keeps track of how many are processed at the same time. */
+	public static class BlockingWorkpackageProcessor implements IWorkpackageProcessor
+	{
+		private static CountDownLatch releaseLatch;
+		private static boolean fail;
+		private static final AtomicInteger running = new AtomicInteger();
+		private static final AtomicInteger maxRunning = new AtomicInteger();
+		private static final AtomicInteger processed = new AtomicInteger();
+
+		private static void reset(final boolean fail)
+		{
+			releaseLatch = new CountDownLatch(1);
+			BlockingWorkpackageProcessor.fail = fail;
+			running.set(0);
+			maxRunning.set(0);
+			processed.set(0);
+		}
+
+		@Override
+		public Result processWorkPackage(final I_C_Queue_WorkPackage workpackage, final String localTrxName)
+		{
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try
+			{
+				releaseLatch.await();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			finally
+			{
+				running.decrementAndGet();
+				processed.incrementAndGet();
+			}
+
+			if (fail)
+			{
+				throw new RuntimeException("test error");
+			}
+			return Result.SUCCESS;
+		}
+	}
+
+	private I_C_Queue_Processor processorDef;
+
+	@Override
+	protected void beforeTestCustomized()
+	{
+		processorDef = helper.createQueueProcessor("elastic", 1, 1, KEEP_ALIVE_MILLIS);
+		helper.assignPackageProcessor(processorDef, BlockingWorkpackageProcessor.class);
+	}
+
+	@Test
+	public void limitIsEnforced_and_poolGrowsAndShrinks() throws Exception
+	{
+		BlockingWorkpackageProcessor.reset(false);
+		final WorkpackagesConcurrencyLimiter limiter = new WorkpackagesConcurrencyLimiter(() -> 3);
+		final List<I_C_Queue_WorkPackage> workpackages = enqueueWorkpackages(6);
+
+		final ThreadPoolQueueProcessor processor = new ThreadPoolQueueProcessor(processorDef, getQueueForProcessing(), limiter);
+		final Thread pollingThread = startPolling(processor);
+		try
+		{
+			waitUntil(() -> BlockingWorkpackageProcessor.running.get() == 3);
+			Thread.sleep(200); // give the polling thread a chance to exceed the limit
+			assertThat(BlockingWorkpackageProcessor.running.get()).isEqualTo(3);
+			assertThat(processor.getPoolSize()).as("pool grows up to the limit").isEqualTo(3);
+			assertThat(limiter.getAvailablePermits()).isEqualTo(0);
+			assertLockedCount(3);
+
+			BlockingWorkpackageProcessor.releaseLatch.countDown();
+			waitUntil(() -> BlockingWorkpackageProcessor.processed.get() == workpackages.size());
+			assertThat(BlockingWorkpackageProcessor.maxRunning.get()).isEqualTo(3);
+
+			waitUntil(() -> processor.getPoolSize() == 0); // pool shrinks after the keep-alive time
+		}
+		finally
+		{
+			stopPolling(processor, pollingThread);
+		}
+
+		assertThat(limiter.getAvailablePermits()).isEqualTo(3);
+		for (final I_C_Queue_WorkPackage workpackage : workpackages)
+		{
+			InterfaceWrapperHelper.refresh(workpackage);
+			assertThat(workpackage.isProcessed()).as("processed: %s", workpackage).isTrue();
+		}
+		helper.assertNothingLocked();
+	}
+
+	@Test
+	public void permitsAreReleasedWhenProcessingFails() throws Exception
+	{
+		BlockingWorkpackageProcessor.reset(true);
+		BlockingWorkpackageProcessor.releaseLatch.countDown();
+		final WorkpackagesConcurrencyLimiter limiter = new WorkpackagesConcurrencyLimiter(() -> 2);
+		final List<I_C_Queue_WorkPackage> workpackages = enqueueWorkpackages(5);
+
+		final ThreadPoolQueueProcessor processor = new ThreadPoolQueueProcessor(processorDef, getQueueForProcessing(), limiter);
+		final Thread pollingThread = startPolling(processor);
+		try
+		{
+			waitUntil(() -> BlockingWorkpackageProcessor.processed.get() == workpackages.size());
+			waitUntil(() -> processor.getPoolSize() == 0);
+		}
+		finally
+		{
+			stopPolling(processor, pollingThread);
+		}
+
+		assertThat(limiter.getAvailablePermits()).isEqualTo(2);
+		for (final I_C_Queue_WorkPackage workpackage : workpackages)
+		{
+			InterfaceWrapperHelper.refresh(workpackage);
+			assertThat(workpackage.isError()).as("error: %s", workpackage).isTrue();
+		}
+		helper.assertNothingLocked();
+	}
+
+	private List<I_C_Queue_WorkPackage> enqueueWorkpackages(final int count)
+	{
+		final IWorkPackageQueue queueForEnqueuing = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, BlockingWorkpackageProcessor.class);
+		return helper.createAndEnqueueWorkpackages(queueForEnqueuing, count, true); // markReadyForProcessing=true
+	}
+
+	private IWorkPackageQueue getQueueForProcessing()
+	{
+		return Services.get(IWorkPackageQueueFactory.class).getQueueForPackageProcessing(processorDef);
+	}
+
+	private void assertLockedCount(final int expectedLockedCount)
+	{
+		assertThat(lockManager.getLockDatabase().getLocksCount()).as("locked workpackages; none shall be locked while waiting for a permit").isEqualTo(expectedLockedCount);
+	}
+
+	private static Thread startPolling(final ThreadPoolQueueProcessor processor)
+	{
+		final Thread pollingThread = new Thread(processor, "test-polling-" + processor.getName());
+		pollingThread.setDaemon(true);
+		pollingThread.start();
+		return pollingThread;
+	}
+
+	private static void stopPolling(final ThreadPoolQueueProcessor processor, final Thread pollingThread) throws InterruptedException
+	{
+		processor.shutdown();
+		pollingThread.interrupt();
+		pollingThread.join(TIMEOUT_MILLIS);
+		assertThat(pollingThread.isAlive()).as("polling thread stopped").isFalse();
+	}
+
+	private static void waitUntil(final BooleanSupplier condition) throws InterruptedException, TimeoutException
+	{
+		final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean())
+		{
+			if (System.currentTimeMillis() > deadline)
+			{
+				throw new TimeoutException("Condition not met within " + TIMEOUT_MILLIS + "ms");
+			}
+			TimeUnit.MILLISECONDS.sleep(20);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package de.metas.async.processor.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class WorkpackagesConcurrencyLimiterTest
+{
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@After
+	public void shutdownExecutor()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void acquire_blocksWhenLimitReached() throws Exception
+	{
+		final WorkpackagesConcurrencyLimiter limiter = new WorkpackagesConcurrencyLimiter(() -> 2);
+		limiter.acquire();
+		limiter.acquire();
+		assertThat(limiter.getAvailablePermits()).isEqualTo(0);
+
+		final Future<?> thirdAcquire = executor.submit(() -> {
+			limiter.acquire();
+			return null;
+		});
+		assertNotDone(thirdAcquire);
+
+		limiter.release();
+		thirdAcquire.get(1, TimeUnit.SECONDS);
+		assertThat(limiter.getAvailablePermits()).isEqualTo(0);
+	}
+
+	@Test
+	public void limitIsRaisedAtRuntime() throws Exception
+	{
+		final AtomicInteger maxConcurrentWorkpackages = new AtomicInteger(1);
+		final WorkpackagesConcurrencyLimiter limiter = new WorkpackagesConcurrencyLimiter(maxConcurrentWorkpackages::get);
+		limiter.acquire();
+
+		maxConcurrentWorkpackages.set(3);
+		limiter.acquire(); // would block if the new limit was not picked up
+		assertThat(limiter.getMaxConcurrentWorkpackages()).isEqualTo(3);
+		assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+	}
+
+	@Test
+	public void limitIsLoweredAtRuntime() throws Exception
+	{
+		final AtomicInteger maxConcurrentWorkpackages = new AtomicInteger(3);
+		final WorkpackagesConcurrencyLimiter limiter = new WorkpackagesConcurrencyLimiter(maxConcurrentWorkpackages::get);
+		limiter.acquire();
+		limiter.acquire();
+		limiter.acquire();
+
+		maxConcurrentWorkpackages.set(1);
+		limiter.release();
+		assertThat(limiter.getMaxConcurrentWorkpackages()).isEqualTo(1);
+		assertThat(limiter.getAvailablePermits()).as("two workpackages are still running, but only one is allowed").isEqualTo(-1);
+
+		final Future<?> nextAcquire = executor.submit(() -> {
+			limiter.acquire();
+			return null;
+		});
+		limiter.release();
+		assertNotDone(nextAcquire);
+
+		limiter.release();
+		nextAcquire.get(1, TimeUnit.SECONDS);
+		assertThat(limiter.getAvailablePermits()).isEqualTo(0);
+	}
+
+	@Test
+	public void invalidLimitFallsBackToOne()
+	{
+		final WorkpackagesConcurrencyLimiter limiter = new WorkpackagesConcurrencyLimiter(() -> 0);
+		assertThat(limiter.getMaxConcurrentWorkpackages()).isEqualTo(1);
+	}
+
+	private static void assertNotDone(final Future<?> future) throws Exception
+	{
+		try
+		{
+			future.get(200, TimeUnit.MILLISECONDS);
+		}
+		catch (final TimeoutException e)
+		{
+			return; // expected
+		}
+		throw new AssertionError("Expected " + future + " to be still blocked");
+	}
+}
@@ -0,0 +1,104 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.aggregation.api.IAggregationFactory;
+import de.metas.aggregation.api.IAggregationKey;
+import de.metas.aggregation.api.IAggregationKeyBuilder;
+import de.metas.aggregation.model.C_Aggregation_Builder;
+import de.metas.aggregation.model.I_C_Aggregation;
+import de.metas.aggregation.model.X_C_Aggregation;
+import de.metas.aggregation.model.X_C_AggregationItem;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks building the aggregation key of a model, as done e.g. when aggregating invoice candidates to invoices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationKeyBuilderBenchmark
+{
+	private IAggregationKeyBuilder<I_C_OrderLine> aggregationKeyBuilder;
+	private I_C_OrderLine orderLine;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.init();
+
+		final I_C_Aggregation aggregation = new C_Aggregation_Builder()
+				.setAD_Table_ID(I_C_OrderLine.Table_Name)
+				.setAggregationUsageLevel(X_C_Aggregation.AGGREGATIONUSAGELEVEL_Header)
+				.setName("Benchmark")
+				.newItem()
+					.setType(X_C_AggregationItem.TYPE_Column)
+					.setAD_Column(I_C_OrderLine.COLUMN_C_BPartner_ID)
+					.end()
+				.newItem()
+					.setType(X_C_AggregationItem.TYPE_Column)
+					.setAD_Column(I_C_OrderLine.COLUMN_C_Currency_ID)
+					.end()
+				.newItem()
+					.setType(X_C_AggregationItem.TYPE_Column)
+					.setAD_Column(I_C_OrderLine.COLUMN_M_Product_ID)
+					.end()
+				.newItem()
+					.setType(X_C_AggregationItem.TYPE_Column)
+					.setAD_Column(I_C_OrderLine.COLUMN_Description)
+					.end()
+				.build();
+		aggregationKeyBuilder = Services.get(IAggregationFactory.class).getAggregationKeyBuilder(Env.getCtx(), I_C_OrderLine.class, aggregation.getC_Aggregation_ID());
+
+		orderLine = InterfaceWrapperHelper.newInstance(I_C_OrderLine.class);
+		orderLine.setC_BPartner_ID(1234);
+		orderLine.setC_Currency_ID(102);
+		orderLine.setM_Product_ID(5678);
+		orderLine.setDescription("description");
+	}
+
+	@Benchmark
+	public IAggregationKey buildAggregationKey()
+	{
+		return aggregationKeyBuilder.buildAggregationKey(orderLine);
+	}
+}
@@ -0,0 +1,54 @@
+package de.metas.benchmarks;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.tools.AdempiereToolsHelper;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sets up the environment the benchmarks are running in.
+ *
+ * Most benchmarks are not using a real database, but the in-memory one (i.e. POJOLookupMap), same as the unit tests.
+ * That's fine because we want to measure our code, not the database.
+ */
+public final class BenchmarkEnvironment
+{
+	public static void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	/**
+	 * Starts up against the database configured in <code>metasfresh.properties</code>.
+	 *
+	 * Needed by the benchmarks which are measuring code that works with {@link org.compiere.model.PO}s, because the {@link org.compiere.model.POInfo} is loaded from database.
+	 */
+	public static void initWithDatabase()
+	{
+		AdempiereToolsHelper.getInstance().startupMinimal();
+	}
+
+	private BenchmarkEnvironment()
+	{
+	}
+}
@@ -0,0 +1,95 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.cache.CCache;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CCacheBenchmark
+{
+	private static final int CACHE_SIZE = 10_000;
+
+	private CCache<Integer, String> cache;
+	private int nextKey = 0;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.init();
+
+		cache = CCache.<Integer, String> builder()
+				.cacheName("CCacheBenchmark")
+				.tableName("CCacheBenchmark_Table")
+				.initialCapacity(CACHE_SIZE)
+				.build();
+		for (int i = 0; i < CACHE_SIZE; i++)
+		{
+			cache.put(i, String.valueOf(i));
+		}
+	}
+
+	private int nextKey()
+	{
+		nextKey = (nextKey + 1) % CACHE_SIZE;
+		return nextKey;
+	}
+
+	@Benchmark
+	public String get_hit()
+	{
+		return cache.get(nextKey());
+	}
+
+	@Benchmark
+	public String getOrLoad_hit()
+	{
+		return cache.getOrLoad(nextKey(), String::valueOf);
+	}
+
+	@Benchmark
+	public String getOrLoad_miss()
+	{
+		final int key = CACHE_SIZE + nextKey();
+		final String value = cache.getOrLoad(key, String::valueOf);
+		cache.remove(key);
+		return value;
+	}
+}
@@ -0,0 +1,106 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
+import org.adempiere.ad.expression.api.IExpressionFactory;
+import org.adempiere.ad.expression.api.ILogicExpression;
+import org.adempiere.ad.expression.api.IStringExpression;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks compiling and evaluating string and logic expressions, as they are used e.g. for field display logics and validation rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark
+{
+	private static final String STRING_EXPRESSION = "C_BPartner_ID=@C_BPartner_ID@ AND IsSOTrx='@IsSOTrx@' AND DocStatus IN ('@DocStatus@', 'CL')";
+	private static final String LOGIC_EXPRESSION = "@IsSOTrx@=Y & @DocStatus@!CO & @DocStatus@!CL | @Processed@=N & @C_BPartner_ID@>0";
+
+	private IExpressionFactory expressionFactory;
+	private IStringExpression stringExpression;
+	private ILogicExpression logicExpression;
+	private Evaluatee ctx;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.init();
+
+		expressionFactory = Services.get(IExpressionFactory.class);
+		stringExpression = expressionFactory.compile(STRING_EXPRESSION, IStringExpression.class);
+		logicExpression = expressionFactory.compile(LOGIC_EXPRESSION, ILogicExpression.class);
+		ctx = Evaluatees.ofMap(ImmutableMap.<String, Object> builder()
+				.put("C_BPartner_ID", "2156423")
+				.put("IsSOTrx", "Y")
+				.put("DocStatus", "DR")
+				.put("Processed", "N")
+				.build());
+	}
+
+	@Benchmark
+	public IStringExpression stringExpression_compile()
+	{
+		return expressionFactory.compile(STRING_EXPRESSION, IStringExpression.class);
+	}
+
+	@Benchmark
+	public String stringExpression_evaluate()
+	{
+		return stringExpression.evaluate(ctx, OnVariableNotFound.Fail);
+	}
+
+	@Benchmark
+	public ILogicExpression logicExpression_compile()
+	{
+		return expressionFactory.compile(LOGIC_EXPRESSION, ILogicExpression.class);
+	}
+
+	@Benchmark
+	public Boolean logicExpression_evaluate()
+	{
+		return logicExpression.evaluate(ctx, OnVariableNotFound.Fail);
+	}
+}
@@ -0,0 +1,143 @@
+package de.metas.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_M_Attribute;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.handlingunits.IHandlingUnitsDAO;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures how {@link de.metas.handlingunits.IHUQueryBuilder} filters HUs by an attribute value, with and without the partial btree indexes
+ * on {@code M_HU_Attribute} which are created by {@code 5513770_sys_M_HU_AttributesIndex.sql}.
+ * Also measures an attribute value update, which has to maintain those indexes.
+ *
+ * For {@code withIndexes=false}, the indexes are dropped in the iteration's transaction, which is rolled back afterwards (PostgreSQL DDL is transactional).
+ * That transaction holds an exclusive lock on {@code M_HU_Attribute}, so don't run this benchmark against a database which is in use.
+ *
+ * NOTE: this benchmark needs a database with HU attributes (see {@link BenchmarkEnvironment#initWithDatabase()}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HUAttributesIndexBenchmark
+{
+	private static final String SQL_SELECT_LATEST_STRING_HU_ATTRIBUTE = "SELECT MAX(ha.M_HU_Attribute_ID)"
+			+ " FROM M_HU_Attribute ha"
+			+ " INNER JOIN M_Attribute a ON a.M_Attribute_ID=ha.M_Attribute_ID"
+			+ " WHERE ha.IsActive='Y' AND ha.Value IS NOT NULL AND a.AttributeValueType IN ('S', 'L')";
+
+	private static final String SQL_DROP_INDEXES = "DROP INDEX M_HU_Attribute_Value_Active, M_HU_Attribute_ValueNumber_Active, M_HU_Attribute_ValueDate_Active";
+
+	private static final String SQL_UPDATE_VALUE = "UPDATE M_HU_Attribute SET Value=? WHERE M_HU_Attribute_ID=?";
+
+	/** The {@code M_HU_Attribute} record whose attribute and value are searched for. If not set, the latest record of a string or list attribute is used. */
+	@Param({ "0" })
+	public int huAttributeId;
+
+	@Param({ "true", "false" })
+	public boolean withIndexes;
+
+	private I_M_Attribute attribute;
+	private String value;
+
+	private String trxName;
+	private int counter = 0;
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.initWithDatabase();
+
+		if (huAttributeId <= 0)
+		{
+			huAttributeId = DB.getSQLValueEx(ITrx.TRXNAME_None, SQL_SELECT_LATEST_STRING_HU_ATTRIBUTE);
+		}
+		Check.assume(huAttributeId > 0, "The database shall contain active M_HU_Attribute records with a string value");
+
+		final int attributeId = DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT M_Attribute_ID FROM M_HU_Attribute WHERE M_HU_Attribute_ID=?", huAttributeId);
+		attribute = InterfaceWrapperHelper.loadOutOfTrx(attributeId, I_M_Attribute.class);
+		value = DB.getSQLValueStringEx(ITrx.TRXNAME_None, "SELECT Value FROM M_HU_Attribute WHERE M_HU_Attribute_ID=?", huAttributeId);
+	}
+
+	@Setup(Level.Iteration)
+	public void startTrx()
+	{
+		trxName = Services.get(ITrxManager.class).createTrxName(HUAttributesIndexBenchmark.class.getSimpleName(), true);
+		if (!withIndexes)
+		{
+			DB.executeUpdateEx(SQL_DROP_INDEXES, trxName);
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void rollbackTrx()
+	{
+		final ITrx trx = Services.get(ITrxManager.class).get(trxName, false);
+		trx.rollback();
+		trx.close();
+	}
+
+	@Benchmark
+	public int countHUs()
+	{
+		return Services.get(IHandlingUnitsDAO.class).createHUQueryBuilder()
+				.setContext(Env.getCtx(), trxName)
+				.onlyContextClient(false)
+				.setOnlyTopLevelHUs(false)
+				.addOnlyWithAttribute(attribute, value)
+				.count();
+	}
+
+	/** Changes the value back and forth, so each update has to maintain the indexes. */
+	@Benchmark
+	public int updateValue()
+	{
+		final String newValue = ++counter % 2 == 0 ? value : value + "_";
+		return DB.executeUpdateEx(SQL_UPDATE_VALUE, new Object[] { newValue, huAttributeId }, trxName);
+	}
+}
@@ -0,0 +1,128 @@
+package de.metas.benchmarks;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.persistence.IModelClassInfo;
+import org.adempiere.ad.persistence.IModelMethodInfo;
+import org.adempiere.ad.persistence.ModelClassIntrospector;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.POWrapper;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.model.PO;
+import org.compiere.model.POInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.util.Check;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks the getters and setters of a {@link PO} which is wrapped by {@link InterfaceWrapperHelper}, i.e. the {@link POWrapper} and {@link IModelClassInfo} dispatch.
+ *
+ * NOTE: this benchmark needs a database, because the {@link POInfo} of <code>C_OrderLine</code> is loaded from there (see {@link BenchmarkEnvironment#initWithDatabase()}).
+ * Nothing is saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelWrapperBenchmark
+{
+	private I_C_OrderLine orderLine;
+	private IModelClassInfo modelClassInfo;
+	private Method getQtyOrderedMethod;
+	private int counter = 0;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		BenchmarkEnvironment.initWithDatabase();
+
+		orderLine = InterfaceWrapperHelper.newInstance(I_C_OrderLine.class);
+		Check.assume(POWrapper.isHandled(orderLine), "{} shall be wrapped by POWrapper", orderLine);
+
+		orderLine.setM_Product_ID(123);
+		orderLine.setQtyOrdered(BigDecimal.TEN);
+		orderLine.setPriceActual(new BigDecimal("12.34"));
+		orderLine.setDescription("description");
+
+		modelClassInfo = ModelClassIntrospector.getInstance().getModelClassInfo(I_C_OrderLine.class);
+		getQtyOrderedMethod = I_C_OrderLine.class.getMethod("getQtyOrdered");
+	}
+
+	@Benchmark
+	public int getter_int()
+	{
+		return orderLine.getM_Product_ID();
+	}
+
+	@Benchmark
+	public BigDecimal getter_BigDecimal()
+	{
+		return orderLine.getQtyOrdered();
+	}
+
+	@Benchmark
+	public String getter_String()
+	{
+		return orderLine.getDescription();
+	}
+
+	@Benchmark
+	public void setter_int()
+	{
+		orderLine.setM_Product_ID(++counter);
+	}
+
+	@Benchmark
+	public void setter_BigDecimal()
+	{
+		orderLine.setQtyOrdered(BigDecimal.valueOf(++counter));
+	}
+
+	/** The method info lookup which is done by each getter and setter call */
+	@Benchmark
+	public IModelMethodInfo modelClassInfo_getMethodInfo()
+	{
+		return modelClassInfo.getMethodInfo(getQtyOrderedMethod);
+	}
+
+	@Benchmark
+	public I_C_OrderLine newInstance()
+	{
+		return InterfaceWrapperHelper.newInstance(I_C_OrderLine.class);
+	}
+}
@@ -0,0 +1,93 @@
+package de.metas.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.ISqlQueryFilter;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.util.Env;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.benchmarks
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Benchmarks building the SQL WHERE clause and parameters of a typical query, as done by TypedSqlQuery.
+ *
+ * NOTE: building the full SELECT statement needs the POInfo, which is loaded from database, so we are covering only the filters part.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryFilterSqlBenchmark
+{
+	private IQueryBL queryBL;
+	private final List<Integer> productIds = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+	@Setup
+	public void setup()
+	{
+		BenchmarkEnvironment.init();
+		queryBL = Services.get(IQueryBL.class);
+	}
+
+	@Benchmark
+	public String buildWhereClause()
+	{
+		return createFilter().getSql();
+	}
+
+	@Benchmark
+	public List<Object> buildWhereClauseParams()
+	{
+		return createFilter().getSqlParams(Env.getCtx());
+	}
+
+	private ISqlQueryFilter createFilter()
+	{
+		final ICompositeQueryFilter<I_C_OrderLine> filter = queryBL.createCompositeQueryFilter(I_C_OrderLine.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_OrderLine.COLUMNNAME_C_Order_ID, 1000001)
+				.addInArrayFilter(I_C_OrderLine.COLUMNNAME_M_Product_ID, productIds)
+				.addCompareFilter(I_C_OrderLine.COLUMNNAME_QtyOrdered, Operator.GREATER, 0)
+				.addNotEqualsFilter(I_C_OrderLine.COLUMNNAME_Processed, true);
+		return filter.asSqlQueryFilter();
+	}
+}
@@ -10,12 +10,18 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.AttributeId;
 import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.product.ProductAndCategoryAndManufacturerId;
 import de.metas.util.Check;
 import de.metas.util.lang.Percent;
 
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 
 /*
@@ -41,6 +47,8 @@ import lombok.Value;
  */
 
 @Value
+@EqualsAndHashCode(exclude = "breaksIndex")
+@ToString(exclude = "breaksIndex")
 public class PricingConditions
 {
 	private static final Comparator<PricingConditionsBreak> SORT_BY_BREAK_VALUE = Comparator.<PricingConditionsBreak, BigDecimal> comparing(b -> b.getMatchCriteria().getBreakValue())
@@ -59,6 +67,9 @@ public class PricingConditions
 
 	List<PricingConditionsBreak> breaks;
 
+	@Getter(AccessLevel.NONE)
+	PricingConditionsBreaksIndex breaksIndex;
+
 	@Builder
 	private PricingConditions(
 			PricingConditionsId id,
@@ -76,6 +87,8 @@ public class PricingConditions
 		this.breakValueType = breakValueType;
 		this.breakAttributeId = breakAttributeId;
 		this.breaks = breaks;
+
+		this.breaksIndex = PricingConditionsBreaksIndex.of(breaks != null ? breaks : ImmutableList.of(), SORT_BY_BREAK_VALUE_DESC);
 	}
 
 	/**
@@ -91,11 +104,10 @@ public class PricingConditions
 			return null;
 		}
 
-		return breaks.stream()
-				.sorted(SORT_BY_BREAK_VALUE_DESC)
-				.filter(schemaBreak -> schemaBreakMatches(schemaBreak, breakValue, query))
-				.findFirst()
-				.orElse(null);
+		return breaksIndex.pickFirstMatching(
+				query.getProduct(),
+				breakValue,
+				schemaBreak -> schemaBreakMatches(schemaBreak, breakValue, query));
 	}
 
 	private boolean schemaBreakMatches(
@@ -0,0 +1,175 @@
+package de.metas.pricing.conditions;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.product.ProductAndCategoryAndManufacturerId;
+import de.metas.product.ProductCategoryId;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Breaks of one {@link PricingConditions}, indexed by product and product category, each bucket sorted by break value (descending).
+ * <p>
+ * Picking the applying break only looks at the buckets which can match the given product and binary-searches them for the first break whose break value is reached,
+ * instead of sorting and scanning all breaks for each query.
+ */
+final class PricingConditionsBreaksIndex
+{
+	public static PricingConditionsBreaksIndex of(
+			@NonNull final List<PricingConditionsBreak> breaks,
+			@NonNull final Comparator<PricingConditionsBreak> sortByBreakValueDesc)
+	{
+		return new PricingConditionsBreaksIndex(breaks, sortByBreakValueDesc);
+	}
+
+	private final ImmutableListMultimap<ProductId, RankedBreak> breaksByProductId;
+	/** Breaks which have no product but a product category */
+	private final ImmutableListMultimap<ProductCategoryId, RankedBreak> breaksByProductCategoryId;
+	/** Breaks which have neither product nor product category */
+	private final ImmutableList<RankedBreak> breaksForAnyProduct;
+
+	private PricingConditionsBreaksIndex(
+			final List<PricingConditionsBreak> breaks,
+			final Comparator<PricingConditionsBreak> sortByBreakValueDesc)
+	{
+		// NOTE: the sort is stable, so breaks with the same break value and seqNo keep their original order, just like when sorting the whole list on each query
+		final List<PricingConditionsBreak> sortedBreaks = breaks.stream()
+				.sorted(sortByBreakValueDesc)
+				.collect(ImmutableList.toImmutableList());
+
+		final ImmutableListMultimap.Builder<ProductId, RankedBreak> breaksByProductId = ImmutableListMultimap.builder();
+		final ImmutableListMultimap.Builder<ProductCategoryId, RankedBreak> breaksByProductCategoryId = ImmutableListMultimap.builder();
+		final ImmutableList.Builder<RankedBreak> breaksForAnyProduct = ImmutableList.builder();
+		for (int rank = 0; rank < sortedBreaks.size(); rank++)
+		{
+			final PricingConditionsBreak schemaBreak = sortedBreaks.get(rank);
+			final RankedBreak rankedBreak = new RankedBreak(rank, schemaBreak);
+
+			final PricingConditionsBreakMatchCriteria matchCriteria = schemaBreak.getMatchCriteria();
+			if (matchCriteria.getProductId() != null)
+			{
+				breaksByProductId.put(matchCriteria.getProductId(), rankedBreak);
+			}
+			else if (matchCriteria.getProductCategoryId() != null)
+			{
+				breaksByProductCategoryId.put(matchCriteria.getProductCategoryId(), rankedBreak);
+			}
+			else
+			{
+				breaksForAnyProduct.add(rankedBreak);
+			}
+		}
+
+		this.breaksByProductId = breaksByProductId.build();
+		this.breaksByProductCategoryId = breaksByProductCategoryId.build();
+		this.breaksForAnyProduct = breaksForAnyProduct.build();
+	}
+
+	/**
+	 * @param otherCriteriaMatcher checks the criteria which are not covered by this index (e.g. manufacturer and attributes)
+	 * @return the break with the highest break value which is reached by given {@code breakValue} and which matches given product and {@code otherCriteriaMatcher}; {@code null} if there is none
+	 */
+	@Nullable
+	public PricingConditionsBreak pickFirstMatching(
+			@NonNull final ProductAndCategoryAndManufacturerId product,
+			@NonNull final BigDecimal breakValue,
+			@NonNull final Predicate<PricingConditionsBreak> otherCriteriaMatcher)
+	{
+		RankedBreak result = pickFirstMatching(breaksByProductId.get(product.getProductId()), breakValue, otherCriteriaMatcher);
+		result = min(result, pickFirstMatching(breaksByProductCategoryId.get(product.getProductCategoryId()), breakValue, otherCriteriaMatcher));
+		result = min(result, pickFirstMatching(breaksForAnyProduct, breakValue, otherCriteriaMatcher));
+
+		return result != null ? result.getSchemaBreak() : null;
+	}
+
+	private static RankedBreak pickFirstMatching(
+			final List<RankedBreak> breaks,
+			final BigDecimal breakValue,
+			final Predicate<PricingConditionsBreak> otherCriteriaMatcher)
+	{
+		for (int i = indexOfFirstReachedBreak(breaks, breakValue); i < breaks.size(); i++)
+		{
+			final RankedBreak rankedBreak = breaks.get(i);
+			if (otherCriteriaMatcher.test(rankedBreak.getSchemaBreak()))
+			{
+				return rankedBreak;
+			}
+		}
+		return null;
+	}
+
+	/** @return index of the first break whose break value is less or equal than given {@code breakValue}; {@code breaks.size()} if there is none */
+	private static int indexOfFirstReachedBreak(final List<RankedBreak> breaks, final BigDecimal breakValue)
+	{
+		int low = 0;
+		int high = breaks.size();
+		while (low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if (breaks.get(mid).getSchemaBreak().getMatchCriteria().breakValueMatches(breakValue))
+			{
+				high = mid;
+			}
+			else
+			{
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	private static RankedBreak min(final RankedBreak rankedBreak1, final RankedBreak rankedBreak2)
+	{
+		if (rankedBreak1 == null)
+		{
+			return rankedBreak2;
+		}
+		else if (rankedBreak2 == null)
+		{
+			return rankedBreak1;
+		}
+		else
+		{
+			return rankedBreak1.getRank() <= rankedBreak2.getRank() ? rankedBreak1 : rankedBreak2;
+		}
+	}
+
+	@Value
+	private static class RankedBreak
+	{
+		/** position in the list of all breaks, sorted by break value (descending) */
+		int rank;
+		PricingConditionsBreak schemaBreak;
+	}
+}
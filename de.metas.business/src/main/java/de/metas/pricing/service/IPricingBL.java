@@ -23,6 +23,7 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
 import org.adempiere.location.CountryId;
@@ -71,6 +72,16 @@ public interface IPricingBL extends ISingletonService
 	 */
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculate pricing for many contexts at once.
+	 *
+	 * The results are the same as when calling {@link #calculatePrice(IPricingContext)} for each context,
+	 * but price list versions are resolved only once per pricing system, country, date and SOTrx and the main product prices are loaded with one query per price list version.
+	 *
+	 * @return pricing results, in the same order as the given contexts
+	 */
+	List<IPricingResult> calculatePrices(List<? extends IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
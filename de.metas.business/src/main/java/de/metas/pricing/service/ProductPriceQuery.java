@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -21,6 +22,7 @@ import org.slf4j.Logger;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
 import de.metas.logging.LogManager;
@@ -64,6 +66,8 @@ public class ProductPriceQuery
 
 	private PriceListVersionId _priceListVersionId;
 	private ProductId _productId;
+	/** if set, used instead of {@link #_productId} */
+	private Set<ProductId> _productIds;
 
 	private Boolean _attributePricing;
 	private I_M_AttributeSetInstance _attributePricing_asiToMatch;
@@ -83,6 +87,7 @@ public class ProductPriceQuery
 				.omitNullValues()
 				.add("priceListVersionId", _priceListVersionId)
 				.add("productId", _productId)
+				.add("productIds", _productIds)
 				//
 				.add("attributePricing", _attributePricing)
 				.add("asiToMatch", _attributePricing_asiToMatch)
@@ -193,8 +198,16 @@ public class ProductPriceQuery
 		final IQueryBuilder<I_M_ProductPrice> queryBuilder = Services.get(IQueryBL.class)
 				.createQueryBuilder(I_M_ProductPrice.class)
 				.addOnlyActiveRecordsFilter()
-				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, getPriceListVersionId())
-				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, getProductId());
+				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, getPriceListVersionId());
+
+		if (_productIds != null)
+		{
+			queryBuilder.addInArrayFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, _productIds);
+		}
+		else
+		{
+			queryBuilder.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, getProductId());
+		}
 
 		//
 		// Attribute pricing records
@@ -254,6 +267,16 @@ public class ProductPriceQuery
 	public ProductPriceQuery setProductId(final ProductId productId)
 	{
 		_productId = productId;
+		_productIds = null;
+		return this;
+	}
+
+	/** Matches the product prices of any of the given products */
+	public ProductPriceQuery setProductIds(@NonNull final Collection<ProductId> productIds)
+	{
+		Check.assumeNotEmpty(productIds, "productIds is not empty");
+		_productIds = ImmutableSet.copyOf(productIds);
+		_productId = null;
 		return this;
 	}
 
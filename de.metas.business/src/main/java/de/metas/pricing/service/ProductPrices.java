@@ -4,8 +4,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -16,6 +18,7 @@ import javax.annotation.Nullable;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.impexp.product.ProductPriceCreateRequest;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
@@ -23,6 +26,9 @@ import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.SetMultimap;
+
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.i18n.IMsgBL;
 import de.metas.logging.LogManager;
@@ -33,6 +39,7 @@ import de.metas.product.ProductId;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -62,6 +69,9 @@ public class ProductPrices
 
 	private static final Logger logger = LogManager.getLogger(ProductPrices.class);
 
+	/** Main product prices which were prefetched for the current thread; see {@link #prefetchMainProductPrices(SetMultimap)} */
+	private static final ThreadLocal<Map<PriceListVersionAndProduct, List<I_M_ProductPrice>>> prefetchedMainProductPrices = new ThreadLocal<>();
+
 	public static final ProductPriceQuery newQuery(@NonNull final I_M_PriceList_Version plv)
 	{
 		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
@@ -125,10 +135,63 @@ public class ProductPrices
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
 	{
+		final Map<PriceListVersionAndProduct, List<I_M_ProductPrice>> prefetched = prefetchedMainProductPrices.get();
+		if (prefetched != null)
+		{
+			final List<I_M_ProductPrice> mainPrices = prefetched.get(PriceListVersionAndProduct.of(PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID()), productId));
+			if (mainPrices != null)
+			{
+				return mainPrices;
+			}
+		}
+
 		return newMainProductPriceQuery(plv, productId)
 				.list();
 	}
 
+	/**
+	 * Loads the main product prices of the given products with one query per price list version.
+	 * Until the returned closeable is closed, {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)} will use them when called from the current thread.
+	 * <p>
+	 * If there is already a prefetch running in the current thread, nothing is prefetched.
+	 */
+	public static IAutoCloseable prefetchMainProductPrices(@NonNull final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId)
+	{
+		if (prefetchedMainProductPrices.get() != null || productIdsByPriceListVersionId.isEmpty())
+		{
+			return () -> {};
+		}
+
+		final Map<PriceListVersionAndProduct, List<I_M_ProductPrice>> prefetched = new HashMap<>();
+		for (final PriceListVersionId priceListVersionId : productIdsByPriceListVersionId.keySet())
+		{
+			final Set<ProductId> productIds = productIdsByPriceListVersionId.get(priceListVersionId);
+			final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainPricesByProductId = new ProductPriceQuery()
+					.setPriceListVersionId(priceListVersionId)
+					.setProductIds(productIds)
+					.noAttributePricing()
+					.addMatchersIfAbsent(MATCHERS_MainProductPrice) // IMORTANT: keep it last
+					.list()
+					.stream()
+					.collect(ImmutableListMultimap.toImmutableListMultimap(productPrice -> ProductId.ofRepoId(productPrice.getM_Product_ID()), productPrice -> productPrice));
+
+			// also remember the products without main price, so we don't query them again
+			productIds.forEach(productId -> prefetched.put(PriceListVersionAndProduct.of(priceListVersionId, productId), mainPricesByProductId.get(productId)));
+		}
+
+		prefetchedMainProductPrices.set(prefetched);
+		return prefetchedMainProductPrices::remove;
+	}
+
+	@Value(staticConstructor = "of")
+	private static class PriceListVersionAndProduct
+	{
+		@NonNull
+		PriceListVersionId priceListVersionId;
+		@NonNull
+		ProductId productId;
+	}
+
 	private static final ProductPriceQuery newMainProductPriceQuery(final I_M_PriceList_Version plv, final ProductId productId)
 	{
 		return newQuery(plv)
@@ -26,21 +26,31 @@ import static org.adempiere.model.InterfaceWrapperHelper.loadOutOfTrx;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.location.CountryId;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.uom.UomId;
 import org.adempiere.uom.api.IUOMConversionBL;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_ProductPrice;
 import org.compiere.util.DisplayType;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
 
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
@@ -52,6 +62,7 @@ import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
 import de.metas.pricing.PriceListId;
 import de.metas.pricing.PriceListVersionId;
+import de.metas.pricing.PricingSystemId;
 import de.metas.pricing.exceptions.PriceListVersionNotFoundException;
 import de.metas.pricing.exceptions.ProductNotOnPriceListException;
 import de.metas.pricing.limit.CompositePriceLimitRule;
@@ -116,7 +127,51 @@ public class PricingBL implements IPricingBL
 	@Override
 	public IPricingResult calculatePrice(final IPricingContext pricingCtx)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
+		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx, new PriceListVersionsMemo());
+		return calculatePrice(pricingCtxToUse, createPricingRules());
+	}
+
+	@Override
+	public List<IPricingResult> calculatePrices(@NonNull final List<? extends IPricingContext> pricingCtxs)
+	{
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		// contexts of the same order/candidates usually share pricing system, country and date, so resolve their price list version only once
+		final PriceListVersionsMemo priceListVersionsMemo = new PriceListVersionsMemo();
+		final List<IPricingContext> pricingCtxsToUse = pricingCtxs.stream()
+				.map(pricingCtx -> setupPricingContext(pricingCtx, priceListVersionsMemo))
+				.collect(ImmutableList.toImmutableList());
+
+		final AggregatedPricingRule rules = createPricingRules();
+
+		try (final IAutoCloseable prefetch = ProductPrices.prefetchMainProductPrices(extractProductIdsByPriceListVersionId(pricingCtxsToUse)))
+		{
+			return pricingCtxsToUse.stream()
+					.map(pricingCtxToUse -> calculatePrice(pricingCtxToUse, rules))
+					.collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	private static ImmutableSetMultimap<PriceListVersionId, ProductId> extractProductIdsByPriceListVersionId(final List<IPricingContext> pricingCtxs)
+	{
+		final ImmutableSetMultimap.Builder<PriceListVersionId, ProductId> productIdsByPriceListVersionId = ImmutableSetMultimap.builder();
+		for (final IPricingContext pricingCtx : pricingCtxs)
+		{
+			final PriceListVersionId priceListVersionId = pricingCtx.getPriceListVersionId();
+			final ProductId productId = pricingCtx.getProductId();
+			if (priceListVersionId != null && productId != null)
+			{
+				productIdsByPriceListVersionId.put(priceListVersionId, productId);
+			}
+		}
+		return productIdsByPriceListVersionId.build();
+	}
+
+	private IPricingResult calculatePrice(final IPricingContext pricingCtxToUse, final AggregatedPricingRule rules)
+	{
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -135,7 +190,6 @@ public class PricingBL implements IPricingBL
 			// return result;
 		}
 
-		final AggregatedPricingRule rules = createPricingRules();
 		rules.calculate(pricingCtxToUse, result);
 
 		//
@@ -194,15 +248,15 @@ public class PricingBL implements IPricingBL
 	 *
 	 * @return configured pricing context (to be used in pricing calculations)
 	 */
-	private IPricingContext setupPricingContext(final IPricingContext pricingCtx)
+	private IPricingContext setupPricingContext(final IPricingContext pricingCtx, final PriceListVersionsMemo priceListVersionsMemo)
 	{
 		final IEditablePricingContext pricingCtxToUse = pricingCtx.copy();
-		setupPriceListAndDate(pricingCtxToUse);
+		setupPriceListAndDate(pricingCtxToUse, priceListVersionsMemo);
 
 		return pricingCtxToUse;
 	}
 
-	private void setupPriceListAndDate(final IEditablePricingContext pricingCtx)
+	private void setupPriceListAndDate(final IEditablePricingContext pricingCtx, final PriceListVersionsMemo priceListVersionsMemo)
 	{
 		final IPriceListDAO priceListDAO = Services.get(IPriceListDAO.class);
 
@@ -216,13 +270,11 @@ public class PricingBL implements IPricingBL
 				&& pricingCtx.getProductId() != null
 				&& pricingCtx.getCountryId() != null)
 		{
-			final IPriceListBL priceListBL = Services.get(IPriceListBL.class);
-			final I_M_PriceList_Version computedPLV = priceListBL.getCurrentPriceListVersionOrNull(
+			final I_M_PriceList_Version computedPLV = priceListVersionsMemo.getCurrentPriceListVersionOrNull(
 					pricingCtx.getPricingSystemId(),
 					pricingCtx.getCountryId(),
 					pricingCtx.getPriceDate(),
-					pricingCtx.isSkipCheckingPriceListSOTrxFlag() ? null : pricingCtx.getSoTrx(),
-					null);
+					pricingCtx.isSkipCheckingPriceListSOTrxFlag() ? null : pricingCtx.getSoTrx());
 
 			if (computedPLV != null)
 			{
@@ -292,6 +344,27 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
+	/**
+	 * Remembers the price list versions which were resolved from pricing system, country, date and SOTrx.
+	 * Only to be used for one calculation run, because it's never invalidated.
+	 */
+	private static final class PriceListVersionsMemo
+	{
+		private final Map<ArrayKey, Optional<I_M_PriceList_Version>> priceListVersions = new HashMap<>();
+
+		public I_M_PriceList_Version getCurrentPriceListVersionOrNull(
+				@NonNull final PricingSystemId pricingSystemId,
+				@NonNull final CountryId countryId,
+				@NonNull final LocalDate date,
+				@Nullable final SOTrx soTrx)
+		{
+			final ArrayKey key = Util.mkKey(pricingSystemId, countryId, date, soTrx);
+			return priceListVersions
+					.computeIfAbsent(key, k -> Optional.ofNullable(Services.get(IPriceListBL.class).getCurrentPriceListVersionOrNull(pricingSystemId, countryId, date, soTrx, null)))
+					.orElse(null);
+		}
+	}
+
 	private void setPrecisionAndPriceScales(
 			@NonNull final IPricingContext pricingCtx,
 			@NonNull final PricingResult result)
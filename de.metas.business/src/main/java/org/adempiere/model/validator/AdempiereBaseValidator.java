@@ -43,12 +43,15 @@ import org.compiere.model.I_AD_OrgInfo;
 import org.compiere.model.I_AD_Process;
 import org.compiere.model.I_AD_Process_Para;
 import org.compiere.model.I_AD_Ref_List;
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
 import org.compiere.model.I_AD_SysConfig;
 import org.compiere.model.I_AD_Table;
 import org.compiere.model.I_C_BP_Relation;
 import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_C_BPartner_Stats;
 import org.compiere.model.I_C_ConversionType;
+import org.compiere.model.I_C_Conversion_Rate;
 import org.compiere.model.I_C_DocType;
 import org.compiere.model.I_C_DocTypeCounter;
 import org.compiere.model.I_C_DocType_Sequence;
@@ -307,6 +310,13 @@ public final class AdempiereBaseValidator extends AbstractModuleInterceptor
 
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_C_DocTypeCounter.Table_Name);
 
+		// currency conversion rates are cached in memory, so changes shall be propagated to all JVMs
+		cacheMgt.enableRemoteCacheInvalidationForTableName(I_C_Conversion_Rate.Table_Name);
+
+		// document numbers might be handed out from in-memory blocks; if a sequence is changed (e.g. CurrentNext is reset), then all JVMs shall drop their blocks
+		cacheMgt.enableRemoteCacheInvalidationForTableName(I_AD_Sequence.Table_Name);
+		cacheMgt.enableRemoteCacheInvalidationForTableName(I_AD_Sequence_No.Table_Name);
+
 		// Broadcast cache invalidation of AD_Client and AD_Org tables.
 		// This is needed in case there are some configuration changes and we want them to be applied ASAP, without restarting the server.
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_AD_Client.Table_Name);
@@ -0,0 +1,137 @@
+package de.metas.pricing.conditions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.product.ProductAndCategoryAndManufacturerId;
+import de.metas.product.ProductCategoryId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingConditionsTest
+{
+	private static final ProductAndCategoryAndManufacturerId PRODUCT = ProductAndCategoryAndManufacturerId.of(1, 2, 3);
+
+	@Test
+	public void pickApplyingBreak_highestReachedBreakValueWins()
+	{
+		final PricingConditionsBreak break10 = schemaBreak(10, 10, null, null, null);
+		final PricingConditionsBreak break20 = schemaBreak(20, 10, null, null, null);
+		final PricingConditionsBreak break0 = schemaBreak(0, 10, null, null, null);
+		final PricingConditions pricingConditions = pricingConditions(break10, break20, break0);
+
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 5))).isSameAs(break0);
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 10))).isSameAs(break10);
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 19))).isSameAs(break10);
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 100))).isSameAs(break20);
+	}
+
+	@Test
+	public void pickApplyingBreak_noBreakReached()
+	{
+		final PricingConditions pricingConditions = pricingConditions(schemaBreak(10, 10, null, null, null));
+
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 5))).isNull();
+	}
+
+	@Test
+	public void pickApplyingBreak_productCategoryAndAnyProductBreaksAreConsidered()
+	{
+		final PricingConditionsBreak productBreak = schemaBreak(10, 10, 1, null, null);
+		final PricingConditionsBreak categoryBreak = schemaBreak(20, 10, null, 2, null);
+		final PricingConditionsBreak anyProductBreak = schemaBreak(30, 10, null, null, null);
+		final PricingConditionsBreak otherProductBreak = schemaBreak(40, 10, 100, null, null);
+		final PricingConditions pricingConditions = pricingConditions(productBreak, categoryBreak, anyProductBreak, otherProductBreak);
+
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 15))).isSameAs(productBreak);
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 25))).isSameAs(categoryBreak);
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 50))).isSameAs(anyProductBreak);
+		assertThat(pricingConditions.pickApplyingBreak(query(ProductAndCategoryAndManufacturerId.of(100, 200, 300), 50))).isSameAs(otherProductBreak);
+		assertThat(pricingConditions.pickApplyingBreak(query(ProductAndCategoryAndManufacturerId.of(100, 200, 300), 35))).isSameAs(anyProductBreak);
+	}
+
+	@Test
+	public void pickApplyingBreak_manufacturerNotMatching()
+	{
+		final PricingConditionsBreak manufacturerBreak = schemaBreak(20, 10, 1, null, 300);
+		final PricingConditionsBreak productBreak = schemaBreak(10, 10, 1, null, null);
+		final PricingConditions pricingConditions = pricingConditions(manufacturerBreak, productBreak);
+
+		assertThat(pricingConditions.pickApplyingBreak(query(PRODUCT, 50))).isSameAs(productBreak);
+		assertThat(pricingConditions.pickApplyingBreak(query(ProductAndCategoryAndManufacturerId.of(1, 2, 300), 50))).isSameAs(manufacturerBreak);
+	}
+
+	@Test
+	public void pickApplyingBreak_sameBreakValue_higherSeqNoWins()
+	{
+		final PricingConditionsBreak seqNo10 = schemaBreak(10, 10, null, 2, null);
+		final PricingConditionsBreak seqNo20 = schemaBreak(10, 20, 1, null, null);
+		final PricingConditionsBreak seqNo30 = schemaBreak(10, 30, null, null, null);
+
+		assertThat(pricingConditions(seqNo10, seqNo20, seqNo30).pickApplyingBreak(query(PRODUCT, 10))).isSameAs(seqNo30);
+		assertThat(pricingConditions(seqNo10, seqNo20).pickApplyingBreak(query(PRODUCT, 10))).isSameAs(seqNo20);
+	}
+
+	private static PricingConditions pricingConditions(final PricingConditionsBreak... breaks)
+	{
+		return PricingConditions.builder()
+				.breakValueType(BreakValueType.QUANTITY)
+				.breaks(ImmutableList.copyOf(breaks))
+				.build();
+	}
+
+	private static PricingConditionsBreak schemaBreak(
+			final int breakValue,
+			final int seqNo,
+			final Integer productId,
+			final Integer productCategoryId,
+			final Integer productManufacturerId)
+	{
+		return PricingConditionsBreak.builder()
+				.matchCriteria(PricingConditionsBreakMatchCriteria.builder()
+						.breakValue(BigDecimal.valueOf(breakValue))
+						.productId(productId != null ? ProductId.ofRepoId(productId) : null)
+						.productCategoryId(productCategoryId != null ? ProductCategoryId.ofRepoId(productCategoryId) : null)
+						.productManufacturerId(productManufacturerId != null ? BPartnerId.ofRepoId(productManufacturerId) : null)
+						.build())
+				.seqNo(seqNo)
+				.priceSpecification(PriceSpecification.none())
+				.build();
+	}
+
+	private static PricingConditionsBreakQuery query(final ProductAndCategoryAndManufacturerId product, final int qty)
+	{
+		return PricingConditionsBreakQuery.builder()
+				.product(product)
+				.qty(BigDecimal.valueOf(qty))
+				.price(BigDecimal.ONE)
+				.build();
+	}
+}
@@ -3,6 +3,7 @@ package de.metas.pricing.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
@@ -12,8 +13,14 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.adempiere.model.I_M_Product;
 import de.metas.pricing.IEditablePricingContext;
 import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -95,4 +102,32 @@ public class PricingTest
 			Assert.assertThat("Bio PriceStd\n" + result, result.getPriceStd(), Matchers.comparesEqualTo(BigDecimal.valueOf(3)));
 		}
 	}
+
+	@Test
+	public void test_calculatePrices_ResultsInInputOrder()
+	{
+		final I_M_Product product2 = helper.createProduct("Product2", helper.getDefaultProduct().getC_UOM());
+
+		helper.newProductPriceBuilder()
+				.setPrice(2)
+				.build();
+		new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product2)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(5)
+				.build();
+
+		final IEditablePricingContext pricingCtx1 = helper.createPricingContext();
+		final IEditablePricingContext pricingCtx2 = helper.createPricingContext();
+		pricingCtx2.setProductId(ProductId.ofRepoId(product2.getM_Product_ID()));
+
+		final List<IPricingResult> results = Services.get(IPricingBL.class).calculatePrices(ImmutableList.of(pricingCtx1, pricingCtx2, pricingCtx1));
+
+		assertThat(results).hasSize(3);
+		assertThat(results.get(0).getPriceStd()).isEqualByComparingTo("2");
+		assertThat(results.get(1).getPriceStd()).isEqualByComparingTo("5");
+		assertThat(results.get(2).getPriceStd()).isEqualByComparingTo("2");
+
+		// same results as when calculating one by one
+		assertThat(helper.calculatePrice(pricingCtx2).getPriceStd()).isEqualByComparingTo(results.get(1).getPriceStd());
+	}
 }
@@ -179,6 +179,23 @@ public interface IHandlingUnitsDAO extends ISingletonService
 
 	List<I_M_HU> retrieveIncludedHUs(I_M_HU hu);
 
+	/**
+	 * Loads the complete trees of the given top level HUs (included HUs and their items) with a few queries,
+	 * so that subsequent {@link #retrieveItems(I_M_HU)} and {@link #retrieveIncludedHUs(I_M_HU_Item)} calls on those trees don't need to hit the database.
+	 */
+	void preloadHUTrees(Collection<I_M_HU> hus);
+
+	/** Value for {@link #preloadHUTrees(Collection, int)} to load the complete trees. */
+	int HU_TREE_DEPTH_UNLIMITED = -1;
+
+	/**
+	 * Like {@link #preloadHUTrees(Collection)}, but loads only the given number of HU levels below the top level HUs.
+	 *
+	 * @param maxDepth how many HU levels below the given HUs shall be loaded, or {@link #HU_TREE_DEPTH_UNLIMITED}
+	 * @return the HUs whose items were loaded
+	 */
+	List<I_M_HU> preloadHUTrees(Collection<I_M_HU> hus, int maxDepth);
+
 	// Handling Unit PI Retrieval
 
 	List<I_M_HU_PI_Item> retrievePIItems(final I_M_HU_PI handlingUnitPI, final I_C_BPartner partner);
@@ -1,5 +1,7 @@
 package de.metas.handlingunits.attribute;
 
+import java.util.Collection;
+
 import org.adempiere.mm.attributes.AttributeId;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.NullAutoCloseable;
@@ -59,4 +61,13 @@ public interface IHUAttributesDAO extends ISingletonService
 	 * If there is no internal cache, this method will do nothing.
 	 */
 	void flushAndClearCache();
+
+	/**
+	 * Loads the attributes of the given HUs with one query, if the implementation has an internal cache.
+	 * If there is no internal cache, this method will do nothing.
+	 */
+	default void preloadAttributes(final Collection<I_M_HU> hus)
+	{
+		// nothing
+	}
 }
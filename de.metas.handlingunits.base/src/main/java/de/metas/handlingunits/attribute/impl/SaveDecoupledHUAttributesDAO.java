@@ -2,13 +2,17 @@ package de.metas.handlingunits.attribute.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.service.IDeveloperModeBL;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -27,7 +31,9 @@ import org.compiere.util.Util;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimaps;
 
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.IHandlingUnitsBL;
@@ -187,7 +193,10 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 			{
 				idsToSaveFromLastFlush.add(huAttributeId);
 			}
-			saveToDatabase(huAttribute, ITrx.TRXNAME_ThreadInherited);
+			if (isToBeSaved(huAttribute))
+			{
+				saveToDatabase(Collections.singletonList(huAttribute), ITrx.TRXNAME_ThreadInherited);
+			}
 		}
 
 		final I_M_HU hu = huAttribute.getM_HU();
@@ -292,6 +301,41 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 				.getByAttributeIdOrNull(attributeId);
 	}
 
+	/**
+	 * Loads the attributes of those given HUs which are not already cached with one query.
+	 */
+	@Override
+	public synchronized void preloadAttributes(final Collection<I_M_HU> hus)
+	{
+		final Map<HuId, I_M_HU> husToLoad = new LinkedHashMap<>();
+		for (final I_M_HU hu : hus)
+		{
+			final HuId huId = HuId.ofRepoId(hu.getM_HU_ID());
+			if (!_hu2huAttributes.containsKey(huId))
+			{
+				husToLoad.put(huId, hu);
+			}
+		}
+		if (husToLoad.isEmpty())
+		{
+			return;
+		}
+
+		final List<I_M_HU_Attribute> huAttributesList = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_HU_Attribute.class, husToLoad.values().iterator().next())
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_M_HU_Attribute.COLUMN_M_HU_ID, HuId.toRepoIds(husToLoad.keySet()))
+				.create()
+				.list(I_M_HU_Attribute.class);
+		final ImmutableListMultimap<Integer, I_M_HU_Attribute> huAttributesByHUId = Multimaps.index(huAttributesList, I_M_HU_Attribute::getM_HU_ID);
+
+		husToLoad.forEach((huId, hu) -> {
+			final List<I_M_HU_Attribute> huAttributes = huAttributesByHUId.get(huId.getRepoId());
+			huAttributes.forEach(huAttribute -> huAttribute.setM_HU(hu)); // Optimization: set M_HU link
+			_hu2huAttributes.put(huId, HUAttributesMap.of(huAttributes));
+		});
+	}
+
 	/**
 	 * Save all attributes to database
 	 */
@@ -315,6 +359,8 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 
 		//
 		// Save all attributes
+		// NOTE: we are collecting them first and save them all together, so the IDs of the new ones (e.g. when HUs were generated) are allocated in one go
+		final List<I_M_HU_Attribute> huAttributesToSave = new ArrayList<>();
 		for (final Iterator<HUAttributesMap> it = _hu2huAttributes.values().iterator(); it.hasNext();)
 		{
 			final HUAttributesMap huAttributes = it.next();
@@ -325,17 +371,21 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 
 			for (final I_M_HU_Attribute huAttribute : huAttributes)
 			{
-				saveToDatabase(huAttribute, trxName);
+				if (isToBeSaved(huAttribute))
+				{
+					huAttributesToSave.add(huAttribute);
+				}
 			}
 
 			// NOTE: we are not deleting it from our map because we are using that map as a cache too
 			// it.remove();
 		}
+		saveToDatabase(huAttributesToSave, trxName);
 
 		logger.trace("Flushing done");
 	}
 
-	private final void saveToDatabase(final I_M_HU_Attribute model, final String trxName)
+	private boolean isToBeSaved(final I_M_HU_Attribute model)
 	{
 		//
 		// If incremental flush is enabled and our record it's not in the list of records to be saved from last flush
@@ -346,23 +396,37 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 				&& !idsToSaveFromLastFlush.contains(huAttributeId))
 		{
 			trace("skip from saving", model);
+			return false;
+		}
+		return true;
+	}
+
+	private final void saveToDatabase(final List<I_M_HU_Attribute> models, final String trxName)
+	{
+		if (models.isEmpty())
+		{
 			return;
 		}
 
-		setReadonly(model, false);
-		try
+		final List<Integer> huAttributeIds = new ArrayList<>(models.size());
+		for (final I_M_HU_Attribute model : models)
 		{
+			huAttributeIds.add(model.getM_HU_Attribute_ID());
+			setReadonly(model, false);
 			trace("saving to db", model);
+		}
 
+		try
+		{
 			// NOTE: i think it would be better if we would use here the delegated DAO
-			InterfaceWrapperHelper.save(model, trxName);
+			InterfaceWrapperHelper.saveAll(models, trxName);
 
-			// Incremental flush: remove the HU Attribute from "to save" list because it was already saved
-			idsToSaveFromLastFlush.remove(huAttributeId);
+			// Incremental flush: remove the HU Attributes from "to save" list because they were already saved
+			idsToSaveFromLastFlush.removeAll(huAttributeIds);
 		}
 		finally
 		{
-			setReadonly(model, true);
+			models.forEach(model -> setReadonly(model, true));
 		}
 	}
 
@@ -469,7 +533,11 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 
 		public static HUAttributesMap of(final HUAndPIAttributes huAndPIAttributes)
 		{
-			final ImmutableList<I_M_HU_Attribute> huAttributesList = huAndPIAttributes.getHuAttributes();
+			return of(huAndPIAttributes.getHuAttributes());
+		}
+
+		public static HUAttributesMap of(final List<I_M_HU_Attribute> huAttributesList)
+		{
 			final HashMap<AttributeId, I_M_HU_Attribute> huAttributes = new HashMap<>(huAttributesList.size());
 			for (final I_M_HU_Attribute huAttribute : huAttributesList)
 			{
@@ -1,5 +1,7 @@
 package de.metas.handlingunits.attribute.impl;
 
+import java.util.Collection;
+
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -103,6 +105,17 @@ public class SaveOnCommitHUAttributesDAO implements IHUAttributesDAO
 		return delegate.retrieveAttribute(hu, attributeId);
 	}
 
+	@Override
+	public void preloadAttributes(final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return;
+		}
+		final SaveDecoupledHUAttributesDAO delegate = getDelegate(hus.iterator().next());
+		delegate.preloadAttributes(hus);
+	}
+
 	/**
 	 * @return {@link NullAutoCloseable} always
 	 */
@@ -24,7 +24,9 @@ package de.metas.handlingunits.impl;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
@@ -33,7 +35,11 @@ import org.compiere.util.TrxRunnable;
 
 import de.metas.handlingunits.IHUContext;
 import de.metas.handlingunits.IHUIterator;
+import de.metas.handlingunits.IHUIteratorListener;
+import de.metas.handlingunits.IHandlingUnitsBL;
+import de.metas.handlingunits.IHandlingUnitsDAO;
 import de.metas.handlingunits.IMutableHUContext;
+import de.metas.handlingunits.attribute.IHUAttributesDAO;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.storage.IHUItemStorage;
@@ -42,6 +48,9 @@ import de.metas.util.Services;
 
 public class HUIterator extends AbstractHUIterator
 {
+	private boolean preloadHUTrees = false;
+	private boolean preloadAttributes = false;
+
 	public HUIterator()
 	{
 		registerNodeIterator(I_M_HU.class, new HUNodeIterator());
@@ -50,6 +59,27 @@ public class HUIterator extends AbstractHUIterator
 		setEnableStorageIteration(true); // backward compatibility
 	}
 
+	/**
+	 * If true, the HU trees are loaded upfront with a few queries, down to the {@link #getDepthMax()} if one is set.
+	 * Default is false. Enable it if your listener walks the whole tree; if it skips most of the tree (e.g. returns {@link IHUIteratorListener.Result#SKIP_DOWNSTREAM} early),
+	 * loading the whole tree costs more than it saves.
+	 */
+	public final HUIterator setPreloadHUTrees(final boolean preloadHUTrees)
+	{
+		this.preloadHUTrees = preloadHUTrees;
+		return this;
+	}
+
+	/**
+	 * If true, the attributes of the preloaded HUs are also loaded upfront into the HU context's {@link IHUAttributesDAO}, if that DAO caches them.
+	 * Default is false, because most listeners don't look at the attributes.
+	 */
+	public final HUIterator setPreloadAttributes(final boolean preloadAttributes)
+	{
+		this.preloadAttributes = preloadAttributes;
+		return this;
+	}
+
 	/**
 	 * If true (the default!), you also need to provide a date via {@link #setDate(java.util.Date)}.
 	 * 
@@ -86,6 +116,8 @@ public class HUIterator extends AbstractHUIterator
 
 		final AbstractNodeIterator<I_M_HU> huNodeIterator = getNodeIterator(I_M_HU.class);
 
+		preload(hus);
+
 		setStatus(HUIteratorStatus.Running);
 
 		for (final I_M_HU hu : hus)
@@ -135,10 +167,11 @@ public class HUIterator extends AbstractHUIterator
 				huContextLocal.setTrxName(localTrxName);
 				setHUContext(huContextLocal);
 
+				final Map<I_M_HU, String> huTrxNames = new IdentityHashMap<>();
 				try
 				{
 					//
-					// Iterate hus
+					// Set HUs' transaction to our local transaction
 					for (final I_M_HU hu : hus)
 					{
 						//
@@ -149,22 +182,25 @@ public class HUIterator extends AbstractHUIterator
 							throw new AdempiereException("" + hu + " shall have null transaction or local transaction(" + localTrxName + ") but not " + huTrxName);
 						}
 
-						//
-						// Set HU's transaction to our local transaction an iterate it
+						huTrxNames.put(hu, huTrxName);
 						InterfaceWrapperHelper.setTrxName(hu, localTrxName);
-						try
-						{
-							huNodeIterator.iterate(hu);
-						}
-						finally
-						{
-							// Restore HU's initial transaction
-							InterfaceWrapperHelper.setTrxName(hu, huTrxName);
-						}
+					}
+
+					// Preload now, so that the trees are loaded in our local transaction
+					preload(hus);
+
+					//
+					// Iterate hus
+					for (final I_M_HU hu : hus)
+					{
+						huNodeIterator.iterate(hu);
 					}
 				}
 				finally
 				{
+					// Restore HUs' initial transaction
+					huTrxNames.forEach(InterfaceWrapperHelper::setTrxName);
+
 					// restore initial context
 					setHUContext(huContext);
 				}
@@ -180,4 +216,44 @@ public class HUIterator extends AbstractHUIterator
 
 		return this;
 	}
+
+	/**
+	 * Loads the HU trees upfront, instead of querying the items and included HUs of each node while we walk down.
+	 * Also preloads the storages and (if enabled) attributes of the loaded HUs, if the HU context's DAOs cache them.
+	 */
+	private void preload(final Collection<I_M_HU> hus)
+	{
+		if (!preloadHUTrees || hus.isEmpty())
+		{
+			return;
+		}
+
+		// the top level HUs are iterated at depth 0, their items at depth 1, the HUs included in those items at depth 2 and so on;
+		// so we need to load as many HU levels as fit into the max depth
+		final int depthMax = getDepthMax();
+		final int maxHUTreeDepth = depthMax > 0 ? depthMax / 2 : IHandlingUnitsDAO.HU_TREE_DEPTH_UNLIMITED;
+		if (maxHUTreeDepth == 0)
+		{
+			return; // only the top level HUs themselves will be iterated
+		}
+
+		final List<I_M_HU> husWithLoadedItems = Services.get(IHandlingUnitsDAO.class).preloadHUTrees(hus, maxHUTreeDepth);
+		if (husWithLoadedItems.isEmpty())
+		{
+			return;
+		}
+
+		// the storages are only accessed when iterating virtual HUs, so we don't touch the HU context if there are none
+		final IHandlingUnitsBL handlingUnitsBL = Services.get(IHandlingUnitsBL.class);
+		if (getNodeIteratorOrNull(IHUItemStorage.class) != null
+				&& husWithLoadedItems.stream().anyMatch(handlingUnitsBL::isVirtual))
+		{
+			getStorageFactoryToUse().getHUStorageDAO().preloadStorages(husWithLoadedItems);
+		}
+
+		if (preloadAttributes)
+		{
+			getHUContext().getHUAttributeStorageFactory().getHUAttributesDAO().preloadAttributes(husWithLoadedItems);
+		}
+	}
 }
@@ -0,0 +1,312 @@
+package de.metas.handlingunits.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimaps;
+
+import de.metas.handlingunits.IHandlingUnitsDAO;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Loads the trees (included HUs and their items) of given top level HUs, optionally only down to a given depth, with a few queries
+ * and sets them to the {@link HUItemsLocalCache}s and {@link IncludedHUsLocalCache}s of the loaded HUs and items.
+ * <p>
+ * After that, {@link IHandlingUnitsDAO#retrieveItems(I_M_HU)} and {@link IHandlingUnitsDAO#retrieveIncludedHUs(I_M_HU_Item)}
+ * can walk down those trees without accessing the database, as long as they are called with the HU and item instances that this class loaded.
+ * <p>
+ * Local caches which are already loaded are left as they are, because their HU and item instances might have changes which were not saved yet.
+ */
+final class HUTreeLoader
+{
+	public static final HUTreeLoader instance = new HUTreeLoader();
+
+	private static final Comparator<I_M_HU> HUS_COMPARATOR = Comparator.comparing(I_M_HU::getM_HU_ID);
+
+	/**
+	 * Selects the IDs and depths of all HUs below the given top level HUs (but not the top level HUs themselves), up to the given depth.
+	 * Like {@link HUItemsLocalCache}, only active items are followed; like {@link IncludedHUsLocalCache}, also inactive included HUs are selected.
+	 */
+	private static final String SQL_SELECT_INCLUDED_HU_IDS = "WITH RECURSIVE hu_tree AS ("
+			+ "\n SELECT hu.M_HU_ID, 0 AS Depth FROM M_HU hu WHERE hu.M_HU_ID IN %s"
+			+ "\n UNION ALL"
+			+ "\n SELECT included_hu.M_HU_ID, hu_tree.Depth + 1"
+			+ "\n FROM hu_tree"
+			+ "\n INNER JOIN M_HU_Item item ON item.M_HU_ID = hu_tree.M_HU_ID AND item.IsActive = 'Y'"
+			+ "\n INNER JOIN M_HU included_hu ON included_hu.M_HU_Item_Parent_ID = item.M_HU_Item_ID"
+			+ "\n WHERE hu_tree.Depth < ?"
+			+ "\n )"
+			+ "\n SELECT M_HU_ID, Depth FROM hu_tree WHERE Depth > 0";
+
+	private HUTreeLoader()
+	{
+	}
+
+	public ImmutableList<I_M_HU> loadTrees(@NonNull final Collection<I_M_HU> topLevelHUs)
+	{
+		return loadTrees(topLevelHUs, IHandlingUnitsDAO.HU_TREE_DEPTH_UNLIMITED);
+	}
+
+	/**
+	 * @param maxDepth how many levels below the top level HUs shall be loaded; the top level HUs have depth zero.
+	 *            The included HUs of the last loaded level are not loaded, so only their parents' {@link IncludedHUsLocalCache}s are set.
+	 *            Use {@link IHandlingUnitsDAO#HU_TREE_DEPTH_UNLIMITED} to load the complete trees.
+	 * @return the HUs whose items were loaded
+	 */
+	public ImmutableList<I_M_HU> loadTrees(@NonNull final Collection<I_M_HU> topLevelHUs, final int maxDepth)
+	{
+		// the caches are only valid for models with the same context and transaction as their parent,
+		// so we load the trees separately for each transaction the given HUs are in
+		final Map<String, List<I_M_HU>> husByTrxName = new LinkedHashMap<>();
+		for (final I_M_HU hu : topLevelHUs)
+		{
+			if (hu == null || hu.getM_HU_ID() <= 0)
+			{
+				continue;
+			}
+			husByTrxName.computeIfAbsent(InterfaceWrapperHelper.getTrxName(hu), trxName -> new ArrayList<>()).add(hu);
+		}
+
+		final int maxDepthEffective = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+
+		final ImmutableList.Builder<I_M_HU> husWithLoadedItems = ImmutableList.builder();
+		for (final List<I_M_HU> husInSameTrx : husByTrxName.values())
+		{
+			husWithLoadedItems.addAll(loadTreesInSameTrx(husInSameTrx, maxDepthEffective));
+		}
+		return husWithLoadedItems.build();
+	}
+
+	private List<I_M_HU> loadTreesInSameTrx(@NonNull final List<I_M_HU> topLevelHUs, final int maxDepth)
+	{
+		final IContextAware context = InterfaceWrapperHelper.getContextAware(topLevelHUs.get(0));
+
+		final List<List<I_M_HU>> includedHUsByLevel = retrieveIncludedHUs(context, topLevelHUs, maxDepth);
+
+		// the HUs at the depth limit are only loaded to be set as included HUs of their parents; we don't load their items
+		final ImmutableList.Builder<I_M_HU> husWithItems = ImmutableList.<I_M_HU> builder().addAll(topLevelHUs);
+		final ImmutableList.Builder<I_M_HU> includedHUs = ImmutableList.builder();
+		for (int level = 1; level <= includedHUsByLevel.size(); level++)
+		{
+			final List<I_M_HU> levelHUs = includedHUsByLevel.get(level - 1);
+			includedHUs.addAll(levelHUs);
+			if (level < maxDepth)
+			{
+				husWithItems.addAll(levelHUs);
+			}
+		}
+		final ImmutableList<I_M_HU> allHUsWithItems = husWithItems.build();
+
+		// the local caches which are already loaded might contain instances with changes that are not yet saved, so we must not replace them
+		final List<I_M_HU> husToLoadItems = allHUsWithItems.stream()
+				.filter(hu -> !HUItemsLocalCache.getCreate(hu).isLoaded())
+				.collect(ImmutableList.toImmutableList());
+
+		final ImmutableListMultimap<Integer, I_M_HU_Item> itemsByHUId = husToLoadItems.isEmpty() ? ImmutableListMultimap.of() : retrieveItems(context, husToLoadItems);
+		final ImmutableListMultimap<Integer, I_M_HU> includedHUsByParentItemId = Multimaps.index(includedHUs.build(), I_M_HU::getM_HU_Item_Parent_ID);
+
+		for (final I_M_HU hu : allHUsWithItems)
+		{
+			final HUItemsLocalCache itemsCache = HUItemsLocalCache.getCreate(hu);
+			final List<I_M_HU_Item> items;
+			if (itemsCache.isLoaded())
+			{
+				items = itemsCache.getItems();
+			}
+			else
+			{
+				items = itemsByHUId.get(hu.getM_HU_ID());
+				items.forEach(item -> item.setM_HU(hu)); // make sure item.getM_HU() will return our HU
+				itemsCache.setItemsNotStaled(items);
+			}
+
+			for (final I_M_HU_Item item : items)
+			{
+				final IncludedHUsLocalCache includedHUsCache = IncludedHUsLocalCache.getCreate(item);
+				if (includedHUsCache.isLoaded())
+				{
+					continue;
+				}
+
+				final List<I_M_HU> itemIncludedHUs = includedHUsByParentItemId.get(item.getM_HU_Item_ID());
+				for (final I_M_HU includedHU : itemIncludedHUs)
+				{
+					includedHU.setM_HU_Item_Parent(item); // make sure includedHU.getM_HU_Item_Parent() will return our item
+				}
+				includedHUsCache.setItemsNotStaled(itemIncludedHUs);
+			}
+		}
+		return allHUsWithItems;
+	}
+
+	/** @return the included HUs, one list per level; the first list contains the HUs that are directly included in the top level HUs. */
+	private List<List<I_M_HU>> retrieveIncludedHUs(
+			@NonNull final IContextAware context,
+			@NonNull final List<I_M_HU> topLevelHUs,
+			final int maxDepth)
+	{
+		final ImmutableSet<Integer> topLevelHUIds = extractHUIds(topLevelHUs);
+		if (Adempiere.isUnitTestMode())
+		{
+			return retrieveIncludedHUsLevelByLevel(context, topLevelHUIds, maxDepth); // there is no SQL database in unit tests
+		}
+
+		final Map<Integer, Integer> includedHUId2Depth = retrieveIncludedHUIds(context, topLevelHUIds, maxDepth);
+		if (includedHUId2Depth.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<I_M_HU> includedHUs = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_HU.class, context)
+				.addInArrayFilter(I_M_HU.COLUMN_M_HU_ID, includedHUId2Depth.keySet())
+				.orderBy().addColumn(I_M_HU.COLUMN_M_HU_ID).endOrderBy()
+				.create()
+				.list();
+
+		final List<List<I_M_HU>> includedHUsByLevel = new ArrayList<>();
+		for (final I_M_HU includedHU : includedHUs)
+		{
+			final int depth = includedHUId2Depth.get(includedHU.getM_HU_ID());
+			while (includedHUsByLevel.size() < depth)
+			{
+				includedHUsByLevel.add(new ArrayList<>());
+			}
+			includedHUsByLevel.get(depth - 1).add(includedHU);
+		}
+		return includedHUsByLevel;
+	}
+
+	private Map<Integer, Integer> retrieveIncludedHUIds(
+			@NonNull final IContextAware context,
+			@NonNull final Set<Integer> topLevelHUIds,
+			final int maxDepth)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = String.format(SQL_SELECT_INCLUDED_HU_IDS, DB.buildSqlList(topLevelHUIds, sqlParams));
+		sqlParams.add(maxDepth);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, context.getTrxName());
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final Map<Integer, Integer> includedHUId2Depth = new LinkedHashMap<>();
+			while (rs.next())
+			{
+				includedHUId2Depth.put(rs.getInt("M_HU_ID"), rs.getInt("Depth"));
+			}
+			return includedHUId2Depth;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/** Needs one query per tree level, but works without an SQL database. */
+	private List<List<I_M_HU>> retrieveIncludedHUsLevelByLevel(
+			@NonNull final IContextAware context,
+			@NonNull final Set<Integer> topLevelHUIds,
+			final int maxDepth)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		final List<List<I_M_HU>> includedHUsByLevel = new ArrayList<>();
+		Set<Integer> currentLevelHUIds = topLevelHUIds;
+		while (!currentLevelHUIds.isEmpty() && includedHUsByLevel.size() < maxDepth)
+		{
+			final List<I_M_HU> nextLevelHUs = queryBL
+					.createQueryBuilder(I_M_HU_Item.class, context)
+					.addInArrayFilter(I_M_HU_Item.COLUMN_M_HU_ID, currentLevelHUIds)
+					.addOnlyActiveRecordsFilter()
+					.andCollectChildren(I_M_HU.COLUMN_M_HU_Item_Parent_ID, I_M_HU.class)
+					.orderBy().addColumn(I_M_HU.COLUMN_M_HU_ID).endOrderBy()
+					.create()
+					.list();
+			if (nextLevelHUs.isEmpty())
+			{
+				break;
+			}
+
+			includedHUsByLevel.add(nextLevelHUs);
+			currentLevelHUIds = extractHUIds(nextLevelHUs);
+		}
+		return includedHUsByLevel;
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Item> retrieveItems(
+			@NonNull final IContextAware context,
+			@NonNull final List<I_M_HU> hus)
+	{
+		final List<I_M_HU_Item> items = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_HU_Item.class, context)
+				.addInArrayFilter(I_M_HU_Item.COLUMN_M_HU_ID, extractHUIds(hus))
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list();
+
+		final List<I_M_HU_Item> sortedItems = new ArrayList<>(items);
+		sortedItems.sort(IHandlingUnitsDAO.HU_ITEMS_COMPARATOR);
+
+		return Multimaps.index(sortedItems, I_M_HU_Item::getM_HU_ID);
+	}
+
+	private static ImmutableSet<Integer> extractHUIds(@NonNull final List<I_M_HU> hus)
+	{
+		return hus.stream()
+				.sorted(HUS_COMPARATOR)
+				.map(I_M_HU::getM_HU_ID)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+}
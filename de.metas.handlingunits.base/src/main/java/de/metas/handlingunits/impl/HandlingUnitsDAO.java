@@ -260,6 +260,18 @@ public class HandlingUnitsDAO implements IHandlingUnitsDAO
 		return getHUAndItemsDAO().retrieveIncludedHUs(item);
 	}
 
+	@Override
+	public void preloadHUTrees(@NonNull final Collection<I_M_HU> hus)
+	{
+		HUTreeLoader.instance.loadTrees(hus);
+	}
+
+	@Override
+	public List<I_M_HU> preloadHUTrees(@NonNull final Collection<I_M_HU> hus, final int maxDepth)
+	{
+		return HUTreeLoader.instance.loadTrees(hus, maxDepth);
+	}
+
 	@Override
 	public List<I_M_HU> retrieveIncludedHUs(final I_M_HU hu)
 	{
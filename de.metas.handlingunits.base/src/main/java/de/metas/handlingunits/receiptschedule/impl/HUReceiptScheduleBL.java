@@ -4,7 +4,7 @@
 package de.metas.handlingunits.receiptschedule.impl;
 
 import static org.adempiere.model.InterfaceWrapperHelper.createList;
-import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwares;
 
 import java.awt.image.BufferedImage;
 
@@ -340,9 +340,11 @@ public class HUReceiptScheduleBL implements IHUReceiptScheduleBL
 	{
 		final IHUToReceiveValidator huToReceiveValidator = CompositeHUToReceiveValidator.of(Adempiere.getBeansOfType(IHUToReceiveValidator.class));
 
-		for (final HuId huId : huIds)
+		final List<I_M_HU> huRecords = loadByRepoIdAwares(huIds, I_M_HU.class);
+		Check.errorIf(huRecords.size() != huIds.size(), HUException.class, "Not all HUs were found: huIds={}, found={}", huIds, huRecords.size());
+
+		for (final I_M_HU huRecord : huRecords)
 		{
-			final I_M_HU huRecord = load(huId, I_M_HU.class);
 			if (!Services.get(IHUStatusBL.class).isStatusPlanned(huRecord))
 			{
 				throw new HUException("@Invalid@ @HUStatus@: " + huRecord.getValue());
@@ -1,6 +1,6 @@
 package de.metas.handlingunits.reservation;
 
-import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.loadByRepoIdAwares;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -150,10 +150,13 @@ public class HUReservationService
 
 	private void deleteReservation0(@NonNull final Collection<HuId> vhuIds)
 	{
-		for (final HuId vhuId : vhuIds)
+		final ImmutableSet<HuId> distinctVhuIds = ImmutableSet.copyOf(vhuIds);
+		final List<I_M_HU> vhus = loadByRepoIdAwares(distinctVhuIds, I_M_HU.class);
+		Check.errorIf(vhus.size() != distinctVhuIds.size(), "Not all VHUs were found: vhuIds={}, found={}", distinctVhuIds, vhus.size());
+
+		for (final I_M_HU vhu : vhus)
 		{
 			// note: M_HU.IsReserved is also updated via model interceptor if M_HU_Reservation changes, but for clarify and unit test purposes, we explicitly do it here as well
-			final I_M_HU vhu = load(vhuId, I_M_HU.class);
 			vhu.setIsReserved(false);
 			Services.get(IHandlingUnitsDAO.class).saveHU(vhu);
 		}
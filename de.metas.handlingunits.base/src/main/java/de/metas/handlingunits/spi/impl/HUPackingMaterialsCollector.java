@@ -677,22 +677,29 @@ public class HUPackingMaterialsCollector implements IHUPackingMaterialsCollector
 			return;
 		}
 
-		new HUIterator()
-				.setEnableStorageIteration(false)
-				.setCtx(InterfaceWrapperHelper.getCtx(hu))
-				.setListener(new HUIteratorListenerAdapter()
-				{
-					@Override
-					public Result afterHU(final I_M_HU hu)
-					{
-						final String huUnitTypeOverride = null; // use the actual HU's UnitType
-						addOrRemoveHU(remove, hu, huUnitTypeOverride, source);
+		final HUIterator huIterator = new HUIterator();
+		huIterator.setEnableStorageIteration(false);
+		huIterator.setPreloadHUTrees(true); // we collect the packing materials of the whole tree
+		huIterator.setCtx(InterfaceWrapperHelper.getCtx(hu));
+		if (huContext != null)
+		{
+			// we retrieve the material tracking attribute of each HU from our huContext's attributes DAO, so let the iterator preload them into it
+			huIterator.setHUContext(huContext);
+			huIterator.setPreloadAttributes(true);
+		}
+		huIterator.setListener(new HUIteratorListenerAdapter()
+		{
+			@Override
+			public Result afterHU(final I_M_HU hu)
+			{
+				final String huUnitTypeOverride = null; // use the actual HU's UnitType
+				addOrRemoveHU(remove, hu, huUnitTypeOverride, source);
 
-						return Result.CONTINUE;
-					}
+				return Result.CONTINUE;
+			}
 
-				})
-				.iterate(hu);
+		});
+		huIterator.iterate(hu);
 	}
 
 	/**
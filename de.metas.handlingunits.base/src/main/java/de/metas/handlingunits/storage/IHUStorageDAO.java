@@ -23,6 +23,7 @@ package de.metas.handlingunits.storage;
  */
 
 
+import java.util.Collection;
 import java.util.List;
 
 import org.compiere.model.I_C_UOM;
@@ -100,4 +101,13 @@ public interface IHUStorageDAO
 	 */
 	String getC_UOMTypeOrNull(I_M_HU hu);
 
+	/**
+	 * Loads the storages of the given HUs and of their items with a few queries, if this DAO caches storages.
+	 * The default implementation does nothing, because a DAO without cache would retrieve them again anyways.
+	 */
+	default void preloadStorages(final Collection<I_M_HU> hus)
+	{
+		// nothing
+	}
+
 }
@@ -24,15 +24,22 @@ package de.metas.handlingunits.storage.impl;
 
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_UOM;
 import org.compiere.util.Util;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+
+import de.metas.handlingunits.IHandlingUnitsDAO;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_HU_Item_Storage;
@@ -280,6 +287,87 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 		getHUItemStorages(item, retrieveIfNotFound);
 	}
 
+	/**
+	 * Loads the storages of the given HUs and of their items (as returned by {@link IHandlingUnitsDAO#retrieveItems(I_M_HU)}) with two queries,
+	 * unless they are already cached.
+	 */
+	@Override
+	public void preloadStorages(@NonNull final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return;
+		}
+
+		final IHandlingUnitsDAO handlingUnitsDAO = Services.get(IHandlingUnitsDAO.class);
+		final Map<Integer, I_M_HU> husToLoad = new LinkedHashMap<>();
+		final Map<Integer, I_M_HU_Item> itemsToLoad = new LinkedHashMap<>();
+		for (final I_M_HU hu : hus)
+		{
+			if (!_hu2storage.containsKey(mkHUKey(hu)))
+			{
+				husToLoad.put(hu.getM_HU_ID(), hu);
+			}
+			for (final I_M_HU_Item item : handlingUnitsDAO.retrieveItems(hu))
+			{
+				if (!_item2itemStorage.containsKey(mkHUItemKey(item)))
+				{
+					itemsToLoad.put(item.getM_HU_Item_ID(), item);
+				}
+			}
+		}
+
+		final Object contextProvider = hus.iterator().next();
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		//
+		// HU Storages
+		if (!husToLoad.isEmpty())
+		{
+			final List<I_M_HU_Storage> huStoragesList = queryBL.createQueryBuilder(I_M_HU_Storage.class, contextProvider)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_HU_Storage.COLUMN_M_HU_ID, husToLoad.keySet())
+					.create()
+					.list(I_M_HU_Storage.class);
+			final ImmutableListMultimap<Integer, I_M_HU_Storage> huStoragesByHUId = Multimaps.index(huStoragesList, I_M_HU_Storage::getM_HU_ID);
+
+			husToLoad.forEach((huId, hu) -> {
+				final Map<Object, I_M_HU_Storage> huStorages = new HashMap<>();
+				for (final I_M_HU_Storage huStorage : huStoragesByHUId.get(huId))
+				{
+					huStorage.setM_HU(hu);
+					huStorages.put(mkHUStorageKey(huStorage), huStorage);
+					setReadonly(huStorage);
+				}
+				_hu2storage.put(mkHUKey(hu), huStorages);
+			});
+		}
+
+		//
+		// HU Item Storages
+		if (!itemsToLoad.isEmpty())
+		{
+			final List<I_M_HU_Item_Storage> huItemStoragesList = queryBL.createQueryBuilder(I_M_HU_Item_Storage.class, contextProvider)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_HU_Item_Storage.COLUMN_M_HU_Item_ID, itemsToLoad.keySet())
+					.orderBy().addColumn(I_M_HU_Item_Storage.COLUMN_M_HU_Item_Storage_ID).endOrderBy() // predictive order
+					.create()
+					.list(I_M_HU_Item_Storage.class);
+			final ImmutableListMultimap<Integer, I_M_HU_Item_Storage> huItemStoragesByItemId = Multimaps.index(huItemStoragesList, I_M_HU_Item_Storage::getM_HU_Item_ID);
+
+			itemsToLoad.forEach((itemId, item) -> {
+				final Map<Object, I_M_HU_Item_Storage> huItemStorages = new HashMap<>();
+				for (final I_M_HU_Item_Storage huItemStorage : huItemStoragesByItemId.get(itemId))
+				{
+					huItemStorage.setM_HU_Item(item);
+					huItemStorages.put(mkHUItemStorageKey(huItemStorage), huItemStorage);
+					setReadonly(huItemStorage);
+				}
+				_item2itemStorage.put(mkHUItemKey(item), huItemStorages);
+			});
+		}
+	}
+
 	/**
 	 * Save all storages to database
 	 */
@@ -22,6 +22,7 @@ package de.metas.handlingunits.storage.impl;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -185,4 +186,15 @@ public class SaveOnCommitHUStorageDAO implements IHUStorageDAO
 		return delegate.getC_UOMTypeOrNull(hu);
 	}
 
+	@Override
+	public void preloadStorages(@NonNull final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return;
+		}
+		final SaveDecoupledHUStorageDAO delegate = getDelegate(hus.iterator().next());
+		delegate.preloadStorages(hus);
+	}
+
 }
@@ -78,6 +78,7 @@ public class HUAccessService
 
 		final IHandlingUnitsBL handlingUnitsBL = Services.get(IHandlingUnitsBL.class);
 		new HUIterator().setEnableStorageIteration(false)
+				.setPreloadHUTrees(true) // we need to visit all HUs
 				.setListener(new HUIteratorListenerAdapter()
 				{
 					@Override
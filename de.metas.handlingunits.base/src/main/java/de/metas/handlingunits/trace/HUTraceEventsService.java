@@ -224,7 +224,7 @@ public class HUTraceEventsService
 			builderSetVhuProductAndQty(builder, vhu)
 					.vhuStatus(vhu.getHUStatus());
 
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 		}
 	}
 
@@ -237,6 +237,9 @@ public class HUTraceEventsService
 	 * <li>have {@code Quantity > 0}
 	 * </ul>
 	 *
+	 * The events are written right away, because the caller needs to know which of them were actually inserted.
+	 * Use {@link #createAndAddOnCommitFor(I_M_HU_Trx_Hdr, List)} if that's not needed.
+	 *
 	 * @param trxHeader needed because we use its {@code updated} timestamp for our eventTime.
 	 * @param trxLines
 	 *
@@ -246,6 +249,32 @@ public class HUTraceEventsService
 	public Map<Boolean, List<HUTraceEvent>> createAndAddFor(
 			@NonNull final I_M_HU_Trx_Hdr trxHeader,
 			@NonNull final List<I_M_HU_Trx_Line> trxLines)
+	{
+		final Map<Boolean, List<HUTraceEvent>> result = new HashMap<>();
+		result.put(true, new ArrayList<>());
+		result.put(false, new ArrayList<>());
+
+		for (final HUTraceEvent event : createEventsFor(trxHeader, trxLines))
+		{
+			final boolean eventWasInserted = huTraceRepository.addEvent(event);
+			result.get(eventWasInserted).add(event);
+		}
+		return result;
+	}
+
+	/**
+	 * Like {@link #createAndAddFor(I_M_HU_Trx_Hdr, List)}, but the events are written together with the transaction's other events, see {@link HUTraceRepository#addEventOnCommit(HUTraceEvent)}.
+	 */
+	public void createAndAddOnCommitFor(
+			@NonNull final I_M_HU_Trx_Hdr trxHeader,
+			@NonNull final List<I_M_HU_Trx_Line> trxLines)
+	{
+		createEventsFor(trxHeader, trxLines).forEach(huTraceRepository::addEventOnCommit);
+	}
+
+	private List<HUTraceEvent> createEventsFor(
+			@NonNull final I_M_HU_Trx_Hdr trxHeader,
+			@NonNull final List<I_M_HU_Trx_Line> trxLines)
 	{
 		final HUTraceEventBuilder traceEventBuilder = HUTraceEvent.builder()
 				.type(HUTraceType.TRANSFORM_LOAD)
@@ -270,9 +299,7 @@ public class HUTraceEventsService
 			}
 		};
 
-		final Map<Boolean, List<HUTraceEvent>> result = new HashMap<>();
-		result.put(true, new ArrayList<>());
-		result.put(false, new ArrayList<>());
+		final List<HUTraceEvent> result = new ArrayList<>();
 
 		final IHUStatusBL huStatusBL = Services.get(IHUStatusBL.class);
 
@@ -346,11 +373,8 @@ public class HUTraceEventsService
 							.build();
 
 					// add the source before the destination because I think it's nicer if it has the lower ID
-					final boolean sourceEventWasInserted = huTraceRepository.addEvent(splitSourceEvent);
-					result.get(sourceEventWasInserted).add(splitSourceEvent);
-
-					final boolean eventWasInserted = huTraceRepository.addEvent(splitDestEvent);
-					result.get(eventWasInserted).add(splitDestEvent);
+					result.add(splitSourceEvent);
+					result.add(splitDestEvent);
 				}
 			}
 		}
@@ -444,11 +468,11 @@ public class HUTraceEventsService
 					.productId(productAndQty.get().getLeft())
 					.topLevelHuId(oldTopLevelHuId)
 					.qty(productAndQty.get().getRight().getAsBigDecimal().negate());
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 
 			builder.topLevelHuId(newTopLevelHuId)
 					.qty(productAndQty.get().getRight().getAsBigDecimal());
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 		}
 	}
 
@@ -507,7 +531,7 @@ public class HUTraceEventsService
 					builderSetVhuProductAndQty(builder, vhu)
 							.vhuStatus(vhu.getHUStatus());
 
-					huTraceRepository.addEvent(builder.build());
+					huTraceRepository.addEventOnCommit(builder.build());
 				}
 			}
 		}
@@ -3,18 +3,29 @@ package de.metas.handlingunits.trace;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.ad.trx.spi.TrxOnCommitCollectorFactory;
+import org.compiere.Adempiere;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.handlingunits.trace.repository.BulkInsertDbRecordsUtil;
 import de.metas.handlingunits.trace.repository.HuTraceEventToDbRecordUtil;
 import de.metas.handlingunits.trace.repository.RetrieveDbRecordsUtil;
 import de.metas.logging.LogManager;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -43,24 +54,34 @@ public class HUTraceRepository
 {
 	private static final Logger logger = LogManager.getLogger(HUTraceRepository.class);
 
+	private final HUTraceEventsOnCommitCollector onCommitCollector = new HUTraceEventsOnCommitCollector();
+
+	/**
+	 * Like {@link #addEvent(HUTraceEvent)}, but if there is a thread-inherited transaction, then the event is only collected
+	 * and all the transaction's distinct events (see {@link BulkInsertDbRecordsUtil#extractConflictKey(HUTraceEvent)}) are inserted with a few multi-row {@code INSERT}s
+	 * right before the transaction is committed, within that transaction. So if the insert fails, the commit fails as well and no events are lost.
+	 */
+	public void addEventOnCommit(@NonNull final HUTraceEvent huTraceEvent)
+	{
+		onCommitCollector.collect(huTraceEvent);
+	}
+
 	/**
 	 * Persists the given event.<br>
-	 * If an event with the same properties was already persisted earlier,
+	 * If an event which the {@code M_HU_Trace_UC} unique index considers equal (see {@link RetrieveDbRecordsUtil#queryByConflictKey(HUTraceEvent)}) was already persisted earlier,
 	 * then that record is loaded and logged, but nothing more is done.
 	 *
 	 * @return {@code true} if a new record was inserted, {@code false} if an existing one was updated.
 	 */
 	public boolean addEvent(@NonNull final HUTraceEvent huTraceEvent)
 	{
-		final HUTraceEventQuery query = huTraceEvent.asQueryBuilder().build();
-
-		final List<HUTraceEvent> existingDbRecords = RetrieveDbRecordsUtil.query(query);
+		final List<HUTraceEvent> existingDbRecords = RetrieveDbRecordsUtil.queryByConflictKey(huTraceEvent);
 		final boolean inserted = existingDbRecords.isEmpty();
 
 		if (inserted)
 		{
 			final I_M_HU_Trace dbRecord = newInstance(I_M_HU_Trace.class);
-			logger.info("Found no existing M_HU_Trace record; creating new one; query={}", query);
+			logger.info("Found no existing M_HU_Trace record; creating new one; huTraceEvent={}", huTraceEvent);
 
 			HuTraceEventToDbRecordUtil.copyToDbRecord(huTraceEvent, dbRecord);
 			save(dbRecord);
@@ -68,16 +89,28 @@ public class HUTraceRepository
 		else
 		{
 			Check.errorIf(existingDbRecords.size() > 1,
-					"Expected only one M_HU_Trace record for the given query, but found {}; query={}, M_HU_Trace records={}",
-					existingDbRecords.size(), query, existingDbRecords);
+					"Expected only one M_HU_Trace record for the given event, but found {}; huTraceEvent={}, M_HU_Trace records={}",
+					existingDbRecords.size(), huTraceEvent, existingDbRecords);
 
 			HUTraceEvent existingHuTraceEvent = existingDbRecords.get(0);
-			logger.info("Found exiting HUTraceEvent record with ID={}; nothing to do; query={}", existingHuTraceEvent.getHuTraceEventId().getAsInt(), query);
+			logger.info("Found exiting HUTraceEvent record with ID={}; nothing to do; huTraceEvent={}", existingHuTraceEvent.getHuTraceEventId().getAsInt(), huTraceEvent);
 		}
 
 		return inserted;
 	}
 
+	private void addEvents(@NonNull final Collection<HUTraceEvent> huTraceEvents, final String trxName)
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			huTraceEvents.forEach(this::addEvent); // there is no SQL database in unit tests
+			return;
+		}
+
+		final int insertedCount = BulkInsertDbRecordsUtil.insertIfNotExists(huTraceEvents, trxName);
+		logger.info("Inserted {} new M_HU_Trace records for {} events", insertedCount, huTraceEvents.size());
+	}
+
 	/**
 	 * Return records according to the given specification.
 	 * <p>
@@ -95,4 +128,57 @@ public class HUTraceRepository
 	{
 		return RetrieveDbRecordsUtil.queryToSelection(query);
 	}
+
+	/** The distinct events of one transaction */
+	private static final class HUTraceEventsCollector
+	{
+		private final String trxName;
+		private final Map<HUTraceEventQuery, HUTraceEvent> eventsByConflictKey = new LinkedHashMap<>();
+
+		private HUTraceEventsCollector(final String trxName)
+		{
+			this.trxName = trxName;
+		}
+	}
+
+	private final class HUTraceEventsOnCommitCollector extends TrxOnCommitCollectorFactory<HUTraceEventsCollector, HUTraceEvent>
+	{
+		@Override
+		protected String getTrxProperyName()
+		{
+			return HUTraceEventsOnCommitCollector.class.getName();
+		}
+
+		@Override
+		protected TrxEventTiming getProcessingTiming()
+		{
+			return TrxEventTiming.BEFORE_COMMIT;
+		}
+
+		@Override
+		protected String extractTrxNameFromItem(final HUTraceEvent item)
+		{
+			return ITrx.TRXNAME_ThreadInherited;
+		}
+
+		@Override
+		protected HUTraceEventsCollector newCollector(final HUTraceEvent firstItem)
+		{
+			final String trxName = Services.get(ITrxManager.class).getThreadInheritedTrxName(OnTrxMissingPolicy.ReturnTrxNone);
+			return new HUTraceEventsCollector(trxName);
+		}
+
+		@Override
+		protected void collectItem(final HUTraceEventsCollector collector, final HUTraceEvent item)
+		{
+			// keep only the first of the transaction's events which the database would consider duplicates
+			collector.eventsByConflictKey.putIfAbsent(BulkInsertDbRecordsUtil.extractConflictKey(item), item);
+		}
+
+		@Override
+		protected void processCollector(final HUTraceEventsCollector collector)
+		{
+			addEvents(collector.eventsByConflictKey.values(), collector.trxName);
+		}
+	}
 }
@@ -51,7 +51,7 @@ import lombok.NonNull;
  * Contains glue code such that:
  * <ul>
  * <li>{@link HUTraceEventsService#createAndAddForHuParentChanged(I_M_HU, I_M_HU_Item)} is invoked when an HU parent relation is changed.</li>
- * <li>{@link HUTraceEventsService#createAndAddFor(I_M_HU_Trx_Hdr, List)} is invoked <b>after commit</b> when a hu-trx is processed.<br>
+ * <li>{@link HUTraceEventsService#createAndAddOnCommitFor(I_M_HU_Trx_Hdr, List)} is invoked <b>after commit</b> when a hu-trx is processed.<br>
  * It's important to be run after the commit, because otherwise, the respective HU-storages (products and qtys) are not there yet.
  * </li>
  * </ul>
@@ -117,6 +117,6 @@ public class TraceHUTrxListener implements IHUTrxListener
 		logger.info("Invoke HUTraceEventsService; trxHdr={}; trxLines={}", trxHdr, trxLines);
 
 		final HUTraceEventsService huTraceEventService = HUTraceModuleInterceptor.INSTANCE.getHUTraceEventsService();
-		huTraceEventService.createAndAddFor(trxHdr, trxLines);
+		huTraceEventService.createAndAddOnCommitFor(trxHdr, trxLines);
 	}
 }
@@ -0,0 +1,179 @@
+package de.metas.handlingunits.trace.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Properties;
+
+import org.adempiere.service.OrgId;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
+
+import de.metas.document.DocTypeId;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.handlingunits.trace.HUTraceEvent;
+import de.metas.handlingunits.trace.HUTraceEventQuery;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inserts many {@link HUTraceEvent}s with multi-row {@code INSERT}s.
+ * Events for which there is already a {@link I_M_HU_Trace} record with the same {@link #extractConflictKey(HUTraceEvent) conflict key} are skipped by the database,
+ * see the {@code M_HU_Trace_UC} unique index.
+ */
+@UtilityClass
+public class BulkInsertDbRecordsUtil
+{
+	/** Postgres allows at most 32767 parameters per statement */
+	private static final int MAX_ROWS_PER_INSERT = 500;
+
+	private static final String SQL_INSERT = "INSERT INTO " + I_M_HU_Trace.Table_Name + " ("
+			+ I_M_HU_Trace.COLUMNNAME_M_HU_Trace_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_AD_Client_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_AD_Org_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_Created
+			+ ", " + I_M_HU_Trace.COLUMNNAME_CreatedBy
+			+ ", " + I_M_HU_Trace.COLUMNNAME_Updated
+			+ ", " + I_M_HU_Trace.COLUMNNAME_UpdatedBy
+			+ ", " + I_M_HU_Trace.COLUMNNAME_IsActive
+			+ ", " + I_M_HU_Trace.COLUMNNAME_C_DocType_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_DocStatus
+			+ ", " + I_M_HU_Trace.COLUMNNAME_EventTime
+			+ ", " + I_M_HU_Trace.COLUMNNAME_HUTraceType
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHU_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_Product_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_Qty
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHUStatus
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_HU_Trx_Line_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_HU_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_VHU_Source_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_InOut_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_Movement_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_M_ShipmentSchedule_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_PP_Cost_Collector_ID
+			+ ", " + I_M_HU_Trace.COLUMNNAME_PP_Order_ID
+			+ ") VALUES ";
+
+	private static final String SQL_VALUES_ROW = "(?, ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String SQL_ON_CONFLICT = " ON CONFLICT DO NOTHING";
+
+	/**
+	 * Returns the key by which the {@code M_HU_Trace_UC} unique index identifies the given event's record.
+	 * <p>
+	 * It consists of the properties which {@link HUTraceEvent#asQueryBuilder()} uses to check if a record already exists,
+	 * so two events with equal keys are inserted only once.
+	 */
+	public HUTraceEventQuery extractConflictKey(@NonNull final HUTraceEvent huTraceEvent)
+	{
+		return huTraceEvent.asQueryBuilder()
+				.huTraceEventId(OptionalInt.empty())
+				.build();
+	}
+
+	/**
+	 * Inserts the given events in the given transaction.
+	 * The {@code M_HU_Trace_ID}s are allocated upfront, one block per chunk, like {@link DB#getNextID(int, String, String)} would allocate them one by one.
+	 * IDs of events which turn out to be duplicates are not used.
+	 *
+	 * @return the number of actually inserted records
+	 */
+	public int insertIfNotExists(@NonNull final Collection<HUTraceEvent> huTraceEvents, final String trxName)
+	{
+		final Properties ctx = Env.getCtx();
+		final int adClientId = Env.getAD_Client_ID(ctx);
+		final int adUserId = Env.getAD_User_ID(ctx);
+
+		int insertedCount = 0;
+		for (final List<HUTraceEvent> chunk : Iterables.partition(huTraceEvents, MAX_ROWS_PER_INSERT))
+		{
+			final int[] huTraceIds = DB.getNextIDs(adClientId, I_M_HU_Trace.Table_Name, chunk.size());
+
+			final StringBuilder sql = new StringBuilder(SQL_INSERT);
+			final List<Object> sqlParams = new ArrayList<>(chunk.size() * 21);
+			for (int i = 0; i < chunk.size(); i++)
+			{
+				if (i > 0)
+				{
+					sql.append(", ");
+				}
+				sql.append(SQL_VALUES_ROW);
+				sqlParams.add(huTraceIds[i]);
+				sqlParams.addAll(toSqlParams(chunk.get(i), adClientId, adUserId));
+			}
+			sql.append(SQL_ON_CONFLICT);
+
+			insertedCount += DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), trxName);
+		}
+		return insertedCount;
+	}
+
+	/**
+	 * @return the parameters of one {@link #SQL_VALUES_ROW}, without the leading {@code M_HU_Trace_ID}; same values as {@link HuTraceEventToDbRecordUtil#copyToDbRecord(HUTraceEvent, I_M_HU_Trace)}.
+	 *         IDs that are not greater than zero are stored as {@code NULL}.
+	 */
+	@VisibleForTesting
+	List<Object> toSqlParams(
+			@NonNull final HUTraceEvent huTraceEvent,
+			final int adClientId,
+			final int adUserId)
+	{
+		final List<Object> sqlParams = new ArrayList<>(20);
+		sqlParams.add(adClientId);
+		sqlParams.add(OrgId.toRepoIdOrAny(huTraceEvent.getOrgId()));
+		sqlParams.add(adUserId);
+		sqlParams.add(adUserId);
+		sqlParams.add(huTraceEvent.getDocTypeId().map(DocTypeId::getRepoId).orElse(null));
+		sqlParams.add(huTraceEvent.getDocStatus());
+		sqlParams.add(TimeUtil.asTimestamp(huTraceEvent.getEventTime()));
+		sqlParams.add(huTraceEvent.getType().toString());
+		sqlParams.add(huTraceEvent.getVhuId().getRepoId());
+		sqlParams.add(idOrNull(ProductId.toRepoId(huTraceEvent.getProductId())));
+		sqlParams.add(huTraceEvent.getQty());
+		sqlParams.add(huTraceEvent.getVhuStatus());
+		sqlParams.add(idOrNull(huTraceEvent.getHuTrxLineId()));
+		sqlParams.add(huTraceEvent.getTopLevelHuId().getRepoId());
+		sqlParams.add(idOrNull(HuId.toRepoId(huTraceEvent.getVhuSourceId())));
+		sqlParams.add(idOrNull(huTraceEvent.getInOutId()));
+		sqlParams.add(idOrNull(huTraceEvent.getMovementId()));
+		sqlParams.add(idOrNull(ShipmentScheduleId.toRepoId(huTraceEvent.getShipmentScheduleId())));
+		sqlParams.add(idOrNull(huTraceEvent.getPpCostCollectorId()));
+		sqlParams.add(idOrNull(huTraceEvent.getPpOrderId()));
+		return sqlParams;
+	}
+
+	private Integer idOrNull(final int id)
+	{
+		return id > 0 ? id : null;
+	}
+}
@@ -51,7 +51,7 @@ public class HuTraceEventToDbRecordUtil
 				.docStatus(dbRecord.getDocStatus())
 				.eventTime(dbRecord.getEventTime().toInstant()) // EeventTime is a mandatory column, so no NPE
 				.vhuId(HuId.ofRepoId(dbRecord.getVHU_ID()))
-				.productId(ProductId.ofRepoId(dbRecord.getM_Product_ID()))
+				.productId(ProductId.ofRepoIdOrNull(dbRecord.getM_Product_ID()))
 				.qty(dbRecord.getQty())
 				.huTrxLineId(dbRecord.getM_HU_Trx_Line_ID())
 				.vhuStatus(dbRecord.getVHUStatus())
@@ -93,7 +93,7 @@ public class HuTraceEventToDbRecordUtil
 		dbRecord.setEventTime(TimeUtil.asTimestamp(huTraceRecord.getEventTime()));
 		dbRecord.setHUTraceType(huTraceRecord.getType().toString());
 		dbRecord.setVHU_ID(huTraceRecord.getVhuId().getRepoId());
-		dbRecord.setM_Product_ID(huTraceRecord.getProductId().getRepoId());
+		dbRecord.setM_Product_ID(ProductId.toRepoId(huTraceRecord.getProductId()));
 		dbRecord.setQty(huTraceRecord.getQty());
 		dbRecord.setVHUStatus(huTraceRecord.getVhuStatus());
 		dbRecord.setM_HU_Trx_Line_ID(huTraceRecord.getHuTrxLineId());
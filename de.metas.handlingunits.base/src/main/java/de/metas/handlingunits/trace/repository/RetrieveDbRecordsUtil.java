@@ -64,6 +64,71 @@ public class RetrieveDbRecordsUtil
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Retrieves the records which the {@code M_HU_Trace_UC} unique index considers to be equal to the given event.
+	 * <p>
+	 * Unlike {@link #query(HUTraceEventQuery)}, the properties which are not set are not ignored,
+	 * but matched against {@code NULL} (or zero), like the index's {@code COALESCE}s do.
+	 */
+	public static List<HUTraceEvent> queryByConflictKey(@NonNull final HUTraceEvent huTraceEvent)
+	{
+		final IQueryBuilder<I_M_HU_Trace> queryBuilder = createConflictKeyQueryBuilder(BulkInsertDbRecordsUtil.extractConflictKey(huTraceEvent));
+
+		return queryBuilder
+				.orderBy().addColumn(I_M_HU_Trace.COLUMN_M_HU_Trace_ID).endOrderBy()
+				.create()
+				.list()
+				.stream()
+				.map(HuTraceEventToDbRecordUtil::fromDbRecord)
+				.collect(Collectors.toList());
+	}
+
+	@VisibleForTesting
+	static IQueryBuilder<I_M_HU_Trace> createConflictKeyQueryBuilder(@NonNull final HUTraceEventQuery conflictKey)
+	{
+		final IQueryBuilder<I_M_HU_Trace> queryBuilder = createQueryBuilderOrNull(conflictKey);
+		Check.assumeNotNull(queryBuilder, "The conflict key shall not be empty; conflictKey={}", conflictKey);
+
+		if (conflictKey.getProductId() == null)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_M_Product_ID, null, 0);
+		}
+		if (conflictKey.getInOutId() <= 0)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_M_InOut_ID, null, 0);
+		}
+		if (conflictKey.getShipmentScheduleId() == null)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_M_ShipmentSchedule_ID, null, 0);
+		}
+		if (conflictKey.getMovementId() <= 0)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_M_Movement_ID, null, 0);
+		}
+		if (conflictKey.getPpCostCollectorId() <= 0)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_PP_Cost_Collector_ID, null, 0);
+		}
+		if (conflictKey.getPpOrderId() <= 0)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_PP_Order_ID, null, 0);
+		}
+		if (Check.isEmpty(conflictKey.getDocStatus()))
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_DocStatus, null, "");
+		}
+		if (!conflictKey.getDocTypeId().isPresent())
+		{
+			queryBuilder.addEqualsFilter(I_M_HU_Trace.COLUMN_C_DocType_ID, null); // zero is a valid C_DocType_ID, see the index's COALESCE(C_DocType_ID, -1)
+		}
+		if (conflictKey.getHuTrxLineId() <= 0)
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Trace.COLUMN_M_HU_Trx_Line_ID, null, 0);
+		}
+
+		return queryBuilder;
+	}
+
 	public static PInstanceId queryToSelection(@NonNull final HUTraceEventQuery query)
 	{
 		final SelectionResult resultOut = (SelectionResult)queryDbRecord(query, new SelectionResult());
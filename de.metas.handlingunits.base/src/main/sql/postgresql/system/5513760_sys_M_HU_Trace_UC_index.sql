@@ -0,0 +1,30 @@
+--
+-- M_HU_Trace records are now also inserted with INSERT .. ON CONFLICT DO NOTHING, so identical trace records need to be rejected by a unique index.
+-- The index key has the same columns which HUTraceEvent.asQueryBuilder() uses to check if a record already exists (M_HU_ID and VHU_Source_ID are not part of it).
+-- Nullable columns are COALESCEd, because NULL values would never conflict with each other.
+-- First delete possibly existing duplicates, keeping the record with the smallest M_HU_Trace_ID.
+--
+DELETE FROM M_HU_Trace t
+USING (
+	SELECT M_HU_Trace_ID, ROW_NUMBER() OVER (
+		PARTITION BY AD_Org_ID, HUTraceType, EventTime, VHU_ID, COALESCE(M_Product_ID, 0), Qty, VHUStatus,
+			COALESCE(M_InOut_ID, 0), COALESCE(M_ShipmentSchedule_ID, 0), COALESCE(M_Movement_ID, 0), COALESCE(PP_Cost_Collector_ID, 0), COALESCE(PP_Order_ID, 0),
+			COALESCE(DocStatus, ''), COALESCE(C_DocType_ID, -1), COALESCE(M_HU_Trx_Line_ID, 0)
+		ORDER BY M_HU_Trace_ID) AS RowNo
+	FROM M_HU_Trace
+	WHERE IsActive='Y'
+) dups
+WHERE t.M_HU_Trace_ID = dups.M_HU_Trace_ID AND dups.RowNo > 1
+;
+
+DROP INDEX IF EXISTS M_HU_Trace_UC;
+
+-- like HUTraceEvent.asQueryBuilder(), only active records are considered
+CREATE UNIQUE INDEX M_HU_Trace_UC
+	ON public.M_HU_Trace
+	USING btree
+	(AD_Org_ID, HUTraceType, EventTime, VHU_ID, COALESCE(M_Product_ID, 0), Qty, VHUStatus,
+		COALESCE(M_InOut_ID, 0), COALESCE(M_ShipmentSchedule_ID, 0), COALESCE(M_Movement_ID, 0), COALESCE(PP_Cost_Collector_ID, 0), COALESCE(PP_Order_ID, 0),
+		COALESCE(DocStatus, ''), COALESCE(C_DocType_ID, -1), COALESCE(M_HU_Trx_Line_ID, 0))
+	WHERE IsActive='Y'
+;
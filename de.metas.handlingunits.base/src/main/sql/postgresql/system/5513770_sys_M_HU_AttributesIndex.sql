@@ -0,0 +1,39 @@
+--
+-- Partial btree indexes to filter HUs by attribute value, one per value column.
+-- HUQueryBuilder (via HUAttributeQueryFilterVO) filters with
+--   M_HU_ID IN (SELECT M_HU_ID FROM M_HU_Attribute WHERE IsActive='Y' AND M_Attribute_ID=? AND <Value|ValueNumber|ValueDate> IN (?, ...))
+-- M_HU_ID is the last index column, so that subquery can be answered by an index only scan.
+-- The indexes only contain the record's own columns, so they can't go stale, e.g. if an M_Attribute's AttributeValueType is changed.
+--
+-- To compare, e.g. for a lot number attribute with M_Attribute_ID=540020:
+--   EXPLAIN ANALYZE SELECT M_HU_ID FROM M_HU WHERE M_HU_ID IN (SELECT M_HU_ID FROM M_HU_Attribute WHERE IsActive='Y' AND M_Attribute_ID=540020 AND Value IN ('4711'));
+-- or run de.metas.benchmarks.HUAttributesIndexBenchmark.
+--
+
+--
+-- drop the JSONB projections which were added by an unreleased earlier version of this script
+--
+DROP TRIGGER IF EXISTS M_HU_Attribute_AttributesIndex_Insert_Delete_Trigger ON M_HU_Attribute
+;
+DROP TRIGGER IF EXISTS M_HU_Attribute_AttributesIndex_Insert_Trigger ON M_HU_Attribute
+;
+DROP TRIGGER IF EXISTS M_HU_Attribute_AttributesIndex_Update_Trigger ON M_HU_Attribute
+;
+DROP FUNCTION IF EXISTS M_HU_Attribute_AttributesIndex_FT()
+;
+DROP FUNCTION IF EXISTS M_HU_Attribute_IndexValue(numeric, character varying, numeric, timestamp without time zone)
+;
+ALTER TABLE M_HU_Attribute DROP COLUMN IF EXISTS AttributesIndexEntry
+;
+ALTER TABLE M_HU DROP COLUMN IF EXISTS AttributesIndex
+;
+
+--
+-- the indexes
+--
+CREATE INDEX IF NOT EXISTS M_HU_Attribute_Value_Active ON M_HU_Attribute (M_Attribute_ID, Value, M_HU_ID) WHERE IsActive='Y'
+;
+CREATE INDEX IF NOT EXISTS M_HU_Attribute_ValueNumber_Active ON M_HU_Attribute (M_Attribute_ID, ValueNumber, M_HU_ID) WHERE IsActive='Y'
+;
+CREATE INDEX IF NOT EXISTS M_HU_Attribute_ValueDate_Active ON M_HU_Attribute (M_Attribute_ID, ValueDate, M_HU_ID) WHERE IsActive='Y'
+;
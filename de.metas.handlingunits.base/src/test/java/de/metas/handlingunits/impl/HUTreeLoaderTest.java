@@ -0,0 +1,166 @@
+package de.metas.handlingunits.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.X_M_HU_Item;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HUTreeLoaderTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void loadTrees()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU_Item luPackingItem = createItem(lu, X_M_HU_Item.ITEMTYPE_PackingMaterial);
+
+		final I_M_HU tu1 = createHU(luItem);
+		final I_M_HU_Item tu1Item = createItem(tu1, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU tu2 = createHU(luItem);
+		final I_M_HU_Item tu2Item = createItem(tu2, X_M_HU_Item.ITEMTYPE_Material);
+
+		final I_M_HU luReloaded = InterfaceWrapperHelper.load(lu.getM_HU_ID(), I_M_HU.class);
+		HUTreeLoader.instance.loadTrees(ImmutableList.of(luReloaded));
+
+		final List<I_M_HU_Item> luItems = HUItemsLocalCache.getCreate(luReloaded).getItems();
+		assertThat(luItems).extracting(I_M_HU_Item::getM_HU_Item_ID)
+				.containsExactly(luItem.getM_HU_Item_ID(), luPackingItem.getM_HU_Item_ID());
+		assertThat(luItems.get(0).getM_HU()).isSameAs(luReloaded);
+
+		final List<I_M_HU> includedHUs = IncludedHUsLocalCache.getCreate(luItems.get(0)).getItems();
+		assertThat(includedHUs).extracting(I_M_HU::getM_HU_ID)
+				.containsExactly(tu1.getM_HU_ID(), tu2.getM_HU_ID());
+		assertThat(includedHUs.get(0).getM_HU_Item_Parent()).isSameAs(luItems.get(0));
+		assertThat(IncludedHUsLocalCache.getCreate(luItems.get(1)).getItems()).isEmpty();
+
+		assertThat(HUItemsLocalCache.getCreate(includedHUs.get(0)).getItems()).extracting(I_M_HU_Item::getM_HU_Item_ID)
+				.containsExactly(tu1Item.getM_HU_Item_ID());
+		assertThat(HUItemsLocalCache.getCreate(includedHUs.get(1)).getItems()).extracting(I_M_HU_Item::getM_HU_Item_ID)
+				.containsExactly(tu2Item.getM_HU_Item_ID());
+	}
+
+	@Test
+	public void loadTrees_withMaxDepth()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu = createHU(luItem);
+		final I_M_HU_Item tuItem = createItem(tu, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU vhu = createHU(tuItem);
+		createItem(vhu, X_M_HU_Item.ITEMTYPE_Material);
+
+		final I_M_HU luReloaded = InterfaceWrapperHelper.load(lu.getM_HU_ID(), I_M_HU.class);
+		final List<I_M_HU> husWithLoadedItems = HUTreeLoader.instance.loadTrees(ImmutableList.of(luReloaded), 1);
+
+		// only the LU's items were loaded; the TU was loaded just to be set as the LU item's included HU
+		assertThat(husWithLoadedItems).containsExactly(luReloaded);
+
+		final List<I_M_HU_Item> luItems = HUItemsLocalCache.getCreate(luReloaded).getItems();
+		assertThat(luItems).extracting(I_M_HU_Item::getM_HU_Item_ID).containsExactly(luItem.getM_HU_Item_ID());
+
+		final List<I_M_HU> includedHUs = IncludedHUsLocalCache.getCreate(luItems.get(0)).getItems();
+		assertThat(includedHUs).extracting(I_M_HU::getM_HU_ID).containsExactly(tu.getM_HU_ID());
+		assertThat(includedHUs.get(0).getM_HU_Item_Parent()).isSameAs(luItems.get(0));
+	}
+
+	@Test
+	public void loadTrees_unlimitedDepth_returnsAllHUs()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu = createHU(luItem);
+		final I_M_HU_Item tuItem = createItem(tu, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU vhu = createHU(tuItem);
+
+		final I_M_HU luReloaded = InterfaceWrapperHelper.load(lu.getM_HU_ID(), I_M_HU.class);
+		final List<I_M_HU> husWithLoadedItems = HUTreeLoader.instance.loadTrees(ImmutableList.of(luReloaded));
+
+		assertThat(husWithLoadedItems).extracting(I_M_HU::getM_HU_ID)
+				.containsExactly(lu.getM_HU_ID(), tu.getM_HU_ID(), vhu.getM_HU_ID());
+	}
+
+	@Test
+	public void loadTrees_keepsAlreadyLoadedCaches()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu = createHU(luItem);
+		final I_M_HU_Item tuItem = createItem(tu, X_M_HU_Item.ITEMTYPE_Material);
+
+		final I_M_HU luReloaded = InterfaceWrapperHelper.load(lu.getM_HU_ID(), I_M_HU.class);
+		final I_M_HU_Item luItemCached = HUItemsLocalCache.getCreate(luReloaded).getItems().get(0);
+		luItemCached.setQty(BigDecimal.TEN); // a change which is not yet saved
+
+		HUTreeLoader.instance.loadTrees(ImmutableList.of(luReloaded));
+
+		final List<I_M_HU_Item> luItems = HUItemsLocalCache.getCreate(luReloaded).getItems();
+		assertThat(luItems).hasSize(1);
+		assertThat(luItems.get(0)).isSameAs(luItemCached);
+		assertThat(luItems.get(0).getQty()).isEqualByComparingTo(BigDecimal.TEN);
+
+		// the cached item's included HUs were not loaded yet, so the loader set them
+		final IncludedHUsLocalCache includedHUsCache = IncludedHUsLocalCache.getCreate(luItemCached);
+		assertThat(includedHUsCache.isLoaded()).isTrue();
+		final List<I_M_HU> includedHUs = includedHUsCache.getItems();
+		assertThat(includedHUs).extracting(I_M_HU::getM_HU_ID).containsExactly(tu.getM_HU_ID());
+		assertThat(includedHUs.get(0).getM_HU_Item_Parent()).isSameAs(luItemCached);
+		assertThat(HUItemsLocalCache.getCreate(includedHUs.get(0)).getItems()).extracting(I_M_HU_Item::getM_HU_Item_ID)
+				.containsExactly(tuItem.getM_HU_Item_ID());
+	}
+
+	private I_M_HU createHU(final I_M_HU_Item parentItem)
+	{
+		final I_M_HU hu = InterfaceWrapperHelper.newInstance(I_M_HU.class);
+		hu.setM_HU_Item_Parent(parentItem);
+		InterfaceWrapperHelper.save(hu);
+		return hu;
+	}
+
+	private I_M_HU_Item createItem(final I_M_HU hu, final String itemType)
+	{
+		final I_M_HU_Item item = InterfaceWrapperHelper.newInstance(I_M_HU_Item.class);
+		item.setItemType(itemType);
+		item.setM_HU(hu);
+		InterfaceWrapperHelper.save(item);
+		return item;
+	}
+}
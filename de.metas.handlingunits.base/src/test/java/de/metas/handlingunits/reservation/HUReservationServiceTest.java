@@ -5,6 +5,7 @@ import static de.metas.handlingunits.HUConditions.isAggregate;
 import static de.metas.handlingunits.HUConditions.isNotAggregate;
 import static java.math.BigDecimal.ONE;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -18,6 +19,8 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.IHandlingUnitsDAO;
@@ -211,6 +214,15 @@ public class HUReservationServiceTest
 		assertThat(secondResult.getReservedQtySum().get().isZero()).isTrue();
 	}
 
+	@Test
+	public void deleteReservations_fails_for_missing_HU()
+	{
+		final HuId missingHuId = HuId.ofRepoId(999999);
+
+		assertThatThrownBy(() -> huReservationService.deleteReservations(ImmutableList.of(missingHuId)))
+				.hasMessageContaining("Not all VHUs were found");
+	}
+
 	private void assertThatHuHasQty(final I_M_HU hu, final String expectedQty)
 	{
 		final Quantity expectedQuantity = Quantity.of(new BigDecimal(expectedQty), cuUOM);
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.service.OrgId;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
@@ -24,6 +25,7 @@ import de.metas.handlingunits.trace.HUTraceEvent.HUTraceEventBuilder;
 import de.metas.handlingunits.trace.HUTraceEventQuery.RecursionMode;
 import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.product.ProductId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -133,6 +135,56 @@ public class HUTraceRepositoryTests
 		assertThat(result.get(0)).isEqualTo(result2.get(0));
 	}
 
+	/**
+	 * Adds an event with an inout and then the same event without inout. Like the {@code M_HU_Trace_UC} unique index, the existence check shall consider them different.
+	 */
+	@Test
+	public void testAddEvent_unsetPropertyIsNoWildcard()
+	{
+		final HUTraceEvent eventWithoutInOut = createCommonEventBuilder()
+				.eventTime(Instant.now())
+				.topLevelHuId(HuId.ofRepoId(2))
+				.vhuId(HuId.ofRepoId(12))
+				.build();
+		final HUTraceEvent eventWithInOut = eventWithoutInOut.toBuilder().inOutId(4711).build();
+
+		assertThat(huTraceRepository.addEvent(eventWithInOut)).isTrue();
+		assertThat(huTraceRepository.addEvent(eventWithoutInOut)).isTrue();
+		assertThat(huTraceRepository.addEvent(eventWithoutInOut)).isFalse();
+
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.vhuId(HuId.ofRepoId(12))
+				.recursionMode(RecursionMode.NONE)
+				.build();
+		assertThat(huTraceRepository.query(query)).extracting(HUTraceEvent::getInOutId).containsExactlyInAnyOrder(4711, 0);
+	}
+
+	/**
+	 * Adds two equal events within a transaction and verifies that they are only stored when the transaction is committed, and only once.
+	 */
+	@Test
+	public void testAddEventOnCommit()
+	{
+		final HUTraceEvent event = createCommonEventBuilder()
+				.eventTime(Instant.now())
+				.topLevelHuId(HuId.ofRepoId(2))
+				.vhuId(HuId.ofRepoId(12))
+				.build();
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.vhuId(HuId.ofRepoId(12))
+				.recursionMode(RecursionMode.NONE)
+				.build();
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			huTraceRepository.addEventOnCommit(event);
+			huTraceRepository.addEventOnCommit(event);
+
+			assertThat(huTraceRepository.query(query)).isEmpty(); // not yet committed
+		});
+
+		assertThat(huTraceRepository.query(query)).hasSize(1);
+	}
+
 	/**
 	 * verifies that the source HU id is correctly stored and retrieved
 	 */
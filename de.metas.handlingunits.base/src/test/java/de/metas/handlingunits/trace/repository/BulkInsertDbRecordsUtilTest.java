@@ -0,0 +1,128 @@
+package de.metas.handlingunits.trace.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.trace.HUTraceEvent;
+import de.metas.handlingunits.trace.HUTraceEvent.HUTraceEventBuilder;
+import de.metas.handlingunits.trace.HUTraceEventQuery;
+import de.metas.handlingunits.trace.HUTraceRepositoryTests;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkInsertDbRecordsUtilTest
+{
+	private static final Instant EVENT_TIME = Instant.parse("2018-10-01T10:15:30.00Z");
+
+	private static HUTraceEventBuilder createEventBuilder()
+	{
+		return HUTraceRepositoryTests.createCommonEventBuilder()
+				.eventTime(EVENT_TIME)
+				.vhuId(HuId.ofRepoId(12))
+				.topLevelHuId(HuId.ofRepoId(2));
+	}
+
+	@Test
+	public void toSqlParams()
+	{
+		final HUTraceEvent event = createEventBuilder()
+				.vhuSourceId(HuId.ofRepoId(13))
+				.inOutId(30)
+				.huTrxLineId(40)
+				.docStatus("CO")
+				.build();
+
+		final List<Object> sqlParams = BulkInsertDbRecordsUtil.toSqlParams(event, 1000000, 100);
+
+		assertThat(sqlParams).containsExactly(
+				1000000, // AD_Client_ID
+				10, // AD_Org_ID
+				100, // CreatedBy
+				100, // UpdatedBy
+				null, // C_DocType_ID
+				"CO", // DocStatus
+				Timestamp.from(EVENT_TIME), // EventTime
+				"TRANSFORM_LOAD", // HUTraceType
+				12, // VHU_ID
+				23, // M_Product_ID
+				BigDecimal.valueOf(100), // Qty
+				"A", // VHUStatus
+				40, // M_HU_Trx_Line_ID
+				2, // M_HU_ID
+				13, // VHU_Source_ID
+				30, // M_InOut_ID
+				null, // M_Movement_ID
+				null, // M_ShipmentSchedule_ID
+				null, // PP_Cost_Collector_ID
+				null); // PP_Order_ID
+	}
+
+	@Test
+	public void toSqlParams_withoutProduct()
+	{
+		final HUTraceEvent event = createEventBuilder()
+				.productId(null)
+				.build();
+
+		final List<Object> sqlParams = BulkInsertDbRecordsUtil.toSqlParams(event, 1000000, 100);
+
+		assertThat(sqlParams.get(9)).isNull(); // M_Product_ID
+	}
+
+	/**
+	 * Verifies that the conflict key contains what {@link HUTraceEvent#asQueryBuilder()} checks, but not M_HU_ID and VHU_Source_ID.
+	 */
+	@Test
+	public void extractConflictKey()
+	{
+		final HUTraceEvent event = createEventBuilder().build();
+		final HUTraceEventQuery conflictKey = BulkInsertDbRecordsUtil.extractConflictKey(event);
+
+		final HUTraceEvent eventWithOtherHUs = createEventBuilder()
+				.topLevelHuId(HuId.ofRepoId(3))
+				.vhuSourceId(HuId.ofRepoId(13))
+				.build();
+		assertThat(BulkInsertDbRecordsUtil.extractConflictKey(eventWithOtherHUs)).isEqualTo(conflictKey);
+
+		for (final HUTraceEvent otherEvent : Arrays.asList(
+				createEventBuilder().productId(null).build(),
+				createEventBuilder().productId(ProductId.ofRepoId(24)).build(),
+				createEventBuilder().qty(BigDecimal.ONE).build(),
+				createEventBuilder().eventTime(EVENT_TIME.plusSeconds(1)).build(),
+				createEventBuilder().vhuId(HuId.ofRepoId(14)).build(),
+				createEventBuilder().huTrxLineId(40).build(),
+				createEventBuilder().docStatus("CO").build()))
+		{
+			assertThat(BulkInsertDbRecordsUtil.extractConflictKey(otherEvent)).as("conflict key of %s", otherEvent).isNotEqualTo(conflictKey);
+		}
+	}
+}
@@ -37,6 +37,9 @@ import de.metas.product.ProductId;
 @Builder
 public class StockDataItem
 {
+	/** The underlying {@code MD_Stock_ID}; two items with the same ID are the same stock record. */
+	int stockId;
+
 	@NonNull
 	ProductId productId;
 
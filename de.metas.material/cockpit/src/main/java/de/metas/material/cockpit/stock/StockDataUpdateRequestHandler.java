@@ -4,16 +4,29 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.AttributeSetInstanceId;
 import org.adempiere.mm.attributes.api.AttributesKeys;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IMutable;
+import org.adempiere.util.lang.Mutable;
+import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.ISqlUpdateReturnProcessor;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Component;
 
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.material.cockpit.model.I_MD_Stock;
 import de.metas.material.event.PostMaterialEventService;
 import de.metas.material.event.commons.AttributesKey;
@@ -23,7 +36,9 @@ import de.metas.material.event.stock.StockChangedEvent;
 import de.metas.material.event.stock.StockChangedEvent.StockChangeDetails;
 import de.metas.util.NumberUtils;
 import de.metas.util.Services;
+import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -47,9 +62,65 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Adds qty changes to {@link I_MD_Stock} records and fires a {@link StockChangedEvent} for each change.
+ * <p>
+ * Outside of unit tests, the records are updated with native SQL, so that concurrent changes of the same record can't overwrite each other.
+ * Note that those statements bypass the model layer, i.e. there are no model interceptors, no change log and no automatic cache invalidation for them.
+ * Currently, {@link I_MD_Stock} has no model interceptors; the cache invalidation is done explicitly in {@link #addQtyOnHandUsingSql(StockDataUpdateRequest)}.
+ */
 @Component
 public class StockDataUpdateRequestHandler
 {
+	/** Adds the request's qty to the existing record, if any. */
+	@VisibleForTesting
+	static final String SQL_UPDATE_QTY = "UPDATE " + I_MD_Stock.Table_Name
+			+ " SET " + I_MD_Stock.COLUMNNAME_QtyOnHand + "=" + I_MD_Stock.COLUMNNAME_QtyOnHand + "+?"
+			+ ", " + I_MD_Stock.COLUMNNAME_Updated + "=now()"
+			+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy + "=?"
+			+ " WHERE " + I_MD_Stock.COLUMNNAME_AD_Client_ID + "=?"
+			+ " AND " + I_MD_Stock.COLUMNNAME_AD_Org_ID + "=?"
+			+ " AND " + I_MD_Stock.COLUMNNAME_M_Product_ID + "=?"
+			+ " AND " + I_MD_Stock.COLUMNNAME_AttributesKey + "=?"
+			+ " AND " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID + "=?"
+			+ " AND " + I_MD_Stock.COLUMNNAME_IsActive + "='Y'"
+			+ " RETURNING " + I_MD_Stock.COLUMNNAME_MD_Stock_ID + ", " + I_MD_Stock.COLUMNNAME_QtyOnHand + ", " + I_MD_Stock.COLUMNNAME_Updated;
+
+	/**
+	 * Inserts a new record or adds the request's qty to the existing one, in one atomic statement.
+	 * Relies on the unique index {@code MD_Stock_UC}.
+	 *
+	 * @param nextStockIdSql SQL expression of the new record's ID; see {@link #getNextStockIdSql(int)}
+	 */
+	@VisibleForTesting
+	static String createSqlInsertOrUpdateQty(@NonNull final String nextStockIdSql)
+	{
+		return "INSERT INTO " + I_MD_Stock.Table_Name + " ("
+				+ I_MD_Stock.COLUMNNAME_MD_Stock_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_QtyOnHand
+				+ ", " + I_MD_Stock.COLUMNNAME_IsActive
+				+ ", " + I_MD_Stock.COLUMNNAME_Created
+				+ ", " + I_MD_Stock.COLUMNNAME_CreatedBy
+				+ ", " + I_MD_Stock.COLUMNNAME_Updated
+				+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy
+				+ ") VALUES (" + nextStockIdSql + ", ?, ?, ?, ?, ?, ?, 'Y', now(), ?, now(), ?)"
+				+ " ON CONFLICT (" + I_MD_Stock.COLUMNNAME_AD_Client_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+				+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+				+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+				+ ") WHERE " + I_MD_Stock.COLUMNNAME_IsActive + "='Y'"
+				+ " DO UPDATE SET " + I_MD_Stock.COLUMNNAME_QtyOnHand + "=" + I_MD_Stock.Table_Name + "." + I_MD_Stock.COLUMNNAME_QtyOnHand + "+EXCLUDED." + I_MD_Stock.COLUMNNAME_QtyOnHand
+				+ ", " + I_MD_Stock.COLUMNNAME_Updated + "=EXCLUDED." + I_MD_Stock.COLUMNNAME_Updated
+				+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy + "=EXCLUDED." + I_MD_Stock.COLUMNNAME_UpdatedBy
+				+ " RETURNING " + I_MD_Stock.COLUMNNAME_MD_Stock_ID + ", " + I_MD_Stock.COLUMNNAME_QtyOnHand + ", " + I_MD_Stock.COLUMNNAME_Updated;
+	}
+
 	private final PostMaterialEventService postMaterialEventService;
 
 	public StockDataUpdateRequestHandler(
@@ -59,6 +130,144 @@ public class StockDataUpdateRequestHandler
 	}
 
 	public void handleDataUpdateRequest(@NonNull final StockDataUpdateRequest dataUpdateRequest)
+	{
+		final StockRecordChange stockRecordChange;
+		if (isUseNativeSql())
+		{
+			stockRecordChange = addQtyOnHandUsingSql(dataUpdateRequest);
+		}
+		else
+		{
+			stockRecordChange = addQtyOnHandUsingModel(dataUpdateRequest);
+		}
+
+		fireStockChangedEvent(dataUpdateRequest.getIdentifier(), stockRecordChange, dataUpdateRequest.getSourceInfo());
+	}
+
+	@Value
+	@Builder
+	private static class StockRecordChange
+	{
+		int stockId;
+
+		@NonNull
+		BigDecimal qtyOnHandOld;
+
+		@NonNull
+		BigDecimal qtyOnHandNew;
+
+		@NonNull
+		Instant changeDate;
+	}
+
+	/** Unit tests have no SQL database, so there the records are loaded and saved using the model. */
+	@VisibleForTesting
+	boolean isUseNativeSql()
+	{
+		return !Adempiere.isUnitTestMode();
+	}
+
+	private StockRecordChange addQtyOnHandUsingSql(@NonNull final StockDataUpdateRequest dataUpdateRequest)
+	{
+		final StockDataRecordIdentifier identifier = dataUpdateRequest.getIdentifier();
+		final ProductDescriptor productDescriptor = identifier.getProductDescriptor();
+		final AttributesKey attributesKey = productDescriptor.getStorageAttributesKey();
+		attributesKey.assertNotAllOrOther();
+
+		final BigDecimal qtyOnHandToAdd = dataUpdateRequest.getOnHandQtyChange();
+		final int userId = Env.getAD_User_ID();
+
+		final IMutable<StockRecordChange> result = new Mutable<>();
+		final ISqlUpdateReturnProcessor resultCollector = rs -> {
+			final BigDecimal qtyOnHandNew = rs.getBigDecimal(I_MD_Stock.COLUMNNAME_QtyOnHand);
+			result.setValue(StockRecordChange.builder()
+					.stockId(rs.getInt(I_MD_Stock.COLUMNNAME_MD_Stock_ID))
+					.qtyOnHandOld(NumberUtils.stripTrailingDecimalZeros(qtyOnHandNew.subtract(qtyOnHandToAdd)))
+					.qtyOnHandNew(NumberUtils.stripTrailingDecimalZeros(qtyOnHandNew))
+					.changeDate(TimeUtil.asInstant(rs.getTimestamp(I_MD_Stock.COLUMNNAME_Updated)))
+					.build());
+		};
+
+		// most of the time the record already exists, so we try to update it first and don't waste a sequence number
+		executeUpdate(
+				SQL_UPDATE_QTY,
+				new Object[] {
+						qtyOnHandToAdd,
+						userId,
+						identifier.getClientId(),
+						identifier.getOrgId(),
+						productDescriptor.getProductId(),
+						attributesKey.getAsString(),
+						identifier.getWarehouseId() },
+				resultCollector);
+		if (result.getValue() == null)
+		{
+			// if a concurrent transaction inserted the record in the meantime, the insert becomes an update
+			executeUpdate(
+					createSqlInsertOrUpdateQty(getNextStockIdSql(identifier.getClientId())),
+					new Object[] {
+							identifier.getClientId(),
+							identifier.getOrgId(),
+							productDescriptor.getProductId(),
+							attributesKey.getAsString(),
+							identifier.getWarehouseId(),
+							qtyOnHandToAdd,
+							userId,
+							userId },
+					resultCollector);
+		}
+
+		if (result.getValue() == null)
+		{
+			throw new AdempiereException("Failed updating or inserting the " + I_MD_Stock.Table_Name + " record")
+					.appendParametersToMessage()
+					.setParameter("dataUpdateRequest", dataUpdateRequest);
+		}
+
+		// the native SQL bypasses the cache invalidation which saving the model would do, so we need to reset explicitly
+		final CacheInvalidateMultiRequest cacheInvalidateRequest = CacheInvalidateMultiRequest.rootRecord(I_MD_Stock.Table_Name, result.getValue().getStockId());
+		if (StockRepository.isCacheStockData())
+		{
+			// also reset after commit, because the stock data cache could have been reloaded by another thread in the meantime, with the qty from before this change
+			CacheMgt.get().resetLocalNowAndAgainOnTrxCommit(ITrx.TRXNAME_ThreadInherited, cacheInvalidateRequest);
+		}
+		else
+		{
+			CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(ITrx.TRXNAME_ThreadInherited, cacheInvalidateRequest);
+		}
+
+		return result.getValue();
+	}
+
+	/**
+	 * @return the new record's ID as SQL expression, allocated the same way as {@link org.compiere.model.PO} allocates it,
+	 *         so that it can't clash with IDs which were allocated by the model layer
+	 */
+	@VisibleForTesting
+	String getNextStockIdSql(final int clientId)
+	{
+		if (DB.isUseNativeSequences(clientId, I_MD_Stock.Table_Name))
+		{
+			return DB.TO_TABLESEQUENCE_NEXTVAL(I_MD_Stock.Table_Name);
+		}
+
+		// AD_Sequence mode; the ID is allocated out of transaction, like when saving a new record
+		final int nextStockId = DB.getNextID(clientId, I_MD_Stock.Table_Name, ITrx.TRXNAME_None);
+		return String.valueOf(nextStockId);
+	}
+
+	/** Runs the given statement in the thread-inherited transaction. Overridden in unit tests, which have no SQL database. */
+	@VisibleForTesting
+	void executeUpdate(
+			@NonNull final String sql,
+			@NonNull final Object[] sqlParams,
+			@NonNull final ISqlUpdateReturnProcessor resultCollector)
+	{
+		DB.executeUpdateEx(sql, sqlParams, ITrx.TRXNAME_ThreadInherited, 0, resultCollector);
+	}
+
+	/** Used in unit tests, where we can't run the native SQL statements. */
+	private StockRecordChange addQtyOnHandUsingModel(@NonNull final StockDataUpdateRequest dataUpdateRequest)
 	{
 		final I_MD_Stock dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
 
@@ -69,7 +278,12 @@ public class StockDataUpdateRequestHandler
 		dataRecord.setQtyOnHand(qtyOnHandNew);
 		save(dataRecord);
 
-		fireStockChangedEvent(dataRecord, qtyOnHandOld, dataUpdateRequest.getSourceInfo());
+		return StockRecordChange.builder()
+				.stockId(dataRecord.getMD_Stock_ID())
+				.qtyOnHandOld(qtyOnHandOld)
+				.qtyOnHandNew(qtyOnHandNew)
+				.changeDate(TimeUtil.asInstant(dataRecord.getUpdated()))
+				.build();
 	}
 
 	private I_MD_Stock retrieveOrCreateDataRecord(@NonNull final StockDataRecordIdentifier identifier)
@@ -113,27 +327,28 @@ public class StockDataUpdateRequestHandler
 	}
 
 	private void fireStockChangedEvent(
-			@NonNull final I_MD_Stock dataRecord,
-			@NonNull final BigDecimal qtyOnHandOld,
+			@NonNull final StockDataRecordIdentifier identifier,
+			@NonNull final StockRecordChange stockRecordChange,
 			@NonNull final StockChangeSourceInfo stockChangeSourceInfo)
 	{
-		final BigDecimal qtyOnHandNew = dataRecord.getQtyOnHand();
+		final BigDecimal qtyOnHandOld = stockRecordChange.getQtyOnHandOld();
+		final BigDecimal qtyOnHandNew = stockRecordChange.getQtyOnHandNew();
 		if (qtyOnHandOld.compareTo(qtyOnHandNew) == 0)
 		{
 			return;
 		}
 
-		final AttributesKey attributesKey = AttributesKey.ofString(dataRecord.getAttributesKey());
+		final AttributesKey attributesKey = identifier.getProductDescriptor().getStorageAttributesKey();
 		final AttributeSetInstanceId asiId = AttributesKeys.createAttributeSetInstanceFromAttributesKey(attributesKey);
 
 		final EventDescriptor eventDescriptor = EventDescriptor
 				.ofClientAndOrg(
-						dataRecord.getAD_Client_ID(),
-						dataRecord.getAD_Org_ID());
+						identifier.getClientId(),
+						identifier.getOrgId());
 
 		final ProductDescriptor productDescriptor = ProductDescriptor
 				.forProductAndAttributes(
-						dataRecord.getM_Product_ID(),
+						identifier.getProductDescriptor().getProductId(),
 						attributesKey,
 						asiId.getRepoId());
 
@@ -141,18 +356,18 @@ public class StockDataUpdateRequestHandler
 				.builder()
 				.transactionId(stockChangeSourceInfo.getTransactionId())
 				.resetStockAdPinstanceId(stockChangeSourceInfo.getResetStockAdPinstanceId())
-				.stockId(dataRecord.getMD_Stock_ID())
+				.stockId(stockRecordChange.getStockId())
 				.build();
 
 		final StockChangedEvent event = StockChangedEvent
 				.builder()
 				.eventDescriptor(eventDescriptor)
 				.productDescriptor(productDescriptor)
-				.warehouseId(dataRecord.getM_Warehouse_ID())
+				.warehouseId(identifier.getWarehouseId())
 				.qtyOnHand(qtyOnHandNew)
 				.qtyOnHandOld(qtyOnHandOld)
 				.stockChangeDetails(details)
-				.changeDate(TimeUtil.asInstant(dataRecord.getUpdated()))
+				.changeDate(stockRecordChange.getChangeDate())
 				.build();
 
 		postMaterialEventService.postEventNow(event);
@@ -13,6 +13,7 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.impl.TypedSqlQuery;
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.IQuery;
 import org.compiere.model.I_AD_Column;
@@ -58,6 +59,19 @@ import lombok.NonNull;
 @Service
 public class StockRepository
 {
+	/**
+	 * If enabled, the {@link I_MD_Stock} data may be cached by its users (e.g. the shipment schedule updater) until a record changes.
+	 * Note that {@link I_MD_Stock} changes are broadcasted to the other JVMs anyways, see {@link de.metas.material.cockpit.interceptor.ModuleInterceptor}.
+	 */
+	private static final String SYSCONFIG_CacheStockData = "de.metas.inoutcandidate.ShipmentScheduleQtyOnHandStorage.CacheStockData";
+
+	/**
+	 * @return {@code true} if the {@link I_MD_Stock} data may be cached
+	 */
+	public static boolean isCacheStockData()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_CacheStockData, false);
+	}
 
 	public BigDecimal getQtyOnHandForProductAndWarehouseIds(
 			@NonNull final ProductId productId,
@@ -257,6 +271,7 @@ public class StockRepository
 	private StockDataItem recordToStockDataItem(@NonNull final I_MD_Stock record)
 	{
 		return StockDataItem.builder()
+				.stockId(record.getMD_Stock_ID())
 				.productId(ProductId.ofRepoId(record.getM_Product_ID()))
 				.warehouseId(WarehouseId.ofRepoId(record.getM_Warehouse_ID()))
 				.storageAttributesKey(AttributesKey.ofString(record.getAttributesKey()))
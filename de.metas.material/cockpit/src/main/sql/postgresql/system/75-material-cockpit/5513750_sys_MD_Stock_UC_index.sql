@@ -0,0 +1,49 @@
+--
+-- MD_Stock is now updated with INSERT .. ON CONFLICT, so there may be only one active record per client, org, product, attributes key and warehouse.
+-- First merge possibly existing duplicates into the record with the smallest MD_Stock_ID.
+--
+UPDATE MD_Stock s
+SET QtyOnHand = dups.QtyOnHand, Updated = now(), UpdatedBy = 99
+FROM (
+	SELECT MIN(MD_Stock_ID) AS MD_Stock_ID, SUM(QtyOnHand) AS QtyOnHand
+	FROM MD_Stock
+	WHERE IsActive = 'Y'
+	GROUP BY AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID
+	HAVING COUNT(*) > 1
+) dups
+WHERE s.MD_Stock_ID = dups.MD_Stock_ID
+;
+
+CREATE TEMPORARY TABLE MD_Stock_Duplicates AS
+SELECT s.MD_Stock_ID, MIN(s2.MD_Stock_ID) AS MD_Stock_Keep_ID
+FROM MD_Stock s
+	JOIN MD_Stock s2 ON s2.IsActive = 'Y'
+		AND s2.AD_Client_ID = s.AD_Client_ID
+		AND s2.AD_Org_ID = s.AD_Org_ID
+		AND s2.M_Product_ID = s.M_Product_ID
+		AND s2.AttributesKey = s.AttributesKey
+		AND s2.M_Warehouse_ID = s.M_Warehouse_ID
+		AND s2.MD_Stock_ID < s.MD_Stock_ID
+WHERE s.IsActive = 'Y'
+GROUP BY s.MD_Stock_ID
+;
+
+UPDATE MD_Candidate_Transaction_Detail td
+SET MD_Stock_ID = d.MD_Stock_Keep_ID
+FROM MD_Stock_Duplicates d
+WHERE td.MD_Stock_ID = d.MD_Stock_ID
+;
+
+DELETE FROM MD_Stock s
+USING MD_Stock_Duplicates d
+WHERE s.MD_Stock_ID = d.MD_Stock_ID
+;
+
+DROP TABLE MD_Stock_Duplicates;
+
+CREATE UNIQUE INDEX IF NOT EXISTS MD_Stock_UC
+	ON public.MD_Stock
+	USING btree
+	(AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID)
+	WHERE IsActive = 'Y'
+;
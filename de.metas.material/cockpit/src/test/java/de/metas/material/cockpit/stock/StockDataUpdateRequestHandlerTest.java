@@ -0,0 +1,243 @@
+package de.metas.material.cockpit.stock;
+
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.STORAGE_ATTRIBUTES_KEY;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static de.metas.material.event.EventTestHelper.createProductDescriptor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.ISqlUpdateReturnProcessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.material.cockpit.model.I_MD_Stock;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.PostMaterialEventService;
+import de.metas.material.event.stock.StockChangedEvent;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockDataUpdateRequestHandlerTest
+{
+	private static final int STOCK_ID = 42;
+	private static final String NEXT_STOCK_ID_SQL = "4711";
+	private static final Timestamp UPDATED = Timestamp.valueOf("2018-10-17 10:00:00");
+
+	private static final StockChangeSourceInfo TRANSACTION = StockChangeSourceInfo.ofTransactionId(10);
+
+	@Mocked
+	private PostMaterialEventService postMaterialEventService;
+
+	/** Simulates the database's {@code MD_Stock} table, which is changed by the handler's native SQL statements. */
+	private BigDecimal qtyOnHandInDatabase;
+	private final List<String> executedSqls = new ArrayList<>();
+	private final List<List<Object>> executedSqlParams = new ArrayList<>();
+
+	private final List<CacheInvalidateMultiRequest> cacheInvalidateRequests = new ArrayList<>();
+	private final ICacheResetListener cacheResetListener = request -> {
+		cacheInvalidateRequests.add(request);
+		return 1;
+	};
+
+	private StockDataUpdateRequestHandler stockDataUpdateRequestHandler;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		CacheMgt.get().addCacheResetListener(I_MD_Stock.Table_Name, cacheResetListener);
+
+		stockDataUpdateRequestHandler = new StockDataUpdateRequestHandler(postMaterialEventService)
+		{
+			@Override
+			boolean isUseNativeSql()
+			{
+				return true;
+			}
+
+			@Override
+			String getNextStockIdSql(final int clientId)
+			{
+				return NEXT_STOCK_ID_SQL;
+			}
+
+			@Override
+			void executeUpdate(final String sql, final Object[] sqlParams, final ISqlUpdateReturnProcessor resultCollector)
+			{
+				executeUpdateOnSimulatedDatabase(sql, sqlParams, resultCollector);
+			}
+		};
+	}
+
+	@After
+	public void removeCacheResetListener()
+	{
+		CacheMgt.get().removeCacheResetListener(I_MD_Stock.Table_Name, cacheResetListener);
+	}
+
+	@Test
+	public void handleDataUpdateRequest_usingSql_noExistingRecord()
+	{
+		qtyOnHandInDatabase = null;
+
+		stockDataUpdateRequestHandler.handleDataUpdateRequest(createRequest("10"));
+
+		assertThat(executedSqls).containsExactly(
+				StockDataUpdateRequestHandler.SQL_UPDATE_QTY,
+				StockDataUpdateRequestHandler.createSqlInsertOrUpdateQty(NEXT_STOCK_ID_SQL));
+
+		// AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID, QtyOnHand, CreatedBy, UpdatedBy
+		assertThat(executedSqlParams.get(1)).hasSize(8);
+		assertThat(executedSqlParams.get(1).subList(0, 6)).containsExactly(
+				1, 2, PRODUCT_ID, STORAGE_ATTRIBUTES_KEY.getAsString(), WAREHOUSE_ID, new BigDecimal("10"));
+
+		assertThat(qtyOnHandInDatabase).isEqualByComparingTo("10");
+		assertStockChangedEventPosted("0", "10");
+		assertThat(cacheInvalidateRequests).contains(CacheInvalidateMultiRequest.rootRecord(I_MD_Stock.Table_Name, STOCK_ID));
+	}
+
+	@Test
+	public void handleDataUpdateRequest_usingSql_existingRecord()
+	{
+		qtyOnHandInDatabase = new BigDecimal("5");
+
+		stockDataUpdateRequestHandler.handleDataUpdateRequest(createRequest("-3"));
+
+		assertThat(executedSqls).containsExactly(StockDataUpdateRequestHandler.SQL_UPDATE_QTY);
+
+		// QtyOnHand, UpdatedBy, AD_Client_ID, AD_Org_ID, M_Product_ID, AttributesKey, M_Warehouse_ID
+		assertThat(executedSqlParams.get(0)).hasSize(7);
+		assertThat(executedSqlParams.get(0).get(0)).isEqualTo(new BigDecimal("-3"));
+		assertThat(executedSqlParams.get(0).subList(2, 7)).containsExactly(
+				1, 2, PRODUCT_ID, STORAGE_ATTRIBUTES_KEY.getAsString(), WAREHOUSE_ID);
+
+		assertThat(qtyOnHandInDatabase).isEqualByComparingTo("2");
+		assertStockChangedEventPosted("5", "2");
+		assertThat(cacheInvalidateRequests).contains(CacheInvalidateMultiRequest.rootRecord(I_MD_Stock.Table_Name, STOCK_ID));
+	}
+
+	private void assertStockChangedEventPosted(final String expectedQtyOnHandOld, final String expectedQtyOnHand)
+	{
+		new Verifications()
+		{{
+			MaterialEvent event;
+			postMaterialEventService.postEventNow(event = withCapture()); times = 1;
+
+			assertThat(event).isInstanceOf(StockChangedEvent.class);
+			final StockChangedEvent stockChangedEvent = (StockChangedEvent)event;
+			assertThat(stockChangedEvent.getQtyOnHandOld()).isEqualByComparingTo(expectedQtyOnHandOld);
+			assertThat(stockChangedEvent.getQtyOnHand()).isEqualByComparingTo(expectedQtyOnHand);
+			assertThat(stockChangedEvent.getWarehouseId()).isEqualTo(WAREHOUSE_ID);
+			assertThat(stockChangedEvent.getChangeDate()).isEqualTo(UPDATED.toInstant());
+			assertThat(stockChangedEvent.getStockChangeDetails().getStockId()).isEqualTo(STOCK_ID);
+			assertThat(stockChangedEvent.getStockChangeDetails().getTransactionId()).isEqualTo(TRANSACTION.getTransactionId());
+		}}; // @formatter:on
+	}
+
+	private void executeUpdateOnSimulatedDatabase(
+			final String sql,
+			final Object[] sqlParams,
+			final ISqlUpdateReturnProcessor resultCollector)
+	{
+		executedSqls.add(sql);
+		executedSqlParams.add(ImmutableList.copyOf(sqlParams));
+
+		final BigDecimal qtyOnHandToAdd;
+		if (StockDataUpdateRequestHandler.SQL_UPDATE_QTY.equals(sql))
+		{
+			if (qtyOnHandInDatabase == null)
+			{
+				return; // no record to update
+			}
+			qtyOnHandToAdd = (BigDecimal)sqlParams[0];
+		}
+		else if (StockDataUpdateRequestHandler.createSqlInsertOrUpdateQty(NEXT_STOCK_ID_SQL).equals(sql))
+		{
+			qtyOnHandToAdd = (BigDecimal)sqlParams[5];
+		}
+		else
+		{
+			throw new IllegalArgumentException("Unexpected sql=" + sql);
+		}
+
+		qtyOnHandInDatabase = qtyOnHandInDatabase == null ? qtyOnHandToAdd : qtyOnHandInDatabase.add(qtyOnHandToAdd);
+		try
+		{
+			resultCollector.process(createReturnedRow(qtyOnHandInDatabase));
+		}
+		catch (final SQLException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** @return a result set whose getters return the values of the statements' {@code RETURNING} columns. */
+	private static ResultSet createReturnedRow(final BigDecimal qtyOnHand)
+	{
+		final Map<String, Object> row = ImmutableMap.of(
+				I_MD_Stock.COLUMNNAME_MD_Stock_ID, STOCK_ID,
+				I_MD_Stock.COLUMNNAME_QtyOnHand, qtyOnHand,
+				I_MD_Stock.COLUMNNAME_Updated, UPDATED);
+
+		return (ResultSet)Proxy.newProxyInstance(
+				ResultSet.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> row.get(args[0]));
+	}
+
+	private static StockDataUpdateRequest createRequest(final String onHandQtyChange)
+	{
+		final StockDataRecordIdentifier identifier = StockDataRecordIdentifier.builder()
+				.clientId(1)
+				.orgId(2)
+				.productDescriptor(createProductDescriptor())
+				.warehouseId(WAREHOUSE_ID)
+				.build();
+
+		return StockDataUpdateRequest.builder()
+				.identifier(identifier)
+				.onHandQtyChange(new BigDecimal(onHandQtyChange))
+				.sourceInfo(TRANSACTION)
+				.build();
+	}
+}
@@ -16,6 +16,7 @@ import java.util.Objects;
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdaterExecutor;
 import org.adempiere.ad.dao.IQueryBL;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
@@ -32,7 +33,9 @@ import de.metas.material.dispo.commons.candidate.businesscase.DemandDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.PurchaseDetail;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
+import de.metas.material.dispo.commons.repository.query.MaterialDescriptorQuery;
 import de.metas.material.dispo.commons.repository.repohelpers.PurchaseDetailRepoHelper;
 import de.metas.material.dispo.commons.repository.repohelpers.RepositoryCommons;
 import de.metas.material.dispo.model.I_MD_Candidate;
@@ -114,6 +117,46 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code delta} to the {@code Qty} of all candidates matched by the given {@code query}, using one SQL UPDATE instead of loading and saving each candidate.
+	 * <p>
+	 * Only intended for stock candidates; their records don't have any detail records which would need to be updated too.
+	 *
+	 * @param groupId if greater than zero, then also the matched candidates' groupId is set to this value
+	 * @return number of updated candidates
+	 */
+	public int addDeltaToQty(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal delta,
+			final int groupId)
+	{
+		final ICompositeQueryUpdaterExecutor<I_MD_Candidate> updater = RepositoryCommons
+				.mkQueryBuilder(query)
+				.create()
+				.updateDirectly()
+				.addAddValueToColumn(I_MD_Candidate.COLUMNNAME_Qty, delta);
+		if (groupId > 0)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId);
+		}
+		final int updatedCount = updater.execute();
+
+		// we don't know the updated records' product if the query has none, so in that case the whole index is dropped
+		final MaterialDescriptorQuery materialDescriptorQuery = query.getMaterialDescriptorQuery();
+		AvailableToPromiseIndex.invalidateProductAfterCommit(materialDescriptorQuery != null ? materialDescriptorQuery.getProductId() : -1);
+
+		return updatedCount;
+	}
+
+	private static void invalidateAvailableToPromiseIndexIfStock(@Nullable final I_MD_Candidate candidateRecord)
+	{
+		if (candidateRecord == null || !X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(candidateRecord.getMD_Candidate_Type()))
+		{
+			return;
+		}
+		AvailableToPromiseIndex.invalidateProductAfterCommit(candidateRecord.getM_Product_ID());
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
@@ -249,11 +292,15 @@ public class CandidateRepositoryWriteService
 			previousTime = null;
 		}
 
+		// the product might change, so the ATP index might need to drop the old one as well
+		invalidateAvailableToPromiseIndexIfStock(oldCandidateRecord);
+
 		final I_MD_Candidate synchedRecord = updateOrCreateCandidateRecord(
 				oldCandidateRecord,
 				candidate,
 				preserveExistingSeqNoAndParentId);
 		save(synchedRecord); // save now, because we need to have MD_Candidate_ID > 0
+		invalidateAvailableToPromiseIndexIfStock(synchedRecord);
 
 		setFallBackSeqNoAndGroupIdIfNeeded(synchedRecord);
 
@@ -659,6 +706,7 @@ public class CandidateRepositoryWriteService
 				.build(),
 				candidateRecord.getQty());
 
+		invalidateAvailableToPromiseIndexIfStock(candidateRecord);
 		deleteRecord(candidateRecord);
 		return deleteResult;
 	}
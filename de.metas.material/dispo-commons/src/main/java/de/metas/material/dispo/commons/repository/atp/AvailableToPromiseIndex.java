@@ -0,0 +1,354 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.TimeUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicates;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CCache;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.NumberUtils;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Optional in-memory index of the {@code STOCK} candidates, per product.
+ * It answers {@link AvailableToPromiseQuery}s like the DB function {@code de_metas_material.retrieve_atp_at_date} does, see {@link AvailableToPromiseSqlHelper}.
+ * <p>
+ * A product's stock candidates are loaded with one query when the product is first requested.
+ * They are dropped when one of them changes, also in other JVMs; see {@link #invalidateProductAfterCommit(int)}.
+ * <p>
+ * The index is only used outside of transactions, because within a transaction there might be uncommitted stock candidates which are not in the index.
+ */
+public final class AvailableToPromiseIndex
+{
+	public static final AvailableToPromiseIndex instance = new AvailableToPromiseIndex();
+
+	private static final String SYSCONFIG_Enabled = "de.metas.material.dispo.ATP.InMemoryIndex.Enabled";
+
+	/** The index is invalidated per product, using this (view) table name and the M_Product_ID as record ID. */
+	public static final String CACHE_TABLE_NAME = I_MD_Candidate_ATP_QueryResult.Table_Name;
+
+	private static final int CACHE_EXPIRE_MINUTES = 10;
+
+	private final CCache<Integer, ProductIndex> productIndexes = CCache.<Integer, ProductIndex> builder()
+			.cacheName("AvailableToPromiseIndex")
+			.tableName(CACHE_TABLE_NAME)
+			.expireMinutes(CACHE_EXPIRE_MINUTES)
+			.recordRefsExtractor((productId, productIndex) -> ImmutableList.of(TableRecordReference.of(CACHE_TABLE_NAME, productId)))
+			.build();
+
+	private AvailableToPromiseIndex()
+	{
+	}
+
+	/**
+	 * Drops the given product's index entry, locally right away and again after the current transaction was committed, and in other JVMs after commit.
+	 * Dropping it again is needed, because another thread could have reloaded it in the meantime, without the transaction's changes.
+	 * To be called whenever a stock candidate of the given product was created, changed or deleted.
+	 *
+	 * @param productId if not greater than zero, then the whole index is dropped
+	 */
+	public static void invalidateProductAfterCommit(final int productId)
+	{
+		final CacheInvalidateMultiRequest request = productId > 0
+				? CacheInvalidateMultiRequest.rootRecord(CACHE_TABLE_NAME, productId)
+				: CacheInvalidateMultiRequest.allRecordsForTable(CACHE_TABLE_NAME);
+		CacheMgt.get().resetLocalNowAndAgainOnTrxCommit(ITrx.TRXNAME_ThreadInherited, request);
+	}
+
+	/**
+	 * @return the requests to build the ATP result from, or {@code null} if the index is disabled or can't be used right now; in that case the caller needs to use the database
+	 */
+	@Nullable
+	public ImmutableList<AddToResultGroupRequest> retrieveRequestsOrNull(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		if (!isEnabled() || isRunningInTransaction())
+		{
+			return null;
+		}
+		return retrieveRequests(multiQuery);
+	}
+
+	@VisibleForTesting
+	ImmutableList<AddToResultGroupRequest> retrieveRequests(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		// like the SQL union, return each record only once, even if it's matched by more than one query
+		final Set<AddToResultGroupRequest> requests = new LinkedHashSet<>();
+		for (final AvailableToPromiseQuery query : multiQuery.getQueries())
+		{
+			if (query == null)
+			{
+				continue;
+			}
+
+			final Instant date = TimeUtil.asInstant(query.getDate());
+			final StorageAttributesKeyMatcher storageAttributesKeyMatcher = StorageAttributesKeyMatcher.of(query.getStorageAttributesKeys());
+
+			for (final int productId : query.getProductIds())
+			{
+				productIndexes.getOrLoad(productId, this::loadProductIndex)
+						.streamLatestRecordsAt(date)
+						.filter(record -> record.matches(query, storageAttributesKeyMatcher))
+						.map(StockRecord::toAddToResultGroupRequest)
+						.forEach(requests::add);
+			}
+		}
+		return ImmutableList.copyOf(requests);
+	}
+
+	private boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	private static boolean isRunningInTransaction()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		return !trxManager.isNull(trx);
+	}
+
+	private ProductIndex loadProductIndex(final int productId)
+	{
+		final ImmutableList<StockRecord> records = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_MD_Candidate.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_MD_Candidate.COLUMN_MD_Candidate_Type, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK)
+				.addEqualsFilter(I_MD_Candidate.COLUMN_M_Product_ID, productId)
+				.create()
+				.stream(I_MD_Candidate.class)
+				.map(StockRecord::of)
+				.collect(ImmutableList.toImmutableList());
+
+		return new ProductIndex(records);
+	}
+
+	/** The stock candidates of one product, grouped like in {@code retrieve_atp_at_date}. */
+	private static final class ProductIndex
+	{
+		/** Each group's records are ordered by date and seqNo, latest first. */
+		private final ImmutableListMultimap<StockRecordGroupKey, StockRecord> recordsByGroupKey;
+
+		private ProductIndex(@NonNull final List<StockRecord> records)
+		{
+			final Comparator<StockRecord> latestFirst = Comparator
+					.comparing(StockRecord::getDate)
+					.thenComparing(StockRecord::getSeqNo)
+					.reversed();
+
+			recordsByGroupKey = records.stream()
+					.sorted(latestFirst)
+					.collect(ImmutableListMultimap.toImmutableListMultimap(StockRecord::getGroupKey, record -> record));
+		}
+
+		/** @return for each group the latest record whose date is not after the given date */
+		public Stream<StockRecord> streamLatestRecordsAt(@NonNull final Instant date)
+		{
+			return Multimaps.asMap(recordsByGroupKey)
+					.values()
+					.stream()
+					.map(groupRecords -> groupRecords.stream()
+							.filter(record -> !record.getDate().isAfter(date))
+							.findFirst()
+							.orElse(null))
+					.filter(Predicates.notNull());
+		}
+	}
+
+	@Value
+	private static class StockRecordGroupKey
+	{
+		int warehouseId;
+		/** like in {@code retrieve_atp_at_date}'s {@code DISTINCT ON}, {@code null} and zero are different groups */
+		Integer customerId;
+		String storageAttributesKey;
+	}
+
+	@Value
+	@Builder
+	private static class StockRecord
+	{
+		public static StockRecord of(@NonNull final I_MD_Candidate record)
+		{
+			return builder()
+					.productId(record.getM_Product_ID())
+					.warehouseId(record.getM_Warehouse_ID())
+					.customerId(NumberUtils.asIntegerOrNull(InterfaceWrapperHelper.getValueOrNull(record, I_MD_Candidate.COLUMNNAME_C_BPartner_Customer_ID)))
+					.storageAttributesKey(record.getStorageAttributesKey())
+					.date(TimeUtil.asInstant(record.getDateProjected()))
+					.seqNo(record.getSeqNo())
+					.qty(record.getQty())
+					.build();
+		}
+
+		int productId;
+		int warehouseId;
+		/** the raw column value; {@code null} means that there is no customer */
+		@Nullable
+		Integer customerId;
+		@NonNull
+		String storageAttributesKey;
+		@NonNull
+		Instant date;
+		int seqNo;
+		@NonNull
+		BigDecimal qty;
+
+		public StockRecordGroupKey getGroupKey()
+		{
+			return new StockRecordGroupKey(warehouseId, customerId, storageAttributesKey);
+		}
+
+		/** Applies the same filters as {@link AvailableToPromiseSqlHelper#createDBQueryForStockQueryBuilder(AvailableToPromiseQuery)}. */
+		public boolean matches(
+				@NonNull final AvailableToPromiseQuery query,
+				@NonNull final StorageAttributesKeyMatcher storageAttributesKeyMatcher)
+		{
+			if (!query.getWarehouseIds().isEmpty() && !query.getWarehouseIds().contains(warehouseId))
+			{
+				return false;
+			}
+
+			// note that the SQL's "C_BPartner_Customer_ID IS NULL" and "C_BPartner_Customer_ID IN (?, NULL)" filters don't match zero
+			final BPartnerClassifier bpartner = query.getBpartner();
+			if (bpartner.isNone() && customerId != null)
+			{
+				return false;
+			}
+			else if (bpartner.isSpecificBPartner() && customerId != null && customerId != bpartner.getBpartnerId().getRepoId())
+			{
+				return false;
+			}
+
+			return storageAttributesKeyMatcher.matches(storageAttributesKey);
+		}
+
+		public AddToResultGroupRequest toAddToResultGroupRequest()
+		{
+			return AddToResultGroupRequest.builder()
+					.productId(productId)
+					.bpartner(BPartnerClassifier.specificOrAny(customerId != null ? BPartnerId.ofRepoIdOrNull(customerId) : null)) // records that have no bPartner-ID are applicable to any bpartner
+					.warehouseId(warehouseId)
+					.storageAttributesKey(AttributesKey.ofString(storageAttributesKey))
+					.qty(qty)
+					.date(date)
+					.seqNo(seqNo)
+					.build();
+		}
+	}
+
+	/** In-memory version of {@link de.metas.material.commons.AttributesKeyQueryHelper#createORFilterForStorageAttributesKeys(List)}. */
+	@VisibleForTesting
+	static final class StorageAttributesKeyMatcher
+	{
+		public static StorageAttributesKeyMatcher of(@NonNull final List<AttributesKey> attributesKeys)
+		{
+			return new StorageAttributesKeyMatcher(attributesKeys);
+		}
+
+		private static final Splitter LIKE_PARTS_SPLITTER = Splitter.on('%').omitEmptyStrings();
+
+		private final ImmutableList<AttributesKey> attributesKeys;
+
+		private StorageAttributesKeyMatcher(@NonNull final List<AttributesKey> attributesKeys)
+		{
+			this.attributesKeys = ImmutableList.copyOf(attributesKeys);
+		}
+
+		public boolean matches(@NonNull final String storageAttributesKey)
+		{
+			if (attributesKeys.isEmpty())
+			{
+				return true; // same as an empty OR filter
+			}
+			return attributesKeys.stream().anyMatch(attributesKey -> matches(storageAttributesKey, attributesKey));
+		}
+
+		private boolean matches(@NonNull final String storageAttributesKey, @NonNull final AttributesKey attributesKey)
+		{
+			if (attributesKey.isOther())
+			{
+				return attributesKeys.stream()
+						.filter(otherAttributesKey -> !otherAttributesKey.isOther())
+						.noneMatch(otherAttributesKey -> isLike(storageAttributesKey, otherAttributesKey));
+			}
+			else if (attributesKey.isAll())
+			{
+				return true;
+			}
+			else
+			{
+				return isLike(storageAttributesKey, attributesKey);
+			}
+		}
+
+		/** @return true if the given string is SQL {@code LIKE '%<attributesKey's sqlLikeString>%'} */
+		@VisibleForTesting
+		static boolean isLike(@NonNull final String storageAttributesKey, @NonNull final AttributesKey attributesKey)
+		{
+			int fromIndex = 0;
+			for (final String part : LIKE_PARTS_SPLITTER.split(attributesKey.getSqlLikeString()))
+			{
+				final int index = storageAttributesKey.indexOf(part, fromIndex);
+				if (index < 0)
+				{
+					return false;
+				}
+				fromIndex = index + part.length();
+			}
+			return true;
+		}
+	}
+}
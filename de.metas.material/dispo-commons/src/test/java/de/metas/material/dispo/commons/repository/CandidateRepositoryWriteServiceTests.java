@@ -321,6 +321,23 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(result1Record.getMD_Candidate_GroupId()).isEqualTo(result1.getGroupId());
 	}
 
+	@Test
+	public void addDeltaToQty()
+	{
+		final CandidatesQuery query = repositoryTestHelper.mkQueryForStockFromDate(AFTER_NOW);
+
+		final int updatedCount = candidateRepositoryWriteService.addDeltaToQty(query, ONE, 23);
+		assertThat(updatedCount).isEqualTo(1);
+
+		final I_MD_Candidate laterStockRecord = load(repositoryTestHelper.laterStockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(laterStockRecord.getQty()).isEqualByComparingTo("11");
+		assertThat(laterStockRecord.getMD_Candidate_GroupId()).isEqualTo(23);
+
+		final I_MD_Candidate stockRecord = load(repositoryTestHelper.stockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(stockRecord.getQty()).isEqualByComparingTo("11");
+		assertThat(stockRecord.getMD_Candidate_GroupId()).isEqualTo(repositoryTestHelper.stockCandidate.getGroupId());
+	}
+
 	/**
 	 * Verifies that {@link DistributionDetail} data is also persisted
 	 */
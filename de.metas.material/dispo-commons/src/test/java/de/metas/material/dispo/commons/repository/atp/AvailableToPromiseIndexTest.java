@@ -0,0 +1,225 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import static de.metas.material.event.EventTestHelper.AFTER_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.BEFORE_NOW;
+import static de.metas.material.event.EventTestHelper.NOW;
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.util.TimeUtil;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.StorageAttributesKeyMatcher;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AvailableToPromiseIndexTest
+{
+	private static final BPartnerId BPARTNER_ID = BPartnerId.ofRepoId(10);
+	private static final AttributesKey STORAGE_ATTRIBUTES_KEY = AttributesKey.ofAttributeValueIds(1, 2);
+
+	@Rule
+	public AdempiereTestWatcher adempiereTestWatcher = new AdempiereTestWatcher();
+
+	private int seqNoCounter;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		seqNoCounter = 1;
+	}
+
+	@Test
+	public void isLike()
+	{
+		final AttributesKey attributesKey = AttributesKey.ofAttributeValueIds(1, 3);
+
+		assertThat(StorageAttributesKeyMatcher.isLike("1§&§3", attributesKey)).isTrue();
+		assertThat(StorageAttributesKeyMatcher.isLike("1§&§2§&§3", attributesKey)).isTrue();
+		assertThat(StorageAttributesKeyMatcher.isLike("3§&§1", attributesKey)).isFalse();
+		assertThat(StorageAttributesKeyMatcher.isLike("1§&§2", attributesKey)).isFalse();
+	}
+
+	@Test
+	public void storageAttributesKeyMatcher_other()
+	{
+		final StorageAttributesKeyMatcher matcher = StorageAttributesKeyMatcher.of(ImmutableList.of(STORAGE_ATTRIBUTES_KEY, AttributesKey.OTHER));
+
+		assertThat(matcher.matches(STORAGE_ATTRIBUTES_KEY.getAsString())).isTrue();
+		assertThat(matcher.matches(AttributesKey.ofAttributeValueIds(3).getAsString())).isTrue(); // matched by OTHER
+	}
+
+	@Test
+	public void retrieveRequests_latest_record_per_group()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "10");
+		createStockRecord(null, BEFORE_NOW, "20");
+		createStockRecord(null, AFTER_NOW, "30"); // after the query's date
+		createStockRecord(BPARTNER_ID, BEFORE_BEFORE_NOW, "40");
+
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.storageAttributesKey(STORAGE_ATTRIBUTES_KEY)
+				.bpartner(BPartnerClassifier.any())
+				.date(TimeUtil.asLocalDateTime(NOW))
+				.build();
+
+		final List<AddToResultGroupRequest> requests = AvailableToPromiseIndex.instance.retrieveRequests(AvailableToPromiseMultiQuery.of(query));
+
+		assertThat(requests)
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactlyInAnyOrder(new BigDecimal("20"), new BigDecimal("40"));
+	}
+
+	@Test
+	public void retrieveRequests_no_bpartner()
+	{
+		createStockRecord(null, BEFORE_NOW, "10");
+		createStockRecord(BPARTNER_ID, BEFORE_NOW, "20");
+
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.bpartner(BPartnerClassifier.none())
+				.date(TimeUtil.asLocalDateTime(NOW))
+				.build();
+
+		final List<AddToResultGroupRequest> requests = AvailableToPromiseIndex.instance.retrieveRequests(AvailableToPromiseMultiQuery.of(query));
+
+		assertThat(requests).hasSize(1);
+		assertThat(requests.get(0).getQty()).isEqualByComparingTo("10");
+		assertThat(requests.get(0).getBpartner().isAny()).isTrue();
+	}
+
+	/**
+	 * Verifies that the index entry is dropped again after commit, if it was reloaded while the transaction was still running.
+	 */
+	@Test
+	public void invalidateProductAfterCommit_drops_entry_reloaded_before_commit()
+	{
+		createStockRecord(null, BEFORE_BEFORE_NOW, "10");
+
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.storageAttributesKey(STORAGE_ATTRIBUTES_KEY)
+				.bpartner(BPartnerClassifier.any())
+				.date(TimeUtil.asLocalDateTime(NOW))
+				.build();
+		final AvailableToPromiseMultiQuery multiQuery = AvailableToPromiseMultiQuery.of(query);
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			AvailableToPromiseIndex.invalidateProductAfterCommit(PRODUCT_ID);
+			AvailableToPromiseIndex.instance.retrieveRequests(multiQuery); // e.g. another thread reloads the index entry
+
+			createStockRecord(null, BEFORE_NOW, "20");
+		});
+
+		final List<AddToResultGroupRequest> requests = AvailableToPromiseIndex.instance.retrieveRequests(multiQuery);
+		assertThat(requests).hasSize(1);
+		assertThat(requests.get(0).getQty()).isEqualByComparingTo("20");
+	}
+
+	/**
+	 * Verifies that stock records with {@code C_BPartner_Customer_ID} {@code NULL} and zero are different groups, like in {@code retrieve_atp_at_date}.
+	 */
+	@Test
+	public void retrieveRequests_null_and_zero_customer_are_different_groups()
+	{
+		createStockRecord(null, BEFORE_NOW, "10");
+		createStockRecordWithZeroCustomer(BEFORE_BEFORE_NOW, "20");
+
+		final AvailableToPromiseQuery anyBPartnerQuery = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.bpartner(BPartnerClassifier.any())
+				.date(TimeUtil.asLocalDateTime(NOW))
+				.build();
+		assertThat(AvailableToPromiseIndex.instance.retrieveRequests(AvailableToPromiseMultiQuery.of(anyBPartnerQuery)))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactlyInAnyOrder(new BigDecimal("10"), new BigDecimal("20"));
+
+		// like the SQL's "C_BPartner_Customer_ID IS NULL"
+		final AvailableToPromiseQuery noBPartnerQuery = anyBPartnerQuery.toBuilder()
+				.bpartner(BPartnerClassifier.none())
+				.build();
+		assertThat(AvailableToPromiseIndex.instance.retrieveRequests(AvailableToPromiseMultiQuery.of(noBPartnerQuery)))
+				.extracting(AddToResultGroupRequest::getQty)
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("10"));
+	}
+
+	private void createStockRecordWithZeroCustomer(
+			final Instant dateProjected,
+			final String qty)
+	{
+		final I_MD_Candidate candidateRecord = createStockRecord(null, dateProjected, qty);
+
+		// the model setter would set NULL; the record might e.g. have been created by SQL
+		InterfaceWrapperHelper.setValue(candidateRecord, I_MD_Candidate.COLUMNNAME_C_BPartner_Customer_ID, 0);
+		save(candidateRecord);
+	}
+
+	private I_MD_Candidate createStockRecord(
+			final BPartnerId bpartnerId,
+			final Instant dateProjected,
+			final String qty)
+	{
+		final I_MD_Candidate candidateRecord = newInstance(I_MD_Candidate.class);
+		candidateRecord.setIsActive(true);
+		candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		candidateRecord.setM_Product_ID(PRODUCT_ID);
+		candidateRecord.setM_Warehouse_ID(WAREHOUSE_ID);
+		if (bpartnerId != null)
+		{
+			candidateRecord.setC_BPartner_Customer_ID(bpartnerId.getRepoId());
+		}
+		candidateRecord.setStorageAttributesKey(STORAGE_ATTRIBUTES_KEY.getAsString());
+		candidateRecord.setDateProjected(TimeUtil.asTimestamp(dateProjected));
+		candidateRecord.setQty(new BigDecimal(qty));
+		candidateRecord.setSeqNo(seqNoCounter++);
+		save(candidateRecord);
+		return candidateRecord;
+	}
+}
@@ -17,6 +17,7 @@ import org.springframework.context.annotation.Profile;
 
 import de.metas.Profiles;
 import de.metas.cache.CacheMgt;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex;
 import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.dispo.model.I_MD_Candidate_Demand_Detail;
 import de.metas.material.dispo.model.I_MD_Candidate_Dist_Detail;
@@ -92,6 +93,9 @@ public class Application
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_MD_Candidate_Dist_Detail.Table_Name);
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_MD_Candidate_Prod_Detail.Table_Name);
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_MD_Candidate_Transaction_Detail.Table_Name);
+
+		// so that the webui's AvailableToPromiseIndex drops the products whose stock candidates we changed
+		cacheMgt.enableRemoteCacheInvalidationForTableName(AvailableToPromiseIndex.CACHE_TABLE_NAME);
 	}
 
 	@Bean(name = Adempiere.BEAN_NAME)
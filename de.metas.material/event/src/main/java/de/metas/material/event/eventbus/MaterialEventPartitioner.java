@@ -0,0 +1,93 @@
+package de.metas.material.event.eventbus;
+
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.material.event.procurement.AbstractPurchaseOfferEvent;
+import de.metas.material.event.receiptschedule.AbstractReceiptScheduleEvent;
+import de.metas.material.event.shipmentschedule.AbstractShipmentScheduleEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.material.event.stockestimate.AbstractStockEstimateEvent;
+import de.metas.material.event.transactions.AbstractTransactionEvent;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Decides which events may be handled in parallel by {@link PartitionedMaterialEventExecutor}.
+ * <p>
+ * An event's partition key is the ID of the one product whose candidates its handlers change.
+ * Events whose handlers might change candidates of more than one product (e.g. production and distribution orders, supply-required events) have no partition key.
+ */
+@UtilityClass
+public class MaterialEventPartitioner
+{
+	public static final int PARTITION_KEY_NONE = 0;
+
+	/**
+	 * @return the event's product ID or {@link #PARTITION_KEY_NONE} if the event needs to be handled after all previous events and before all later ones.
+	 */
+	public int extractPartitionKey(@NonNull final MaterialEvent event)
+	{
+		final ProductDescriptor productDescriptor = extractProductDescriptorOrNull(event);
+		if (productDescriptor == null || productDescriptor.getProductId() <= 0)
+		{
+			return PARTITION_KEY_NONE;
+		}
+		return productDescriptor.getProductId();
+	}
+
+	private ProductDescriptor extractProductDescriptorOrNull(@NonNull final MaterialEvent event)
+	{
+		if (event instanceof AbstractTransactionEvent)
+		{
+			final AbstractTransactionEvent transactionEvent = (AbstractTransactionEvent)event;
+			if (transactionEvent.getPpOrderId() > 0 || transactionEvent.getDdOrderId() > 0)
+			{
+				return null; // the handlers also update the order's candidates
+			}
+			return transactionEvent.getMaterialDescriptor();
+		}
+		else if (event instanceof AbstractReceiptScheduleEvent)
+		{
+			return ((AbstractReceiptScheduleEvent)event).getMaterialDescriptor();
+		}
+		else if (event instanceof AbstractShipmentScheduleEvent)
+		{
+			return ((AbstractShipmentScheduleEvent)event).getMaterialDescriptor();
+		}
+		else if (event instanceof AbstractStockEstimateEvent)
+		{
+			return ((AbstractStockEstimateEvent)event).getProductDescriptor();
+		}
+		else if (event instanceof StockChangedEvent)
+		{
+			return ((StockChangedEvent)event).getProductDescriptor();
+		}
+		else if (event instanceof AbstractPurchaseOfferEvent)
+		{
+			return ((AbstractPurchaseOfferEvent)event).getProductDescriptor();
+		}
+		return null;
+	}
+}
@@ -2,7 +2,12 @@ package de.metas.material.event.eventbus;
 
 import java.util.Properties;
 
+import javax.annotation.PreDestroy;
+
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.util.Env;
@@ -13,6 +18,7 @@ import org.springframework.stereotype.Service;
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventListener;
+import de.metas.event.log.EventLogUserService;
 import de.metas.logging.LogManager;
 import de.metas.material.event.MaterialEvent;
 import de.metas.material.event.MaterialEventHandlerRegistry;
@@ -47,12 +53,16 @@ public class MetasfreshEventListener
 {
 	private static final Logger logger = LogManager.getLogger(MetasfreshEventListener.class);
 
+	private static final String SYSCONFIG_PartitionedEventHandlingLanes = "de.metas.material.event.PartitionedEventHandling.Lanes";
+
 	private final MaterialEventHandlerRegistry materialEventHandlerRegistry;
 
 	private final MetasfreshEventBusService metasfreshEventBusService;
 
 	private final MaterialEventConverter materialEventConverter;
 
+	private final PartitionedMaterialEventExecutor eventExecutor;
+
 	private final IEventListener internalListener = new IEventListener()
 	{
 		@Override
@@ -68,10 +78,13 @@ public class MetasfreshEventListener
 			Env.setContext(temporaryCtx, Env.CTXNAME_AD_Client_ID, lightWeightEvent.getEventDescriptor().getClientId());
 			Env.setContext(temporaryCtx, Env.CTXNAME_AD_Org_ID, lightWeightEvent.getEventDescriptor().getOrgId());
 
-			try (final IAutoCloseable c = Env.switchContext(temporaryCtx))
-			{
-				invokeListenerInTrx(lightWeightEvent);
-			}
+			// the handling might run in one of the executor's lane threads, so we can't switch the context here already
+			eventExecutor.execute(lightWeightEvent, () -> {
+				try (final IAutoCloseable c = Env.switchContext(temporaryCtx))
+				{
+					invokeListenerInTrx(lightWeightEvent);
+				}
+			});
 		}
 
 		private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
@@ -91,12 +104,27 @@ public class MetasfreshEventListener
 	public MetasfreshEventListener(
 			@NonNull final MaterialEventHandlerRegistry materialEventHandlerRegistry,
 			@NonNull final MetasfreshEventBusService metasfreshEventBusService,
-			@NonNull final MaterialEventConverter materialEventConverter)
+			@NonNull final MaterialEventConverter materialEventConverter,
+			@NonNull final EventLogUserService eventLogUserService)
 	{
 		this.materialEventConverter = materialEventConverter;
 		this.materialEventHandlerRegistry = materialEventHandlerRegistry;
 		this.metasfreshEventBusService = metasfreshEventBusService;
 
+		// the event log collector and context of the event bus thread are not available on the lanes, so we hand them over;
+		// that way the handlers can log to the event's log and failures are stored there, just like when handling in the event bus thread
+		final int lanes = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_PartitionedEventHandlingLanes, 1);
+		this.eventExecutor = new PartitionedMaterialEventExecutor(
+				lanes,
+				eventHandling -> eventLogUserService.wrapToRunInOtherThread(MetasfreshEventListener.class, eventHandling));
+		JMXRegistry.get().registerJMX(eventExecutor, OnJMXAlreadyExistsPolicy.Replace);
+
 		this.metasfreshEventBusService.subscribe(internalListener);
 	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		eventExecutor.shutdown();
+	}
 }
@@ -0,0 +1,110 @@
+package de.metas.material.event.eventbus;
+
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.concurrent.PartitionedExecutor;
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.material.event.MaterialEvent;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs the handling of {@link MaterialEvent}s on a {@link PartitionedExecutor}.
+ * <p>
+ * An event is routed to the lane of its partition key (see {@link MaterialEventPartitioner}),
+ * so events with the same key are handled in the order they were submitted, while events with different keys can be handled in parallel.
+ * <p>
+ * An event without partition key is a barrier: it's handled in the submitting thread, after all lanes processed their already submitted events.
+ * <p>
+ * With only one lane, all events are handled directly in the submitting thread, just like without this executor.
+ */
+public class PartitionedMaterialEventExecutor implements PartitionedMaterialEventExecutorMBean, IJMXNameAware
+{
+	private final PartitionedExecutor executor;
+
+	/**
+	 * @param laneTaskDecorator see {@link PartitionedExecutor}
+	 */
+	public PartitionedMaterialEventExecutor(final int laneCount, @Nullable final UnaryOperator<Runnable> laneTaskDecorator)
+	{
+		executor = PartitionedExecutor.builder()
+				.name(PartitionedMaterialEventExecutor.class.getSimpleName())
+				.laneCount(laneCount)
+				.taskDecorator(laneTaskDecorator)
+				.build();
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.material.event:type=PartitionedMaterialEventExecutor";
+	}
+
+	public void execute(@NonNull final MaterialEvent event, @NonNull final Runnable eventHandling)
+	{
+		final int partitionKey = MaterialEventPartitioner.extractPartitionKey(event);
+		if (partitionKey == MaterialEventPartitioner.PARTITION_KEY_NONE)
+		{
+			executor.executeAsBarrier(eventHandling);
+		}
+		else
+		{
+			executor.execute(partitionKey, eventHandling);
+		}
+	}
+
+	@VisibleForTesting
+	void awaitAllLanesIdle()
+	{
+		executor.awaitAllLanesIdle();
+	}
+
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	@Override
+	public int getLaneCount()
+	{
+		return executor.getLaneCount();
+	}
+
+	@Override
+	public int[] getLaneQueueDepths()
+	{
+		return executor.getLaneQueueDepths();
+	}
+
+	@Override
+	public int getTotalQueueDepth()
+	{
+		return executor.getTotalQueueDepth();
+	}
+}
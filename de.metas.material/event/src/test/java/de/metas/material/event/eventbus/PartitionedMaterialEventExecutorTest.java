@@ -0,0 +1,123 @@
+package de.metas.material.event.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.metas.material.event.EventTestHelper;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedMaterialEventExecutorTest
+{
+	private PartitionedMaterialEventExecutor executor;
+
+	@After
+	public void shutdown()
+	{
+		if (executor != null)
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void singleLane_runsInCallingThread()
+	{
+		executor = new PartitionedMaterialEventExecutor(1, null);
+
+		final Thread callingThread = Thread.currentThread();
+		final List<Thread> handlingThreads = new ArrayList<>();
+
+		executor.execute(createEventWithProductId(10), () -> handlingThreads.add(Thread.currentThread()));
+
+		assertThat(handlingThreads).containsExactly(callingThread);
+	}
+
+	@Test
+	public void sameProduct_handledInSubmitOrder()
+	{
+		executor = new PartitionedMaterialEventExecutor(4, null);
+
+		final List<Integer> handledForProduct1 = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> handledForProduct2 = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 100; i++)
+		{
+			final int eventNo = i;
+			executor.execute(createEventWithProductId(1), () -> handledForProduct1.add(eventNo));
+			executor.execute(createEventWithProductId(2), () -> handledForProduct2.add(eventNo));
+		}
+		executor.awaitAllLanesIdle();
+
+		assertThat(handledForProduct1).hasSize(100).isSorted();
+		assertThat(handledForProduct2).hasSize(100).isSorted();
+		assertThat(executor.getTotalQueueDepth()).isZero();
+	}
+
+	@Test
+	public void eventWithoutPartitionKey_waitsForAllLanes()
+	{
+		executor = new PartitionedMaterialEventExecutor(4, null);
+
+		final AtomicInteger handledCount = new AtomicInteger(0);
+		for (int productId = 1; productId <= 8; productId++)
+		{
+			executor.execute(createEventWithProductId(productId), () -> {
+				sleep(20);
+				handledCount.incrementAndGet();
+			});
+		}
+
+		final List<Integer> handledCountSeenByBarrier = new ArrayList<>();
+		executor.execute(createEventWithProductId(0), () -> handledCountSeenByBarrier.add(handledCount.get()));
+
+		assertThat(handledCountSeenByBarrier).containsExactly(8);
+	}
+
+	private static MaterialEvent createEventWithProductId(final int productId)
+	{
+		return StockChangedEvent.builder()
+				.productDescriptor(productId > 0 ? EventTestHelper.createProductDescriptorWithProductId(productId) : null)
+				.build();
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -15,6 +15,7 @@ import javax.annotation.Nullable;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.service.IOrgDAO;
 import org.adempiere.service.OrgId;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_AD_User;
 import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_C_BPartner_Location;
@@ -24,6 +25,7 @@ import org.compiere.util.Util;
 
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.adempiere.model.I_AD_OrgInfo;
 import de.metas.adempiere.service.ICountryDAO;
@@ -130,8 +132,30 @@ public class BPartnerMasterDataProvider
 	private final CCache<CachingKey, OLCandBPartnerInfo> olCandBPartnerInfoCache = CCache
 			.<CachingKey, OLCandBPartnerInfo> builder()
 			.cacheName(this.getClass().getSimpleName() + "-olCandBPartnerInfoCache")
+			.tableName(I_C_BPartner.Table_Name)
+			.additionalTableNameToResetFor(I_C_BPartner_Location.Table_Name)
+			.additionalTableNameToResetFor(I_AD_User.Table_Name)
+			.recordRefsExtractor((key, bpartnerInfo) -> extractRecordRefs(bpartnerInfo))
 			.build();
 
+	private static ImmutableList<TableRecordReference> extractRecordRefs(final OLCandBPartnerInfo bpartnerInfo)
+	{
+		final ImmutableList.Builder<TableRecordReference> recordRefs = ImmutableList.builder();
+		if (bpartnerInfo.getBpartnerId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_C_BPartner.Table_Name, bpartnerInfo.getBpartnerId()));
+		}
+		if (bpartnerInfo.getBpartnerLocationId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_C_BPartner_Location.Table_Name, bpartnerInfo.getBpartnerLocationId()));
+		}
+		if (bpartnerInfo.getContactId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_AD_User.Table_Name, bpartnerInfo.getContactId()));
+		}
+		return recordRefs.build();
+	}
+
 	private OLCandBPartnerInfo handleBPartnerInfoWithContext(
 			@NonNull final JsonBPartnerInfo jsonBPartnerInfo,
 			@NonNull final Context context)
@@ -11,10 +11,13 @@ import javax.annotation.Nullable;
 import org.adempiere.service.OrgId;
 import org.adempiere.uom.UomId;
 import org.adempiere.uom.api.IUOMDAO;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_M_Product;
 import org.compiere.model.X_M_Product;
 import org.compiere.util.Util;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
 import de.metas.ordercandidate.rest.SyncAdvise.IfExists;
 import de.metas.ordercandidate.rest.exceptions.ProductNotFoundException;
@@ -93,6 +96,7 @@ public class ProductMasterDataProvider
 			.<CachingKey, ProductInfo> builder()
 			.cacheName(this.getClass().getSimpleName() + "-productInfoCache")
 			.tableName(I_M_Product.Table_Name)
+			.recordRefsExtractor((key, productInfo) -> ImmutableList.of(TableRecordReference.of(I_M_Product.Table_Name, productInfo.getProductId())))
 			.build();
 
 	public ProductInfo getCreateProductInfo(
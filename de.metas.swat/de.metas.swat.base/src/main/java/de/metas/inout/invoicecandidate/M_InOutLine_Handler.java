@@ -30,8 +30,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import javax.annotation.Nullable;
@@ -55,6 +57,7 @@ import org.compiere.util.Util;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 
@@ -82,6 +85,7 @@ import de.metas.order.IOrderLineBL;
 import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
 import de.metas.pricing.exceptions.ProductNotOnPriceListException;
+import de.metas.pricing.service.IPricingBL;
 import de.metas.product.ProductId;
 import de.metas.product.acct.api.ActivityId;
 import de.metas.tax.api.ITaxBL;
@@ -764,10 +768,60 @@ public class M_InOutLine_Handler extends AbstractInvoiceCandidateHandler
 		return calculatePriceAndQuantity(ic, inoutLine);
 	}
 
+	/**
+	 * Prices all given candidates with one {@link IPricingBL#calculatePrices(List)} call.
+	 * Candidates whose pricing context can't be created or which are not on a price list are skipped, so that they get their error when priced one by one.
+	 */
+	@Override
+	public Map<Integer, PriceAndTax> calculatePricesAndTaxes(@NonNull final List<I_C_Invoice_Candidate> ics)
+	{
+		final IInOutBL inOutBL = Services.get(IInOutBL.class);
+
+		final List<I_C_Invoice_Candidate> icsToPrice = new ArrayList<>(ics.size());
+		final List<IPricingContext> pricingCtxs = new ArrayList<>(ics.size());
+		for (final I_C_Invoice_Candidate ic : ics)
+		{
+			try
+			{
+				final I_M_InOutLine inoutLine = getM_InOutLine(ic);
+				pricingCtxs.add(inOutBL.createPricingCtx(inoutLine));
+				icsToPrice.add(ic);
+			}
+			catch (final RuntimeException e)
+			{
+				// skip it; calculatePriceAndTax() will fail again and the error will be set to the candidate
+			}
+		}
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final List<IPricingResult> pricingResults = Services.get(IPricingBL.class).calculatePrices(pricingCtxs);
+
+		final ImmutableMap.Builder<Integer, PriceAndTax> result = ImmutableMap.builder();
+		for (int i = 0; i < icsToPrice.size(); i++)
+		{
+			final IPricingResult pricingResult = pricingResults.get(i);
+			if (!pricingResult.isCalculated())
+			{
+				continue;
+			}
+
+			final I_C_Invoice_Candidate ic = icsToPrice.get(i);
+			result.put(ic.getC_Invoice_Candidate_ID(), createPriceAndTax(ic, pricingResult));
+		}
+		return result.build();
+	}
+
 	public static PriceAndTax calculatePriceAndQuantity(final I_C_Invoice_Candidate ic, final org.compiere.model.I_M_InOutLine inoutLine)
 	{
 		final IPricingResult pricingResult = calculatePricingResult(inoutLine);
+		return createPriceAndTax(ic, pricingResult);
+	}
 
+	private static PriceAndTax createPriceAndTax(final I_C_Invoice_Candidate ic, final IPricingResult pricingResult)
+	{
 		final boolean taxIncluded;
 		if (ic.getC_Order_ID() > 0)
 		{
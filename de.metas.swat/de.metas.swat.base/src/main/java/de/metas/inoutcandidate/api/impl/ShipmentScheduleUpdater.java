@@ -28,10 +28,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.inoutcandidate.api.IShipmentScheduleBL;
@@ -81,6 +83,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		Check.assume(running == null || running == false, "updateShipmentSchedule is not already running");
 		this.running.set(true);
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		try
 		{
 			shipmentSchedulePA.deleteSchedulesWithoutOrderLines();
@@ -93,16 +96,20 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				final Set<ShipmentScheduleId> shipmentSchedulesNewIds = shipmentSchedulesNew.stream().map(s -> ShipmentScheduleId.ofRepoId(s.getM_ShipmentSchedule_ID())).collect(ImmutableSet.toImmutableSet());
 				invalidSchedulesRepo.invalidateShipmentSchedules(shipmentSchedulesNewIds);
 			}
+			final long createMissingMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
 
 			final List<OlAndSched> collectResult = retrieveOlsAndSchedsToProcess(adPInstanceId);
+			final long retrieveMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS) - createMissingMillis;
 
 			logger.debug("Invoking shipmentScheduleBL to update {} shipment schedule entries.", collectResult.size());
 			shipmentScheduleBL.updateSchedules(ctx, collectResult, ITrx.TRXNAME_ThreadInherited);
+			final long updateMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS) - createMissingMillis - retrieveMillis;
 
 			// cleanup the marker/pointer tables
 			invalidSchedulesRepo.deleteRecomputeMarkersOutOfTrx(adPInstanceId);
 
-			logger.debug("Done");
+			logger.debug("Done: updated {} shipment schedule entries in {} (createMissing={}ms, retrieve={}ms, update={}ms)",
+					collectResult.size(), stopwatch, createMissingMillis, retrieveMillis, updateMillis);
 			return collectResult.size();
 		}
 		finally
@@ -127,6 +134,13 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		return running != null && running == true;
 	}
 
+	/**
+	 * Note that there is no need to narrow the invalid schedules down any further:
+	 * when e.g. an order line changes, {@code IShipmentScheduleInvalidateBL.invalidateSegmentForOrderLine(..)}
+	 * already invalidates just the schedules which share the line's product, warehouse and storage attributes.
+	 * Those schedules need to be recomputed together, because the qty on hand is allocated to them one after another,
+	 * so each schedule's QtyToDeliver depends on the schedules which come before it.
+	 */
 	private final List<OlAndSched> retrieveOlsAndSchedsToProcess(final PInstanceId adPinstanceId)
 	{
 		final IShipmentSchedulePA shipmentSchedulePA = Services.get(IShipmentSchedulePA.class);
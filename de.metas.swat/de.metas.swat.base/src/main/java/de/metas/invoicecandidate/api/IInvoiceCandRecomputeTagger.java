@@ -24,6 +24,7 @@ package de.metas.invoicecandidate.api;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
@@ -80,6 +81,16 @@ public interface IInvoiceCandRecomputeTagger
 	 */
 	Iterator<I_C_Invoice_Candidate> retrieveInvoiceCandidates();
 
+	/**
+	 * Retrieves the IDs of the tagged invoice candidates, split into disjoint chunks; see {@link InvoiceCandidateIdsChunk} about which of them can be updated concurrently.
+	 * 
+	 * This method assumes {@link #tag()} was called before.
+	 * 
+	 * @param manual whether to retrieve the manual or the not-manual invoice candidates; the not-manual ones need to be updated first
+	 * @param chunkSize the maximum number of invoice candidates per chunk
+	 */
+	List<InvoiceCandidateIdsChunk> retrieveInvoiceCandidateIdChunks(boolean manual, int chunkSize);
+
 	/** @param recomputeTag recompute tag to be used */
 	IInvoiceCandRecomputeTagger setRecomputeTag(final InvoiceCandRecomputeTag recomputeTag);
 
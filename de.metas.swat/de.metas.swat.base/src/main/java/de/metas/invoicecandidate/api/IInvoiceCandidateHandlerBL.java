@@ -23,6 +23,7 @@ package de.metas.invoicecandidate.api;
  */
 
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -104,6 +105,13 @@ public interface IInvoiceCandidateHandlerBL extends ISingletonService
 
 	PriceAndTax calculatePriceAndTax(I_C_Invoice_Candidate ic);
 
+	/**
+	 * Calls {@link IInvoiceCandidateHandler#calculatePricesAndTaxes(List)} of the given candidates' handlers.
+	 *
+	 * @return price and tax infos by <code>C_Invoice_Candidate_ID</code>; candidates which are not contained shall be priced one by one using {@link #calculatePriceAndTax(I_C_Invoice_Candidate)}
+	 */
+	Map<Integer, PriceAndTax> calculatePricesAndTaxes(List<I_C_Invoice_Candidate> ics);
+
 	void setC_UOM_ID(I_C_Invoice_Candidate ic);
 
 	void invalidateCandidatesFor(Object model);
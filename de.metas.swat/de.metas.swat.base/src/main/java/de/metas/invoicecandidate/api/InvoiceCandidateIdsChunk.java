@@ -0,0 +1,48 @@
+package de.metas.invoicecandidate.api;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * IDs of invoice candidates which are updated together, in one transaction.
+ * <p>
+ * Chunks with different partition keys don't share a bill partner, so they can be updated concurrently.
+ * Chunks with the same partition key contain candidates of the same bill partner and need to be updated one after another.
+ */
+@Value
+public class InvoiceCandidateIdsChunk
+{
+	public static InvoiceCandidateIdsChunk of(@NonNull final String partitionKey, @NonNull final List<Integer> invoiceCandidateIds)
+	{
+		return new InvoiceCandidateIdsChunk(partitionKey, ImmutableList.copyOf(invoiceCandidateIds));
+	}
+
+	String partitionKey;
+	ImmutableList<Integer> invoiceCandidateIds;
+}
@@ -32,6 +32,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -75,6 +76,7 @@ import org.slf4j.Logger;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import ch.qos.logback.classic.Level;
 import de.metas.aggregation.model.I_C_Aggregation;
@@ -95,6 +97,7 @@ import de.metas.invoicecandidate.api.IInvoiceCandUpdateSchedulerRequest;
 import de.metas.invoicecandidate.api.IInvoiceCandUpdateSchedulerService;
 import de.metas.invoicecandidate.api.IInvoiceCandidateQuery;
 import de.metas.invoicecandidate.api.InvoiceCandRecomputeTag;
+import de.metas.invoicecandidate.api.InvoiceCandidateIdsChunk;
 import de.metas.invoicecandidate.api.InvoiceCandidate_Constants;
 import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
@@ -109,6 +112,7 @@ import de.metas.process.IADPInstanceDAO;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
 import de.metas.util.Loggables;
+import de.metas.util.NumberUtils;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
@@ -843,6 +847,77 @@ public class InvoiceCandDAO implements IInvoiceCandDAO
 				.iterate(I_C_Invoice_Candidate.class);
 	}
 
+	/**
+	 * Splits the invoice candidates which are tagged with given tag into disjoint chunks of at most {@code chunkSize} IDs.
+	 * <p>
+	 * The candidates of bill partners with up to {@code chunkSize} candidates are packed together into chunks, without splitting any bill partner.
+	 * The candidates of a bill partner with more candidates are spread over several chunks which only contain that partner and share one partition key,
+	 * so that they can be updated one after another, while chunks with different partition keys don't compete for the same partner related records.
+	 *
+	 * @param manual if {@code true}, only manual candidates are returned, else only not-manual ones (see {@link #fetchInvalidInvoiceCandidates(Properties, InvoiceCandRecomputeTag, String)} about why they need to be updated separately)
+	 */
+	/* package */ final List<InvoiceCandidateIdsChunk> retrieveInvalidInvoiceCandidateIdChunks(
+			final Properties ctx,
+			@NonNull final InvoiceCandRecomputeTag recomputeTag,
+			final boolean manual,
+			final int chunkSize,
+			final String trxName)
+	{
+		Check.assume(chunkSize > 0, "chunkSize > 0");
+
+		final List<Map<String, Object>> rows = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Invoice_Candidate_Recompute.class, ctx, trxName)
+				.addEqualsFilter(I_C_Invoice_Candidate_Recompute.COLUMN_AD_PInstance_ID, recomputeTag.getPinstanceId())
+				.andCollect(I_C_Invoice_Candidate_Recompute.COLUMN_C_Invoice_Candidate_ID)
+				.addOnlyContextClient()
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_Invoice_Candidate.COLUMN_IsManual, manual)
+				.orderBy()
+				.addColumn(I_C_Invoice_Candidate.COLUMN_Bill_BPartner_ID)
+				.addColumn(I_C_Invoice_Candidate.COLUMN_C_Invoice_Candidate_ID)
+				.endOrderBy()
+				.create()
+				.listColumns(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID, I_C_Invoice_Candidate.COLUMNNAME_Bill_BPartner_ID);
+
+		// the rows are ordered by bill partner, so we can group them in one pass
+		final Map<Integer, List<Integer>> invoiceCandidateIdsByBPartnerId = new LinkedHashMap<>();
+		for (final Map<String, Object> row : rows)
+		{
+			final int invoiceCandidateId = NumberUtils.asInt(row.get(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID), -1);
+			final int bpartnerId = NumberUtils.asInt(row.get(I_C_Invoice_Candidate.COLUMNNAME_Bill_BPartner_ID), -1);
+			invoiceCandidateIdsByBPartnerId.computeIfAbsent(bpartnerId, k -> new ArrayList<>()).add(invoiceCandidateId);
+		}
+
+		final List<InvoiceCandidateIdsChunk> chunks = new ArrayList<>();
+		final List<Integer> currentChunk = new ArrayList<>();
+		for (final Map.Entry<Integer, List<Integer>> bpartnerIdAndInvoiceCandidateIds : invoiceCandidateIdsByBPartnerId.entrySet())
+		{
+			final List<Integer> bpartnerInvoiceCandidateIds = bpartnerIdAndInvoiceCandidateIds.getValue();
+			if (bpartnerInvoiceCandidateIds.size() > chunkSize)
+			{
+				final String partitionKey = "BPartner_" + bpartnerIdAndInvoiceCandidateIds.getKey();
+				for (final List<Integer> partition : Lists.partition(bpartnerInvoiceCandidateIds, chunkSize))
+				{
+					chunks.add(InvoiceCandidateIdsChunk.of(partitionKey, partition));
+				}
+				continue;
+			}
+
+			if (currentChunk.size() + bpartnerInvoiceCandidateIds.size() > chunkSize)
+			{
+				chunks.add(InvoiceCandidateIdsChunk.of("Chunk_" + currentChunk.get(0), currentChunk));
+				currentChunk.clear();
+			}
+			currentChunk.addAll(bpartnerInvoiceCandidateIds);
+		}
+		if (!currentChunk.isEmpty())
+		{
+			chunks.add(InvoiceCandidateIdsChunk.of("Chunk_" + currentChunk.get(0), currentChunk));
+		}
+
+		return chunks;
+	}
+
 	@Override
 	public InvoiceCandRecomputeTag generateNewRecomputeTag()
 	{
@@ -27,7 +27,13 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.processor.api.FailTrxItemExceptionHandler;
@@ -38,9 +44,15 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.concurrent.PartitionedExecutor;
 import org.adempiere.util.lang.IContextAware;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import ch.qos.logback.classic.Level;
 import de.metas.inout.IInOutDAO;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
@@ -48,6 +60,7 @@ import de.metas.invoicecandidate.api.IInvoiceCandInvalidUpdater;
 import de.metas.invoicecandidate.api.IInvoiceCandRecomputeTagger;
 import de.metas.invoicecandidate.api.IInvoiceCandidateHandlerBL;
 import de.metas.invoicecandidate.api.InvoiceCandRecomputeTag;
+import de.metas.invoicecandidate.api.InvoiceCandidateIdsChunk;
 import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
 import de.metas.invoicecandidate.model.I_M_InOutLine;
@@ -55,6 +68,7 @@ import de.metas.invoicecandidate.spi.IInvoiceCandidateHandler.PriceAndTax;
 import de.metas.lock.api.ILock;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
+import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -73,15 +87,32 @@ import lombok.NonNull;
 	private final transient ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
 	private final transient ITrxItemProcessorExecutorService trxItemProcessorExecutorService = Services.get(ITrxItemProcessorExecutorService.class);
+	private final transient IQueryBL queryBL = Services.get(IQueryBL.class);
 
-	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
+	@VisibleForTesting
+	static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
 	private static final int DEFAULT_ItemsPerBatch = 100;
 
+	/**
+	 * How many chunks shall be updated concurrently; with 1 (the default), all chunks are updated one after another in the caller's thread.
+	 * The number of worker lanes is taken from this value when the parallel update runs for the first time, so changing it later needs a restart.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_Parallelism = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.Parallelism";
+	private static final int DEFAULT_Parallelism = 1;
+
+	/** Shared by all updaters, so that concurrent updates together don't use more threads than configured. */
+	private static final Supplier<PartitionedExecutor> sharedExecutor = Suppliers.memoize(() -> PartitionedExecutor.builder()
+			.name(InvoiceCandInvalidUpdater.class.getSimpleName())
+			.laneCount(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism))
+			.build());
+
 	//
 	// Parameters
 	private Properties _ctx;
 	private String _trxName;
 	private final IInvoiceCandRecomputeTagger icTagger;
+	private PartitionedExecutor _executor;
 
 	//
 	// State
@@ -144,6 +175,15 @@ import lombok.NonNull;
 		final boolean processInBatches = !icTagger.isOnlyC_Invoice_Candidate_IDs();
 		final int itemsPerBatch = processInBatches ? getItemsPerBatch() : Integer.MAX_VALUE;
 
+		//
+		// If we manage the transactions ourselves, we can also update the chunks concurrently, each one in its own transaction
+		final boolean parallel = processInBatches && trxManager.isNull(_trxName) && getParallelism() > 1;
+		if (parallel)
+		{
+			updateTaggedInParallel(itemsPerBatch);
+			return;
+		}
+
 		//
 		// Fetch the invoice candidates to update
 		final Iterator<I_C_Invoice_Candidate> candidatesToUpdate = icTagger.retrieveInvoiceCandidates();
@@ -182,7 +222,7 @@ import lombok.NonNull;
 						{
 							chunkInvoiceCandidateIds.add(ic.getC_Invoice_Candidate_ID());
 
-							updateInvalid(ic);
+							updateInvalid(ic, null);
 							if (!ic.isError())
 							{
 								result.addInvoiceCandidate(ic);
@@ -235,7 +275,160 @@ import lombok.NonNull;
 		Loggables.get().addLog("Update invalid result: {}", result.getSummary());
 	}
 
-	private final void updateInvalid(final I_C_Invoice_Candidate ic)
+	/**
+	 * Update all invoice candidates which were tagged, by splitting them into disjoint chunks and updating those chunks on the {@link #sharedExecutor}.
+	 * <p>
+	 * The not-manual candidates are updated first, because the manual ones need their NetAmtToInvoice (see {@link IInvoiceCandDAO#fetchInvalidInvoiceCandidates(Properties, InvoiceCandRecomputeTag, String)}).
+	 */
+	private void updateTaggedInParallel(final int itemsPerBatch)
+	{
+		final ICUpdateResult result = new ICUpdateResult();
+
+		final boolean manual = true;
+		updateChunksInParallel(icTagger.retrieveInvoiceCandidateIdChunks(!manual, itemsPerBatch), result);
+		updateChunksInParallel(icTagger.retrieveInvoiceCandidateIdChunks(manual, itemsPerBatch), result);
+
+		//
+		// Log the result
+		Loggables.get().addLog("Update invalid result (lanes={}): {}", getExecutor().getLaneCount(), result.getSummary());
+	}
+
+	/** Submits the given chunks and waits until all of them are updated. */
+	private void updateChunksInParallel(
+			@NonNull final List<InvoiceCandidateIdsChunk> chunks,
+			@NonNull final ICUpdateResult result)
+	{
+		final Properties ctx = getCtx();
+		final ILoggable loggable = createWorkersLoggable(Loggables.get());
+		final PartitionedExecutor executor = getExecutor();
+
+		final List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+		for (final InvoiceCandidateIdsChunk chunk : chunks)
+		{
+			// the executor only logs the exceptions of its lanes, so we need to record the outcome of each chunk ourselves
+			final CompletableFuture<Void> future = new CompletableFuture<>();
+			futures.add(future);
+
+			executor.execute(chunk.getPartitionKey(), () -> {
+				try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx);
+						final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable);
+						final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+				{
+					updateChunk(ctx, chunk.getInvoiceCandidateIds(), result);
+					future.complete(null);
+				}
+				catch (final Exception ex)
+				{
+					future.completeExceptionally(ex);
+				}
+			});
+		}
+
+		AdempiereException firstException = null;
+		for (final Future<?> future : futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (final ExecutionException ex)
+			{
+				// wait for the other chunks anyways; each of them was committed on its own
+				final AdempiereException chunkException = AdempiereException.wrapIfNeeded(ex.getCause());
+				if (firstException == null)
+				{
+					firstException = chunkException;
+				}
+				else
+				{
+					firstException.addSuppressed(chunkException);
+				}
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+		}
+
+		if (firstException != null)
+		{
+			throw firstException;
+		}
+	}
+
+	/** @return a loggable for the workers which forwards to the caller's loggable; the latter is not necessarily thread-safe, so we synchronize on it */
+	private static ILoggable createWorkersLoggable(@NonNull final ILoggable callerLoggable)
+	{
+		return (msg, msgParameters) -> {
+			synchronized (callerLoggable)
+			{
+				callerLoggable.addLog(msg, msgParameters);
+			}
+			return callerLoggable;
+		};
+	}
+
+	private PartitionedExecutor getExecutor()
+	{
+		return _executor != null ? _executor : sharedExecutor.get();
+	}
+
+	@VisibleForTesting
+	InvoiceCandInvalidUpdater setExecutor(@Nullable final PartitionedExecutor executor)
+	{
+		_executor = executor;
+		return this;
+	}
+
+	/**
+	 * Updates the given invoice candidates in a new transaction, like one chunk of {@link #updateTagged()} is updated.
+	 */
+	private void updateChunk(
+			@NonNull final Properties ctx,
+			@NonNull final List<Integer> chunkInvoiceCandidateIds,
+			@NonNull final ICUpdateResult result)
+	{
+		final ICTrxItemExceptionHandler exceptionHandler = new ICTrxItemExceptionHandler(result);
+
+		trxManager.runInNewTrx(() -> {
+			final List<I_C_Invoice_Candidate> ics = queryBL.createQueryBuilder(I_C_Invoice_Candidate.class, ctx, ITrx.TRXNAME_ThreadInherited)
+					.addInArrayFilter(I_C_Invoice_Candidate.COLUMN_C_Invoice_Candidate_ID, chunkInvoiceCandidateIds)
+					.orderBy().addColumn(I_C_Invoice_Candidate.COLUMN_C_Invoice_Candidate_ID).endOrderBy()
+					.create()
+					.list(I_C_Invoice_Candidate.class);
+
+			final InvoiceCandInvalidUpdaterChunkData chunkData = InvoiceCandInvalidUpdaterChunkData.prefetch(ics);
+
+			for (final I_C_Invoice_Candidate ic : ics)
+			{
+				// same as OnItemErrorPolicy.ContinueChunkAndCommit in updateTagged()
+				try
+				{
+					updateInvalid(ic, chunkData);
+					if (!ic.isError())
+					{
+						result.addInvoiceCandidate(ic);
+					}
+					else
+					{
+						result.incrementErrorsCount();
+					}
+				}
+				catch (final Exception ex)
+				{
+					exceptionHandler.onItemError(ex, ic);
+				}
+			}
+		});
+
+		icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
+	}
+
+	/**
+	 * @param chunkData prefetched data of the chunk which the given invoice candidate belongs to; if <code>null</code>, that data is retrieved just for the given invoice candidate
+	 */
+	private final void updateInvalid(final I_C_Invoice_Candidate ic, @Nullable final InvoiceCandInvalidUpdaterChunkData chunkData)
 	{
 		final Properties ctx = InterfaceWrapperHelper.getCtx(ic);
 
@@ -266,7 +459,7 @@ import lombok.NonNull;
 		// Note: the code originally related to task 06502 has partially been moved to de.metas.invoicecandidate.modelvalidator.M_InoutLine
 		// we'll need those icIols to be up to date to date in order to have QtyWithIssues (updateQtyWithIssues() et al. further down),
 		// and we need them (depending on which handler) for setDeliveredData()
-		populateC_InvoiceCandidate_InOutLine(ic, ic.getC_OrderLine());
+		populateC_InvoiceCandidate_InOutLine(ic, ic.getC_OrderLine(), chunkData);
 
 		// updating qty delivered
 		// 07814-IT2 only from now on we have the correct QtyDelivered
@@ -279,7 +472,8 @@ import lombok.NonNull;
 		{
 			try
 			{
-				final PriceAndTax priceAndTax = invoiceCandidateHandlerBL.calculatePriceAndTax(ic);
+				final PriceAndTax prefetchedPriceAndTax = chunkData != null ? chunkData.getPriceAndTaxOrNull(ic) : null;
+				final PriceAndTax priceAndTax = prefetchedPriceAndTax != null ? prefetchedPriceAndTax : invoiceCandidateHandlerBL.calculatePriceAndTax(ic);
 				IInvoiceCandInvalidUpdater.updatePriceAndTax(ic, priceAndTax);
 			}
 			catch (final Exception ex)
@@ -350,8 +544,12 @@ import lombok.NonNull;
 	 *
 	 * @param ic
 	 * @param orderLine
+	 * @param chunkData optional prefetched inout lines and links
 	 */
-	private void populateC_InvoiceCandidate_InOutLine(final I_C_Invoice_Candidate ic, final org.compiere.model.I_C_OrderLine orderLine)
+	private void populateC_InvoiceCandidate_InOutLine(
+			final I_C_Invoice_Candidate ic,
+			final org.compiere.model.I_C_OrderLine orderLine,
+			@Nullable final InvoiceCandInvalidUpdaterChunkData chunkData)
 	{
 		if (orderLine == null)
 		{
@@ -360,10 +558,15 @@ import lombok.NonNull;
 
 		final IContextAware context = InterfaceWrapperHelper.getContextAware(ic);
 
-		final List<I_M_InOutLine> inoutLines = inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+		final List<I_M_InOutLine> inoutLines = chunkData != null
+				? chunkData.getInOutLines(orderLine)
+				: inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
 		for (final I_M_InOutLine inOutLine : inoutLines)
 		{
-			if (invoiceCandDAO.existsInvoiceCandidateInOutLinesForInvoiceCandidate(ic, inOutLine))
+			final boolean iciolExists = chunkData != null
+					? chunkData.existsInvoiceCandidateInOutLine(ic, inOutLine)
+					: invoiceCandDAO.existsInvoiceCandidateInOutLinesForInvoiceCandidate(ic, inOutLine);
+			if (iciolExists)
 			{
 				continue; // nothing to to, record already exists
 			}
@@ -483,8 +686,13 @@ import lombok.NonNull;
 		return sysConfigBL.getIntValue(SYSCONFIG_ItemsPerBatch, DEFAULT_ItemsPerBatch);
 	}
 
+	private final int getParallelism()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism);
+	}
+
 	/**
-	 * IC update result.
+	 * IC update result. Thread-safe, because it's shared by the workers of {@link InvoiceCandInvalidUpdater#updateTaggedInParallel(int)}.
 	 *
 	 * @author metas-dev <dev@metasfresh.com>
 	 *
@@ -494,12 +702,12 @@ import lombok.NonNull;
 		private int countOk = 0;
 		private int countErrors = 0;
 
-		public final void addInvoiceCandidate(final I_C_Invoice_Candidate ic)
+		public final synchronized void addInvoiceCandidate(final I_C_Invoice_Candidate ic)
 		{
 			countOk++;
 		}
 
-		public void incrementErrorsCount()
+		public synchronized void incrementErrorsCount()
 		{
 			countErrors++;
 		}
@@ -510,7 +718,7 @@ import lombok.NonNull;
 			return getSummary();
 		}
 
-		public String getSummary()
+		public synchronized String getSummary()
 		{
 			return "Updated " + countOk + " invoice candidates, " + countErrors + " errors";
 		}
@@ -0,0 +1,163 @@
+package de.metas.invoicecandidate.api.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.model.I_C_OrderLine;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimaps;
+
+import de.metas.invoicecandidate.api.IInvoiceCandidateHandlerBL;
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+import de.metas.invoicecandidate.spi.IInvoiceCandidateHandler.PriceAndTax;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Data which {@link InvoiceCandInvalidUpdater} needs to update a chunk of invoice candidates, loaded with a few queries for the whole chunk
+ * instead of a couple of queries for each invoice candidate.
+ */
+/* package */ final class InvoiceCandInvalidUpdaterChunkData
+{
+	/**
+	 * Loads the chunk data and also sets the loaded order lines to the given invoice candidates, so that {@link I_C_Invoice_Candidate#getC_OrderLine()} won't load them one by one.
+	 */
+	public static InvoiceCandInvalidUpdaterChunkData prefetch(@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		if (invoiceCandidates.isEmpty())
+		{
+			return new InvoiceCandInvalidUpdaterChunkData(ImmutableListMultimap.of(), ImmutableSetMultimap.of(), ImmutableMap.of());
+		}
+
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+		final IContextAware context = InterfaceWrapperHelper.getContextAware(invoiceCandidates.get(0));
+
+		//
+		// Order lines
+		final Set<Integer> orderLineIds = invoiceCandidates.stream()
+				.map(I_C_Invoice_Candidate::getC_OrderLine_ID)
+				.filter(orderLineId -> orderLineId > 0)
+				.collect(ImmutableSet.toImmutableSet());
+		if (!orderLineIds.isEmpty())
+		{
+			final Map<Integer, I_C_OrderLine> orderLinesById = queryBL.createQueryBuilder(I_C_OrderLine.class, context)
+					.addInArrayFilter(I_C_OrderLine.COLUMNNAME_C_OrderLine_ID, orderLineIds)
+					.create()
+					.mapById(I_C_OrderLine.class);
+			for (final I_C_Invoice_Candidate ic : invoiceCandidates)
+			{
+				final I_C_OrderLine orderLine = orderLinesById.get(ic.getC_OrderLine_ID());
+				if (orderLine != null)
+				{
+					ic.setC_OrderLine(orderLine);
+				}
+			}
+		}
+
+		//
+		// InOut lines of those order lines; same filtering and ordering as IInOutDAO.retrieveLinesForOrderLine()
+		final ImmutableListMultimap<Integer, I_M_InOutLine> inoutLinesByOrderLineId;
+		if (orderLineIds.isEmpty())
+		{
+			inoutLinesByOrderLineId = ImmutableListMultimap.of();
+		}
+		else
+		{
+			final List<I_M_InOutLine> inoutLines = queryBL.createQueryBuilder(org.compiere.model.I_M_InOutLine.class, context)
+					.addInArrayFilter(org.compiere.model.I_M_InOutLine.COLUMNNAME_C_OrderLine_ID, orderLineIds)
+					.addOnlyActiveRecordsFilter()
+					.orderBy().addColumn(org.compiere.model.I_M_InOutLine.COLUMNNAME_M_InOutLine_ID).endOrderBy()
+					.create()
+					.list(I_M_InOutLine.class);
+			inoutLinesByOrderLineId = Multimaps.index(inoutLines, I_M_InOutLine::getC_OrderLine_ID);
+		}
+
+		//
+		// Existing invoice candidate - inout line links
+		final Set<Integer> invoiceCandidateIds = invoiceCandidates.stream()
+				.map(I_C_Invoice_Candidate::getC_Invoice_Candidate_ID)
+				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableSetMultimap<Integer, Integer> inoutLineIdsByInvoiceCandidateId = queryBL.createQueryBuilder(I_C_InvoiceCandidate_InOutLine.class, context)
+				.addInArrayFilter(I_C_InvoiceCandidate_InOutLine.COLUMN_C_Invoice_Candidate_ID, invoiceCandidateIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.stream(I_C_InvoiceCandidate_InOutLine.class)
+				.collect(ImmutableSetMultimap.toImmutableSetMultimap(
+						I_C_InvoiceCandidate_InOutLine::getC_Invoice_Candidate_ID,
+						I_C_InvoiceCandidate_InOutLine::getM_InOutLine_ID));
+
+		//
+		// Prices of the candidates which are not approved for invoicing; see IInvoiceCandidateHandler.calculatePricesAndTaxes()
+		final List<I_C_Invoice_Candidate> invoiceCandidatesToPrice = invoiceCandidates.stream()
+				.filter(ic -> !ic.isApprovalForInvoicing())
+				.collect(ImmutableList.toImmutableList());
+		final Map<Integer, PriceAndTax> priceAndTaxByInvoiceCandidateId = Services.get(IInvoiceCandidateHandlerBL.class).calculatePricesAndTaxes(invoiceCandidatesToPrice);
+
+		return new InvoiceCandInvalidUpdaterChunkData(inoutLinesByOrderLineId, inoutLineIdsByInvoiceCandidateId, ImmutableMap.copyOf(priceAndTaxByInvoiceCandidateId));
+	}
+
+	private final ImmutableListMultimap<Integer, I_M_InOutLine> inoutLinesByOrderLineId;
+	private final ImmutableSetMultimap<Integer, Integer> inoutLineIdsByInvoiceCandidateId;
+	private final ImmutableMap<Integer, PriceAndTax> priceAndTaxByInvoiceCandidateId;
+
+	private InvoiceCandInvalidUpdaterChunkData(
+			@NonNull final ImmutableListMultimap<Integer, I_M_InOutLine> inoutLinesByOrderLineId,
+			@NonNull final ImmutableSetMultimap<Integer, Integer> inoutLineIdsByInvoiceCandidateId,
+			@NonNull final ImmutableMap<Integer, PriceAndTax> priceAndTaxByInvoiceCandidateId)
+	{
+		this.inoutLinesByOrderLineId = inoutLinesByOrderLineId;
+		this.inoutLineIdsByInvoiceCandidateId = inoutLineIdsByInvoiceCandidateId;
+		this.priceAndTaxByInvoiceCandidateId = priceAndTaxByInvoiceCandidateId;
+	}
+
+	public List<I_M_InOutLine> getInOutLines(@NonNull final I_C_OrderLine orderLine)
+	{
+		return inoutLinesByOrderLineId.get(orderLine.getC_OrderLine_ID());
+	}
+
+	public boolean existsInvoiceCandidateInOutLine(@NonNull final I_C_Invoice_Candidate ic, @NonNull final I_M_InOutLine inoutLine)
+	{
+		return inoutLineIdsByInvoiceCandidateId.containsEntry(ic.getC_Invoice_Candidate_ID(), inoutLine.getM_InOutLine_ID());
+	}
+
+	/**
+	 * @return the prefetched price and tax infos or <code>null</code> if the given invoice candidate's handler did not price it together with the chunk
+	 */
+	public PriceAndTax getPriceAndTaxOrNull(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		return priceAndTaxByInvoiceCandidateId.get(ic.getC_Invoice_Candidate_ID());
+	}
+}
@@ -25,6 +25,7 @@ package de.metas.invoicecandidate.api.impl;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -32,6 +33,7 @@ import com.google.common.collect.ImmutableSet;
 
 import de.metas.invoicecandidate.api.IInvoiceCandRecomputeTagger;
 import de.metas.invoicecandidate.api.InvoiceCandRecomputeTag;
+import de.metas.invoicecandidate.api.InvoiceCandidateIdsChunk;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
 import de.metas.lock.api.ILock;
 import de.metas.util.Check;
@@ -114,6 +116,12 @@ import lombok.ToString;
 		return invoiceCandidates;
 	}
 
+	@Override
+	public List<InvoiceCandidateIdsChunk> retrieveInvoiceCandidateIdChunks(final boolean manual, final int chunkSize)
+	{
+		return invoiceCandDAO.retrieveInvalidInvoiceCandidateIdChunks(getCtx(), getRecomputeTag(), manual, chunkSize, getTrxName());
+	}
+
 	@Override
 	public IInvoiceCandRecomputeTagger setContext(final Properties ctx, final String trxName)
 	{
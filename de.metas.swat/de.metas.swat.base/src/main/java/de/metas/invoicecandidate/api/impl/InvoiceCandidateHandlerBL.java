@@ -39,7 +39,10 @@ import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Multimaps;
 
 import ch.qos.logback.classic.Level;
 import de.metas.cache.model.impl.TableRecordCacheLocal;
@@ -349,19 +352,26 @@ public class InvoiceCandidateHandlerBL implements IInvoiceCandidateHandlerBL
 	private void updateDefaultsAndSave(final InvoiceCandidateGenerateResult result)
 	{
 		final IInvoiceCandidateHandler handler = result.getHandler();
+		final List<I_C_Invoice_Candidate> invoiceCandidates = result.getC_Invoice_Candidates();
 
-		for (final I_C_Invoice_Candidate ic : result.getC_Invoice_Candidates())
+		for (final I_C_Invoice_Candidate ic : invoiceCandidates)
 		{
-			updateDefaultsAndSaveSingleCandidate(handler, ic);
+			updateDefaults(handler, ic);
+		}
+
+		// Save them all together, so the new candidates' IDs are allocated in one go
+		InterfaceWrapperHelper.saveAll(invoiceCandidates);
+
+		for (final I_C_Invoice_Candidate ic : invoiceCandidates)
+		{
+			notifyReferencedModel(ic);
 		}
 	}
 
-	private void updateDefaultsAndSaveSingleCandidate(
+	private void updateDefaults(
 			@NonNull final IInvoiceCandidateHandler handler,
 			@NonNull final I_C_Invoice_Candidate ic)
 	{
-		Check.assumeNotNull(handler, "handler not null");
-
 		//
 		// Make sure there is a link to creator/handler.
 		// We are setting the handler only if it was not set because it might be that the handler was set by a delegated handler which is not this one.
@@ -377,10 +387,10 @@ public class InvoiceCandidateHandlerBL implements IInvoiceCandidateHandlerBL
 			final int adUserInChargeId = handler.getAD_User_InCharge_ID(ic);
 			ic.setAD_User_InCharge_ID(adUserInChargeId);
 		}
+	}
 
-		// Save it
-		InterfaceWrapperHelper.save(ic);
-
+	private void notifyReferencedModel(@NonNull final I_C_Invoice_Candidate ic)
+	{
 		// task 05791: notify the system whenever this new ic references an existing PO
 		final Object fromModel = TableRecordCacheLocal.getReferencedValue(ic, Object.class);
 		if (fromModel != null)
@@ -518,6 +528,34 @@ public class InvoiceCandidateHandlerBL implements IInvoiceCandidateHandlerBL
 		return handler.calculatePriceAndTax(ic);
 	}
 
+	@Override
+	public Map<Integer, PriceAndTax> calculatePricesAndTaxes(@NonNull final List<I_C_Invoice_Candidate> ics)
+	{
+		if (ics.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableListMultimap<Integer, I_C_Invoice_Candidate> icsByHandlerId = Multimaps.index(ics, I_C_Invoice_Candidate::getC_ILCandHandler_ID);
+
+		final Map<Integer, PriceAndTax> result = new HashMap<>();
+		for (final Integer handlerId : icsByHandlerId.keySet())
+		{
+			final List<I_C_Invoice_Candidate> handlerIcs = icsByHandlerId.get(handlerId);
+			try
+			{
+				final IInvoiceCandidateHandler handler = createInvoiceCandidateHandler(handlerIcs.get(0));
+				result.putAll(handler.calculatePricesAndTaxes(handlerIcs));
+			}
+			catch (final RuntimeException e)
+			{
+				// the candidates will be priced one by one; if it fails again, the error is set to the respective candidate
+				logger.warn("Failed calculating the prices of {} invoice candidates with C_ILCandHandler_ID={}; they will be priced one by one", handlerIcs.size(), handlerId, e);
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void setBPartnerData(@NonNull final I_C_Invoice_Candidate ic)
 	{
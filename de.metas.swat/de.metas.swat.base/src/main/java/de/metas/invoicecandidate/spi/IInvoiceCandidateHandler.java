@@ -26,12 +26,14 @@ import java.math.BigDecimal;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.adempiere.ad.modelvalidator.DocTimingType;
 import org.adempiere.model.InterfaceWrapperHelper;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
 import de.metas.invoicecandidate.api.IInvoiceCandidateHandlerBL;
@@ -244,6 +246,19 @@ public interface IInvoiceCandidateHandler
 		return PriceAndTax.NONE;
 	}
 
+	/**
+	 * Calculates the prices of many invoice candidates at once, e.g. using {@link de.metas.pricing.service.IPricingBL#calculatePrices(List)}.
+	 * <p>
+	 * Called before the given candidates are updated one by one. So implement it only if {@link #calculatePriceAndTax(I_C_Invoice_Candidate)}
+	 * does not depend on what is updated before, like e.g. the delivered data.
+	 *
+	 * @return price and tax infos by <code>C_Invoice_Candidate_ID</code>; candidates which are not contained will be priced using {@link #calculatePriceAndTax(I_C_Invoice_Candidate)}
+	 */
+	default Map<Integer, PriceAndTax> calculatePricesAndTaxes(@NonNull final List<I_C_Invoice_Candidate> ics)
+	{
+		return ImmutableMap.of();
+	}
+
 	/**
 	 * * Method responsible for setting
 	 * <ul>
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.adempiere.util.lang.impl.TableRecordReference;
@@ -26,6 +27,7 @@ import de.metas.material.cockpit.stock.StockDataItem;
 import de.metas.material.cockpit.stock.StockDataMultiQuery;
 import de.metas.material.cockpit.stock.StockDataQuery;
 import de.metas.material.cockpit.stock.StockRepository;
+import de.metas.material.event.commons.AttributesKey;
 import de.metas.product.ProductId;
 import de.metas.util.Services;
 
@@ -46,7 +48,17 @@ public class ShipmentScheduleQtyOnHandStorage
 			@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules,
 			@NonNull final StockRepository stockRepository)
 	{
-		stockDetails = createStockDetailsFromShipmentSchedules(shipmentSchedules, stockRepository);
+		this(shipmentSchedules, multiQuery -> stockRepository.streamStockDataItems(multiQuery).collect(ImmutableList.toImmutableList()));
+	}
+
+	/**
+	 * @param stockDataItemsLoader loads the stock data which match the given queries; might also return items which don't match
+	 */
+	public ShipmentScheduleQtyOnHandStorage(
+			@NonNull final List<I_M_ShipmentSchedule> shipmentSchedules,
+			@NonNull final Function<StockDataMultiQuery, List<StockDataItem>> stockDataItemsLoader)
+	{
+		stockDetails = createStockDetailsFromShipmentSchedules(shipmentSchedules, stockDataItemsLoader);
 	}
 
 	@Override
@@ -59,7 +71,7 @@ public class ShipmentScheduleQtyOnHandStorage
 
 	private final List<ShipmentScheduleAvailableStockDetail> createStockDetailsFromShipmentSchedules(
 			final List<I_M_ShipmentSchedule> shipmentSchedules,
-			final StockRepository stockRepository)
+			final Function<StockDataMultiQuery, List<StockDataItem>> stockDataItemsLoader)
 	{
 		if (shipmentSchedules.isEmpty())
 		{
@@ -71,9 +83,7 @@ public class ShipmentScheduleQtyOnHandStorage
 			return ImmutableList.of();
 		}
 
-		final List<StockDataItem> stockResult = stockRepository
-				.streamStockDataItems(multiQuery)
-				.collect(ImmutableList.toImmutableList());
+		final List<StockDataItem> stockResult = stockDataItemsLoader.apply(multiQuery);
 
 		return createStockDetails(stockResult);
 	}
@@ -161,10 +171,24 @@ public class ShipmentScheduleQtyOnHandStorage
 	}
 
 	private static boolean matching(final StockDataQuery query, final ShipmentScheduleAvailableStockDetail stockDetail)
+	{
+		return matching(query, stockDetail.getProductId(), stockDetail.getWarehouseId(), stockDetail.getStorageAttributesKey());
+	}
+
+	/* package */ static boolean matching(final StockDataQuery query, final StockDataItem stockDataItem)
+	{
+		return matching(query, stockDataItem.getProductId(), stockDataItem.getWarehouseId(), stockDataItem.getStorageAttributesKey());
+	}
+
+	private static boolean matching(
+			final StockDataQuery query,
+			final ProductId productId,
+			final WarehouseId warehouseId,
+			final AttributesKey storageAttributesKey)
 	{
 		//
 		// Product
-		if (!Objects.equals(query.getProductId(), stockDetail.getProductId()))
+		if (!Objects.equals(query.getProductId(), productId))
 		{
 			return false;
 		}
@@ -172,13 +196,13 @@ public class ShipmentScheduleQtyOnHandStorage
 		//
 		// Warehouse
 		final Set<WarehouseId> queryWarehouseIds = query.getWarehouseIds();
-		if (!queryWarehouseIds.isEmpty() && !queryWarehouseIds.contains(stockDetail.getWarehouseId()))
+		if (!queryWarehouseIds.isEmpty() && !queryWarehouseIds.contains(warehouseId))
 		{
 			return false;
 		}
 
 		final boolean queryMatchesAll = query.getStorageAttributesKey().isAll();
-		final boolean queryMatchesStockDetail = Objects.equals(query.getStorageAttributesKey(), stockDetail.getStorageAttributesKey());
+		final boolean queryMatchesStockDetail = Objects.equals(query.getStorageAttributesKey(), storageAttributesKey);
 		if (!queryMatchesAll && !queryMatchesStockDetail)
 		{
 			return false;
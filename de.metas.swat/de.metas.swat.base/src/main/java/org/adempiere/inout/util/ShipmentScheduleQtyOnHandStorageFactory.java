@@ -2,14 +2,23 @@ package org.adempiere.inout.util;
 
 import lombok.NonNull;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
+import de.metas.cache.CCache;
 import de.metas.inoutcandidate.api.OlAndSched;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.material.cockpit.model.I_MD_Stock;
+import de.metas.material.cockpit.stock.StockDataItem;
+import de.metas.material.cockpit.stock.StockDataMultiQuery;
+import de.metas.material.cockpit.stock.StockDataQuery;
 import de.metas.material.cockpit.stock.StockRepository;
 
 /*
@@ -39,6 +48,17 @@ public class ShipmentScheduleQtyOnHandStorageFactory
 {
 	private final StockRepository stockRepository;
 
+	/**
+	 * Note that any {@link I_MD_Stock} change resets the whole cache, because we can't tell which queries a new stock record would match.
+	 * The stock changes are reset again after their transaction was committed, see {@code StockDataUpdateRequestHandler}.
+	 */
+	private final CCache<StockDataQuery, ImmutableList<StockDataItem>> stockDataItemsCache = CCache.<StockDataQuery, ImmutableList<StockDataItem>> builder()
+			.cacheName("ShipmentScheduleQtyOnHandStorage#StockDataItems")
+			.tableName(I_MD_Stock.Table_Name)
+			.initialCapacity(1000)
+			.expireMinutes(CCache.EXPIREMINUTES_Never)
+			.build();
+
 	public ShipmentScheduleQtyOnHandStorageFactory(@NonNull final StockRepository stockRepository)
 	{
 		this.stockRepository = stockRepository;
@@ -46,7 +66,7 @@ public class ShipmentScheduleQtyOnHandStorageFactory
 
 	public final ShipmentScheduleQtyOnHandStorage ofShipmentSchedule(@NonNull final I_M_ShipmentSchedule shipmentSchedule)
 	{
-		return new ShipmentScheduleQtyOnHandStorage(ImmutableList.of(shipmentSchedule), stockRepository);
+		return new ShipmentScheduleQtyOnHandStorage(ImmutableList.of(shipmentSchedule), getStockDataItemsLoader());
 	}
 
 	public final ShipmentScheduleQtyOnHandStorage ofOlAndScheds(@NonNull final List<OlAndSched> lines)
@@ -56,6 +76,46 @@ public class ShipmentScheduleQtyOnHandStorageFactory
 				.map(OlAndSched::getSched)
 				.collect(ImmutableList.toImmutableList());
 
-		return new ShipmentScheduleQtyOnHandStorage(shipmentSchedules, stockRepository);
+		return new ShipmentScheduleQtyOnHandStorage(shipmentSchedules, getStockDataItemsLoader());
+	}
+
+	private Function<StockDataMultiQuery, List<StockDataItem>> getStockDataItemsLoader()
+	{
+		// if enabled, the stock data is cached across shipment schedule updater runs, until an MD_Stock record changes.
+		// that way, a run which was triggered by e.g. an order line change does not need to load the stock again.
+		return StockRepository.isCacheStockData() ? this::getStockDataItemsCached : this::retrieveStockDataItems;
+	}
+
+	private List<StockDataItem> getStockDataItemsCached(@NonNull final StockDataMultiQuery multiQuery)
+	{
+		return stockDataItemsCache.getAllOrLoad(multiQuery.getStockDataQueries(), this::retrieveStockDataItemsByQuery)
+				.stream()
+				.flatMap(List::stream)
+				.distinct() // an item can match more than one query
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private List<StockDataItem> retrieveStockDataItems(@NonNull final StockDataMultiQuery multiQuery)
+	{
+		return stockRepository.streamStockDataItems(multiQuery)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/** Loads the items for all given queries with one multi-query and assigns them to the queries they match. */
+	private Map<StockDataQuery, ImmutableList<StockDataItem>> retrieveStockDataItemsByQuery(@NonNull final Collection<StockDataQuery> queries)
+	{
+		final List<StockDataItem> stockDataItems = retrieveStockDataItems(StockDataMultiQuery.builder()
+				.stockDataQueries(queries)
+				.build());
+
+		final ImmutableMap.Builder<StockDataQuery, ImmutableList<StockDataItem>> result = ImmutableMap.builder();
+		for (final StockDataQuery query : queries)
+		{
+			final ImmutableList<StockDataItem> queryItems = stockDataItems.stream()
+					.filter(stockDataItem -> ShipmentScheduleQtyOnHandStorage.matching(query, stockDataItem))
+					.collect(ImmutableList.toImmutableList());
+			result.put(query, queryItems); // also cache empty results
+		}
+		return result.build();
 	}
 }
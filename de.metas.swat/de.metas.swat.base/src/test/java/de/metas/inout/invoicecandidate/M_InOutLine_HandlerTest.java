@@ -8,10 +8,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.wrapper.POJOWrapper;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.user.UserRepository;
 import org.assertj.core.api.Condition;
@@ -24,16 +26,26 @@ import org.compiere.model.X_M_InOut;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner.service.impl.BPartnerBL;
 import de.metas.business.BusinessTestHelper;
 import de.metas.document.engine.IDocument;
+import de.metas.inout.IInOutBL;
 import de.metas.inout.model.I_M_InOut;
 import de.metas.interfaces.I_C_BPartner;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
 import de.metas.invoicecandidate.model.I_M_InOutLine;
+import de.metas.invoicecandidate.spi.IInvoiceCandidateHandler.PriceAndTax;
+import de.metas.pricing.IPricingContext;
+import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
 
 /*
  * #%L
@@ -679,6 +691,54 @@ public class M_InOutLine_HandlerTest
 				});
 	}
 
+	@Test
+	public void calculatePricesAndTaxes(
+			@Mocked final IInOutBL inOutBL,
+			@Mocked final IPricingBL pricingBL,
+			@Mocked final IPricingContext pricingCtx,
+			@Mocked final IPricingResult calculatedPricingResult,
+			@Mocked final IPricingResult notCalculatedPricingResult)
+	{
+		Services.registerService(IInOutBL.class, inOutBL);
+		Services.registerService(IPricingBL.class, pricingBL);
+
+		final I_C_Invoice_Candidate ic1 = createInvoiceCandidate(createMaterialInOutLine(paymentTermA));
+		final I_C_Invoice_Candidate ic2 = createInvoiceCandidate(createMaterialInOutLine(paymentTermA));
+
+		// @formatter:off
+		new Expectations()
+		{{
+			inOutBL.createPricingCtx((org.compiere.model.I_M_InOutLine)any); result = pricingCtx;
+			pricingBL.calculatePrices(ImmutableList.of(pricingCtx, pricingCtx)); result = ImmutableList.of(calculatedPricingResult, notCalculatedPricingResult);
+			calculatedPricingResult.isCalculated(); result = true;
+			calculatedPricingResult.getPriceStd(); result = TEN;
+			notCalculatedPricingResult.isCalculated(); result = false;
+		}};
+		// @formatter:on
+
+		final Map<Integer, PriceAndTax> result = inOutLineHandlerUnderTest.calculatePricesAndTaxes(ImmutableList.of(ic1, ic2));
+
+		// ic2 is not contained, so it will be priced one by one and get its ProductNotOnPriceListException then
+		assertThat(result).containsOnlyKeys(ic1.getC_Invoice_Candidate_ID());
+		assertThat(result.get(ic1.getC_Invoice_Candidate_ID()).getPriceActual()).isEqualByComparingTo(TEN);
+
+		// @formatter:off
+		new Verifications()
+		{{
+			pricingBL.calculatePrice((IPricingContext)any); times = 0;
+		}};
+		// @formatter:on
+	}
+
+	private I_C_Invoice_Candidate createInvoiceCandidate(final I_M_InOutLine inoutLine)
+	{
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setAD_Table_ID(InterfaceWrapperHelper.getTableId(I_M_InOutLine.class));
+		ic.setRecord_ID(inoutLine.getM_InOutLine_ID());
+		save(ic);
+		return ic;
+	}
+
 	private I_M_InOutLine createMaterialInOutLine(@Nullable final I_C_PaymentTerm paymentTerm)
 	{
 		return createMaterialInOutLine(
@@ -24,17 +24,26 @@ package de.metas.invoicecandidate.api.impl;
 
 
 import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.math.BigDecimal;
 
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.PartitionedExecutor;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
 import org.junit.Test;
 
 import de.metas.inout.model.I_M_InOut;
 import de.metas.invoicecandidate.AbstractICTestSupport;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate_Recompute;
 import de.metas.invoicecandidate.model.X_C_Invoice_Candidate;
+import de.metas.util.Services;
 
 public class InvoiceCandBLUpdateInvalidCandidatesTest extends AbstractICTestSupport
 {
@@ -74,4 +83,54 @@ public class InvoiceCandBLUpdateInvalidCandidatesTest extends AbstractICTestSupp
 		assertThat("Invalid QtyToInvoice on the IC level", ic1.getQtyToInvoice(), comparesEqualTo(partialQty1));
 
 	}
+
+	/**
+	 * Goes through the parallel update path, in chunks of one candidate each.
+	 * We use a single lane, which runs the chunks in the calling thread, because the in-memory database of the unit tests is not thread-safe.
+	 */
+	@Test
+	public void testUpdateInvalid_InParallelChunks()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(InvoiceCandInvalidUpdater.SYSCONFIG_Parallelism, 2, 0);
+		sysConfigBL.setValue(InvoiceCandInvalidUpdater.SYSCONFIG_ItemsPerBatch, 1, 0);
+
+		final I_C_Invoice_Candidate ic1 = createImmediateInvoiceCandidate("ic1", 1, 3);
+		final I_C_Invoice_Candidate ic2 = createImmediateInvoiceCandidate("ic2", 2, 5);
+		final I_C_Invoice_Candidate ic3 = createImmediateInvoiceCandidate("ic3", 2, 7);
+
+		try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+		{
+			((InvoiceCandInvalidUpdater)invoiceCandBL.updateInvalid())
+					.setExecutor(PartitionedExecutor.builder().name("test").laneCount(1).build())
+					.setContext(Env.getCtx(), ITrx.TRXNAME_None)
+					.setTaggedWithAnyTag()
+					.update();
+		}
+
+		final boolean existingInvalidCandidates = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Invoice_Candidate_Recompute.class, Env.getCtx(), ITrx.TRXNAME_None)
+				.create()
+				.match();
+		assertThat("Existing invalid invoice candidates", existingInvalidCandidates, is(false));
+
+		InterfaceWrapperHelper.refresh(ic1);
+		assertThat("Invalid QtyToInvoice on ic1", ic1.getQtyToInvoice(), comparesEqualTo(new BigDecimal("3")));
+		InterfaceWrapperHelper.refresh(ic2);
+		assertThat("Invalid QtyToInvoice on ic2", ic2.getQtyToInvoice(), comparesEqualTo(new BigDecimal("5")));
+		InterfaceWrapperHelper.refresh(ic3);
+		assertThat("Invalid QtyToInvoice on ic3", ic3.getQtyToInvoice(), comparesEqualTo(new BigDecimal("7")));
+	}
+
+	private I_C_Invoice_Candidate createImmediateInvoiceCandidate(final String instanceName, final int billBPartnerId, final int qty)
+	{
+		return createInvoiceCandidate()
+				.setInstanceName(instanceName)
+				.setBillBPartnerId(billBPartnerId)
+				.setPriceEntered(1)
+				.setQty(qty)
+				.setSOTrx(true)
+				.setInvoiceRule(X_C_Invoice_Candidate.INVOICERULE_Sofort)
+				.build();
+	}
 }
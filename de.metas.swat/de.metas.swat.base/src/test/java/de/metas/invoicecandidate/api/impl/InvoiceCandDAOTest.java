@@ -6,15 +6,22 @@ import static org.adempiere.model.InterfaceWrapperHelper.refreshAll;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.model.I_C_PaymentTerm;
+import org.compiere.util.Env;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
 
+import de.metas.invoicecandidate.api.InvoiceCandRecomputeTag;
+import de.metas.invoicecandidate.api.InvoiceCandidateIdsChunk;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate_Recompute;
 import de.metas.process.PInstanceId;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -105,6 +112,77 @@ public class InvoiceCandDAOTest
 				.isLessThanOrEqualTo(0);
 	}
 
+	@Test
+	public void retrieveInvalidInvoiceCandidateIdChunks()
+	{
+		final PInstanceId pinstanceId = PInstanceId.ofRepoId(123);
+
+		// bpartner 10 has more candidates than fit into one chunk
+		final int ic10_1 = createTaggedInvoiceCandidate(10, false, pinstanceId);
+		final int ic10_2 = createTaggedInvoiceCandidate(10, false, pinstanceId);
+		final int ic10_3 = createTaggedInvoiceCandidate(10, false, pinstanceId);
+		// bpartners 20 and 30 fit together into one chunk
+		final int ic20_1 = createTaggedInvoiceCandidate(20, false, pinstanceId);
+		final int ic30_1 = createTaggedInvoiceCandidate(30, false, pinstanceId);
+		// bpartner 40 doesn't fit into that chunk anymore
+		final int ic40_1 = createTaggedInvoiceCandidate(40, false, pinstanceId);
+
+		// not part of the result: manual, or tagged with another tag
+		createTaggedInvoiceCandidate(20, true, pinstanceId);
+		createTaggedInvoiceCandidate(20, false, PInstanceId.ofRepoId(456));
+
+		final List<InvoiceCandidateIdsChunk> chunks = new InvoiceCandDAO().retrieveInvalidInvoiceCandidateIdChunks(
+				Env.getCtx(),
+				InvoiceCandRecomputeTag.ofPInstanceId(pinstanceId),
+				false, // manual
+				2, // chunkSize
+				ITrx.TRXNAME_None);
+
+		assertThat(chunks).extracting(InvoiceCandidateIdsChunk::getInvoiceCandidateIds).containsExactly(
+				ImmutableList.of(ic10_1, ic10_2),
+				ImmutableList.of(ic10_3),
+				ImmutableList.of(ic20_1, ic30_1),
+				ImmutableList.of(ic40_1));
+
+		assertThat(chunks.get(0).getPartitionKey())
+				.as("the chunks of one bpartner shall have the same partition key, so they are not updated concurrently")
+				.isEqualTo(chunks.get(1).getPartitionKey());
+		assertThat(ImmutableList.of(chunks.get(1).getPartitionKey(), chunks.get(2).getPartitionKey(), chunks.get(3).getPartitionKey()))
+				.doesNotHaveDuplicates();
+	}
+
+	@Test
+	public void retrieveInvalidInvoiceCandidateIdChunks_manual()
+	{
+		final PInstanceId pinstanceId = PInstanceId.ofRepoId(123);
+		createTaggedInvoiceCandidate(10, false, pinstanceId);
+		final int manualIC = createTaggedInvoiceCandidate(10, true, pinstanceId);
+
+		final List<InvoiceCandidateIdsChunk> chunks = new InvoiceCandDAO().retrieveInvalidInvoiceCandidateIdChunks(
+				Env.getCtx(),
+				InvoiceCandRecomputeTag.ofPInstanceId(pinstanceId),
+				true, // manual
+				100, // chunkSize
+				ITrx.TRXNAME_None);
+
+		assertThat(chunks).extracting(InvoiceCandidateIdsChunk::getInvoiceCandidateIds).containsExactly(ImmutableList.of(manualIC));
+	}
+
+	private int createTaggedInvoiceCandidate(final int billBPartnerId, final boolean manual, final PInstanceId pinstanceId)
+	{
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setBill_BPartner_ID(billBPartnerId);
+		ic.setIsManual(manual);
+		save(ic);
+
+		final I_C_Invoice_Candidate_Recompute icRecompute = newInstance(I_C_Invoice_Candidate_Recompute.class);
+		icRecompute.setC_Invoice_Candidate_ID(ic.getC_Invoice_Candidate_ID());
+		icRecompute.setAD_PInstance_ID(pinstanceId.getRepoId());
+		save(icRecompute);
+
+		return ic.getC_Invoice_Candidate_ID();
+	}
+
 	private int getPaymentTermId(@NonNull final I_C_Invoice_Candidate ic)
 	{
 		final Integer paymentTermIdOrNull = getValueOverrideOrValue(ic, I_C_Invoice_Candidate.COLUMNNAME_C_PaymentTerm_ID);
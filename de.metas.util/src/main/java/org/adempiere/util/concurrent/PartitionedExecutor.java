@@ -0,0 +1,239 @@
+package org.adempiere.util.concurrent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.util
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs tasks on a fixed number of worker lanes.
+ * <p>
+ * Each lane is a single thread. A task is routed to the lane of its partition key,
+ * so tasks with the same key are run in the order they were submitted, while tasks with different keys can run in parallel.
+ * <p>
+ * With only one lane, all tasks are run directly in the submitting thread, just like without this executor.
+ * <p>
+ * Exceptions which are thrown by a task on a lane can't reach the submitter, so they are only logged.
+ * Tasks which need to record their failures elsewhere shall do it themselves.
+ * <p>
+ * Thread-local state (e.g. the context) is not available on the lanes. A {@code taskDecorator} can be used to capture it in the submitting thread and install it on the lane.
+ */
+public final class PartitionedExecutor
+{
+	private static final Logger logger = LoggerFactory.getLogger(PartitionedExecutor.class);
+
+	private final String name;
+	private final ImmutableList<Lane> lanes;
+	private final UnaryOperator<Runnable> taskDecorator;
+
+	/**
+	 * @param name used for the lane thread names and for logging
+	 * @param laneCount number of lanes; 1 or less means that all tasks are run in the submitting thread
+	 * @param taskDecorator called in the submitting thread for each task which is going to run on a lane; the task it returns is run on the lane instead.
+	 */
+	@Builder
+	private PartitionedExecutor(
+			@NonNull final String name,
+			final int laneCount,
+			@Nullable final UnaryOperator<Runnable> taskDecorator)
+	{
+		this.name = name;
+		this.taskDecorator = taskDecorator != null ? taskDecorator : UnaryOperator.identity();
+		if (laneCount <= 1)
+		{
+			lanes = ImmutableList.of();
+		}
+		else
+		{
+			final ImmutableList.Builder<Lane> lanesBuilder = ImmutableList.builder();
+			for (int i = 0; i < laneCount; i++)
+			{
+				lanesBuilder.add(new Lane(name, i));
+			}
+			lanes = lanesBuilder.build();
+		}
+		logger.info("{}: created {} lanes", name, lanes.size());
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + name + ", lanes=" + getLaneCount() + "]";
+	}
+
+	/** @return true if the tasks are run in the submitting thread */
+	public boolean isSingleLane()
+	{
+		return lanes.isEmpty();
+	}
+
+	/**
+	 * Runs the given task on the lane of the given partition key.
+	 * If there is only one lane, the task is run in the calling thread and its exceptions are propagated.
+	 *
+	 * @param partitionKey tasks with equal keys (see {@link Object#equals(Object)}) are run on the same lane
+	 */
+	public void execute(@NonNull final Object partitionKey, @NonNull final Runnable task)
+	{
+		if (lanes.isEmpty())
+		{
+			task.run();
+			return;
+		}
+
+		getLane(partitionKey).submit(partitionKey, taskDecorator.apply(task));
+	}
+
+	/**
+	 * Runs the given task in the calling thread, after all lanes ran their already submitted tasks.
+	 * Use it for tasks which might depend on or affect the tasks of any partition.
+	 */
+	public void executeAsBarrier(@NonNull final Runnable task)
+	{
+		awaitAllLanesIdle();
+		task.run();
+	}
+
+	private Lane getLane(final Object partitionKey)
+	{
+		return lanes.get(Math.floorMod(partitionKey.hashCode(), lanes.size()));
+	}
+
+	/** Waits until all lanes ran the tasks which were submitted so far. */
+	public void awaitAllLanesIdle()
+	{
+		final ImmutableList<Future<?>> markers = lanes.stream()
+				.map(Lane::submitMarker)
+				.collect(ImmutableList.toImmutableList());
+		for (final Future<?> marker : markers)
+		{
+			try
+			{
+				marker.get();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+			catch (final ExecutionException e)
+			{
+				Throwables.throwIfUnchecked(e.getCause());
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+
+	/** Stops the lane threads after they ran the already submitted tasks. */
+	public void shutdown()
+	{
+		lanes.forEach(Lane::shutdown);
+	}
+
+	public int getLaneCount()
+	{
+		return Math.max(lanes.size(), 1);
+	}
+
+	/** @return for each lane the number of tasks that were submitted but not yet run */
+	public int[] getLaneQueueDepths()
+	{
+		return lanes.stream().mapToInt(Lane::getQueueDepth).toArray();
+	}
+
+	public int getTotalQueueDepth()
+	{
+		return lanes.stream().mapToInt(Lane::getQueueDepth).sum();
+	}
+
+	private static final class Lane
+	{
+		private final String executorName;
+		private final int laneNo;
+		private final ExecutorService executor;
+		private final AtomicInteger queueDepth = new AtomicInteger(0);
+
+		private Lane(final String executorName, final int laneNo)
+		{
+			this.executorName = executorName;
+			this.laneNo = laneNo;
+			this.executor = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(executorName + "-lane-" + laneNo)
+					.setDaemon(true)
+					.build());
+		}
+
+		public void submit(final Object partitionKey, final Runnable task)
+		{
+			final int depth = queueDepth.incrementAndGet();
+			logger.debug("{}: submitting task to lane {}; queueDepth={}; partitionKey={}", executorName, laneNo, depth, partitionKey);
+
+			executor.execute(() -> {
+				try
+				{
+					task.run();
+				}
+				catch (final Exception e)
+				{
+					logger.error("{}: task failed on lane {}; partitionKey={}", executorName, laneNo, partitionKey, e);
+				}
+				finally
+				{
+					queueDepth.decrementAndGet();
+				}
+			});
+		}
+
+		public Future<?> submitMarker()
+		{
+			return executor.submit(() -> {
+				// nothing to do; when this runs, all previously submitted tasks were run
+			});
+		}
+
+		public int getQueueDepth()
+		{
+			return queueDepth.get();
+		}
+
+		public void shutdown()
+		{
+			executor.shutdown();
+		}
+	}
+}
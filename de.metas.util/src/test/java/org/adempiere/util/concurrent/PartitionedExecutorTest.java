@@ -0,0 +1,184 @@
+package org.adempiere.util.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.util
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedExecutorTest
+{
+	private PartitionedExecutor executor;
+
+	@After
+	public void shutdown()
+	{
+		if (executor != null)
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static PartitionedExecutor createExecutor(final int laneCount)
+	{
+		return PartitionedExecutor.builder()
+				.name("test")
+				.laneCount(laneCount)
+				.build();
+	}
+
+	@Test
+	public void singleLane_runsInCallingThread()
+	{
+		executor = createExecutor(1);
+
+		final Thread callingThread = Thread.currentThread();
+		final List<Thread> taskThreads = new ArrayList<>();
+
+		executor.execute(10, () -> taskThreads.add(Thread.currentThread()));
+
+		assertThat(taskThreads).containsExactly(callingThread);
+	}
+
+	@Test
+	public void singleLane_failurePropagates()
+	{
+		executor = createExecutor(1);
+
+		assertThatThrownBy(() -> executor.execute(10, () -> {
+			throw new IllegalStateException("task failed");
+		})).hasMessageContaining("task failed");
+	}
+
+	@Test
+	public void samePartitionKey_runInSubmitOrder()
+	{
+		executor = createExecutor(4);
+
+		final List<Integer> tasksOfKey1 = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> tasksOfKey2 = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 100; i++)
+		{
+			final int taskNo = i;
+			executor.execute(1, () -> tasksOfKey1.add(taskNo));
+			executor.execute(2, () -> tasksOfKey2.add(taskNo));
+		}
+		executor.awaitAllLanesIdle();
+
+		assertThat(tasksOfKey1).hasSize(100).isSorted();
+		assertThat(tasksOfKey2).hasSize(100).isSorted();
+		assertThat(executor.getTotalQueueDepth()).isZero();
+	}
+
+	@Test
+	public void barrier_waitsForAllLanes()
+	{
+		executor = createExecutor(4);
+
+		final AtomicInteger runCount = new AtomicInteger(0);
+		for (int partitionKey = 1; partitionKey <= 8; partitionKey++)
+		{
+			executor.execute(partitionKey, () -> {
+				sleep(20);
+				runCount.incrementAndGet();
+			});
+		}
+
+		final List<Integer> runCountSeenByBarrier = new ArrayList<>();
+		executor.executeAsBarrier(() -> runCountSeenByBarrier.add(runCount.get()));
+
+		assertThat(runCountSeenByBarrier).containsExactly(8);
+	}
+
+	@Test
+	public void failureOnLane_doesNotStopTheLane()
+	{
+		executor = createExecutor(4);
+
+		final List<Integer> runTasks = Collections.synchronizedList(new ArrayList<>());
+		executor.execute(1, () -> {
+			throw new IllegalStateException("task failed");
+		});
+		executor.execute(1, () -> runTasks.add(1));
+		executor.awaitAllLanesIdle();
+
+		assertThat(runTasks).containsExactly(1);
+	}
+
+	@Test
+	public void taskDecorator_isCalledInSubmittingThread()
+	{
+		final ThreadLocal<String> threadLocal = new ThreadLocal<>();
+		executor = PartitionedExecutor.builder()
+				.name("test")
+				.laneCount(4)
+				.taskDecorator(task -> {
+					final String valueOfSubmittingThread = threadLocal.get();
+					return () -> {
+						threadLocal.set(valueOfSubmittingThread);
+						try
+						{
+							task.run();
+						}
+						finally
+						{
+							threadLocal.remove();
+						}
+					};
+				})
+				.build();
+
+		final List<String> valuesSeenOnLane = Collections.synchronizedList(new ArrayList<>());
+		threadLocal.set("value1");
+		try
+		{
+			executor.execute(1, () -> valuesSeenOnLane.add(threadLocal.get()));
+		}
+		finally
+		{
+			threadLocal.remove();
+		}
+		executor.awaitAllLanesIdle();
+
+		assertThat(valuesSeenOnLane).containsExactly("value1");
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}